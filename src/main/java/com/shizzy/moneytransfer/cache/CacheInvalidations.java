@@ -0,0 +1,29 @@
+package com.shizzy.moneytransfer.cache;
+
+import java.util.List;
+
+/**
+ * Tells other replicas that a cache entry changed, so they drop their in-memory copy, records the tags an entry was
+ * put under so it can later be evicted by tag, and keeps each cache's generation
+ */
+public interface CacheInvalidations {
+
+    void evicted(String cacheName, String key);
+
+    void cleared(String cacheName);
+
+    /**
+     * @return false if the tags could not be recorded
+     */
+    boolean tagged(String cacheName, String key, List<String> tags);
+
+    /**
+     * The generation the cache's Redis keys currently live in, 0 until the cache is first cleared
+     */
+    long generation(String cacheName);
+
+    /**
+     * Moves the cache to a new generation, leaving the entries of the old one to expire
+     */
+    long advanceGeneration(String cacheName);
+}
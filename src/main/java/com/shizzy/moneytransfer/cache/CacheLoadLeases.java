@@ -0,0 +1,21 @@
+package com.shizzy.moneytransfer.cache;
+
+import java.time.Duration;
+
+/**
+ * Short leases on cache keys, so that of the replicas missing the same key one loads it while the others wait for
+ * its value or serve the stale one
+ */
+public interface CacheLoadLeases {
+
+    /**
+     * @return true if this replica now holds the lease on the key, or if leases cannot be taken at the moment, in
+     * which case every replica loads as it would without them
+     */
+    boolean tryAcquire(String cacheName, String key, Duration lease);
+
+    /**
+     * Gives up a lease this replica holds; a lease since taken by another replica is left alone
+     */
+    void release(String cacheName, String key);
+}
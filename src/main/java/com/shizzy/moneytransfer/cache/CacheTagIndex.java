@@ -0,0 +1,15 @@
+package com.shizzy.moneytransfer.cache;
+
+import java.util.Collection;
+
+/**
+ * Evicts cache entries by the tags they were put under, see {@link TaggedKey}
+ */
+public interface CacheTagIndex {
+
+    /**
+     * Evicts every entry indexed under any of the tags, from every cache, tier and replica. Within a transaction
+     * the eviction happens once it commits.
+     */
+    void evictTags(Collection<String> tags);
+}
@@ -0,0 +1,69 @@
+package com.shizzy.moneytransfer.cache;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A cached value with the time it stops being fresh and how long it took to load, for caches configured with
+ * {@code fresh-for}. The Redis entry outlives its freshness: a stale value is handed to callers while another one
+ * reloads it, and is a miss otherwise. Not final, so the JSON format records its class like any other value's.
+ */
+public class CachedValue {
+
+    private final Object value;
+    private final long freshUntil;
+    private final long loadMillis;
+
+    @JsonCreator
+    public CachedValue(@JsonProperty("value") Object value, @JsonProperty("freshUntil") long freshUntil,
+                       @JsonProperty("loadMillis") long loadMillis) {
+        this.value = value;
+        this.freshUntil = freshUntil;
+        this.loadMillis = loadMillis;
+    }
+
+    @JsonProperty("value")
+    public Object value() {
+        return value;
+    }
+
+    /**
+     * Epoch milliseconds after which the value is stale
+     */
+    @JsonProperty("freshUntil")
+    public long freshUntil() {
+        return freshUntil;
+    }
+
+    @JsonProperty("loadMillis")
+    public long loadMillis() {
+        return loadMillis;
+    }
+
+    public boolean isFresh(long now) {
+        return now < freshUntil;
+    }
+
+    /**
+     * Whether this read should refresh the value ahead of its freshness ending, by the XFetch rule: a read refreshes
+     * with a probability that rises as the end nears, sooner for values that take longer to load and for higher
+     * {@code beta}. Reads spread over a key thus tend to refresh it once, before it goes stale.
+     */
+    public boolean refreshDue(long now, double beta) {
+        return now - loadMillis * beta * Math.log(1 - ThreadLocalRandom.current().nextDouble()) >= freshUntil;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof CachedValue that && freshUntil == that.freshUntil && loadMillis == that.loadMillis
+                && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(value, freshUntil, loadMillis);
+    }
+}
@@ -0,0 +1,38 @@
+package com.shizzy.moneytransfer.cache;
+
+import java.util.List;
+
+/**
+ * A cache key that also names the tags its entry is indexed under, so writers can evict every entry about a wallet
+ * or a transaction without knowing the keys. It stands for its plain key everywhere else: it is stored, compared and
+ * announced as {@link #toString()}, and the tags only matter when the entry is put.
+ */
+public final class TaggedKey {
+
+    private final String key;
+    private final List<String> tags;
+
+    public TaggedKey(String key, List<String> tags) {
+        this.key = key;
+        this.tags = List.copyOf(tags);
+    }
+
+    public List<String> tags() {
+        return tags;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof TaggedKey that && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
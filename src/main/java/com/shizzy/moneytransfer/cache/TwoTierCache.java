@@ -0,0 +1,364 @@
+package com.shizzy.moneytransfer.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache with an optional bounded in-memory tier in front of an optional Redis tier. Reads try memory first, then
+ * Redis, and keep Redis hits in memory. Writes go to Redis before memory, and every write or eviction is announced
+ * so other replicas drop the key from memory and read it from Redis again. Entries put under a {@link TaggedKey} are
+ * indexed under its tags. The in-memory tier hands out the instance it holds, so callers must not modify cached
+ * values.
+ * <p>
+ * Redis keys carry the cache's generation once it has been cleared, so clearing is a counter increment however many
+ * entries there are: the old generation's entries are no longer read and expire with their TTL.
+ * <p>
+ * Loading through {@link #get(Object, Callable)} happens once per key at a time in this replica: concurrent callers
+ * wait for the first one's value. With a {@link CacheLoadLeases} the replica loading a key also holds a lease on it
+ * in Redis, and other replicas serve the stale value meanwhile, or poll Redis for the new one for a short while.
+ * Caches with a {@code freshFor} store values as {@link CachedValue}s, stale after that time but kept until their
+ * Redis TTL; reads refresh them early at random as they near it, so a hot key rarely goes stale at all.
+ */
+public class TwoTierCache implements Cache {
+
+    private static final long LEASE_POLL_MILLIS = 20;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final CacheInvalidations invalidations;
+    private final LoadPolicy loading;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter loads;
+    private final Counter joinedLoads;
+    private final Counter awaitedLoads;
+    private final Counter staleServed;
+
+    /**
+     * @param local  the in-memory tier, or null for a Redis-only cache
+     * @param remote the Redis tier, or null for a memory-only cache
+     */
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local, Cache remote,
+                        CacheInvalidations invalidations, MeterRegistry meterRegistry) {
+        this(name, local, remote, invalidations, LoadPolicy.IN_REPLICA, meterRegistry);
+    }
+
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local, Cache remote,
+                        CacheInvalidations invalidations, LoadPolicy loading, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidations = invalidations;
+        this.loading = loading;
+        this.localHits = meterRegistry.counter("cache.tier.gets", "cache", name, "tier", "local", "result", "hit");
+        this.localMisses = meterRegistry.counter("cache.tier.gets", "cache", name, "tier", "local", "result", "miss");
+        this.remoteHits = meterRegistry.counter("cache.tier.gets", "cache", name, "tier", "redis", "result", "hit");
+        this.remoteMisses = meterRegistry.counter("cache.tier.gets", "cache", name, "tier", "redis", "result", "miss");
+        this.loads = meterRegistry.counter("cache.loads", "cache", name, "result", "loaded");
+        this.joinedLoads = meterRegistry.counter("cache.loads", "cache", name, "result", "joined");
+        this.awaitedLoads = meterRegistry.counter("cache.loads", "cache", name, "result", "awaited");
+        this.staleServed = meterRegistry.counter("cache.loads", "cache", name, "result", "stale");
+        if (local != null) {
+            Gauge.builder("cache.tier.local.size", local, c -> c.estimatedSize())
+                    .tag("cache", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = lookup(key, generation());
+        if (wrapper == null || !(wrapper.get() instanceof CachedValue cached)) {
+            return wrapper;
+        }
+        // A stale value is only served to callers that leave its reload to someone else
+        return cached.isFresh(System.currentTimeMillis()) ? new SimpleValueWrapper(cached.value()) : null;
+    }
+
+    private ValueWrapper lookup(Object key, long generation) {
+        String localKey = localKey(key, generation);
+        if (local != null) {
+            Object value = local.getIfPresent(localKey);
+            if (value != null) {
+                localHits.increment();
+                return new SimpleValueWrapper(value);
+            }
+            localMisses.increment();
+        }
+        if (remote == null) {
+            return null;
+        }
+        ValueWrapper wrapper = remote.get(remoteKey(key, generation));
+        if (wrapper == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        if (local != null && wrapper.get() != null) {
+            local.put(localKey, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long generation = generation();
+        ValueWrapper wrapper = lookup(key, generation);
+        if (wrapper == null) {
+            return (T) load(key, generation, valueLoader, null);
+        }
+        if (!(wrapper.get() instanceof CachedValue cached)) {
+            return (T) wrapper.get();
+        }
+        long now = System.currentTimeMillis();
+        if (cached.isFresh(now) && !cached.refreshDue(now, loading.earlyRefreshBeta())) {
+            return (T) cached.value();
+        }
+        return (T) load(key, generation, valueLoader, cached);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        store(key, wrap(value, 0));
+    }
+
+    /**
+     * Loads the key unless this replica already is, in which case the caller gets the current value if there is one
+     * and waits for the load otherwise
+     */
+    private Object load(Object key, long generation, Callable<?> valueLoader, CachedValue current) {
+        String localKey = localKey(key, generation);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(localKey, flight);
+        if (running != null) {
+            if (current != null) {
+                staleServed.increment();
+                return current.value();
+            }
+            joinedLoads.increment();
+            return join(running, key, valueLoader);
+        }
+        try {
+            Object value = loadLeased(key, localKey, generation, valueLoader, current);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, flight);
+        }
+    }
+
+    private Object loadLeased(Object key, String localKey, long generation, Callable<?> valueLoader,
+                              CachedValue current) {
+        CacheLoadLeases leases = remote == null ? null : loading.leases();
+        if (leases == null) {
+            return loadAndPut(key, valueLoader);
+        }
+        if (leases.tryAcquire(name, localKey, loading.lease())) {
+            try {
+                return loadAndPut(key, valueLoader);
+            } finally {
+                leases.release(name, localKey);
+            }
+        }
+        if (current != null) {
+            staleServed.increment();
+            return current.value();
+        }
+        Object value = awaitLoad(key, localKey, generation);
+        if (value != null) {
+            awaitedLoads.increment();
+            return value;
+        }
+        // The replica holding the lease is slow or gone, and waiting out its whole lease would be worse than loading
+        return loadAndPut(key, valueLoader);
+    }
+
+    // Polls Redis for the value another replica is loading, up to the lease wait
+    private Object awaitLoad(Object key, String localKey, long generation) {
+        Object remoteKey = remoteKey(key, generation);
+        long deadline = System.nanoTime() + loading.leaseWait().toNanos();
+        try {
+            for (long left = deadline - System.nanoTime(); left > 0; left = deadline - System.nanoTime()) {
+                Thread.sleep(Math.max(1, Math.min(LEASE_POLL_MILLIS, TimeUnit.NANOSECONDS.toMillis(left))));
+                ValueWrapper wrapper = remote.get(remoteKey);
+                Object stored = wrapper == null ? null : wrapper.get();
+                Object value = stored instanceof CachedValue cached
+                        ? cached.isFresh(System.currentTimeMillis()) ? cached.value() : null
+                        : stored;
+                if (value != null) {
+                    if (local != null) {
+                        local.put(localKey, stored);
+                    }
+                    return value;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private Object loadAndPut(Object key, Callable<?> valueLoader) {
+        long started = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        loads.increment();
+        if (value != null) {
+            store(key, wrap(value, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)));
+        }
+        return value;
+    }
+
+    private static Object join(CompletableFuture<Object> running, Object key, Callable<?> valueLoader) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() instanceof ValueRetrievalException failed ? failed.getCause() : e.getCause();
+            throw new ValueRetrievalException(key, valueLoader, cause);
+        }
+    }
+
+    private Object wrap(Object value, long loadMillis) {
+        if (loading.freshFor() == null || value == null || value instanceof CachedValue) {
+            return value;
+        }
+        return new CachedValue(value, System.currentTimeMillis() + loading.freshFor().toMillis(), loadMillis);
+    }
+
+    private void store(Object key, Object value) {
+        long generation = generation();
+        String localKey = localKey(key, generation);
+        if (remote != null) {
+            remote.put(remoteKey(key, generation), value);
+        }
+        if (local != null) {
+            if (value == null) {
+                local.invalidate(localKey);
+            } else {
+                local.put(localKey, value);
+            }
+        }
+        invalidations.evicted(name, localKey);
+        if (key instanceof TaggedKey tagged && !tagged.tags().isEmpty()
+                && !invalidations.tagged(name, localKey, tagged.tags())) {
+            // An entry no tag eviction can reach would go stale, so it is not kept
+            evict(key);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        long generation = generation();
+        String localKey = localKey(key, generation);
+        if (remote != null) {
+            remote.evict(remoteKey(key, generation));
+        }
+        if (local != null) {
+            local.invalidate(localKey);
+        }
+        invalidations.evicted(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        if (remote != null) {
+            invalidations.advanceGeneration(name);
+        }
+        if (local != null) {
+            local.invalidateAll();
+        }
+        invalidations.cleared(name);
+    }
+
+    /**
+     * Drops a key from this replica's memory after another replica changed it
+     */
+    void evictLocal(String key) {
+        if (local != null) {
+            local.invalidate(key);
+        }
+    }
+
+    void clearLocal() {
+        if (local != null) {
+            local.invalidateAll();
+        }
+    }
+
+    private long generation() {
+        return remote == null ? 0 : invalidations.generation(name);
+    }
+
+    /**
+     * Keys are held in memory in their string form, the form Redis stores and replicas exchange, so an announced
+     * key matches whatever type the cache was called with
+     */
+    static String localKey(Object key, long generation) {
+        return generation == 0 ? String.valueOf(key) : "g" + generation + ":" + key;
+    }
+
+    // Until the first clear keys reach Redis as given, converted by the Redis cache as they always were
+    private static Object remoteKey(Object key, long generation) {
+        return generation == 0 ? key : localKey(key, generation);
+    }
+
+    /**
+     * How a cache loads missed keys
+     *
+     * @param leases           null to load without regard to other replicas
+     * @param lease            how long a replica's lease on a key lasts should it fail to release it
+     * @param leaseWait        how long a caller with nothing to serve waits for another replica's load
+     * @param freshFor         null to store values as they are, served until they expire
+     * @param earlyRefreshBeta scales how early fresh values are refreshed
+     */
+    public record LoadPolicy(CacheLoadLeases leases, Duration lease, Duration leaseWait, Duration freshFor,
+                             double earlyRefreshBeta) {
+
+        public static final LoadPolicy IN_REPLICA = new LoadPolicy(null, Duration.ZERO, Duration.ZERO, null, 1.0);
+    }
+}
@@ -0,0 +1,324 @@
+package com.shizzy.moneytransfer.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shizzy.moneytransfer.config.NearCacheProperties;
+import com.shizzy.moneytransfer.enums.CacheTier;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds every cache as a {@link TwoTierCache} with the tier configured for its name under {@code near-cache},
+ * backed by the Redis cache of the same name. Writes to any cache are announced on a Redis channel and each
+ * replica drops the announced key from its in-memory tier; in-memory entries also expire after a short time in
+ * case an announcement is missed. Puts and evictions are deferred until the surrounding transaction commits.
+ * <p>
+ * Entries put under a {@link TaggedKey} are added to a Redis set per tag, holding the entry's Redis key. Evicting
+ * tags is a single script call that deletes the entries in the sets and the sets themselves, and announces the
+ * evicted keys to the other replicas. Tag sets expire {@code near-cache.tag-ttl} after the last entry was added.
+ * <p>
+ * Each cache's generation is a Redis counter. Clearing increments it and announces the new value; replicas also
+ * re-read it every {@code near-cache.generation-refresh} in case an announcement is missed.
+ * <p>
+ * Load leases are Redis keys set if absent to this replica's id, expiring after {@code near-cache.load-lease};
+ * releasing deletes the key only while it still holds the id.
+ */
+@Slf4j
+public class TwoTierCacheManager extends AbstractTransactionSupportingCacheManager
+        implements CacheInvalidations, CacheTagIndex, CacheLoadLeases, MessageListener {
+
+    static final String CHANNEL = "cache:invalidated";
+    static final String TAG_PREFIX = "cache-tags:";
+    static final String GENERATION_PREFIX = "cache-generation:";
+    static final String LEASE_PREFIX = "cache-lease:";
+    // Between cache name and key in Redis, as the Redis cache's default key prefix has it
+    static final String KEY_SEPARATOR = "::";
+    private static final String SEPARATOR = "|";
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+    private static final String EVICT_TAGGED = "T";
+
+    // KEYS: tag sets; ARGV: entry key, seconds the sets live
+    static final RedisScript<Long> TAG_SCRIPT = new DefaultRedisScript<>("""
+            for _, tag in ipairs(KEYS) do
+              redis.call('SADD', tag, ARGV[1])
+              redis.call('EXPIRE', tag, ARGV[2])
+            end
+            return #KEYS""", Long.class);
+
+    // KEYS: tag sets; ARGV: channel, announcement prefix. Returns the evicted entry keys.
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> EVICT_TAGS_SCRIPT = new DefaultRedisScript<>("""
+            local evicted, seen = {}, {}
+            for _, tag in ipairs(KEYS) do
+              for _, entry in ipairs(redis.call('SMEMBERS', tag)) do
+                if not seen[entry] then
+                  seen[entry] = true
+                  evicted[#evicted + 1] = entry
+                  redis.call('UNLINK', entry)
+                end
+              end
+              redis.call('UNLINK', tag)
+            end
+            if #evicted > 0 then
+              redis.call('PUBLISH', ARGV[1], ARGV[2] .. table.concat(evicted, '\\n'))
+            end
+            return evicted""", List.class);
+
+    // KEYS: lease; ARGV: the holder's instance id
+    static final RedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0""", Long.class);
+
+    private final CacheManager redisCacheManager;
+    private final NearCacheProperties properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public TwoTierCacheManager(CacheManager redisCacheManager, NearCacheProperties properties,
+                               StringRedisTemplate stringRedisTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               MeterRegistry meterRegistry) {
+        this.redisCacheManager = redisCacheManager;
+        this.properties = properties;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.meterRegistry = meterRegistry;
+        setTransactionAware(true);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return properties.getCaches().keySet().stream()
+                .map(this::createCache)
+                .toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name);
+    }
+
+    @Override
+    public void evicted(String cacheName, String key) {
+        announce(EVICT, cacheName, key);
+    }
+
+    @Override
+    public void cleared(String cacheName) {
+        Generation generation = generations.get(cacheName);
+        announce(CLEAR, cacheName, generation == null ? "" : String.valueOf(generation.value));
+    }
+
+    @Override
+    public long generation(String cacheName) {
+        Generation generation = generations.computeIfAbsent(cacheName, name -> new Generation());
+        long now = System.nanoTime();
+        if (now - generation.readAt >= properties.getGenerationRefresh().toNanos()) {
+            generation.readAt = now;
+            try {
+                String value = stringRedisTemplate.opsForValue().get(GENERATION_PREFIX + cacheName);
+                generation.value = value == null ? 0 : Long.parseLong(value);
+            } catch (RuntimeException e) {
+                log.warn("Could not read the generation of cache {}, keeping {}: {}", cacheName, generation.value,
+                        e.getMessage());
+            }
+        }
+        return generation.value;
+    }
+
+    @Override
+    public long advanceGeneration(String cacheName) {
+        Long next = stringRedisTemplate.opsForValue().increment(GENERATION_PREFIX + cacheName);
+        Generation generation = generations.computeIfAbsent(cacheName, name -> new Generation());
+        generation.value = next == null ? generation.value + 1 : next;
+        generation.readAt = System.nanoTime();
+        return generation.value;
+    }
+
+    /**
+     * The Redis key an entry of the cache is stored under in its current generation
+     */
+    public String redisKey(String cacheName, String key) {
+        return cacheName + KEY_SEPARATOR + TwoTierCache.localKey(key, generation(cacheName));
+    }
+
+    @Override
+    public boolean tagged(String cacheName, String key, List<String> tags) {
+        try {
+            stringRedisTemplate.execute(TAG_SCRIPT, tags.stream().map(tag -> TAG_PREFIX + tag).toList(),
+                    cacheName + KEY_SEPARATOR + key, String.valueOf(properties.getTagTtl().toSeconds()));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not tag entry {} of cache {}, evicting it: {}", key, cacheName, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(String cacheName, String key, Duration lease) {
+        try {
+            return !Boolean.FALSE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(LEASE_PREFIX + cacheName + KEY_SEPARATOR + key, instanceId, lease));
+        } catch (RuntimeException e) {
+            log.warn("Could not take the load lease on {} of cache {}, loading without it: {}", key, cacheName,
+                    e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public void release(String cacheName, String key) {
+        try {
+            stringRedisTemplate.execute(RELEASE_LEASE_SCRIPT,
+                    List.of(LEASE_PREFIX + cacheName + KEY_SEPARATOR + key), instanceId);
+        } catch (RuntimeException e) {
+            log.warn("Could not release the load lease on {} of cache {}, it expires: {}", key, cacheName,
+                    e.getMessage());
+        }
+    }
+
+    @Override
+    public void evictTags(Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        List<String> tagKeys = tags.stream().distinct().map(tag -> TAG_PREFIX + tag).toList();
+        if (isTransactionAware() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictTagKeys(tagKeys);
+                }
+            });
+        } else {
+            evictTagKeys(tagKeys);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // instance|operation|cache|key, where the key may itself contain the separator; clears carry the new
+        // generation and tag evictions the evicted cache::key entries, one per line, in place of the key
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 4 || parts[0].equals(instanceId)) {
+            return;
+        }
+        if (EVICT_TAGGED.equals(parts[1])) {
+            parts[3].lines().forEach(this::evictLocalEntry);
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[2]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR.equals(parts[1])) {
+            if (!parts[3].isEmpty()) {
+                Generation generation = generations.computeIfAbsent(parts[2], name -> new Generation());
+                generation.value = Long.parseLong(parts[3]);
+                generation.readAt = System.nanoTime();
+            }
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[3]);
+        }
+    }
+
+    private TwoTierCache createCache(String name) {
+        NearCacheProperties.Settings settings = properties.getCaches().get(name);
+        CacheTier tier = settings != null && settings.getTier() != null ? settings.getTier() : properties.getDefaultTier();
+
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = null;
+        if (tier.usesLocal()) {
+            long maximumSize = settings != null && settings.getMaximumSize() != null
+                    ? settings.getMaximumSize() : properties.getDefaultMaximumSize();
+            Duration localTtl = settings != null && settings.getLocalTtl() != null
+                    ? settings.getLocalTtl() : properties.getDefaultLocalTtl();
+            local = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(localTtl)
+                    .build();
+        }
+        Cache remote = tier.usesRedis() ? redisCacheManager.getCache(name) : null;
+        TwoTierCache.LoadPolicy loading = new TwoTierCache.LoadPolicy(this, properties.getLoadLease(),
+                properties.getLeaseWait(), settings == null ? null : settings.getFreshFor(),
+                properties.getEarlyRefreshBeta());
+
+        TwoTierCache cache = new TwoTierCache(name, local, remote, this, loading, meterRegistry);
+        caches.put(name, cache);
+        return cache;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evictTagKeys(List<String> tagKeys) {
+        List<String> evicted;
+        try {
+            evicted = stringRedisTemplate.execute(EVICT_TAGS_SCRIPT, tagKeys,
+                    CHANNEL, String.join(SEPARATOR, instanceId, EVICT_TAGGED, "", ""));
+        } catch (RuntimeException e) {
+            log.warn("Could not evict cache tags {}, the entries expire: {}", tagKeys, e.getMessage());
+            return;
+        }
+        if (evicted != null) {
+            evicted.forEach(this::evictLocalEntry);
+        }
+    }
+
+    private void evictLocalEntry(String entry) {
+        int separator = entry.indexOf(KEY_SEPARATOR);
+        if (separator < 0) {
+            return;
+        }
+        TwoTierCache cache = caches.get(entry.substring(0, separator));
+        if (cache != null) {
+            cache.evictLocal(entry.substring(separator + KEY_SEPARATOR.length()));
+        }
+    }
+
+    private void announce(String operation, String cacheName, String key) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL,
+                    String.join(SEPARATOR, instanceId, operation, cacheName, key));
+        } catch (RuntimeException e) {
+            log.warn("Could not announce change to cache {}, other replicas expire it: {}", cacheName, e.getMessage());
+        }
+    }
+
+    private static final class Generation {
+        volatile long value;
+        // Far enough in the past that the first use reads it
+        volatile long readAt = System.nanoTime() - Long.MAX_VALUE / 2;
+    }
+}
@@ -0,0 +1,37 @@
+package com.shizzy.moneytransfer.cache.codec;
+
+import com.shizzy.moneytransfer.api.ApiResponse;
+
+import java.io.IOException;
+
+/**
+ * The envelope most cached service results come in; the data inside goes through its own codec
+ */
+@SuppressWarnings("rawtypes")
+public class ApiResponseCodec implements CacheValueCodec<ApiResponse> {
+
+    @Override
+    public byte id() {
+        return 2;
+    }
+
+    @Override
+    public Class<ApiResponse> type() {
+        return ApiResponse.class;
+    }
+
+    @Override
+    public void write(ApiResponse value, CacheValueOutput out) {
+        out.writeBoolean(value.isSuccess());
+        out.writeString(value.getMessage());
+        out.writeValue(value.getData());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ApiResponse read(CacheValueInput in) throws IOException {
+        boolean success = in.readBoolean();
+        String message = in.readString();
+        return new ApiResponse(success, message, in.readValue());
+    }
+}
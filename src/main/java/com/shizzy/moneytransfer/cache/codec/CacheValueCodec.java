@@ -0,0 +1,25 @@
+package com.shizzy.moneytransfer.cache.codec;
+
+import java.io.IOException;
+
+/**
+ * Writes one type of cached value field by field, without names or class names. The id is stored with every value
+ * it writes, so it must stay the same across releases; a change to the fields written needs a new id, so replicas
+ * still on the old layout miss those entries instead of misreading them.
+ */
+public interface CacheValueCodec<T> {
+
+    /**
+     * Stored ahead of the value, from 2 up; 0 and 1 mark null and JSON
+     */
+    byte id();
+
+    /**
+     * Values of this type, subclasses included, are written by this codec
+     */
+    Class<T> type();
+
+    void write(T value, CacheValueOutput out);
+
+    T read(CacheValueInput in) throws IOException;
+}
@@ -0,0 +1,108 @@
+package com.shizzy.moneytransfer.cache.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The reading side of {@link CacheValueOutput}
+ */
+public class CacheValueInput {
+
+    private final CompactCacheValueSerializer serializer;
+    private final byte[] bytes;
+    private final int end;
+    private int position;
+
+    CacheValueInput(byte[] bytes, int offset, int length, CompactCacheValueSerializer serializer) {
+        this.serializer = serializer;
+        this.bytes = bytes;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    public byte readByte() throws IOException {
+        require(1);
+        return bytes[position++];
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    public byte[] readBytes(int length) throws IOException {
+        require(length);
+        byte[] value = Arrays.copyOfRange(bytes, position, position + length);
+        position += length;
+        return value;
+    }
+
+    public long readVarLong() throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte() & 0xFF;
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    public int readVarInt() throws IOException {
+        return Math.toIntExact(readVarLong());
+    }
+
+    public double readDouble() throws IOException {
+        require(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (bytes[position++] & 0xFF);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public Integer readNullableInt() throws IOException {
+        return readBoolean() ? readVarInt() : null;
+    }
+
+    public String readString() throws IOException {
+        int length = readVarInt();
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+        String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public BigDecimal readDecimal() throws IOException {
+        int length = readVarInt();
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+        BigInteger unscaled = new BigInteger(bytes, position, length);
+        position += length;
+        return new BigDecimal(unscaled, readVarInt());
+    }
+
+    public <E extends Enum<E>> E readEnum(Class<E> type) throws IOException {
+        String name = readString();
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    public Object readValue() throws IOException {
+        return serializer.readValue(this);
+    }
+
+    private void require(int length) throws EOFException {
+        if (length < 0 || end - position < length) {
+            throw new EOFException("Cache value ends early");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.shizzy.moneytransfer.cache.codec;
+
+import com.shizzy.moneytransfer.cache.CachedValue;
+
+import java.io.IOException;
+
+/**
+ * The freshness envelope of caches with {@code fresh-for}; the value inside goes through its own codec
+ */
+public class CachedValueCodec implements CacheValueCodec<CachedValue> {
+
+    @Override
+    public byte id() {
+        return 6;
+    }
+
+    @Override
+    public Class<CachedValue> type() {
+        return CachedValue.class;
+    }
+
+    @Override
+    public void write(CachedValue value, CacheValueOutput out) {
+        out.writeVarLong(value.freshUntil());
+        out.writeVarLong(value.loadMillis());
+        out.writeValue(value.value());
+    }
+
+    @Override
+    public CachedValue read(CacheValueInput in) throws IOException {
+        long freshUntil = in.readVarLong();
+        long loadMillis = in.readVarLong();
+        return new CachedValue(in.readValue(), freshUntil, loadMillis);
+    }
+}
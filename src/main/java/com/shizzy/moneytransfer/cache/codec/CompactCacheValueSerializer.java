@@ -0,0 +1,169 @@
+package com.shizzy.moneytransfer.cache.codec;
+
+import com.shizzy.moneytransfer.enums.CacheValueFormat;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis value serializer writing registered types in a compact binary form and everything else as JSON. A compact
+ * value starts with the format version, then a flags byte; values longer than the compression threshold are LZ4
+ * compressed when that makes them smaller. Within a value, each nested value starts with the id of the codec that
+ * wrote it, or 0 for null and 1 for JSON.
+ * <p>
+ * Every version reads both JSON, which never starts with a version byte, and compact values. Values written by a
+ * later format version read as null, a cache miss, so replicas on different versions can share Redis during a
+ * rolling upgrade. The format written is configurable so a release can learn to read compact values before any
+ * replica writes them.
+ */
+public class CompactCacheValueSerializer implements RedisSerializer<Object> {
+
+    static final byte FORMAT_VERSION = 1;
+    // Bytes below this are never the first byte of JSON, so future format versions can use them
+    private static final byte LAST_RESERVED_VERSION = 8;
+    private static final int COMPRESSED = 1;
+    private static final byte NULL = 0;
+    private static final byte JSON = 1;
+
+    private static final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private final List<CacheValueCodec<?>> codecs;
+    private final Map<Byte, CacheValueCodec<?>> codecsById = new HashMap<>();
+    private final Map<Class<?>, Optional<CacheValueCodec<?>>> codecsByType = new ConcurrentHashMap<>();
+    private final RedisSerializer<Object> json;
+    private final CacheValueFormat format;
+    private final int compressionThreshold;
+
+    /**
+     * @param codecs the codecs tried in order for each value
+     * @param json   writes values no codec takes, and reads values written as JSON
+     */
+    public CompactCacheValueSerializer(List<CacheValueCodec<?>> codecs, RedisSerializer<Object> json,
+                                       CacheValueFormat format, int compressionThreshold) {
+        for (CacheValueCodec<?> codec : codecs) {
+            if (codec.id() <= JSON) {
+                throw new IllegalArgumentException("Codec ids start at 2: " + codec.getClass().getName());
+            }
+            if (codecsById.putIfAbsent(codec.id(), codec) != null) {
+                throw new IllegalArgumentException("Duplicate codec id " + codec.id());
+            }
+        }
+        this.codecs = List.copyOf(codecs);
+        this.json = json;
+        this.format = format;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (format == CacheValueFormat.JSON) {
+            return json.serialize(value);
+        }
+        CacheValueOutput out = new CacheValueOutput(this);
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(0);
+        writeValue(value, out);
+        byte[] bytes = out.toByteArray();
+        return bytes.length > compressionThreshold ? compress(bytes) : bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != FORMAT_VERSION) {
+            // A later format this version cannot read is left to the replicas that can
+            return bytes[0] > FORMAT_VERSION && bytes[0] <= LAST_RESERVED_VERSION ? null : json.deserialize(bytes);
+        }
+        try {
+            if ((bytes[1] & COMPRESSED) != 0) {
+                bytes = decompress(bytes);
+            }
+            return readValue(new CacheValueInput(bytes, 2, bytes.length - 2, this));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not read cache value", e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void writeValue(Object value, CacheValueOutput out) {
+        if (value == null) {
+            out.writeByte(NULL);
+            return;
+        }
+        Optional<CacheValueCodec<?>> codec = codecsByType.computeIfAbsent(value.getClass(), type -> codecs.stream()
+                .filter(candidate -> candidate.type().isAssignableFrom(type))
+                .findFirst());
+        if (codec.isPresent()) {
+            out.writeByte(codec.get().id());
+            ((CacheValueCodec) codec.get()).write(value, out);
+            return;
+        }
+        byte[] bytes = json.serialize(value);
+        out.writeByte(JSON);
+        out.writeVarInt(bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    Object readValue(CacheValueInput in) throws IOException {
+        byte id = in.readByte();
+        if (id == NULL) {
+            return null;
+        }
+        if (id == JSON) {
+            return json.deserialize(in.readBytes(in.readVarInt()));
+        }
+        CacheValueCodec<?> codec = codecsById.get(id);
+        if (codec == null) {
+            throw new IOException("No cache value codec with id " + id);
+        }
+        return codec.read(in);
+    }
+
+    // Version and flags stay uncompressed, followed by the value's length and its compressed bytes
+    private static byte[] compress(byte[] bytes) {
+        int length = bytes.length - 2;
+        byte[] compressed = new byte[6 + compressor.maxCompressedLength(length)];
+        compressed[0] = bytes[0];
+        compressed[1] = (byte) (bytes[1] | COMPRESSED);
+        writeInt(compressed, 2, length);
+        int size = compressor.compress(bytes, 2, length, compressed, 6, compressed.length - 6);
+        return size + 6 < bytes.length ? Arrays.copyOf(compressed, size + 6) : bytes;
+    }
+
+    private static byte[] decompress(byte[] bytes) {
+        int length = readInt(bytes, 2);
+        byte[] restored = new byte[2 + length];
+        restored[0] = bytes[0];
+        restored[1] = (byte) (bytes[1] & ~COMPRESSED);
+        decompressor.decompress(bytes, 6, restored, 2, length);
+        return restored;
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16 | (bytes[offset + 2] & 0xFF) << 8
+                | bytes[offset + 3] & 0xFF;
+    }
+}
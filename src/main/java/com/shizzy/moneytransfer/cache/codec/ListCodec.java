@@ -0,0 +1,40 @@
+package com.shizzy.moneytransfer.cache.codec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Any list, element by element; read back as an {@link ArrayList}
+ */
+@SuppressWarnings("rawtypes")
+public class ListCodec implements CacheValueCodec<List> {
+
+    @Override
+    public byte id() {
+        return 5;
+    }
+
+    @Override
+    public Class<List> type() {
+        return List.class;
+    }
+
+    @Override
+    public void write(List value, CacheValueOutput out) {
+        out.writeVarInt(value.size());
+        for (Object element : value) {
+            out.writeValue(element);
+        }
+    }
+
+    @Override
+    public List read(CacheValueInput in) throws IOException {
+        int size = in.readVarInt();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(in.readValue());
+        }
+        return list;
+    }
+}
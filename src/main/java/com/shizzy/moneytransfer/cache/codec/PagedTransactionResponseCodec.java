@@ -0,0 +1,65 @@
+package com.shizzy.moneytransfer.cache.codec;
+
+import com.shizzy.moneytransfer.dto.PagedTransactionResponse;
+import com.shizzy.moneytransfer.dto.TransactionResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of transactions, the most common cached value; the rows are written with
+ * {@link TransactionResponseCodec} directly, without an id per row
+ */
+public class PagedTransactionResponseCodec implements CacheValueCodec<PagedTransactionResponse> {
+
+    private final TransactionResponseCodec rows = new TransactionResponseCodec();
+
+    @Override
+    public byte id() {
+        return 3;
+    }
+
+    @Override
+    public Class<PagedTransactionResponse> type() {
+        return PagedTransactionResponse.class;
+    }
+
+    @Override
+    public void write(PagedTransactionResponse value, CacheValueOutput out) {
+        List<TransactionResponse> content = value.getContent();
+        out.writeVarInt(content == null ? -1 : content.size());
+        if (content != null) {
+            for (TransactionResponse row : content) {
+                rows.write(row, out);
+            }
+        }
+        out.writeVarInt(value.getPageNumber());
+        out.writeVarInt(value.getPageSize());
+        out.writeVarLong(value.getTotalElements());
+        out.writeVarInt(value.getTotalPages());
+        out.writeBoolean(value.isLast());
+        out.writeBoolean(value.isFirst());
+    }
+
+    @Override
+    public PagedTransactionResponse read(CacheValueInput in) throws IOException {
+        int size = in.readVarInt();
+        List<TransactionResponse> content = null;
+        if (size >= 0) {
+            content = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                content.add(rows.read(in));
+            }
+        }
+        return PagedTransactionResponse.builder()
+                .content(content)
+                .pageNumber(in.readVarInt())
+                .pageSize(in.readVarInt())
+                .totalElements(in.readVarLong())
+                .totalPages(in.readVarInt())
+                .last(in.readBoolean())
+                .first(in.readBoolean())
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.shizzy.moneytransfer.cache.codec;
+
+import com.shizzy.moneytransfer.dto.TransactionResponse;
+import com.shizzy.moneytransfer.enums.RefundStatus;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.enums.TransactionType;
+
+import java.io.IOException;
+
+public class TransactionResponseCodec implements CacheValueCodec<TransactionResponse> {
+
+    @Override
+    public byte id() {
+        return 4;
+    }
+
+    @Override
+    public Class<TransactionResponse> type() {
+        return TransactionResponse.class;
+    }
+
+    @Override
+    public void write(TransactionResponse value, CacheValueOutput out) {
+        out.writeNullableInt(value.getTransactionId());
+        out.writeString(value.getProviderId());
+        out.writeDecimal(value.getAmount());
+        out.writeString(value.getCurrentStatus());
+        out.writeString(value.getTransactionDate());
+        out.writeString(value.getReferenceNumber());
+        out.writeString(value.getDescription());
+        out.writeString(value.getNarration());
+        out.writeDouble(value.getFee());
+        out.writeEnum(value.getOperation());
+        out.writeEnum(value.getTransactionType());
+        out.writeString(value.getSessionId());
+        out.writeBoolean(value.isFlagged());
+        out.writeEnum(value.getRefundStatus());
+        out.writeString(value.getWalletId());
+    }
+
+    @Override
+    public TransactionResponse read(CacheValueInput in) throws IOException {
+        return TransactionResponse.builder()
+                .transactionId(in.readNullableInt())
+                .providerId(in.readString())
+                .amount(in.readDecimal())
+                .currentStatus(in.readString())
+                .transactionDate(in.readString())
+                .referenceNumber(in.readString())
+                .description(in.readString())
+                .narration(in.readString())
+                .fee(in.readDouble())
+                .operation(in.readEnum(TransactionOperation.class))
+                .transactionType(in.readEnum(TransactionType.class))
+                .sessionId(in.readString())
+                .flagged(in.readBoolean())
+                .refundStatus(in.readEnum(RefundStatus.class))
+                .walletId(in.readString())
+                .build();
+    }
+}
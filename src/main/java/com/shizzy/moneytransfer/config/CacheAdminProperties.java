@@ -0,0 +1,16 @@
+package com.shizzy.moneytransfer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache-admin")
+public class CacheAdminProperties {
+
+    private int scanBatch = 500; // keys each SCAN call examines, which bounds how long it holds Redis
+    private int maxPageSize = 1000; // keys per page of the admin key listing
+    private int maxScanCallsPerPage = 20; // a page of a sparse cache returns short rather than walking the keyspace
+    private int statsSample = 5000; // keys sampled per stats request; sizes are estimated from the sample
+}
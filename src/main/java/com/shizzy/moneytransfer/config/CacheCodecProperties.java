@@ -0,0 +1,15 @@
+package com.shizzy.moneytransfer.config;
+
+import com.shizzy.moneytransfer.enums.CacheValueFormat;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache-codec")
+public class CacheCodecProperties {
+
+    private CacheValueFormat format = CacheValueFormat.JSON; // format written; both are always read
+    private int compressionThreshold = 512; // compact values above this many bytes are LZ4 compressed
+}
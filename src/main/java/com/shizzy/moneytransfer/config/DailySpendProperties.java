@@ -0,0 +1,18 @@
+package com.shizzy.moneytransfer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "daily-spend")
+public class DailySpendProperties {
+
+    private Duration keyTtl = Duration.ofHours(48); // spend keys outlive their day so the last flush still finds them
+    private Duration reservationTimeout = Duration.ofMinutes(5); // unsettled reservations stop counting after this
+    private long flushIntervalMs = 5000; // delay between flushes of committed spend to daily_transaction_totals
+    private int flushBatchSize = 500; // spend keys claimed and written per flush
+}
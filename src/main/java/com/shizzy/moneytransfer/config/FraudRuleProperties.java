@@ -0,0 +1,30 @@
+package com.shizzy.moneytransfer.config;
+
+import com.shizzy.moneytransfer.enums.FraudRuleMode;
+import com.shizzy.moneytransfer.enums.RuleTimeoutPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "fraud-rules")
+public class FraudRuleProperties {
+
+    private int threads = 8; // rule evaluations running at once across all requests
+    private int queueCapacity = 512; // evaluations waiting for a thread before enforced ones run on the caller
+    private Duration totalBudget = Duration.ofMillis(250); // how long a request waits for all of its enforced rules
+    private RuleTimeoutPolicy defaultTimeoutPolicy = RuleTimeoutPolicy.FAIL_OPEN; // for rules without their own
+    private Map<String, Rule> rules = new HashMap<>(); // keyed by rule name; unlisted rules are enforced
+
+    @Data
+    public static class Rule {
+        private FraudRuleMode mode = FraudRuleMode.ENFORCE;
+        private Duration timeout; // null to allow the rule the whole budget
+        private RuleTimeoutPolicy timeoutPolicy; // null for the default policy
+    }
+}
@@ -0,0 +1,19 @@
+package com.shizzy.moneytransfer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "fraud-signals")
+public class FraudSignalProperties {
+
+    private boolean enabled = false; // consume the notifications topic into the in-memory fraud-signal store
+    private String replicaId = "local"; // names this replica's consumer group; unique per replica, stable across restarts
+    private boolean serveFeatures = false; // fraud rules read their windows from the store instead of Postgres
+    private int shards = 64; // independently locked partitions of the store; a checkpoint only restores into as many
+    private int initialCapacityPerShard = 64; // wallet slots allocated per shard before the first resize
+    private String checkpointKey = "fraud-signals:checkpoint"; // Redis hash holding the latest checkpoint
+    private long checkpointIntervalMs = 300000; // how often the store is written to Redis
+}
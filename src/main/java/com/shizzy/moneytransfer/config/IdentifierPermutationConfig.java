@@ -0,0 +1,41 @@
+package com.shizzy.moneytransfer.config;
+
+import com.shizzy.moneytransfer.util.IdentifierPermutations;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import java.util.Arrays;
+
+@Slf4j
+@Configuration
+public class IdentifierPermutationConfig {
+
+    private static final Profiles DEFAULT_KEY_PROFILES = Profiles.of("dev | local | test");
+    private static final String DEFAULT_KEY = "local-identifier-permutation-key";
+
+    /**
+     * Wallet and card numbers are shuffled with {@code identifiers.permutation-key} so they cannot be guessed
+     * from one another. The key must stay the same for the lifetime of the data: another key maps the
+     * sequence values still to come onto identifiers that may already be taken. Only the dev, local and test
+     * profiles, or no profile at all, may leave it unset and fall back to a well-known key.
+     */
+    @Bean
+    public IdentifierPermutations identifierPermutations(
+            @Value("${identifiers.permutation-key:}") String configuredKey,
+            Environment environment) {
+        String key = configuredKey;
+        if (key == null || key.isBlank()) {
+            if (environment.getActiveProfiles().length > 0 && !environment.acceptsProfiles(DEFAULT_KEY_PROFILES)) {
+                throw new IllegalStateException("identifiers.permutation-key must be set for profiles "
+                        + Arrays.toString(environment.getActiveProfiles()));
+            }
+            log.warn("identifiers.permutation-key not set; wallet and card numbers use the well-known local key");
+            key = DEFAULT_KEY;
+        }
+        return new IdentifierPermutations(key);
+    }
+}
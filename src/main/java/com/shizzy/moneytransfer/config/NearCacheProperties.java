@@ -0,0 +1,34 @@
+package com.shizzy.moneytransfer.config;
+
+import com.shizzy.moneytransfer.enums.CacheTier;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "near-cache")
+public class NearCacheProperties {
+
+    private CacheTier defaultTier = CacheTier.REDIS; // for caches not listed under caches
+    private long defaultMaximumSize = 10000; // in-memory entries per cache
+    private Duration defaultLocalTtl = Duration.ofSeconds(60); // bounds staleness should an invalidation be missed
+    private Duration tagTtl = Duration.ofHours(6); // tag sets outlive their entries, so above every Redis TTL
+    private Duration generationRefresh = Duration.ofSeconds(1); // re-read in case a clear announcement is missed
+    private Duration loadLease = Duration.ofSeconds(5); // one replica loads a missed key while the others wait
+    private Duration leaseWait = Duration.ofMillis(200); // how long a caller with no stale value waits for the load
+    private double earlyRefreshBeta = 1.0; // above 1 refreshes fresh-for entries earlier, below 1 later
+    private Map<String, Settings> caches = new HashMap<>(); // keyed by cache name
+
+    @Data
+    public static class Settings {
+        private CacheTier tier; // null for the default tier
+        private Long maximumSize; // null for the default size
+        private Duration localTtl; // null for the default TTL
+        private Duration freshFor; // null to serve entries until their Redis TTL; otherwise stale after it
+    }
+}
@@ -0,0 +1,59 @@
+package com.shizzy.moneytransfer.config;
+
+import com.shizzy.moneytransfer.enums.OutboxTransportMode;
+import com.shizzy.moneytransfer.kafka.InMemoryOutboxTransport;
+import com.shizzy.moneytransfer.kafka.KafkaOutboxTransport;
+import com.shizzy.moneytransfer.kafka.OutboxTransport;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@Configuration
+public class OutboxConfig {
+
+    /**
+     * Serializes outbox payloads exactly as the shared producer's {@link JsonSerializer} would, type
+     * headers included, so consumers cannot tell a relayed record from a directly sent one.
+     */
+    @Bean
+    public Serializer<Object> outboxPayloadSerializer(KafkaProperties kafkaProperties,
+            ObjectProvider<SslBundles> sslBundles) {
+        JsonSerializer<Object> serializer = new JsonSerializer<>();
+        serializer.configure(kafkaProperties.buildProducerProperties(sslBundles.getIfAvailable()), false);
+        return serializer;
+    }
+
+    @Bean
+    public OutboxTransport outboxTransport(OutboxProperties properties, KafkaProperties kafkaProperties,
+            ObjectProvider<SslBundles> sslBundles) {
+        if (properties.getTransport() == OutboxTransportMode.IN_MEMORY) {
+            log.warn("Outbox relay is using the in-memory transport; events will not reach Kafka");
+            return new InMemoryOutboxTransport();
+        }
+
+        OutboxProperties.Producer producer = properties.getProducer();
+        Map<String, Object> config = new HashMap<>(kafkaProperties.buildProducerProperties(sslBundles.getIfAvailable()));
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producer.getCompressionType());
+        config.put(ProducerConfig.LINGER_MS_CONFIG, producer.getLingerMs());
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, producer.getBatchSize());
+        return new KafkaOutboxTransport(new DefaultKafkaProducerFactory<>(config));
+    }
+}
@@ -0,0 +1,36 @@
+package com.shizzy.moneytransfer.config;
+
+import com.shizzy.moneytransfer.enums.OutboxTransportMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+
+    private OutboxTransportMode transport = OutboxTransportMode.KAFKA;
+    private Relay relay = new Relay();
+    private Producer producer = new Producer();
+
+    @Data
+    public static class Relay {
+        private boolean enabled = true;
+        private long pollIntervalMs = 200; // delay between drain passes
+        private int batchSize = 500; // events claimed and sent per transaction
+        private int maxBatchesPerPoll = 20; // caps one pass so other scheduled jobs are not starved
+        private Duration sendTimeout = Duration.ofSeconds(30); // how long a batch waits for broker acks
+        private int maxAttempts = 10; // events that failed this often move to FAILED and are left for inspection
+        private Duration retention = Duration.ofDays(7); // how long published events are kept
+    }
+
+    @Data
+    public static class Producer {
+        private String compressionType = "lz4";
+        private int lingerMs = 20;
+        private int batchSize = 256 * 1024;
+    }
+}
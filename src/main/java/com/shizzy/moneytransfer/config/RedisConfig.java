@@ -3,14 +3,23 @@ package com.shizzy.moneytransfer.config;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
-import com.shizzy.moneytransfer.dto.CreateTransactionRequestBody;
+import com.shizzy.moneytransfer.cache.TwoTierCacheManager;
+import com.shizzy.moneytransfer.cache.codec.ApiResponseCodec;
+import com.shizzy.moneytransfer.cache.codec.CachedValueCodec;
+import com.shizzy.moneytransfer.cache.codec.CompactCacheValueSerializer;
+import com.shizzy.moneytransfer.cache.codec.ListCodec;
+import com.shizzy.moneytransfer.cache.codec.PagedTransactionResponseCodec;
+import com.shizzy.moneytransfer.cache.codec.TransactionResponseCodec;
+import com.shizzy.moneytransfer.dto.BulkTransferRequest;
 import com.shizzy.moneytransfer.dto.OtpData;
+import com.shizzy.moneytransfer.dto.PendingTransfer;
 import com.shizzy.moneytransfer.util.CacheNames;
 
 import io.lettuce.core.ClientOptions;
 import io.lettuce.core.SocketOptions;
 import io.lettuce.core.TimeoutOptions;
 import io.lettuce.core.protocol.ProtocolVersion;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +38,8 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
@@ -38,6 +49,7 @@ import org.springframework.cache.interceptor.KeyGenerator;
 import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -149,13 +161,27 @@ public class RedisConfig {
         return new GenericJackson2JsonRedisSerializer(redisObjectMapper);
     }
 
+    /**
+     * Cache value serializer: transaction results in the compact binary format, anything else as typed JSON through
+     * redisSerializer
+     */
+    @Bean
+    public CompactCacheValueSerializer cacheValueSerializer(
+            GenericJackson2JsonRedisSerializer redisSerializer,
+            CacheCodecProperties cacheCodecProperties) {
+        return new CompactCacheValueSerializer(
+                List.of(new ApiResponseCodec(), new PagedTransactionResponseCodec(), new TransactionResponseCodec(),
+                        new ListCodec(), new CachedValueCodec()),
+                redisSerializer, cacheCodecProperties.getFormat(), cacheCodecProperties.getCompressionThreshold());
+    }
+
     /**
      * Redis template configuration with consistent serialization
      */
     @Bean
     public RedisTemplate<String, Object> redisTemplate(
             LettuceConnectionFactory lettuceConnectionFactory,
-            GenericJackson2JsonRedisSerializer redisSerializer) {
+            CompactCacheValueSerializer cacheValueSerializer) {
 
         final RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(lettuceConnectionFactory);
@@ -165,23 +191,46 @@ public class RedisConfig {
         redisTemplate.setKeySerializer(stringSerializer);
         redisTemplate.setHashKeySerializer(stringSerializer);
 
-        // serializer for values
-        redisTemplate.setValueSerializer(redisSerializer);
-        redisTemplate.setHashValueSerializer(redisSerializer);
+        // serializer for values, the cache's so cache entries can be read and written through the template
+        redisTemplate.setValueSerializer(cacheValueSerializer);
+        redisTemplate.setHashValueSerializer(cacheValueSerializer);
 
         logger.info("Configured RedisTemplate with consistent serializers");
         return redisTemplate;
     }
 
+    /**
+     * Shared subscriber for pub/sub channels; listeners register themselves on startup
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(LettuceConnectionFactory lettuceConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(lettuceConnectionFactory);
+        return container;
+    }
+
+    @Bean
+    public RedisTemplate<String, PendingTransfer> pendingTransferRedisTemplate(
+            LettuceConnectionFactory lettuceConnectionFactory,
+            ObjectMapper objectMapper) {
+        RedisTemplate<String, PendingTransfer> template = new RedisTemplate<>();
+        template.setConnectionFactory(lettuceConnectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        Jackson2JsonRedisSerializer<PendingTransfer> serializer =
+                new Jackson2JsonRedisSerializer<>(objectMapper, PendingTransfer.class);
+        template.setValueSerializer(serializer);
+        return template;
+    }
+
     @Bean
-    public RedisTemplate<String, CreateTransactionRequestBody> pendingTransferRedisTemplate(
+    public RedisTemplate<String, BulkTransferRequest> pendingBulkTransferRedisTemplate(
             LettuceConnectionFactory lettuceConnectionFactory,
             ObjectMapper objectMapper) {
-        RedisTemplate<String, CreateTransactionRequestBody> template = new RedisTemplate<>();
+        RedisTemplate<String, BulkTransferRequest> template = new RedisTemplate<>();
         template.setConnectionFactory(lettuceConnectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        Jackson2JsonRedisSerializer<CreateTransactionRequestBody> serializer =
-                new Jackson2JsonRedisSerializer<>(objectMapper, CreateTransactionRequestBody.class);
+        Jackson2JsonRedisSerializer<BulkTransferRequest> serializer =
+                new Jackson2JsonRedisSerializer<>(objectMapper, BulkTransferRequest.class);
         template.setValueSerializer(serializer);
         return template;
     }
@@ -203,29 +252,37 @@ public class RedisConfig {
      * Default Redis cache configuration
      */
     @Bean
-    public RedisCacheConfiguration redisCacheConfiguration(GenericJackson2JsonRedisSerializer redisSerializer) {
+    public RedisCacheConfiguration redisCacheConfiguration(CompactCacheValueSerializer cacheValueSerializer) {
         return RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(entryTtl))
                 .disableCachingNullValues()
                 .serializeKeysWith(RedisSerializationContext.SerializationPair
                         .fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(redisSerializer));
+                        .fromSerializer(cacheValueSerializer));
     }
 
     /**
-     * Cache manager configuration
+     * Cache manager configuration: each cache keeps an in-memory tier, a Redis tier or both, as configured under
+     * near-cache. The two-tier manager defers writes until commit, so the Redis manager it wraps does not.
      */
     @Bean
-    public RedisCacheManager cacheManager(
+    public TwoTierCacheManager cacheManager(
             RedisConnectionFactory connectionFactory,
-            RedisCacheConfiguration redisCacheConfiguration) {
+            RedisCacheConfiguration redisCacheConfiguration,
+            NearCacheProperties nearCacheProperties,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer,
+            MeterRegistry meterRegistry) {
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(redisCacheConfiguration)
                 .cacheWriter(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory))
-                .transactionAware()
                 .build();
+        redisCacheManager.initializeCaches();
+
+        return new TwoTierCacheManager(redisCacheManager, nearCacheProperties, stringRedisTemplate,
+                redisMessageListenerContainer, meterRegistry);
     }
 
     /**
@@ -233,7 +290,7 @@ public class RedisConfig {
      */
     @Bean
     public RedisCacheManagerBuilderCustomizer redisCacheManagerBuilderCustomizer(
-            GenericJackson2JsonRedisSerializer redisSerializer) {
+            CompactCacheValueSerializer cacheValueSerializer) {
 
         return builder -> {
             Map<String, RedisCacheConfiguration> configMap = new HashMap<>();
@@ -243,7 +300,7 @@ public class RedisConfig {
                     .serializeKeysWith(RedisSerializationContext.SerializationPair
                             .fromSerializer(new StringRedisSerializer()))
                     .serializeValuesWith(RedisSerializationContext.SerializationPair
-                            .fromSerializer(redisSerializer));
+                            .fromSerializer(cacheValueSerializer));
 
             // Transactions cache configuration
             RedisCacheConfiguration transactionsConf = baseConf.entryTtl(Duration.ofMinutes(transactionsTtl));
@@ -282,6 +339,10 @@ public class RedisConfig {
         };
     }
 
+    /**
+     * Keys name the method and its arguments only; the cache adds its current generation when storing them, so
+     * clearing a cache retires these keys too
+     */
     @Bean("transactionKeyGenerator")
     public KeyGenerator transactionKeyGenerator() {
         return (Object target, Method method, Object... params) -> {
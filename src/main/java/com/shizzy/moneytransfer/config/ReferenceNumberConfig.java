@@ -0,0 +1,66 @@
+package com.shizzy.moneytransfer.config;
+
+import com.shizzy.moneytransfer.repository.ReferenceNodeClockRepository;
+import com.shizzy.moneytransfer.util.ReferenceNumberGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+
+@Slf4j
+@Configuration
+public class ReferenceNumberConfig {
+
+    private static final Profiles DERIVED_NODE_ID_PROFILES = Profiles.of("dev | local | test");
+
+    /**
+     * Each replica needs its own node id for references to stay unique across the cluster. Set
+     * {@code transfers.reference.node-id} explicitly, for example from a StatefulSet ordinal. Only the
+     * dev, local and test profiles, or no profile at all, may leave it unset and derive the id from the
+     * host name, since two hosts that hash to the same id would collide.
+     * <p>
+     * The generator resumes after the clock mark the node's previous run recorded, which
+     * {@link com.shizzy.moneytransfer.serviceimpl.ReferenceClockCheckpointer} keeps ahead of the
+     * references handed out.
+     */
+    @Bean
+    public ReferenceNumberGenerator referenceNumberGenerator(
+            @Value("${transfers.reference.node-id:-1}") int configuredNodeId,
+            Environment environment,
+            ReferenceNodeClockRepository clockRepository) {
+        int nodeId = configuredNodeId;
+        if (nodeId < 0) {
+            if (environment.getActiveProfiles().length > 0 && !environment.acceptsProfiles(DERIVED_NODE_ID_PROFILES)) {
+                throw new IllegalStateException("transfers.reference.node-id must be set for profiles "
+                        + Arrays.toString(environment.getActiveProfiles()));
+            }
+            String hostName = resolveHostName();
+            nodeId = Math.floorMod(hostName.hashCode(), ReferenceNumberGenerator.MAX_NODE_ID + 1);
+            log.warn("transfers.reference.node-id not set; derived node id {} from host name {}", nodeId, hostName);
+        }
+
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(nodeId);
+        long issuedUntil = clockRepository.findIssuedUntil(nodeId);
+        generator.resumeAfter(issuedUntil);
+        log.info("Reference number generator using node id {}, resuming after {}", nodeId, issuedUntil);
+        return generator;
+    }
+
+    private String resolveHostName() {
+        String hostName = System.getenv("HOSTNAME");
+        if (hostName != null && !hostName.isBlank()) {
+            return hostName;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.shizzy.moneytransfer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "transfers.post-commit")
+public class TransferPipelineProperties {
+
+    private boolean enabled = true; // when false, follow-up work runs on the request thread after commit
+    private int workerCount = 4; // single-threaded workers wallet IDs are striped over
+    private int queueCapacity = 1024; // queued wallets per worker before the caller runs the work itself
+    private int maxAttempts = 3; // attempts per pass before it is counted as failed and left for the sweep
+    private Duration retryBackoff = Duration.ofMillis(200); // doubled after each failed attempt
+    private Duration shutdownTimeout = Duration.ofSeconds(30); // time given to queued work on shutdown
+    private long sweepIntervalMs = 60000; // delay between sweeps for work left pending
+    private Duration sweepAfter = Duration.ofMinutes(5); // age at which pending work is picked up by the sweep
+}
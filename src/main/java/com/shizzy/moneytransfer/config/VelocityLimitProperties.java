@@ -0,0 +1,27 @@
+package com.shizzy.moneytransfer.config;
+
+import com.shizzy.moneytransfer.enums.VelocityWindow;
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "velocity-limits")
+public class VelocityLimitProperties {
+
+    private boolean enabled = true; // when false, operations are neither checked nor counted
+    private Map<VerificationLevel, Map<VelocityWindow, Rule>> rules =
+            new EnumMap<>(VerificationLevel.class); // a tier without rules has no velocity limits
+
+    @Data
+    public static class Rule {
+        private Integer maxCount; // operations allowed within the window, null for no count limit
+        private BigDecimal maxAmount; // total amount allowed within the window, null for no amount limit
+    }
+}
@@ -0,0 +1,16 @@
+package com.shizzy.moneytransfer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "account-limits.verification-levels")
+public class VerificationLevelCacheProperties {
+
+    private long maximumSize = 100_000; // users whose level is kept in memory per replica
+    private Duration expireAfterWrite = Duration.ofMinutes(10); // upper bound on staleness if an invalidation is missed
+}
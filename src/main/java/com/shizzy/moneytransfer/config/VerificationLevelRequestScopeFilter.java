@@ -0,0 +1,33 @@
+package com.shizzy.moneytransfer.config;
+
+import com.shizzy.moneytransfer.service.VerificationLevelCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Resolves each user's verification level at most once per HTTP request
+ */
+@Component
+@RequiredArgsConstructor
+public class VerificationLevelRequestScopeFilter extends OncePerRequestFilter {
+
+    private final VerificationLevelCache verificationLevelCache;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        verificationLevelCache.openRequestScope();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            verificationLevelCache.closeRequestScope();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.shizzy.moneytransfer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "wallet-activity-stats")
+public class WalletActivityStatsProperties {
+
+    private boolean backfillOnStartup = false; // recompute every wallet's statistics from its transactions once started
+    private int backfillBatchSize = 500; // wallets recomputed per statement
+}
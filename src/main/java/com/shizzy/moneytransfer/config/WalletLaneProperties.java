@@ -0,0 +1,18 @@
+package com.shizzy.moneytransfer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "wallet.lanes")
+public class WalletLaneProperties {
+
+    private boolean enabled = false;
+    private int laneCount = 16; // number of single-writer lanes wallet IDs are striped over
+    private int queueCapacity = 256; // pending operations per lane before new ones are rejected
+    private Duration awaitTimeout = Duration.ofSeconds(30); // how long a caller waits for a queued operation to start
+}
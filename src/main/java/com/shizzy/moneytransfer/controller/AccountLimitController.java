@@ -2,20 +2,26 @@ package com.shizzy.moneytransfer.controller;
 
 import com.shizzy.moneytransfer.api.ApiResponse;
 import com.shizzy.moneytransfer.dto.AccountLimitDTO;
+import com.shizzy.moneytransfer.dto.LimitDecision;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
 import com.shizzy.moneytransfer.enums.VerificationLevel;
 import com.shizzy.moneytransfer.service.AccountLimitService;
+import com.shizzy.moneytransfer.service.LimitEvaluator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+
 @RestController
 @RequestMapping("account-limits")
 @RequiredArgsConstructor
 public class AccountLimitController {
 
     private final AccountLimitService accountLimitService;
+    private final LimitEvaluator limitEvaluator;
     
     /**
      * Get account limits for the authenticated user
@@ -32,6 +38,29 @@ public class AccountLimitController {
                 .build()
         );
     }
+
+    /**
+     * Check an operation against every limit of the authenticated user without performing it
+     */
+    @GetMapping("/check")
+    public ResponseEntity<ApiResponse<LimitDecision>> checkLimits(
+            Authentication auth,
+            @RequestParam("operation") TransactionOperation operation,
+            @RequestParam("amount") BigDecimal amount,
+            @RequestParam(value = "projectedBalance", required = false) BigDecimal projectedBalance) {
+
+        LimitDecision decision = limitEvaluator.evaluate(auth.getName(), operation, amount, projectedBalance);
+
+        return ResponseEntity.ok(
+            ApiResponse.<LimitDecision>builder()
+                .success(true)
+                .message(decision.allowed()
+                        ? "The operation is within your limits."
+                        : "The operation would exceed " + decision.violations().size() + " of your limits.")
+                .data(decision)
+                .build()
+        );
+    }
     
     
     /**
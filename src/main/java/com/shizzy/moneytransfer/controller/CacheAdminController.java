@@ -2,12 +2,12 @@ package com.shizzy.moneytransfer.controller;
 
 import com.shizzy.moneytransfer.service.CacheService;
 import com.shizzy.moneytransfer.api.ApiResponse;
+import com.shizzy.moneytransfer.dto.CacheKeyPage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
-import java.util.Set;
 
 @RestController
 @RequestMapping("/api/admin/cache")
@@ -27,11 +27,14 @@ public class CacheAdminController {
     }
 
     @GetMapping("/{cacheName}/keys")
-    public ApiResponse<Set<String>> getCacheKeys(@PathVariable String cacheName) {
-        return ApiResponse.<Set<String>>builder()
+    public ApiResponse<CacheKeyPage> getCacheKeys(
+            @PathVariable String cacheName,
+            @RequestParam(defaultValue = "0") String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        return ApiResponse.<CacheKeyPage>builder()
                 .success(true)
                 .message("Cache keys retrieved successfully")
-                .data(cacheService.getKeys(cacheName))
+                .data(cacheService.getKeys(cacheName, cursor, size))
                 .build();
     }
 
@@ -8,6 +8,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.shizzy.moneytransfer.api.ApiResponse;
+import com.shizzy.moneytransfer.dto.BulkTransferRequest;
+import com.shizzy.moneytransfer.dto.BulkTransferResponse;
 import com.shizzy.moneytransfer.dto.CreateTransactionRequestBody;
 import com.shizzy.moneytransfer.dto.TransactionResponseDTO;
 import com.shizzy.moneytransfer.dto.TransferInitiationResponse;
@@ -39,4 +41,20 @@ public class MoneyTransferController {
         
         return ResponseEntity.ok(moneyTransferService.verifyAndTransfer(request, auth.getName()));
     }
-}
\ No newline at end of file
+
+    @PostMapping("/bulk/initiate")
+    public ResponseEntity<ApiResponse<TransferInitiationResponse>> initiateBulkTransfer(
+            @Valid @RequestBody BulkTransferRequest request,
+            Authentication auth) {
+
+        return ResponseEntity.ok(moneyTransferService.initiateBulkTransfer(request, auth.getName()));
+    }
+
+    @PostMapping("/bulk/verify")
+    public ResponseEntity<ApiResponse<BulkTransferResponse>> verifyAndBulkTransfer(
+            @Valid @RequestBody TransferVerificationRequest request,
+            Authentication auth) {
+
+        return ResponseEntity.ok(moneyTransferService.verifyAndBulkTransfer(request, auth.getName()));
+    }
+}
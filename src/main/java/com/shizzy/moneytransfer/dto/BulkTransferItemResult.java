@@ -0,0 +1,12 @@
+package com.shizzy.moneytransfer.dto;
+
+import java.math.BigDecimal;
+
+public record BulkTransferItemResult(
+        String receiverEmail,
+        BigDecimal amount,
+        String status,
+        String referenceNumber,
+        String message
+) {
+}
@@ -0,0 +1,22 @@
+package com.shizzy.moneytransfer.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+public record BulkTransferRecipient(
+        @NotNull(message = "Receiver email is required")
+        @Email(message = "Valid receiver email address is required")
+        String receiverEmail,
+
+        @NotNull(message = "Transfer amount is required")
+        @Positive(message = "Amount must be greater than zero")
+        BigDecimal amount,
+
+        String narration
+) implements Serializable {
+        private static final long serialVersionUID = 1L;
+}
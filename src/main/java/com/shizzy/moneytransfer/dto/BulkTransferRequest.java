@@ -0,0 +1,20 @@
+package com.shizzy.moneytransfer.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.io.Serializable;
+import java.util.List;
+
+public record BulkTransferRequest(
+        @NotNull(message = "Sender email is required")
+        @Email(message = "Valid sender email address is required")
+        String senderEmail,
+
+        @NotEmpty(message = "At least one recipient is required")
+        List<@Valid BulkTransferRecipient> recipients
+) implements Serializable {
+        private static final long serialVersionUID = 1L;
+}
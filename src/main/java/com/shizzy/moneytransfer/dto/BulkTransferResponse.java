@@ -0,0 +1,13 @@
+package com.shizzy.moneytransfer.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record BulkTransferResponse(
+        String batchReference,
+        BigDecimal totalAmount,
+        int successfulCount,
+        int failedCount,
+        List<BulkTransferItemResult> results
+) {
+}
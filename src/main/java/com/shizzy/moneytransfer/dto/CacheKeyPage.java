@@ -0,0 +1,15 @@
+package com.shizzy.moneytransfer.dto;
+
+import java.util.List;
+
+/**
+ * One page of a cache's keys. {@code cursor} is passed back to fetch the next page; it is {@code "0"} and
+ * {@code complete} is true once the whole keyspace has been walked. Keys added or removed during the walk may or
+ * may not be listed, and a key can appear on more than one page.
+ */
+public record CacheKeyPage(
+    List<String> keys,
+    String cursor,
+    boolean complete
+) {
+}
@@ -0,0 +1,18 @@
+package com.shizzy.moneytransfer.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Spend held against a user's daily limit until the transfer that reserved it commits or releases it.
+ * {@code persisted} reservations were written straight to {@code daily_transaction_totals} because Redis
+ * was unavailable; committing them is a no-op and releasing them subtracts the amount again.
+ */
+public record DailySpendReservation(
+    String id,
+    String userId,
+    LocalDate date,
+    BigDecimal amount,
+    boolean persisted
+) {
+}
@@ -0,0 +1,12 @@
+package com.shizzy.moneytransfer.dto;
+
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One movement of money into or out of a wallet, keyed by the wallet's primary key
+ */
+public record LedgerMovement(long walletId, TransactionOperation operation, BigDecimal amount, LocalDateTime at) {
+}
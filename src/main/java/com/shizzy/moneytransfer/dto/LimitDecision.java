@@ -0,0 +1,31 @@
+package com.shizzy.moneytransfer.dto;
+
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Outcome of checking one operation against every limit that applies to it. {@code remainingDailyAmount} is
+ * what the user can still spend today before this operation, {@code remainingBalanceCapacity} the room left
+ * above the projected balance (only set when one was given). A null headroom means the limit is unlimited.
+ */
+public record LimitDecision(
+    VerificationLevel verificationLevel,
+    TransactionOperation operation,
+    BigDecimal amount,
+    boolean allowed,
+    List<LimitViolation> violations,
+    BigDecimal maxSingleAmount,
+    BigDecimal remainingDailyAmount,
+    BigDecimal remainingBalanceCapacity
+) {
+
+    /**
+     * The violation reported to users when only one can be shown; single-amount limits come first
+     */
+    public LimitViolation firstViolation() {
+        return violations.isEmpty() ? null : violations.get(0);
+    }
+}
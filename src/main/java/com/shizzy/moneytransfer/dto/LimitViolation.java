@@ -0,0 +1,16 @@
+package com.shizzy.moneytransfer.dto;
+
+import com.shizzy.moneytransfer.enums.LimitType;
+
+import java.math.BigDecimal;
+
+/**
+ * One limit an operation would break: the configured {@code limit} and the value it would reach
+ */
+public record LimitViolation(
+    LimitType type,
+    BigDecimal limit,
+    BigDecimal attempted,
+    String message
+) {
+}
@@ -0,0 +1,13 @@
+package com.shizzy.moneytransfer.dto;
+
+import java.io.Serializable;
+
+/**
+ * What is kept in Redis between initiating a transfer and verifying its OTP
+ */
+public record PendingTransfer(
+        CreateTransactionRequestBody request,
+        TransferContext context
+) implements Serializable {
+        private static final long serialVersionUID = 1L;
+}
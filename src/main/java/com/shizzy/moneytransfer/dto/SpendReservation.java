@@ -0,0 +1,11 @@
+package com.shizzy.moneytransfer.dto;
+
+/**
+ * Spend held against a user's daily and velocity limits for one transfer, committed once the money has moved
+ * or released when it does not
+ */
+public record SpendReservation(
+    DailySpendReservation daily,
+    VelocityPermit velocity
+) {
+}
@@ -0,0 +1,31 @@
+package com.shizzy.moneytransfer.dto;
+
+import java.io.Serializable;
+
+/**
+ * Sender and receiver of a transfer, resolved once and carried from initiation through execution.
+ * {@code preValidated} is set when the balance and limit checks passed against this snapshot; execution repeats
+ * the limit checks regardless.
+ */
+public record TransferContext(
+        TransferParticipant sender,
+        TransferParticipant receiver,
+        boolean preValidated
+) implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        public TransferContext withPreValidated(boolean preValidated) {
+                return new TransferContext(sender, receiver, preValidated);
+        }
+
+        public TransferInfo toTransferInfo() {
+                return TransferInfo.builder()
+                        .senderId(sender.userId())
+                        .receiverId(receiver.userId())
+                        .senderName(sender.fullName())
+                        .receiverName(receiver.fullName())
+                        .senderEmail(sender.email())
+                        .receiverEmail(receiver.email())
+                        .build();
+        }
+}
@@ -0,0 +1,39 @@
+package com.shizzy.moneytransfer.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One side of a transfer as seen when it was resolved: the user, and their wallet row and its version at that
+ * moment. Limits are evaluated against the verification level current at execution, not a copy taken here.
+ * Unknown properties are ignored so pending transfers stored by an earlier version still load.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record TransferParticipant(
+        String userId,
+        String email,
+        String firstName,
+        String lastName,
+        Long walletEntityId,
+        String walletId,
+        Integer walletVersion,
+        BigDecimal balance
+) implements Serializable {
+        private static final long serialVersionUID = 2L;
+
+        /**
+         * Row constructor for {@code UserRepository#findTransferParticipants}; wallet columns are null when
+         * the user has no wallet.
+         */
+        public TransferParticipant(UUID userId, String email, String firstName, String lastName,
+                Long walletEntityId, String walletId, Integer walletVersion, BigDecimal balance) {
+                this(userId.toString(), email, firstName, lastName, walletEntityId, walletId, walletVersion, balance);
+        }
+
+        public String fullName() {
+                return firstName + " " + lastName;
+        }
+}
@@ -0,0 +1,16 @@
+package com.shizzy.moneytransfer.dto;
+
+import com.shizzy.moneytransfer.model.Wallet;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TransferWallets {
+    private final Wallet sendingWallet;
+    private final Wallet receivingWallet;
+    /**
+     * True if the sending wallet is still at the version recorded in the transfer's context
+     */
+    private final boolean senderUnchanged;
+}
@@ -0,0 +1,18 @@
+package com.shizzy.moneytransfer.dto;
+
+import com.shizzy.moneytransfer.enums.VelocityWindow;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * An operation counted against a user's velocity windows at {@code recordedAtMillis}. Releasing it takes the
+ * operation back out of those windows; a permit with no windows was not counted anywhere.
+ */
+public record VelocityPermit(
+    String userId,
+    BigDecimal amount,
+    long recordedAtMillis,
+    List<VelocityWindow> windows
+) {
+}
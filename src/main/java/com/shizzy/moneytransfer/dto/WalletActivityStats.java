@@ -0,0 +1,48 @@
+package com.shizzy.moneytransfer.dto;
+
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A wallet's running activity statistics: how many ledger movements it has had, the mean and spread of their
+ * amounts (kept with Welford's method, so {@code m2} is the sum of squared differences from the mean), when it
+ * last moved money and how often per operation. {@code lastActivity} is null for a wallet that never moved money.
+ */
+public record WalletActivityStats(
+    long walletId,
+    long transactionCount,
+    BigDecimal meanAmount,
+    BigDecimal m2,
+    LocalDateTime lastActivity,
+    Map<TransactionOperation, Long> operationCounts
+) {
+
+    private static final int SCALE = 8;
+
+    public WalletActivityStats {
+        operationCounts = Map.copyOf(operationCounts);
+    }
+
+    public long operationCount(TransactionOperation operation) {
+        return operationCounts.getOrDefault(operation, 0L);
+    }
+
+    /**
+     * Population variance of the amounts, zero until there are two of them
+     */
+    public BigDecimal variance() {
+        if (transactionCount < 2) {
+            return BigDecimal.ZERO;
+        }
+        return m2.divide(BigDecimal.valueOf(transactionCount), SCALE, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal standardDeviation() {
+        return variance().sqrt(MathContext.DECIMAL64).setScale(SCALE, RoundingMode.HALF_UP);
+    }
+}
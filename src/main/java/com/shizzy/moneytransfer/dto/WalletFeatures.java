@@ -0,0 +1,59 @@
+package com.shizzy.moneytransfer.dto;
+
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * What fraud rules know about a wallet at {@code evaluatedAt}, loaded in one query: per-operation activity over
+ * the last hour and the last 24 hours, plus the wallet's age and, from its activity statistics, its last activity
+ * and mean transaction amount over its whole history. {@code lastActivity} and {@code meanAmount} are null for a
+ * wallet without recorded activity.
+ */
+public record WalletFeatures(
+    String walletId,
+    LocalDateTime evaluatedAt,
+    LocalDateTime walletCreatedDate,
+    LocalDateTime lastActivity,
+    long transactionCount,
+    BigDecimal meanAmount,
+    Map<TransactionOperation, OperationStats> lastHour,
+    Map<TransactionOperation, OperationStats> last24Hours
+) {
+
+    public WalletFeatures {
+        lastHour = Map.copyOf(lastHour);
+        last24Hours = Map.copyOf(last24Hours);
+    }
+
+    /**
+     * Count, sum and smallest amount of one operation within a window
+     */
+    public record OperationStats(long count, BigDecimal sum, BigDecimal minAmount) {
+        public static final OperationStats NONE = new OperationStats(0, BigDecimal.ZERO, null);
+    }
+
+    public OperationStats lastHour(TransactionOperation operation) {
+        return lastHour.getOrDefault(operation, OperationStats.NONE);
+    }
+
+    public OperationStats last24Hours(TransactionOperation operation) {
+        return last24Hours.getOrDefault(operation, OperationStats.NONE);
+    }
+
+    /**
+     * The same wallet with its window aggregates replaced, for windows kept outside the database
+     */
+    public WalletFeatures withWindows(Map<TransactionOperation, OperationStats> lastHour,
+                                      Map<TransactionOperation, OperationStats> last24Hours) {
+        return new WalletFeatures(walletId, evaluatedAt, walletCreatedDate, lastActivity, transactionCount,
+                meanAmount, lastHour, last24Hours);
+    }
+
+    public boolean isWalletYoungerThan(Duration age) {
+        return walletCreatedDate.isAfter(evaluatedAt.minus(age));
+    }
+}
@@ -0,0 +1,22 @@
+package com.shizzy.moneytransfer.dto;
+
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+
+import java.util.Map;
+
+/**
+ * A wallet's per-operation activity over the last hour and the last 24 hours as kept by the streaming fraud-signal
+ * store. Operations without activity in a window are absent from it.
+ */
+public record WalletSignals(
+    Map<TransactionOperation, WalletFeatures.OperationStats> lastHour,
+    Map<TransactionOperation, WalletFeatures.OperationStats> last24Hours
+) {
+
+    public static final WalletSignals NONE = new WalletSignals(Map.of(), Map.of());
+
+    public WalletSignals {
+        lastHour = Map.copyOf(lastHour);
+        last24Hours = Map.copyOf(last24Hours);
+    }
+}
@@ -0,0 +1,15 @@
+package com.shizzy.moneytransfer.enums;
+
+public enum CacheTier {
+    LOCAL, // only in this replica's memory
+    REDIS, // only in Redis, shared by every replica
+    LOCAL_AND_REDIS; // in memory in front of Redis
+
+    public boolean usesLocal() {
+        return this != REDIS;
+    }
+
+    public boolean usesRedis() {
+        return this != LOCAL;
+    }
+}
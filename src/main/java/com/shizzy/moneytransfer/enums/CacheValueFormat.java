@@ -0,0 +1,6 @@
+package com.shizzy.moneytransfer.enums;
+
+public enum CacheValueFormat {
+    JSON, // typed JSON, readable by every version
+    COMPACT // versioned binary, readable only by versions with the compact codec
+}
@@ -0,0 +1,7 @@
+package com.shizzy.moneytransfer.enums;
+
+public enum FraudRuleMode {
+    ENFORCE, // evaluated inside the request; a hit blocks the transaction
+    SHADOW, // evaluated after the transaction completes; hits are only recorded
+    DISABLED
+}
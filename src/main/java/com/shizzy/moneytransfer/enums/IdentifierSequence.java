@@ -0,0 +1,34 @@
+package com.shizzy.moneytransfer.enums;
+
+import lombok.Getter;
+
+/**
+ * Database sequences that identifiers are leased from. The block size must match the sequence's
+ * INCREMENT BY (see V18); each nextval owns {@code [value, value + blockSize)}.
+ * <p>
+ * Customer-visible identifiers are drawn from {@code [domainStart, domainStart + domainSize)}: the
+ * sequence value's position in that range is shuffled with a keyed permutation, so consecutive values
+ * do not give away the identifiers issued before or after them.
+ */
+@Getter
+public enum IdentifierSequence {
+    // 8-digit wallet numbers above the legacy 20xxxxxx range the sequence starts after
+    WALLET_ID("wallet_number_seq", 1000, 20_000_000L, 80_000_000L),
+    // 14-digit account part between the "4" prefix and the Luhn digit
+    VISA_CARD_NUMBER("visa_card_number_seq", 1000, 0L, 100_000_000_000_000L),
+    // 13-digit account part under each of the five 51-55 prefixes
+    MASTERCARD_CARD_NUMBER("mastercard_card_number_seq", 1000, 0L, 50_000_000_000_000L)
+    ;
+
+    private final String sequenceName;
+    private final int blockSize;
+    private final long domainStart;
+    private final long domainSize;
+
+    IdentifierSequence(String sequenceName, int blockSize, long domainStart, long domainSize) {
+        this.sequenceName = sequenceName;
+        this.blockSize = blockSize;
+        this.domainStart = domainStart;
+        this.domainSize = domainSize;
+    }
+}
@@ -0,0 +1,10 @@
+package com.shizzy.moneytransfer.enums;
+
+/**
+ * How {@code WalletService.transfer} writes balance changes to the wallet table.
+ */
+public enum LedgerWriteMode {
+    OPTIMISTIC,          // Read both wallets, update in Java, save under @Version
+    PESSIMISTIC,         // SELECT ... FOR UPDATE both wallets in id order, then save
+    CONDITIONAL_UPDATE   // Guarded single-statement UPDATEs, no entity read-modify-write
+}
@@ -0,0 +1,5 @@
+package com.shizzy.moneytransfer.enums;
+
+public enum LimitType {
+    MAX_DEPOSIT, MAX_WITHDRAWAL, MAX_TRANSFER, DAILY_TRANSACTION, MAX_WALLET_BALANCE
+}
@@ -0,0 +1,10 @@
+package com.shizzy.moneytransfer.enums;
+
+/**
+ * Lifecycle of a row in the outbox table.
+ */
+public enum OutboxEventStatus {
+    PENDING,    // Waiting to be sent; failed sends stay here until they run out of attempts
+    PUBLISHED,  // Acknowledged by the broker, purged after the retention period
+    FAILED      // Ran out of attempts; no longer claimed by the relay and kept for inspection
+}
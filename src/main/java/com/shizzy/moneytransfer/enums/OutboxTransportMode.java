@@ -0,0 +1,9 @@
+package com.shizzy.moneytransfer.enums;
+
+/**
+ * Where {@code OutboxRelay} sends the events it drains from the outbox table.
+ */
+public enum OutboxTransportMode {
+    KAFKA,     // Idempotent, compressed, batched producer against the configured brokers
+    IN_MEMORY  // Local stand-in broker that keeps records in process, for tests and broker-less runs
+}
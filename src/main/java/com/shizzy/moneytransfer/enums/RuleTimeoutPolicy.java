@@ -0,0 +1,6 @@
+package com.shizzy.moneytransfer.enums;
+
+public enum RuleTimeoutPolicy {
+    FAIL_OPEN, // a rule that times out or fails is treated as not triggered
+    FAIL_CLOSED // a rule that times out or fails is treated as triggered
+}
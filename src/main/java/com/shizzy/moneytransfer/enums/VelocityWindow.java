@@ -0,0 +1,31 @@
+package com.shizzy.moneytransfer.enums;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Rolling windows velocity rules are counted over. Each window is kept as a fixed ring of equal buckets, so it
+ * rolls forward one bucket at a time and a check costs the same however many operations it covers.
+ */
+@Getter
+public enum VelocityWindow {
+    ONE_HOUR(Duration.ofHours(1), 12, "per hour"),
+    ONE_DAY(Duration.ofHours(24), 24, "per 24 hours"),
+    SEVEN_DAYS(Duration.ofDays(7), 28, "per 7 days")
+    ;
+
+    private final Duration length;
+    private final int buckets;
+    private final String label;
+
+    VelocityWindow(Duration length, int buckets, String label) {
+        this.length = length;
+        this.buckets = buckets;
+        this.label = label;
+    }
+
+    public long bucketMillis() {
+        return length.toMillis() / buckets;
+    }
+}
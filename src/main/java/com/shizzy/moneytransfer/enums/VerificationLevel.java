@@ -25,4 +25,14 @@ public enum VerificationLevel {
     public boolean isAtLeast(VerificationLevel other) {
         return this.level >= other.level;
     }
+
+    /**
+     * Derive the level from a user's KYC review statuses; either status may be null when there is no KYC record
+     */
+    public static VerificationLevel fromKycStatuses(VerificationStatus idStatus, VerificationStatus addressStatus) {
+        if (idStatus != VerificationStatus.APPROVED) {
+            return EMAIL_VERIFIED;
+        }
+        return addressStatus == VerificationStatus.APPROVED ? FULLY_VERIFIED : ID_VERIFIED;
+    }
 }
\ No newline at end of file
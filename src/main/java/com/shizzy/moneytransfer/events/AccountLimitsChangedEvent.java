@@ -0,0 +1,18 @@
+package com.shizzy.moneytransfer.events;
+
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when the limits of a verification tier are changed
+ */
+@Getter
+public class AccountLimitsChangedEvent extends ApplicationEvent {
+    private final VerificationLevel verificationLevel;
+
+    public AccountLimitsChangedEvent(Object source, VerificationLevel verificationLevel) {
+        super(source);
+        this.verificationLevel = verificationLevel;
+    }
+}
@@ -0,0 +1,22 @@
+package com.shizzy.moneytransfer.events;
+
+import com.shizzy.moneytransfer.dto.WalletFeatures;
+import com.shizzy.moneytransfer.model.Transaction;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a transaction has been checked by the enforced fraud rules, so the shadow rules can be evaluated
+ * against the same snapshot once its database transaction completes
+ */
+@Getter
+public class ShadowFraudRulesEvent extends ApplicationEvent {
+    private final Transaction transaction;
+    private final WalletFeatures features;
+
+    public ShadowFraudRulesEvent(Object source, Transaction transaction, WalletFeatures features) {
+        super(source);
+        this.transaction = transaction;
+        this.features = features;
+    }
+}
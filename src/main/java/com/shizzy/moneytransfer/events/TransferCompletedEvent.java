@@ -0,0 +1,28 @@
+package com.shizzy.moneytransfer.events;
+
+import com.shizzy.moneytransfer.model.Wallet;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.math.BigDecimal;
+
+/**
+ * Published once a transfer's ledger write has succeeded. Its follow-up work (refundable balances) runs
+ * after the surrounding transaction commits. The notifications were queued in the outbox with the ledger
+ * write itself, and the daily spend is committed with the transfer's reservation.
+ */
+@Getter
+public class TransferCompletedEvent extends ApplicationEvent {
+    private final Wallet sendingWallet;
+    private final String senderId;
+    private final BigDecimal amount;
+    private final long completedAtNanos;
+
+    public TransferCompletedEvent(Object source, Wallet sendingWallet, String senderId, BigDecimal amount) {
+        super(source);
+        this.sendingWallet = sendingWallet;
+        this.senderId = senderId;
+        this.amount = amount;
+        this.completedAtNanos = System.nanoTime();
+    }
+}
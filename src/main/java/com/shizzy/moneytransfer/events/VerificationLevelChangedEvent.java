@@ -0,0 +1,18 @@
+package com.shizzy.moneytransfer.events;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when something that decides a user's verification level changes: their KYC review statuses or
+ * the level assigned to them
+ */
+@Getter
+public class VerificationLevelChangedEvent extends ApplicationEvent {
+    private final String userId;
+
+    public VerificationLevelChangedEvent(Object source, String userId) {
+        super(source);
+        this.userId = userId;
+    }
+}
@@ -1,5 +1,6 @@
 package com.shizzy.moneytransfer.exception;
 
+import com.shizzy.moneytransfer.api.ApiResponse;
 import jakarta.mail.MessagingException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.Getter;
@@ -287,6 +288,16 @@ public class DefaultExceptionHandler {
                 return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
         }
 
+        @ExceptionHandler(WalletLaneRejectedException.class)
+        public ResponseEntity<ApiResponse<String>> handleException(WalletLaneRejectedException e) {
+                ApiResponse<String> response = ApiResponse.<String>builder()
+                                .success(false)
+                                .message(e.getMessage())
+                                .build();
+
+                return new ResponseEntity<>(response, HttpStatus.TOO_MANY_REQUESTS);
+        }
+
         @ExceptionHandler(Exception.class)
         public ResponseEntity<ApiError> handleException(Exception e,
                         HttpServletRequest request) {
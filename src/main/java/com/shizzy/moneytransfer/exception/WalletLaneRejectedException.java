@@ -0,0 +1,11 @@
+package com.shizzy.moneytransfer.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class WalletLaneRejectedException extends RuntimeException {
+    public WalletLaneRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,76 @@
+package com.shizzy.moneytransfer.kafka;
+
+import com.shizzy.moneytransfer.dto.LedgerMovement;
+import com.shizzy.moneytransfer.dto.TransactionNotification;
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.service.detection.FraudSignalStore;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Feeds the fraud-signal store from the transaction notifications. Every replica screens transactions of any
+ * wallet, so each consumes the whole topic in a group of its own, named after {@code fraud-signals.replica-id} so
+ * a restarted replica rejoins its group instead of leaving an orphaned one behind. Where to start reading comes
+ * from the store rather than committed offsets: right after the last checkpointed event, or 24 hours back when
+ * there is no checkpoint.
+ */
+@Service
+@RequiredArgsConstructor
+public class FraudSignalConsumer implements ConsumerSeekAware {
+
+    static final Duration REPLAY = Duration.ofHours(24);
+
+    private final FraudSignalStore store;
+
+    @KafkaListener(topics = "notifications", groupId = "fraud_signals-${fraud-signals.replica-id:local}",
+            autoStartup = "${fraud-signals.enabled:false}")
+    public void listen(ConsumerRecord<String, TransactionNotification> record) {
+        TransactionNotification notification = record.value();
+        List<LedgerMovement> movements = new ArrayList<>(2);
+        if (notification != null) {
+            LocalDateTime published = record.timestamp() < 0 ? LocalDateTime.now()
+                    : LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneId.systemDefault());
+            addMovement(movements, notification.getDebitTransaction(), published);
+            addMovement(movements, notification.getCreditTransaction(), published);
+        }
+        // Recorded even without movements so the partition's position moves past the event
+        store.record(record.partition(), record.offset(), movements);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        long replayFrom = System.currentTimeMillis() - REPLAY.toMillis();
+        for (TopicPartition partition : assignments.keySet()) {
+            OptionalLong position = store.position(partition.partition());
+            if (position.isPresent()) {
+                callback.seek(partition.topic(), partition.partition(), position.getAsLong());
+            } else {
+                callback.seekToTimestamp(partition.topic(), partition.partition(), replayFrom);
+            }
+        }
+    }
+
+    private static void addMovement(List<LedgerMovement> movements, Transaction transaction,
+                                    LocalDateTime published) {
+        if (transaction == null || transaction.getWallet() == null || transaction.getWallet().getId() == null
+                || transaction.getAmount() == null || transaction.getOperation() == null) {
+            return;
+        }
+        LocalDateTime at = transaction.getTransactionDate() != null ? transaction.getTransactionDate() : published;
+        movements.add(new LedgerMovement(transaction.getWallet().getId(), transaction.getOperation(),
+                transaction.getAmount(), at));
+    }
+}
@@ -0,0 +1,55 @@
+package com.shizzy.moneytransfer.kafka;
+
+import com.shizzy.moneytransfer.model.OutboxEvent;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local stand-in for the broker. Relayed records are kept per topic in send order, and the broker can
+ * be marked unavailable to exercise the relay's retry path.
+ */
+public class InMemoryOutboxTransport implements OutboxTransport {
+
+    private final Map<String, List<ProducerRecord<String, byte[]>>> topics = new ConcurrentHashMap<>();
+    private volatile boolean available = true;
+
+    @Override
+    public CompletableFuture<?> send(OutboxEvent event) {
+        if (!available) {
+            return CompletableFuture.failedFuture(new TimeoutException("In-memory broker unavailable"));
+        }
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(event.getTopic(), null,
+                event.getMessageKey(), event.getPayload(), OutboxHeaders.decode(event.getHeaders()));
+        List<ProducerRecord<String, byte[]>> records = topics.computeIfAbsent(event.getTopic(), topic -> new ArrayList<>());
+        synchronized (records) {
+            records.add(record);
+        }
+        return CompletableFuture.completedFuture(record);
+    }
+
+    @Override
+    public void flush() {
+        // Records are stored as they are sent
+    }
+
+    public List<ProducerRecord<String, byte[]>> records(String topic) {
+        List<ProducerRecord<String, byte[]>> records = topics.getOrDefault(topic, List.of());
+        synchronized (records) {
+            return List.copyOf(records);
+        }
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    public void clear() {
+        topics.clear();
+    }
+}
@@ -0,0 +1,41 @@
+package com.shizzy.moneytransfer.kafka;
+
+import com.shizzy.moneytransfer.model.OutboxEvent;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends outbox events with a producer of its own, so its idempotence, compression and batching
+ * settings do not change the shared {@code KafkaTemplate}.
+ */
+public class KafkaOutboxTransport implements OutboxTransport, DisposableBean {
+
+    private final DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    public KafkaOutboxTransport(DefaultKafkaProducerFactory<String, byte[]> producerFactory) {
+        this.producerFactory = producerFactory;
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+    }
+
+    @Override
+    public CompletableFuture<?> send(OutboxEvent event) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(event.getTopic(), null,
+                event.getMessageKey(), event.getPayload(), OutboxHeaders.decode(event.getHeaders()));
+        return kafkaTemplate.send(record);
+    }
+
+    @Override
+    public void flush() {
+        kafkaTemplate.flush();
+    }
+
+    @Override
+    public void destroy() {
+        producerFactory.destroy();
+    }
+}
@@ -0,0 +1,54 @@
+package com.shizzy.moneytransfer.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stores record headers in the outbox as a JSON object. The producer only adds string headers, such
+ * as the JSON type id, so values are kept as UTF-8 text.
+ */
+final class OutboxHeaders {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, String>> HEADER_MAP = new TypeReference<>() {};
+
+    private OutboxHeaders() {
+    }
+
+    static String encode(Headers headers) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Header header : headers) {
+            values.put(header.key(), header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8));
+        }
+        if (values.isEmpty()) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode outbox headers", e);
+        }
+    }
+
+    static Headers decode(String encoded) {
+        RecordHeaders headers = new RecordHeaders();
+        if (encoded == null || encoded.isBlank()) {
+            return headers;
+        }
+        try {
+            MAPPER.readValue(encoded, HEADER_MAP).forEach((key, value) ->
+                    headers.add(key, value == null ? null : value.getBytes(StandardCharsets.UTF_8)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not decode outbox headers", e);
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,64 @@
+package com.shizzy.moneytransfer.kafka;
+
+import com.shizzy.moneytransfer.model.OutboxEvent;
+import com.shizzy.moneytransfer.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes notifications to the outbox table instead of sending them to Kafka. The row joins the
+ * caller's transaction when there is one, so an event is only relayed if the work behind it commits.
+ * {@link OutboxRelay} sends it later.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxNotificationProducer implements KafkaNotificationProducer {
+
+    private final OutboxEventRepository outboxEventRepository;
+    @Qualifier("outboxPayloadSerializer")
+    private final Serializer<Object> payloadSerializer;
+
+    @Override
+    @Transactional
+    public <T> void sendNotification(String topic, T notification) {
+        sendNotification(topic, null, notification);
+    }
+
+    /**
+     * Records with the same key go to the same partition, so their order is kept
+     */
+    @Transactional
+    public <T> void sendNotification(String topic, String key, T notification) {
+        outboxEventRepository.save(toOutboxEvent(topic, key, notification));
+        log.debug("Queued {} for topic {} in the outbox", notification.getClass().getSimpleName(), topic);
+    }
+
+    @Transactional
+    public <T> void sendNotifications(String topic, String key, List<T> notifications) {
+        outboxEventRepository.saveAll(notifications.stream()
+                .map(notification -> toOutboxEvent(topic, key, notification))
+                .toList());
+        log.debug("Queued {} notifications for topic {} in the outbox", notifications.size(), topic);
+    }
+
+    private OutboxEvent toOutboxEvent(String topic, String key, Object notification) {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] payload = payloadSerializer.serialize(topic, headers, notification);
+        return OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key)
+                .payload(payload)
+                .headers(OutboxHeaders.encode(headers))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
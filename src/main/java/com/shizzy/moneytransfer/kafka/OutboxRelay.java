@@ -0,0 +1,201 @@
+package com.shizzy.moneytransfer.kafka;
+
+import com.shizzy.moneytransfer.config.OutboxProperties;
+import com.shizzy.moneytransfer.enums.OutboxEventStatus;
+import com.shizzy.moneytransfer.model.OutboxEvent;
+import com.shizzy.moneytransfer.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox table to the configured {@link OutboxTransport}. Each batch is claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, handed to the producer in one go, flushed, and marked published once
+ * the broker has acknowledged it. Events whose send failed stay pending and are retried on the next pass,
+ * until they have failed {@code outbox.relay.max-attempts} times and move to FAILED for inspection.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private static final int PURGE_CHUNK_SIZE = 5000;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxTransport outboxTransport;
+    private final OutboxProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicLong failedEvents = new AtomicLong();
+
+    private TransactionTemplate transactionTemplate;
+    private Counter publishedCounter;
+    private Counter failedCounter;
+    private Counter abandonedCounter;
+    private Timer batchTimer;
+    private Timer deliveryTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        publishedCounter = Counter.builder("outbox.relay.published")
+                .description("Events acknowledged by the broker")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("outbox.relay.failed")
+                .description("Event sends that failed and were left for retry")
+                .register(meterRegistry);
+        abandonedCounter = Counter.builder("outbox.relay.abandoned")
+                .description("Events moved to FAILED after running out of attempts")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Time to claim, send and mark one batch")
+                .register(meterRegistry);
+        deliveryTimer = Timer.builder("outbox.relay.delivery")
+                .description("Time from writing an event to the outbox to its broker acknowledgement")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.pending", pendingEvents, AtomicLong::get)
+                .description("Events waiting in the outbox")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Age of the oldest event waiting in the outbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.failed.events", failedEvents, AtomicLong::get)
+                .description("Events in the outbox that ran out of attempts and are no longer sent")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:200}")
+    public void relay() {
+        if (!properties.getRelay().isEnabled()) {
+            return;
+        }
+        int batchSize = properties.getRelay().getBatchSize();
+        for (int batch = 0; batch < properties.getRelay().getMaxBatchesPerPoll(); batch++) {
+            if (relayBatch() < batchSize) {
+                break;
+            }
+        }
+        refreshBacklog();
+    }
+
+    /**
+     * Claims and publishes one batch in its own transaction
+     *
+     * @return the number of events claimed
+     */
+    public int relayBatch() {
+        Integer claimed = transactionTemplate.execute(status -> batchTimer.record(this::publishClaimedBatch));
+        return claimed == null ? 0 : claimed;
+    }
+
+    @Scheduled(cron = "${outbox.relay.cleanup-cron:0 30 3 * * ?}")
+    public void purgePublished() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRelay().getRetention());
+        int total = 0;
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(
+                    status -> outboxEventRepository.deletePublishedBefore(cutoff, PURGE_CHUNK_SIZE));
+            total += deleted == null ? 0 : deleted;
+        } while (deleted != null && deleted == PURGE_CHUNK_SIZE);
+        log.info("Purged {} outbox events published before {}", total, cutoff);
+    }
+
+    private int publishClaimedBatch() {
+        OutboxProperties.Relay relay = properties.getRelay();
+        List<OutboxEvent> events = outboxEventRepository.lockPending(relay.getBatchSize());
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            sends.add(sendQuietly(event));
+        }
+        outboxTransport.flush();
+
+        long deadline = System.nanoTime() + relay.getSendTimeout().toNanos();
+        List<Long> published = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                published.add(event.getId());
+                deliveryTimer.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } catch (ExecutionException e) {
+                recordFailure(event, e.getCause() != null ? e.getCause() : e);
+            } catch (TimeoutException e) {
+                recordFailure(event, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                recordFailure(event, e);
+            }
+        }
+
+        if (!published.isEmpty()) {
+            outboxEventRepository.markPublished(published, LocalDateTime.now());
+            publishedCounter.increment(published.size());
+        }
+        log.debug("Relayed {} of {} outbox events", published.size(), events.size());
+        return events.size();
+    }
+
+    private CompletableFuture<?> sendQuietly(OutboxEvent event) {
+        try {
+            return outboxTransport.send(event);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void recordFailure(OutboxEvent event, Throwable cause) {
+        failedCounter.increment();
+        String error = String.valueOf(cause.getMessage());
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        int maxAttempts = properties.getRelay().getMaxAttempts();
+        outboxEventRepository.recordFailure(event.getId(), error, maxAttempts);
+
+        int attempts = event.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            abandonedCounter.increment();
+            log.error("Giving up on outbox event {} for topic {} after {} attempts, marked FAILED: {}",
+                    event.getId(), event.getTopic(), attempts, error);
+        } else {
+            log.warn("Outbox event {} for topic {} failed (attempt {}): {}",
+                    event.getId(), event.getTopic(), attempts, error);
+        }
+    }
+
+    private void refreshBacklog() {
+        pendingEvents.set(outboxEventRepository.countByStatus(OutboxEventStatus.PENDING));
+        failedEvents.set(outboxEventRepository.countByStatus(OutboxEventStatus.FAILED));
+        lagMillis.set(outboxEventRepository.findOldestCreatedAt(OutboxEventStatus.PENDING)
+                .map(oldest -> Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()))
+                .orElse(0L));
+    }
+}
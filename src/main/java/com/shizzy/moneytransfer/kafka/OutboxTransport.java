@@ -0,0 +1,21 @@
+package com.shizzy.moneytransfer.kafka;
+
+import com.shizzy.moneytransfer.model.OutboxEvent;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Destination for events drained from the outbox table
+ */
+public interface OutboxTransport {
+
+    /**
+     * Hands the event to the producer. The future completes once the broker has acknowledged it.
+     */
+    CompletableFuture<?> send(OutboxEvent event);
+
+    /**
+     * Sends anything the producer is still holding back for batching
+     */
+    void flush();
+}
@@ -1,13 +1,15 @@
 package com.shizzy.moneytransfer.kafka;
 
 import java.time.LocalDateTime;
+import java.util.function.Consumer;
 
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.shizzy.moneytransfer.dto.CreateTransactionRequestBody;
 import com.shizzy.moneytransfer.dto.ScheduledTransferMessage;
@@ -22,6 +24,7 @@ import com.shizzy.moneytransfer.repository.UserRepository;
 import com.shizzy.moneytransfer.service.MoneyTransferService;
 import com.shizzy.moneytransfer.serviceimpl.ScheduledTransferServiceImpl;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -35,11 +38,14 @@ public class ScheduledTransferConsumer {
 
     private final ScheduledTransferRepository scheduledTransferRepository;
     private final MoneyTransferService moneyTransferService;
-    private final NotificationProducer notificationProducer;
+    private final OutboxNotificationProducer notificationProducer;
 
     private final UserRepository userRepository;
     private EmailService emailService;
     private final ScheduledTransferServiceImpl scheduledTransferServiceImpl;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
 
     @Autowired
     @Qualifier("mailtrapEmailService")
@@ -47,90 +53,114 @@ public class ScheduledTransferConsumer {
         this.emailService = emailService;
     }
 
+    @PostConstruct
+    public void initTransactionTemplate() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Each attempt runs in one transaction with the money movement, so the transfer, its EXECUTED status and the
+     * notification commit together. A failed attempt rolls back as a whole, including a ledger write that found too
+     * little money, and its outcome is then recorded in a transaction of its own.
+     */
     @KafkaListener(topics = "scheduled-transfers-execution", groupId = "scheduled_transfer_execution_group")
-    @Transactional
     public void listen(ConsumerRecord<String, ScheduledTransferMessage> record) {
         ScheduledTransferMessage message = record.value();
         log.info("Received scheduled transfer execution message: id={}, type={}",
                 message.getTransferId(), message.getMessageType());
 
         try {
-            // Retrieve the latest version of the scheduled transfer
-            ScheduledTransfer transfer = scheduledTransferRepository.findById(message.getTransferId())
-                    .orElseThrow(
-                            () -> new RuntimeException("Scheduled transfer not found: " + message.getTransferId()));
-
-            // Skip already processed transfers or those with changed status
-            if (transfer.getProcessed() == true || transfer.getStatus() != ScheduleStatus.PENDING) {
-                log.info("Skipping transfer ID {} - already processed or status changed", transfer.getId());
-                return;
-            }
-
-            // Execute the transfer
-            executeTransfer(transfer);
-
+            transactionTemplate.executeWithoutResult(status -> process(message));
+        } catch (InsufficientBalanceException e) {
+            // Business failure - not enough funds
+            recordOutcome(message, transfer -> handleInsufficientFunds(transfer, e.getMessage()));
         } catch (Exception e) {
             log.error("Error processing scheduled transfer: {}", e.getMessage(), e);
 
+            // Technical failure
+            recordOutcome(message, transfer -> handleExecutionFailure(transfer, e.getMessage()));
+
             // For system errors, mark the message for retry but don't increment the retry
             // count
             // This allows the system to recover from temporary failures
-            if (!(e instanceof InsufficientBalanceException)) {
-                handleSystemError(message);
-            }
+            handleSystemError(message);
+        }
+    }
+
+    private void process(ScheduledTransferMessage message) {
+        // Retrieve the latest version of the scheduled transfer
+        ScheduledTransfer transfer = scheduledTransferRepository.findById(message.getTransferId())
+                .orElseThrow(
+                        () -> new RuntimeException("Scheduled transfer not found: " + message.getTransferId()));
+
+        // Skip already processed transfers or those with changed status
+        if (isSettled(transfer)) {
+            log.info("Skipping transfer ID {} - already processed or status changed", transfer.getId());
+            return;
+        }
+
+        // Execute the transfer
+        executeTransfer(transfer);
+    }
+
+    /**
+     * Records the outcome of an attempt that rolled back, unless the transfer has been settled since
+     */
+    private void recordOutcome(ScheduledTransferMessage message, Consumer<ScheduledTransfer> outcome) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> scheduledTransferRepository
+                    .findById(message.getTransferId())
+                    .filter(transfer -> !isSettled(transfer))
+                    .ifPresent(outcome));
+        } catch (RuntimeException e) {
+            log.error("Could not record the outcome of scheduled transfer {}: {}",
+                    message.getTransferId(), e.getMessage(), e);
         }
     }
 
+    private static boolean isSettled(ScheduledTransfer transfer) {
+        return Boolean.TRUE.equals(transfer.getProcessed()) || transfer.getStatus() != ScheduleStatus.PENDING;
+    }
+
     /**
      * Execute a scheduled transfer
      */
     private void executeTransfer(ScheduledTransfer transfer) {
-        try {
-            // Mark as processing to prevent duplicate execution
-            transfer.setStatus(ScheduleStatus.PROCESSING);
-            scheduledTransferRepository.save(transfer);
-
-            // Create and execute the actual money transfer
-            CreateTransactionRequestBody requestBody = new CreateTransactionRequestBody(
-                    transfer.getSenderEmail(),
-                    transfer.getReceiverEmail(),
-                    transfer.getAmount(),
-                    transfer.getDescription());
-
-            // Execute the transfer
-            moneyTransferService.transfer(requestBody);
-
-            // Update the transfer status to EXECUTED
-            transfer.setStatus(ScheduleStatus.EXECUTED);
-            transfer.setExecutedAt(LocalDateTime.now());
-            transfer.setProcessed(true);
-            transfer.setProcessedDateTime(LocalDateTime.now());
-            scheduledTransferRepository.save(transfer);
+        // Mark as processing to prevent duplicate execution
+        transfer.setStatus(ScheduleStatus.PROCESSING);
+        scheduledTransferRepository.save(transfer);
 
-            // Send notification
-            sendNotification(transfer, "TRANSFER_EXECUTED");
+        // Create and execute the actual money transfer
+        CreateTransactionRequestBody requestBody = new CreateTransactionRequestBody(
+                transfer.getSenderEmail(),
+                transfer.getReceiverEmail(),
+                transfer.getAmount(),
+                transfer.getDescription());
 
-            log.info("Successfully executed scheduled transfer ID: {}", transfer.getId());
+        // Execute the transfer
+        moneyTransferService.transfer(requestBody);
 
-            // If this is a recurring transfer, schedule the next occurrence
-            if (transfer.getRecurrenceType() != RecurrenceType.NONE) {
-                scheduledTransferServiceImpl.scheduleNextOccurrenceIfNeeded(transfer);
-            }
+        // Update the transfer status to EXECUTED
+        transfer.setStatus(ScheduleStatus.EXECUTED);
+        transfer.setExecutedAt(LocalDateTime.now());
+        transfer.setProcessed(true);
+        transfer.setProcessedDateTime(LocalDateTime.now());
+        scheduledTransferRepository.save(transfer);
 
-            // Handle cache eviction to update the transfer status
-            scheduledTransferServiceImpl.evictCachesAfterProcessing(
-                    transfer.getId(),
-                    transfer.getParentTransferId());
+        // Send notification
+        sendNotification(transfer, "TRANSFER_EXECUTED");
 
-        } catch (InsufficientBalanceException e) {
-            // Business failure - not enough funds
-            handleInsufficientFunds(transfer, e.getMessage());
+        log.info("Successfully executed scheduled transfer ID: {}", transfer.getId());
 
-        } catch (Exception e) {
-            // Technical failure
-            handleExecutionFailure(transfer, e.getMessage());
-            throw e; // rethrow to trigger retry
+        // If this is a recurring transfer, schedule the next occurrence
+        if (transfer.getRecurrenceType() != RecurrenceType.NONE) {
+            scheduledTransferServiceImpl.scheduleNextOccurrenceIfNeeded(transfer);
         }
+
+        // Handle cache eviction to update the transfer status
+        scheduledTransferServiceImpl.evictCachesAfterProcessing(
+                transfer.getId(),
+                transfer.getParentTransferId());
     }
 
     /**
@@ -216,8 +246,8 @@ public class ScheduledTransferConsumer {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        // Send to Kafka topic for notification processing
-        notificationProducer.sendNotification(TOPIC_NOTIFICATIONS, notification);
-        log.info("Sent {} notification for scheduled transfer ID: {}", eventType, transfer.getId());
+        // Queued in the outbox with this listener's transaction; the relay sends it once that commits
+        notificationProducer.sendNotification(TOPIC_NOTIFICATIONS, String.valueOf(transfer.getId()), notification);
+        log.info("Queued {} notification for scheduled transfer ID: {}", eventType, transfer.getId());
     }
 }
\ No newline at end of file
@@ -19,7 +19,8 @@ import java.time.LocalDate;
 @Builder
 public class DailyTransactionTotal {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_transaction_totals_seq")
+    @SequenceGenerator(name = "daily_transaction_totals_seq", sequenceName = "daily_transaction_totals_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "user_id", nullable = false)
@@ -12,7 +12,8 @@ import lombok.*;
 @Builder
 public class FlaggedTransactionReason {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flagged_transaction_reason_seq")
+    @SequenceGenerator(name = "flagged_transaction_reason_seq", sequenceName = "flagged_transaction_reason_seq", allocationSize = 50)
     private Long id;
 
     private String reason;
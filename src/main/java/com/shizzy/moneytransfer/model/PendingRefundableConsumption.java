@@ -0,0 +1,44 @@
+package com.shizzy.moneytransfer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A transfer amount still to be deducted from the sending wallet's refundable deposits. Written with the
+ * transfer and deleted once the deduction has committed.
+ */
+@Entity
+@Table(name = "pending_refundable_consumption")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingRefundableConsumption {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pending_refundable_consumption_seq")
+    @SequenceGenerator(name = "pending_refundable_consumption_seq",
+            sequenceName = "pending_refundable_consumption_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(length = 500)
+    private String lastError;
+}
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class RefundImpactRecord {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refund_impact_records_seq")
+    @SequenceGenerator(name = "refund_impact_records_seq", sequenceName = "refund_impact_records_seq", allocationSize = 50)
     private Long id;
     
     private Integer depositTransactionId;
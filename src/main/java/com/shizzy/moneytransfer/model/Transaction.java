@@ -30,7 +30,8 @@ public class Transaction implements Serializable {
         private static final long serialVersionUID = 1L;
 
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+        @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
         @Column(name = "transaction_id")
         private Integer transactionId;
 
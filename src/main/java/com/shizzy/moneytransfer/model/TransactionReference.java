@@ -12,7 +12,8 @@ import lombok.*;
 @Builder
 public class TransactionReference {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_reference_seq")
+    @SequenceGenerator(name = "transaction_reference_seq", sequenceName = "transaction_reference_seq", allocationSize = 50)
     private Long id;
 
     @OneToOne(optional = true)
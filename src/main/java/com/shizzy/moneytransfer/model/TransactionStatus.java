@@ -22,7 +22,8 @@ public class TransactionStatus implements Serializable {
     private static final long serialVersionUID = 8L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_status_seq")
+    @SequenceGenerator(name = "transaction_status_seq", sequenceName = "transaction_status_seq", allocationSize = 50)
     private Integer id;
     private String status;
     private String note;
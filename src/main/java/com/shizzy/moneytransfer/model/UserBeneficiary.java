@@ -12,7 +12,8 @@ import lombok.*;
 @Builder
 public class UserBeneficiary {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_beneficiary_seq")
+    @SequenceGenerator(name = "user_beneficiary_seq", sequenceName = "user_beneficiary_seq", allocationSize = 50)
     private Long id;
 
     // @Column(nullable = false)
@@ -0,0 +1,44 @@
+package com.shizzy.moneytransfer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running total of a wallet's refundable deposit amounts, with a cursor at the oldest deposit that may
+ * still be refundable. Transfers consume deposits from the cursor onwards instead of scanning them all.
+ */
+@Entity
+@Table(name = "wallet_refundable_balance")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletRefundableBalance {
+    @Id
+    @Column(name = "wallet_id")
+    private Long walletId;
+
+    @Builder.Default
+    @Column(precision = 19, scale = 2, nullable = false)
+    private BigDecimal refundableTotal = BigDecimal.ZERO;
+
+    /**
+     * Position of the oldest deposit that may still be refundable; both are null when none is
+     */
+    private LocalDateTime cursorTransactionDate;
+
+    private Integer cursorTransactionId;
+
+    private LocalDateTime lastUpdated;
+
+    public void moveCursor(LocalDateTime transactionDate, Integer transactionId) {
+        this.cursorTransactionDate = transactionDate;
+        this.cursorTransactionId = transactionId;
+    }
+}
@@ -0,0 +1,69 @@
+package com.shizzy.moneytransfer.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Adds to {@code daily_transaction_totals} with single-statement upserts, so concurrent writers never
+ * read a total and write it back. Ids come from the column default on {@code daily_transaction_totals_seq}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DailySpendRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String ADD =
+            "INSERT INTO daily_transaction_totals (user_id, date, total_amount) VALUES (?, ?, ?) " +
+            "ON CONFLICT (user_id, date) DO UPDATE " +
+            "SET total_amount = daily_transaction_totals.total_amount + EXCLUDED.total_amount";
+
+    private static final String ADD_WITHIN_LIMIT = ADD +
+            " WHERE daily_transaction_totals.total_amount + EXCLUDED.total_amount <= ?";
+
+    private static final String SUBTRACT =
+            "UPDATE daily_transaction_totals SET total_amount = GREATEST(total_amount - ?, 0) " +
+            "WHERE user_id = ? AND date = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Delta(String userId, LocalDate date, BigDecimal amount) {
+    }
+
+    /**
+     * Adds every delta in one transaction, batched
+     */
+    @Transactional
+    public void addAll(List<Delta> deltas) {
+        jdbcTemplate.batchUpdate(ADD, deltas, BATCH_SIZE, (ps, delta) -> {
+            ps.setString(1, delta.userId());
+            ps.setDate(2, Date.valueOf(delta.date()));
+            ps.setBigDecimal(3, delta.amount());
+        });
+    }
+
+    public void add(String userId, LocalDate date, BigDecimal amount) {
+        jdbcTemplate.update(ADD, userId, Date.valueOf(date), amount);
+    }
+
+    /**
+     * Adds {@code amount} only if the new total stays within {@code limit}; the caller has checked that
+     * {@code amount} alone does
+     *
+     * @return whether the amount was added
+     */
+    public boolean addWithinLimit(String userId, LocalDate date, BigDecimal amount, BigDecimal limit) {
+        return jdbcTemplate.update(ADD_WITHIN_LIMIT, userId, Date.valueOf(date), amount, limit) == 1;
+    }
+
+    public void subtract(String userId, LocalDate date, BigDecimal amount) {
+        jdbcTemplate.update(SUBTRACT, amount, userId, Date.valueOf(date));
+    }
+}
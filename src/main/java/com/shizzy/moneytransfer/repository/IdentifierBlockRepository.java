@@ -0,0 +1,24 @@
+package com.shizzy.moneytransfer.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@RequiredArgsConstructor
+public class IdentifierBlockRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the first value of a newly leased block. nextval is not transactional, so a lease is
+     * never handed out twice even if the surrounding transaction rolls back.
+     */
+    public long leaseBlock(String sequenceName) {
+        Long start = jdbcTemplate.queryForObject("SELECT nextval(?::regclass)", Long.class, sequenceName);
+        if (start == null) {
+            throw new IllegalStateException("Sequence " + sequenceName + " returned no value");
+        }
+        return start;
+    }
+}
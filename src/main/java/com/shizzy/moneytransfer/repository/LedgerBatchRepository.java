@@ -0,0 +1,179 @@
+package com.shizzy.moneytransfer.repository;
+
+import com.shizzy.moneytransfer.dto.LedgerMovement;
+import com.shizzy.moneytransfer.dto.TransactionPair;
+import com.shizzy.moneytransfer.exception.InsufficientBalanceException;
+import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.model.Wallet;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * JDBC-batched ledger writes for multi-recipient transfers. Rows are written with
+ * {@link JdbcTemplate#batchUpdate} using transaction ids reserved from {@code transactions_seq}
+ * in a single round trip, following the same pooled-lo block allocation Hibernate uses for the entity.
+ * Every debit and credit row is also folded into the wallets' activity statistics in the same transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    // Must match the allocationSize on the entities and the sequence increment in V17
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String RESERVE_ID_BLOCKS = "SELECT nextval(?::regclass) FROM generate_series(1, ?)";
+
+    private static final String CREDIT_WALLET =
+            "UPDATE wallet SET balance = balance + ?, version = COALESCE(version, 0) + 1, last_modified_date = ? " +
+            "WHERE id = ?";
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (transaction_id, version, amount, refundable_amount, current_status, " +
+            "transaction_date, reference_number, description, narration, fee, operation, wallet_id, " +
+            "transaction_type, flagged) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TRANSACTION_REFERENCE =
+            "INSERT INTO transaction_reference (id, reference_number, debit_transaction_transaction_id, " +
+            "credit_transaction_transaction_id) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WalletRepository walletRepository;
+    private final WalletActivityStatsRepository walletActivityStatsRepository;
+
+    /**
+     * Debits {@code totalAmount} from the source wallet once, credits every recipient wallet and
+     * inserts the debit/credit transaction rows and their references, all in one database transaction.
+     * Wallet rows are locked in ascending id order, the same order the single-transfer path uses.
+     * Transaction ids are assigned to the passed-in {@link Transaction} objects.
+     *
+     * @throws InsufficientBalanceException if the source wallet no longer holds {@code totalAmount}
+     * @throws ResourceNotFoundException if a credited wallet no longer exists; nothing of the batch is kept
+     */
+    @Transactional
+    public void applyBulkTransfer(Wallet sourceWallet, BigDecimal totalAmount, List<TransactionPair> transactions) {
+        NavigableMap<Long, BigDecimal> creditsByWallet = new TreeMap<>();
+        for (TransactionPair pair : transactions) {
+            Transaction credit = pair.getCreditTransaction();
+            creditsByWallet.merge(credit.getWallet().getId(), credit.getAmount(), BigDecimal::add);
+        }
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Map<Long, BigDecimal> creditsBeforeSource = creditsByWallet.headMap(sourceWallet.getId(), false);
+        Map<Long, BigDecimal> creditsAfterSource = creditsByWallet.tailMap(sourceWallet.getId(), false);
+
+        creditWallets(creditsBeforeSource, now);
+        if (walletRepository.debitIfSufficient(sourceWallet.getId(), totalAmount) == 0) {
+            throw new InsufficientBalanceException("You do not have sufficient balance to complete this transaction");
+        }
+        creditWallets(creditsAfterSource, now);
+
+        insertTransactions(transactions);
+        insertReferences(transactions);
+        recordActivity(transactions);
+    }
+
+    private void creditWallets(Map<Long, BigDecimal> credits, Timestamp now) {
+        List<Map.Entry<Long, BigDecimal>> entries = new ArrayList<>(credits.entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(CREDIT_WALLET, entries, BATCH_SIZE, (ps, entry) -> {
+            ps.setBigDecimal(1, entry.getValue());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, entry.getKey());
+        });
+
+        // A credit that matched no row would leave the source debited for money nobody received
+        int entry = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count != 1) {
+                    throw new ResourceNotFoundException("Wallet not found: " + entries.get(entry).getKey());
+                }
+                entry++;
+            }
+        }
+    }
+
+    private void insertTransactions(List<TransactionPair> pairs) {
+        List<Transaction> rows = new ArrayList<>(pairs.size() * 2);
+        for (TransactionPair pair : pairs) {
+            rows.add(pair.getDebitTransaction());
+            rows.add(pair.getCreditTransaction());
+        }
+
+        long[] ids = reserveIds("transactions_seq", rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            rows.get(i).setTransactionId(Math.toIntExact(ids[i]));
+            rows.get(i).setVersion(0L);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, rows, BATCH_SIZE, (ps, transaction) -> {
+            ps.setInt(1, transaction.getTransactionId());
+            ps.setLong(2, transaction.getVersion());
+            ps.setBigDecimal(3, transaction.getAmount());
+            ps.setBigDecimal(4, transaction.getRefundableAmount());
+            ps.setString(5, transaction.getCurrentStatus());
+            ps.setTimestamp(6, Timestamp.valueOf(transaction.getTransactionDate()));
+            ps.setString(7, transaction.getReferenceNumber());
+            ps.setString(8, transaction.getDescription());
+            ps.setString(9, transaction.getNarration());
+            ps.setDouble(10, transaction.getFee());
+            ps.setString(11, transaction.getOperation().name());
+            ps.setLong(12, transaction.getWallet().getId());
+            ps.setString(13, transaction.getTransactionType().name());
+            ps.setBoolean(14, transaction.isFlagged());
+        });
+    }
+
+    private void insertReferences(List<TransactionPair> pairs) {
+        long[] ids = reserveIds("transaction_reference_seq", pairs.size());
+        List<Integer> indexes = IntStream.range(0, pairs.size()).boxed().toList();
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_REFERENCE, indexes, BATCH_SIZE, (ps, index) -> {
+            TransactionPair pair = pairs.get(index);
+            ps.setLong(1, ids[index]);
+            ps.setString(2, pair.getDebitTransaction().getReferenceNumber());
+            ps.setInt(3, pair.getDebitTransaction().getTransactionId());
+            ps.setInt(4, pair.getCreditTransaction().getTransactionId());
+        });
+    }
+
+    private void recordActivity(List<TransactionPair> pairs) {
+        List<LedgerMovement> movements = new ArrayList<>(pairs.size() * 2);
+        for (TransactionPair pair : pairs) {
+            movements.add(movement(pair.getDebitTransaction()));
+            movements.add(movement(pair.getCreditTransaction()));
+        }
+        walletActivityStatsRepository.recordAll(movements);
+    }
+
+    private static LedgerMovement movement(Transaction transaction) {
+        return new LedgerMovement(transaction.getWallet().getId(),
+                transaction.getOperation(), transaction.getAmount(), transaction.getTransactionDate());
+    }
+
+    /**
+     * Reserves {@code count} ids from a pooled-lo sequence. Each nextval owns the block
+     * {@code [value, value + ID_BLOCK_SIZE)}, so one query covers the whole batch.
+     */
+    private long[] reserveIds(String sequence, int count) {
+        int blocks = (count + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+        List<Long> blockStarts = jdbcTemplate.queryForList(RESERVE_ID_BLOCKS, Long.class, sequence, blocks);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = blockStarts.get(i / ID_BLOCK_SIZE) + i % ID_BLOCK_SIZE;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,50 @@
+package com.shizzy.moneytransfer.repository;
+
+import com.shizzy.moneytransfer.enums.OutboxEventStatus;
+import com.shizzy.moneytransfer.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Claims the oldest pending events. Rows locked by another relay are skipped, so several
+     * instances can drain the table at once without sending the same event twice.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE status = 'PENDING' " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockPending(@Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET status = 'PUBLISHED', published_at = :publishedAt WHERE id IN :ids",
+            nativeQuery = true)
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    /**
+     * Counts a failed send against the event, moving it to FAILED once it has used up its attempts
+     */
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET attempts = attempts + 1, last_error = :error, " +
+            "status = CASE WHEN attempts + 1 >= :maxAttempts THEN 'FAILED' ELSE status END WHERE id = :id",
+            nativeQuery = true)
+    int recordFailure(@Param("id") Long id, @Param("error") String error, @Param("maxAttempts") int maxAttempts);
+
+    long countByStatus(OutboxEventStatus status);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.status = :status")
+    Optional<LocalDateTime> findOldestCreatedAt(@Param("status") OutboxEventStatus status);
+
+    @Modifying
+    @Query(value = "DELETE FROM outbox_events WHERE id IN (SELECT id FROM outbox_events " +
+            "WHERE published_at < :cutoff ORDER BY id LIMIT :limit)", nativeQuery = true)
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,32 @@
+package com.shizzy.moneytransfer.repository;
+
+import com.shizzy.moneytransfer.model.PendingRefundableConsumption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PendingRefundableConsumptionRepository extends JpaRepository<PendingRefundableConsumption, Long> {
+
+    /**
+     * Claims the wallet's pending deductions. Rows locked by another instance are skipped, so two
+     * instances never deduct the same transfer.
+     */
+    @Query(value = "SELECT * FROM pending_refundable_consumption WHERE wallet_id = :walletId " +
+            "ORDER BY id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PendingRefundableConsumption> lockByWalletId(@Param("walletId") Long walletId);
+
+    @Modifying
+    @Query("UPDATE PendingRefundableConsumption p SET p.attempts = p.attempts + 1, p.lastError = :error " +
+            "WHERE p.walletId = :walletId")
+    int recordFailure(@Param("walletId") Long walletId, @Param("error") String error);
+
+    @Query(value = "SELECT DISTINCT wallet_id FROM pending_refundable_consumption WHERE created_at < :cutoff " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Long> findWalletIdsPendingBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
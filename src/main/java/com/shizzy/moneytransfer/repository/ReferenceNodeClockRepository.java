@@ -0,0 +1,36 @@
+package com.shizzy.moneytransfer.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class ReferenceNodeClockRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the epoch millisecond the node's references may have reached, or 0 if it has never recorded one
+     */
+    public long findIssuedUntil(int nodeId) {
+        List<Long> issuedUntil = jdbcTemplate.queryForList(
+                "SELECT issued_until FROM reference_node_clock WHERE node_id = ?", Long.class, nodeId);
+        return issuedUntil.isEmpty() ? 0L : issuedUntil.get(0);
+    }
+
+    /**
+     * Raises the node's mark to the given millisecond; a lower value, from a node that has fallen behind, is ignored
+     */
+    public void raiseIssuedUntil(int nodeId, long issuedUntil) {
+        jdbcTemplate.update("""
+                INSERT INTO reference_node_clock (node_id, issued_until, updated_at)
+                VALUES (?, ?, CURRENT_TIMESTAMP)
+                ON CONFLICT (node_id) DO UPDATE
+                SET issued_until = GREATEST(reference_node_clock.issued_until, EXCLUDED.issued_until),
+                    updated_at = CURRENT_TIMESTAMP
+                """, nodeId, issuedUntil);
+    }
+}
@@ -30,10 +30,24 @@ public interface TransactionRepository extends JpaRepository<Transaction, Intege
 
     Page<Transaction> findAll(Specification<Transaction> specification, Pageable pageable);
 
-    List<Transaction> findByWalletIdAndOperationAndRefundStatusNotOrderByTransactionDateAsc(
-            Long walletId,
-            TransactionOperation operation,
-            RefundStatus refundStatus);
+    /**
+     * Refundable deposits of a wallet at or after the given (transactionDate, transactionId) position,
+     * oldest first. This is the order transfers consume refundable amounts in.
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId " +
+            "AND t.operation = com.shizzy.moneytransfer.enums.TransactionOperation.DEPOSIT " +
+            "AND t.refundStatus <> com.shizzy.moneytransfer.enums.RefundStatus.NON_REFUNDABLE " +
+            "AND t.refundableAmount > 0 " +
+            "AND (t.transactionDate > :fromDate OR (t.transactionDate = :fromDate AND t.transactionId >= :fromId)) " +
+            "ORDER BY t.transactionDate ASC, t.transactionId ASC")
+    List<Transaction> findRefundableDepositsFrom(@Param("walletId") Long walletId,
+            @Param("fromDate") LocalDateTime fromDate, @Param("fromId") Integer fromId, Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(t.refundableAmount), 0) FROM Transaction t WHERE t.wallet.id = :walletId " +
+            "AND t.operation = com.shizzy.moneytransfer.enums.TransactionOperation.DEPOSIT " +
+            "AND t.refundStatus <> com.shizzy.moneytransfer.enums.RefundStatus.NON_REFUNDABLE " +
+            "AND t.refundableAmount > 0")
+    BigDecimal sumRefundableDepositAmount(@Param("walletId") Long walletId);
 
     @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.flaggedTransactionReasons WHERE t.referenceNumber = :referenceNumber")
     Optional<Transaction> findByReferenceNumberWithFlaggedReasons(@Param("referenceNumber") String referenceNumber);
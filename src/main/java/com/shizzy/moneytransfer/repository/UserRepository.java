@@ -1,9 +1,14 @@
 package com.shizzy.moneytransfer.repository;
 
+import com.shizzy.moneytransfer.dto.TransferParticipant;
 import com.shizzy.moneytransfer.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +17,16 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     Optional<User> findByUserId(UUID userId);
+    List<User> findAllByEmailIn(Collection<String> emails);
+
+    /**
+     * Resolves users and their wallets in one round trip. Wallets are keyed by the user id as text, so they
+     * are joined on that rather than through an association.
+     */
+    @Query("SELECT new com.shizzy.moneytransfer.dto.TransferParticipant(" +
+            "u.userId, u.email, u.firstName, u.lastName, w.id, w.walletId, w.version, w.balance) " +
+            "FROM User u " +
+            "LEFT JOIN Wallet w ON w.createdBy = CAST(u.userId AS String) " +
+            "WHERE u.email IN :emails")
+    List<TransferParticipant> findTransferParticipants(@Param("emails") Collection<String> emails);
 }
@@ -0,0 +1,142 @@
+package com.shizzy.moneytransfer.repository;
+
+import com.shizzy.moneytransfer.dto.LedgerMovement;
+import com.shizzy.moneytransfer.dto.WalletActivityStats;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maintains {@code wallet_activity_stats}, one row per wallet updated with every ledger movement. Each movement is
+ * folded in with a single upsert that applies Welford's update to the running mean and {@code m2}, so reading a
+ * wallet's statistics never touches its transactions. Callers record movements inside the transaction that moves
+ * the money, so the statistics commit or roll back with the balance change.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WalletActivityStatsRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    // Column order of the per-operation counters in every statement below
+    private static final List<TransactionOperation> OPERATIONS = List.of(
+            TransactionOperation.DEPOSIT, TransactionOperation.WITHDRAWAL, TransactionOperation.TRANSFER,
+            TransactionOperation.REVERSAL, TransactionOperation.REFUND);
+
+    private static final String RECORD =
+            "INSERT INTO wallet_activity_stats AS s (wallet_id, transaction_count, mean_amount, m2, last_activity, " +
+            "deposit_count, withdrawal_count, transfer_count, reversal_count, refund_count, updated_at) " +
+            "VALUES (?, 1, ?, 0, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (wallet_id) DO UPDATE SET " +
+            "transaction_count = s.transaction_count + 1, " +
+            "mean_amount = s.mean_amount + (EXCLUDED.mean_amount - s.mean_amount) / (s.transaction_count + 1), " +
+            "m2 = s.m2 + (EXCLUDED.mean_amount - s.mean_amount) * (EXCLUDED.mean_amount - s.mean_amount) " +
+            "* s.transaction_count / (s.transaction_count + 1), " +
+            "last_activity = GREATEST(s.last_activity, EXCLUDED.last_activity), " +
+            "deposit_count = s.deposit_count + EXCLUDED.deposit_count, " +
+            "withdrawal_count = s.withdrawal_count + EXCLUDED.withdrawal_count, " +
+            "transfer_count = s.transfer_count + EXCLUDED.transfer_count, " +
+            "reversal_count = s.reversal_count + EXCLUDED.reversal_count, " +
+            "refund_count = s.refund_count + EXCLUDED.refund_count, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String FIND =
+            "SELECT wallet_id, transaction_count, mean_amount, m2, last_activity, deposit_count, withdrawal_count, " +
+            "transfer_count, reversal_count, refund_count FROM wallet_activity_stats WHERE wallet_id = ?";
+
+    /*
+     * Recomputes a batch of wallets from their successful transactions and overwrites whatever is stored. The
+     * wallet rows are share-locked so ledger writes to the batch wait until it is done.
+     */
+    private static final String BACKFILL =
+            "WITH batch AS (SELECT id FROM wallet WHERE id > ? ORDER BY id LIMIT ? FOR SHARE) " +
+            "INSERT INTO wallet_activity_stats (wallet_id, transaction_count, mean_amount, m2, last_activity, " +
+            "deposit_count, withdrawal_count, transfer_count, reversal_count, refund_count, updated_at) " +
+            "SELECT b.id, COUNT(t.transaction_id), COALESCE(AVG(t.amount), 0), " +
+            "COALESCE(VAR_POP(t.amount) * COUNT(t.transaction_id), 0), MAX(t.transaction_date), " +
+            "COUNT(t.transaction_id) FILTER (WHERE t.operation = 'DEPOSIT'), " +
+            "COUNT(t.transaction_id) FILTER (WHERE t.operation = 'WITHDRAWAL'), " +
+            "COUNT(t.transaction_id) FILTER (WHERE t.operation = 'TRANSFER'), " +
+            "COUNT(t.transaction_id) FILTER (WHERE t.operation = 'REVERSAL'), " +
+            "COUNT(t.transaction_id) FILTER (WHERE t.operation = 'REFUND'), CURRENT_TIMESTAMP " +
+            "FROM batch b LEFT JOIN transactions t ON t.wallet_id = b.id AND t.current_status = 'SUCCESS' " +
+            "GROUP BY b.id " +
+            "ON CONFLICT (wallet_id) DO UPDATE SET " +
+            "transaction_count = EXCLUDED.transaction_count, mean_amount = EXCLUDED.mean_amount, m2 = EXCLUDED.m2, " +
+            "last_activity = EXCLUDED.last_activity, deposit_count = EXCLUDED.deposit_count, " +
+            "withdrawal_count = EXCLUDED.withdrawal_count, transfer_count = EXCLUDED.transfer_count, " +
+            "reversal_count = EXCLUDED.reversal_count, refund_count = EXCLUDED.refund_count, " +
+            "updated_at = EXCLUDED.updated_at " +
+            "RETURNING wallet_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Folds one movement into the wallet's statistics
+     */
+    public void record(long walletId, TransactionOperation operation, BigDecimal amount, LocalDateTime at) {
+        jdbcTemplate.update(RECORD, ps -> bind(ps, new LedgerMovement(walletId, operation, amount, at)));
+    }
+
+    /**
+     * Folds several movements in, in ascending wallet id order so concurrent writers lock the rows in the same order
+     */
+    public void recordAll(List<LedgerMovement> movements) {
+        List<LedgerMovement> ordered = movements.stream()
+                .sorted(Comparator.comparingLong(LedgerMovement::walletId))
+                .toList();
+        jdbcTemplate.batchUpdate(RECORD, ordered, BATCH_SIZE, WalletActivityStatsRepository::bind);
+    }
+
+    public Optional<WalletActivityStats> findByWalletId(long walletId) {
+        return jdbcTemplate.query(FIND, (rs, rowNum) -> stats(rs), walletId).stream().findFirst();
+    }
+
+    /**
+     * Recomputes the statistics of up to {@code batchSize} wallets with an id above {@code afterWalletId}
+     *
+     * @return the highest wallet id recomputed, or empty when no wallets are left
+     */
+    public Optional<Long> backfillBatch(long afterWalletId, int batchSize) {
+        return jdbcTemplate.queryForList(BACKFILL, Long.class, afterWalletId, batchSize).stream()
+                .max(Long::compare);
+    }
+
+    private static void bind(PreparedStatement ps, LedgerMovement movement) throws SQLException {
+        ps.setLong(1, movement.walletId());
+        ps.setBigDecimal(2, movement.amount());
+        ps.setTimestamp(3, Timestamp.valueOf(movement.at()));
+        for (int i = 0; i < OPERATIONS.size(); i++) {
+            ps.setLong(4 + i, OPERATIONS.get(i) == movement.operation() ? 1 : 0);
+        }
+    }
+
+    private static WalletActivityStats stats(ResultSet rs) throws SQLException {
+        Map<TransactionOperation, Long> operationCounts = new EnumMap<>(TransactionOperation.class);
+        for (TransactionOperation operation : OPERATIONS) {
+            operationCounts.put(operation, rs.getLong(operation.name().toLowerCase(Locale.ROOT) + "_count"));
+        }
+        Timestamp lastActivity = rs.getTimestamp("last_activity");
+        return new WalletActivityStats(
+                rs.getLong("wallet_id"),
+                rs.getLong("transaction_count"),
+                rs.getBigDecimal("mean_amount"),
+                rs.getBigDecimal("m2"),
+                lastActivity == null ? null : lastActivity.toLocalDateTime(),
+                operationCounts);
+    }
+}
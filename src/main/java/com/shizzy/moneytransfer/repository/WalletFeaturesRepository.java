@@ -0,0 +1,128 @@
+package com.shizzy.moneytransfer.repository;
+
+import com.shizzy.moneytransfer.dto.WalletFeatures;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Loads a wallet's {@link WalletFeatures} with one grouped query. Whole-history figures come from the wallet's
+ * {@code wallet_activity_stats} row; per-operation window counts and sums are aggregates of its last 24 hours of
+ * transactions, so the cost of a load does not grow with the wallet's age.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WalletFeaturesRepository {
+
+    private static final String LOAD =
+            "SELECT w.created_date, s.transaction_count, s.mean_amount, s.last_activity, t.operation, " +
+            "COUNT(t.transaction_id) FILTER (WHERE t.transaction_date > ?) AS hour_count, " +
+            "COALESCE(SUM(t.amount) FILTER (WHERE t.transaction_date > ?), 0) AS hour_sum, " +
+            "MIN(t.amount) FILTER (WHERE t.transaction_date > ?) AS hour_min, " +
+            "COUNT(t.transaction_id) AS day_count, " +
+            "COALESCE(SUM(t.amount), 0) AS day_sum, " +
+            "MIN(t.amount) AS day_min " +
+            "FROM wallet w " +
+            "LEFT JOIN wallet_activity_stats s ON s.wallet_id = w.id " +
+            "LEFT JOIN transactions t ON t.wallet_id = w.id AND t.transaction_date > ? " +
+            "WHERE w.wallet_id = ? " +
+            "GROUP BY w.created_date, s.transaction_count, s.mean_amount, s.last_activity, t.operation";
+
+    private static final String LOAD_PROFILE =
+            "SELECT w.created_date, s.transaction_count, s.mean_amount, s.last_activity " +
+            "FROM wallet w " +
+            "LEFT JOIN wallet_activity_stats s ON s.wallet_id = w.id " +
+            "WHERE w.wallet_id = ?";
+
+    private static final int MEAN_SCALE = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Loads the features of a wallet as of {@code now}, or empty when the wallet does not exist
+     */
+    public Optional<WalletFeatures> load(String walletId, LocalDateTime now) {
+        Timestamp hourAgo = Timestamp.valueOf(now.minusHours(1));
+        Timestamp dayAgo = Timestamp.valueOf(now.minusHours(24));
+        List<Row> rows = jdbcTemplate.query(LOAD, (rs, rowNum) -> row(rs),
+                hourAgo, hourAgo, hourAgo, dayAgo, walletId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(features(walletId, now, rows));
+    }
+
+    /**
+     * Loads the wallet's age and whole-history statistics without any window aggregates, for callers that keep
+     * the windows elsewhere; empty when the wallet does not exist
+     */
+    public Optional<WalletFeatures> loadProfile(String walletId, LocalDateTime now) {
+        List<Row> rows = jdbcTemplate.query(LOAD_PROFILE, (rs, rowNum) -> profileRow(rs), walletId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(features(walletId, now, rows));
+    }
+
+    /**
+     * One operation's window aggregates next to the wallet's statistics; a wallet without recent transactions
+     * comes back as a single row with no operation, and one without statistics yet has a zero count
+     */
+    record Row(LocalDateTime walletCreatedDate, long transactionCount, BigDecimal meanAmount,
+               LocalDateTime lastActivity, TransactionOperation operation,
+               WalletFeatures.OperationStats lastHour, WalletFeatures.OperationStats last24Hours) {
+    }
+
+    static WalletFeatures features(String walletId, LocalDateTime now, List<Row> rows) {
+        Map<TransactionOperation, WalletFeatures.OperationStats> lastHour = new EnumMap<>(TransactionOperation.class);
+        Map<TransactionOperation, WalletFeatures.OperationStats> last24Hours = new EnumMap<>(TransactionOperation.class);
+        for (Row row : rows) {
+            if (row.operation() != null) {
+                lastHour.put(row.operation(), row.lastHour());
+                last24Hours.put(row.operation(), row.last24Hours());
+            }
+        }
+        Row stats = rows.get(0);
+        BigDecimal meanAmount = stats.transactionCount() == 0 || stats.meanAmount() == null ? null
+                : stats.meanAmount().setScale(MEAN_SCALE, RoundingMode.HALF_UP);
+        return new WalletFeatures(walletId, now, stats.walletCreatedDate(), stats.lastActivity(),
+                stats.transactionCount(), meanAmount, lastHour, last24Hours);
+    }
+
+    private static Row profileRow(ResultSet rs) throws SQLException {
+        Timestamp lastActivity = rs.getTimestamp("last_activity");
+        return new Row(
+                rs.getTimestamp("created_date").toLocalDateTime(),
+                rs.getLong("transaction_count"),
+                rs.getBigDecimal("mean_amount"),
+                lastActivity == null ? null : lastActivity.toLocalDateTime(),
+                null, WalletFeatures.OperationStats.NONE, WalletFeatures.OperationStats.NONE);
+    }
+
+    private static Row row(ResultSet rs) throws SQLException {
+        String operation = rs.getString("operation");
+        Timestamp lastActivity = rs.getTimestamp("last_activity");
+        return new Row(
+                rs.getTimestamp("created_date").toLocalDateTime(),
+                rs.getLong("transaction_count"),
+                rs.getBigDecimal("mean_amount"),
+                lastActivity == null ? null : lastActivity.toLocalDateTime(),
+                operation == null ? null : TransactionOperation.valueOf(operation),
+                new WalletFeatures.OperationStats(rs.getLong("hour_count"), rs.getBigDecimal("hour_sum"),
+                        rs.getBigDecimal("hour_min")),
+                new WalletFeatures.OperationStats(rs.getLong("day_count"), rs.getBigDecimal("day_sum"),
+                        rs.getBigDecimal("day_min")));
+    }
+}
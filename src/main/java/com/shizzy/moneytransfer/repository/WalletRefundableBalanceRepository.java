@@ -0,0 +1,50 @@
+package com.shizzy.moneytransfer.repository;
+
+import com.shizzy.moneytransfer.model.WalletRefundableBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface WalletRefundableBalanceRepository extends JpaRepository<WalletRefundableBalance, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM WalletRefundableBalance b WHERE b.walletId = :walletId")
+    Optional<WalletRefundableBalance> findByWalletIdForUpdate(@Param("walletId") Long walletId);
+
+    /**
+     * Adds {@code amount} to the wallet's refundable total, creating the row on first use. The cursor
+     * moves back to the given deposit if that deposit sorts before it.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO wallet_refundable_balance AS b " +
+            "(wallet_id, refundable_total, cursor_transaction_date, cursor_transaction_id, last_updated) " +
+            "VALUES (:walletId, :amount, :depositDate, :depositId, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (wallet_id) DO UPDATE SET " +
+            "refundable_total = b.refundable_total + EXCLUDED.refundable_total, " +
+            "cursor_transaction_date = CASE WHEN b.cursor_transaction_date IS NULL " +
+            "OR (EXCLUDED.cursor_transaction_date, EXCLUDED.cursor_transaction_id) " +
+            "< (b.cursor_transaction_date, b.cursor_transaction_id) " +
+            "THEN EXCLUDED.cursor_transaction_date ELSE b.cursor_transaction_date END, " +
+            "cursor_transaction_id = CASE WHEN b.cursor_transaction_date IS NULL " +
+            "OR (EXCLUDED.cursor_transaction_date, EXCLUDED.cursor_transaction_id) " +
+            "< (b.cursor_transaction_date, b.cursor_transaction_id) " +
+            "THEN EXCLUDED.cursor_transaction_id ELSE b.cursor_transaction_id END, " +
+            "last_updated = CURRENT_TIMESTAMP", nativeQuery = true)
+    int addRefundable(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount,
+            @Param("depositDate") LocalDateTime depositDate, @Param("depositId") Integer depositId);
+
+    @Modifying
+    @Query(value = "UPDATE wallet_refundable_balance " +
+            "SET refundable_total = GREATEST(refundable_total - :amount, 0), last_updated = CURRENT_TIMESTAMP " +
+            "WHERE wallet_id = :walletId", nativeQuery = true)
+    int subtractRefundable(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount);
+}
@@ -1,8 +1,16 @@
 package com.shizzy.moneytransfer.repository;
 
 import com.shizzy.moneytransfer.model.Wallet;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface WalletRepository extends JpaRepository<Wallet, Long>{
@@ -10,4 +18,28 @@ public interface WalletRepository extends JpaRepository<Wallet, Long>{
     Optional<Wallet> findWalletByWalletId(String walletId);
     Optional<Wallet> findWalletByCreatedBy(String userId);
     boolean existsWalletByCreatedBy(String userId);
+    List<Wallet> findAllByCreatedByIn(Collection<String> userIds);
+
+    /**
+     * Locks the given wallets with SELECT ... FOR UPDATE. Rows are returned (and therefore locked)
+     * in ascending id order so two transfers touching the same pair of wallets cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id IN :ids ORDER BY w.id ASC")
+    List<Wallet> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Debits the wallet only if it holds at least {@code amount}.
+     *
+     * @return 1 if the wallet was debited, 0 if the balance was insufficient
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :amount, w.version = COALESCE(w.version, 0) + 1, " +
+            "w.lastModifiedDate = CURRENT_TIMESTAMP WHERE w.id = :id AND w.balance >= :amount")
+    int debitIfSufficient(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :amount, w.version = COALESCE(w.version, 0) + 1, " +
+            "w.lastModifiedDate = CURRENT_TIMESTAMP WHERE w.id = :id")
+    int credit(@Param("id") Long id, @Param("amount") BigDecimal amount);
 }
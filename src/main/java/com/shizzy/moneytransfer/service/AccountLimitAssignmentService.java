@@ -3,10 +3,12 @@ package com.shizzy.moneytransfer.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.events.VerificationLevelChangedEvent;
 import com.shizzy.moneytransfer.model.UserAccountLimit;
 import com.shizzy.moneytransfer.repository.UserAccountLimitRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -19,6 +21,7 @@ public class AccountLimitAssignmentService {
     private final UserAccountLimitRepository userAccountLimitRepository;
     private final AccountLimitService accountLimitService;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Assign default account limits to a new user from userId
@@ -61,6 +64,7 @@ public class AccountLimitAssignmentService {
             userLimit.setUserId(userId);
             userLimit.setVerificationLevel(level);
             userAccountLimitRepository.save(userLimit);
+            eventPublisher.publishEvent(new VerificationLevelChangedEvent(this, userId));
             
             log.info("Default account limits (EMAIL_VERIFIED) assigned to user {}", userId);
         } catch (Exception e) {
@@ -0,0 +1,17 @@
+package com.shizzy.moneytransfer.service;
+
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.model.AccountLimit;
+
+public interface AccountLimitTierCache {
+
+    /**
+     * Returns the limits of a verification tier from the in-memory snapshot; the result must not be modified
+     */
+    AccountLimit get(VerificationLevel level);
+
+    /**
+     * Reloads every tier from the database and swaps the snapshot in one step
+     */
+    void refresh();
+}
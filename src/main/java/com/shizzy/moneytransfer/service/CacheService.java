@@ -1,7 +1,8 @@
 package com.shizzy.moneytransfer.service;
 
+import com.shizzy.moneytransfer.dto.CacheKeyPage;
+
 import java.util.Map;
-import java.util.Set;
 
 public interface CacheService {
     /**
@@ -36,14 +37,16 @@ public interface CacheService {
     void clear(String cacheName);
     
     /**
-     * Get all keys in a specific cache
+     * Get one page of the keys in a specific cache
      * @param cacheName Name of the cache
-     * @return Set of keys
+     * @param cursor Cursor returned with the previous page, or "0" for the first page
+     * @param size Number of keys wanted; a page can hold fewer when the cache's keys are sparse
+     * @return The page of keys and the cursor of the next page
      */
-    Set<String> getKeys(String cacheName);
+    CacheKeyPage getKeys(String cacheName, String cursor, int size);
     
     /**
-     * Get cache statistics
+     * Get cache statistics, with each cache's size estimated from a sample of the keyspace
      * @return Map of cache statistics
      */
     Map<String, Map<String, Object>> getCacheStats();
@@ -0,0 +1,42 @@
+package com.shizzy.moneytransfer.service;
+
+import com.shizzy.moneytransfer.dto.DailySpendReservation;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+public interface DailySpendService {
+
+    /**
+     * Checks today's spend plus {@code amount} against {@code dailyLimit} and reserves the amount in the same
+     * step, so concurrent transfers cannot both pass the check. A null or non-positive limit means no limit.
+     *
+     * @return the reservation, or empty when the amount would exceed the limit
+     */
+    Optional<DailySpendReservation> reserve(String userId, BigDecimal amount, BigDecimal dailyLimit);
+
+    /**
+     * Turns a reservation into spend for the day. A reservation that timed out first is added as unreserved spend.
+     */
+    void commit(DailySpendReservation reservation);
+
+    /**
+     * Gives the reserved amount back
+     */
+    void release(DailySpendReservation reservation);
+
+    /**
+     * Adds spend that did not go through a reservation
+     */
+    void record(String userId, BigDecimal amount);
+
+    /**
+     * Today's committed spend plus open reservations
+     */
+    BigDecimal spentToday(String userId);
+
+    /**
+     * Writes spend committed since the last flush to {@code daily_transaction_totals}
+     */
+    void flush();
+}
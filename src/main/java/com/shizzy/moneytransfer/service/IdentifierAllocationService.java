@@ -0,0 +1,19 @@
+package com.shizzy.moneytransfer.service;
+
+import com.shizzy.moneytransfer.enums.IdentifierSequence;
+
+public interface IdentifierAllocationService {
+
+    /**
+     * Next unused value of the sequence, served from an in-memory block without a database lookup
+     */
+    long nextValue(IdentifierSequence sequence);
+
+    /**
+     * Next customer-visible identifier of the sequence: the next value shuffled within the sequence's domain,
+     * unique like the value itself but not guessable from the identifiers issued around it
+     *
+     * @throws IllegalStateException once the sequence has run past its domain
+     */
+    long nextIdentifier(IdentifierSequence sequence);
+}
@@ -0,0 +1,17 @@
+package com.shizzy.moneytransfer.service;
+
+import com.shizzy.moneytransfer.dto.LimitDecision;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+
+import java.math.BigDecimal;
+
+public interface LimitEvaluator {
+
+    /**
+     * Checks a deposit, withdrawal or transfer against every limit of the user's tier in one pass.
+     *
+     * @param projectedBalance the wallet balance after the operation, or null to skip the balance limit
+     */
+    LimitDecision evaluate(String userId, TransactionOperation operation, BigDecimal amount,
+            BigDecimal projectedBalance);
+}
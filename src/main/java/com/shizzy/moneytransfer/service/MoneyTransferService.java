@@ -1,6 +1,8 @@
 package com.shizzy.moneytransfer.service;
 
 import com.shizzy.moneytransfer.api.ApiResponse;
+import com.shizzy.moneytransfer.dto.BulkTransferRequest;
+import com.shizzy.moneytransfer.dto.BulkTransferResponse;
 import com.shizzy.moneytransfer.dto.CreateTransactionRequestBody;
 import com.shizzy.moneytransfer.dto.TransactionResponseDTO;
 import com.shizzy.moneytransfer.dto.TransferInitiationResponse;
@@ -18,4 +20,19 @@ public interface MoneyTransferService {
      * Complete a transfer with OTP verification
      */
     ApiResponse<TransactionResponseDTO> verifyAndTransfer(TransferVerificationRequest request, String userId);
+
+    /**
+     * Pay many recipients from one wallet in a single ledger write
+     */
+    ApiResponse<BulkTransferResponse> bulkTransfer(BulkTransferRequest request);
+
+    /**
+     * Initiate a bulk transfer - triggers OTP
+     */
+    ApiResponse<TransferInitiationResponse> initiateBulkTransfer(BulkTransferRequest request, String userId);
+
+    /**
+     * Complete a bulk transfer with OTP verification
+     */
+    ApiResponse<BulkTransferResponse> verifyAndBulkTransfer(TransferVerificationRequest request, String userId);
 }
@@ -27,6 +27,7 @@ public class RefundableAmountReconciliationService {
     private final TransactionRepository transactionRepository;
     private final WalletRepository walletRepository;
     private final RefundImpactRecordRepository refundImpactRecordRepository;
+    private final RefundableBalanceService refundableBalanceService;
 
     /**
      * Daily reconciliation of refundable amounts
@@ -106,6 +107,11 @@ public class RefundableAmountReconciliationService {
                 reconciliationPerformed = true;
             }
         }
+
+        // Bring the wallet's refundable total and FIFO cursor in line with the reconciled deposits
+        if (refundableBalanceService.rebuild(wallet.getId())) {
+            reconciliationPerformed = true;
+        }
         
         return reconciliationPerformed;
     }
@@ -0,0 +1,31 @@
+package com.shizzy.moneytransfer.service;
+
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.model.Wallet;
+
+import java.math.BigDecimal;
+
+public interface RefundableBalanceService {
+
+    /**
+     * Deducts a transfer from the wallet's refundable deposits, oldest first, starting at the wallet's cursor
+     */
+    void consume(Wallet wallet, BigDecimal transferAmount);
+
+    /**
+     * Records that {@code amount} of the deposit became refundable again, or for the first time
+     */
+    void credit(Transaction deposit, BigDecimal amount);
+
+    /**
+     * Records that {@code amount} was paid out of the wallet's refundable deposits outside a transfer
+     */
+    void release(Long walletId, BigDecimal amount);
+
+    /**
+     * Recomputes the wallet's refundable total and cursor from its deposits
+     *
+     * @return true if the stored values had drifted and were corrected
+     */
+    boolean rebuild(Long walletId);
+}
@@ -10,7 +10,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.shizzy.moneytransfer.dto.ScheduledTransferMessage;
 import com.shizzy.moneytransfer.enums.ScheduleStatus;
-import com.shizzy.moneytransfer.kafka.NotificationProducer;
+import com.shizzy.moneytransfer.kafka.OutboxNotificationProducer;
 import com.shizzy.moneytransfer.model.ScheduledTransfer;
 import com.shizzy.moneytransfer.repository.ScheduledTransferRepository;
 
@@ -27,14 +27,14 @@ public class ScheduledTransferPublisherService {
     private static final int BATCH_SIZE = 100;
     
     private final ScheduledTransferRepository scheduledTransferRepository;
-    private final NotificationProducer notificationProducer;
+    private final OutboxNotificationProducer notificationProducer;
     
     /**
      * Scan for scheduled transfers that are due for execution and publish them to Kafka
      * Runs every minute to catch due transfers
      */
     @Scheduled(fixedRate = 60000)
-    @Transactional(readOnly = true)
+    @Transactional
     public void publishDueTransfers() {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime lookAhead = now.plusMinutes(2); // look 2 minutes ahead
@@ -55,7 +55,7 @@ public class ScheduledTransferPublisherService {
      * Runs every 15 minutes
      */
     @Scheduled(fixedRate = 900000) 
-    @Transactional(readOnly = true)
+    @Transactional
     public void retryFailedTransfers() {
         LocalDateTime retryBefore = LocalDateTime.now().minusMinutes(15); // retry transfers that failed at least 15 minutes ago
         
@@ -77,7 +77,8 @@ public class ScheduledTransferPublisherService {
     }
     
     /**
-     * Publish a specific transfer to Kafka with a custom message type
+     * Publish a specific transfer to Kafka with a custom message type. The message is written to the
+     * outbox in the caller's transaction and relayed to Kafka after it commits.
      * @param transfer The scheduled transfer to publish
      * @param messageType The type of message (PUBLISH, RETRY, RECOVERY)
      */
@@ -97,15 +98,15 @@ public class ScheduledTransferPublisherService {
                 .messageType(messageType)
                 .build();
                 
-        notificationProducer.sendNotification(TOPIC_SCHEDULED_TRANSFERS, message);
-        log.info("Published transfer ID {} to Kafka (type: {})", transfer.getId(), messageType);
+        notificationProducer.sendNotification(TOPIC_SCHEDULED_TRANSFERS, String.valueOf(transfer.getId()), message);
+        log.info("Queued transfer ID {} for Kafka (type: {})", transfer.getId(), messageType);
     }
     
     /**
      * Publish all missed transfers at application startup
      * This ensures no transfers are missed if the server was down
      */
-    @Transactional(readOnly = true)
+    @Transactional
     public void publishMissedTransfers() {
         LocalDateTime now = LocalDateTime.now();
         
@@ -2,12 +2,19 @@ package com.shizzy.moneytransfer.service;
 
 import com.shizzy.moneytransfer.api.ApiResponse;
 import com.shizzy.moneytransfer.dto.AccountLimitDTO;
+import com.shizzy.moneytransfer.dto.DailySpendReservation;
+import com.shizzy.moneytransfer.dto.LimitDecision;
+import com.shizzy.moneytransfer.dto.SpendReservation;
+import com.shizzy.moneytransfer.dto.VelocityPermit;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.enums.VerificationLevel;
 import com.shizzy.moneytransfer.exception.TransactionLimitExceededException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -15,56 +22,104 @@ import java.math.BigDecimal;
 public class TransactionLimitService {
 
     private final AccountLimitService accountLimitService;
+    private final DailySpendService dailySpendService;
+    private final LimitEvaluator limitEvaluator;
+    private final VelocityLimitService velocityLimitService;
 
     /**
      * Check if a deposit would exceed the user's limits
      */
     public void validateDeposit(String userId, BigDecimal amount) {
-        if (accountLimitService.wouldExceedDepositLimit(userId, amount)) {
-            AccountLimitDTO limits = accountLimitService.getUserLimits(userId);
-            throw new TransactionLimitExceededException(
-                    "Deposit amount exceeds your limit of " + limits.getMaxDepositAmount());
-        }
-        
-        if (accountLimitService.wouldExceedDailyLimit(userId, amount)) {
-            AccountLimitDTO limits = accountLimitService.getUserLimits(userId);
-            throw new TransactionLimitExceededException(
-                    "This transaction would exceed your daily transaction limit of " + limits.getDailyTransactionLimit());
-        }
+        enforce(limitEvaluator.evaluate(userId, TransactionOperation.DEPOSIT, amount, null));
     }
     
     /**
      * Check if a withdrawal would exceed the user's limits
      */
     public void validateWithdrawal(String userId, BigDecimal amount) {
-        if (accountLimitService.wouldExceedWithdrawalLimit(userId, amount)) {
-            AccountLimitDTO limits = accountLimitService.getUserLimits(userId);
-            throw new TransactionLimitExceededException(
-                    "Withdrawal amount exceeds your limit of " + limits.getMaxWithdrawalAmount());
-        }
-        
-        if (accountLimitService.wouldExceedDailyLimit(userId, amount)) {
-            AccountLimitDTO limits = accountLimitService.getUserLimits(userId);
-            throw new TransactionLimitExceededException(
-                    "This transaction would exceed your daily transaction limit of " + limits.getDailyTransactionLimit());
-        }
+        enforce(limitEvaluator.evaluate(userId, TransactionOperation.WITHDRAWAL, amount, null));
     }
     
     /**
      * Check if a transfer would exceed the user's limits
      */
     public void validateTransfer(String userId, BigDecimal amount) {
+        enforce(limitEvaluator.evaluate(userId, TransactionOperation.TRANSFER, amount, null));
+    }
+    
+    /**
+     * Check a single transfer amount against the user's per-transfer limit
+     */
+    public void validateTransferAmount(String userId, BigDecimal amount) {
         if (accountLimitService.wouldExceedTransferLimit(userId, amount)) {
             AccountLimitDTO limits = accountLimitService.getUserLimits(userId);
             throw new TransactionLimitExceededException(
                     "Transfer amount exceeds your limit of " + limits.getMaxTransferAmount());
         }
-        
-        if (accountLimitService.wouldExceedDailyLimit(userId, amount)) {
-            AccountLimitDTO limits = accountLimitService.getUserLimits(userId);
+    }
+
+    /**
+     * Check the user's velocity and daily limits and hold the amount against them in one step. The caller
+     * commits the reservation once the money has moved, or releases it.
+     */
+    public SpendReservation reserveSpend(String userId, BigDecimal amount) {
+        AccountLimitDTO limits = accountLimitService.getUserLimits(userId);
+        VelocityPermit velocity = velocityLimitService.acquire(userId, limits.getVerificationLevel(), amount);
+
+        // Fully verified accounts have unlimited transaction capabilities
+        BigDecimal dailyLimit = limits.getVerificationLevel() == VerificationLevel.FULLY_VERIFIED
+                ? null : limits.getDailyTransactionLimit();
+        Optional<DailySpendReservation> daily;
+        try {
+            daily = dailySpendService.reserve(userId, amount, dailyLimit);
+        } catch (RuntimeException e) {
+            // Nothing was held against the daily limit, so the velocity permit is the only thing to give back
+            try {
+                velocityLimitService.release(velocity);
+            } catch (RuntimeException releaseFailure) {
+                e.addSuppressed(releaseFailure);
+            }
+            throw e;
+        }
+        if (daily.isEmpty()) {
+            velocityLimitService.release(velocity);
             throw new TransactionLimitExceededException(
                     "This transaction would exceed your daily transaction limit of " + limits.getDailyTransactionLimit());
         }
+        return new SpendReservation(daily.get(), velocity);
+    }
+
+    /**
+     * Turn held spend into spend once the money has moved
+     */
+    public void commitSpend(SpendReservation reservation) {
+        dailySpendService.commit(reservation.daily());
+    }
+
+    /**
+     * Give held spend back when the money did not move
+     */
+    public void releaseSpend(SpendReservation reservation) {
+        dailySpendService.release(reservation.daily());
+        velocityLimitService.release(reservation.velocity());
+    }
+
+    /**
+     * Give held spend back after the transaction it was reserved in rolled back. A daily hold that fell back to
+     * the database was written in that transaction and is already gone, so only holds kept in Redis are released.
+     */
+    public void releaseSpendAfterRollback(SpendReservation reservation) {
+        if (!reservation.daily().persisted()) {
+            dailySpendService.release(reservation.daily());
+        }
+        velocityLimitService.release(reservation.velocity());
+    }
+
+    /**
+     * Check the user's velocity limits and count an operation that is not held through a reservation
+     */
+    public void recordVelocity(String userId, BigDecimal amount) {
+        velocityLimitService.acquire(userId, accountLimitService.getUserVerificationLevel(userId), amount);
     }
     
     /**
@@ -77,4 +132,10 @@ public class TransactionLimitService {
                     "This transaction would exceed your maximum wallet balance limit of " + limits.getMaxWalletBalance());
         }
     }
-}
\ No newline at end of file
+
+    private void enforce(LimitDecision decision) {
+        if (!decision.allowed()) {
+            throw new TransactionLimitExceededException(decision.firstViolation().message());
+        }
+    }
+}
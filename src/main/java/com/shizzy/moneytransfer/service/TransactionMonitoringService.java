@@ -4,5 +4,11 @@ import com.shizzy.moneytransfer.exception.FraudulentTransactionException;
 import com.shizzy.moneytransfer.model.Transaction;
 
 public interface TransactionMonitoringService {
+    /**
+     * Screens a saved transaction with the fraud rules, recording any flags on it before throwing. Called for
+     * single transfers on the debit, before the ledger write, and for Stripe deposits on the pending credit,
+     * before the checkout session is created. Bulk transfer items, withdrawals and other deposit providers are
+     * not screened.
+     */
     void monitorTransaction(Transaction transaction) throws FraudulentTransactionException;
 }
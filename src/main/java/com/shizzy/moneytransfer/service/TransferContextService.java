@@ -0,0 +1,18 @@
+package com.shizzy.moneytransfer.service;
+
+import com.shizzy.moneytransfer.dto.TransferContext;
+import com.shizzy.moneytransfer.dto.TransferWallets;
+
+public interface TransferContextService {
+
+    /**
+     * Resolves both participants of a transfer, with their wallet ids, versions and balances, in one query.
+     * Verification levels are not part of the context; limits are looked up when the transfer executes.
+     */
+    TransferContext load(String senderEmail, String receiverEmail);
+
+    /**
+     * Loads the wallets recorded in the context by primary key and checks the sender's against its version
+     */
+    TransferWallets resolveWallets(TransferContext context);
+}
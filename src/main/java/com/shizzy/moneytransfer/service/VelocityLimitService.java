@@ -0,0 +1,23 @@
+package com.shizzy.moneytransfer.service;
+
+import com.shizzy.moneytransfer.dto.VelocityPermit;
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+
+import java.math.BigDecimal;
+
+public interface VelocityLimitService {
+
+    /**
+     * Checks the velocity rules of the user's tier over every rolling window and counts the operation in the
+     * same step, so concurrent operations cannot both slip under a rule.
+     *
+     * @return a permit to release if the operation does not go through
+     * @throws com.shizzy.moneytransfer.exception.TransactionLimitExceededException naming the rule it would break
+     */
+    VelocityPermit acquire(String userId, VerificationLevel level, BigDecimal amount);
+
+    /**
+     * Takes a counted operation back out of the windows it was counted in
+     */
+    void release(VelocityPermit permit);
+}
@@ -0,0 +1,26 @@
+package com.shizzy.moneytransfer.service;
+
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+
+import java.util.function.Function;
+
+public interface VerificationLevelCache {
+
+    /**
+     * Returns the user's cached level, calling {@code loader} only when it is not cached
+     */
+    VerificationLevel get(String userId, Function<String, VerificationLevel> loader);
+
+    /**
+     * Drops the user's cached level on this replica
+     */
+    void invalidate(String userId);
+
+    /**
+     * Starts memoizing levels on the current thread, so each user is looked up at most once until
+     * {@link #closeRequestScope()}
+     */
+    void openRequestScope();
+
+    void closeRequestScope();
+}
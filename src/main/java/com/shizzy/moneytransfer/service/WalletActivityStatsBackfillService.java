@@ -0,0 +1,50 @@
+package com.shizzy.moneytransfer.service;
+
+import com.shizzy.moneytransfer.config.WalletActivityStatsProperties;
+import com.shizzy.moneytransfer.repository.WalletActivityStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WalletActivityStatsBackfillService {
+
+    private final WalletActivityStatsRepository walletActivityStatsRepository;
+    private final WalletActivityStatsProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (properties.isBackfillOnStartup()) {
+            backfill();
+        }
+    }
+
+    /**
+     * Recomputes the activity statistics of every wallet from its successful transactions, walking wallets in
+     * id order one batch per statement. Safe to run again: each batch overwrites what is stored.
+     *
+     * @return the number of batches written
+     */
+    public int backfill() {
+        log.info("Starting wallet activity statistics backfill");
+
+        long lastWalletId = 0;
+        int batches = 0;
+        Optional<Long> batchEnd;
+        while ((batchEnd = walletActivityStatsRepository.backfillBatch(lastWalletId,
+                properties.getBackfillBatchSize())).isPresent()) {
+            lastWalletId = batchEnd.get();
+            batches++;
+            log.debug("Backfilled wallet activity statistics up to wallet {}", lastWalletId);
+        }
+
+        log.info("Completed wallet activity statistics backfill in {} batches", batches);
+        return batches;
+    }
+}
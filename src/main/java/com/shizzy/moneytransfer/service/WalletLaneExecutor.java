@@ -0,0 +1,52 @@
+package com.shizzy.moneytransfer.service;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+public interface WalletLaneExecutor {
+    /**
+     * Run an operation in the lane owning the given wallet and wait for its result.
+     * Operations on the same wallet run one at a time in submission order; operations on
+     * wallets in different lanes run in parallel.
+     * @param walletId Wallet the operation writes to
+     * @param operation Work to run
+     * @return The operation's result
+     */
+    <T> T execute(String walletId, Supplier<T> operation);
+
+    /**
+     * Run an operation that writes to several wallets once it holds the lanes of all of them, and wait for its
+     * result. Lanes are taken in one fixed order, so operations over overlapping wallets queue behind each other
+     * instead of deadlocking. Called inside a transaction, the operation runs on the caller's thread instead, so its
+     * writes join that transaction.
+     * @param walletIds Wallets the operation writes to
+     * @param operation Work to run
+     * @return The operation's result
+     */
+    <T> T execute(Collection<String> walletIds, Supplier<T> operation);
+
+    /**
+     * Run an operation in the lane owning the given wallet and wait for it to finish.
+     * @param walletId Wallet the operation writes to
+     * @param operation Work to run
+     */
+    default void execute(String walletId, Runnable operation) {
+        execute(walletId, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run an operation that writes to several wallets once it holds the lanes of all of them, and wait for it to
+     * finish.
+     * @param walletIds Wallets the operation writes to
+     * @param operation Work to run
+     */
+    default void execute(Collection<String> walletIds, Runnable operation) {
+        execute(walletIds, () -> {
+            operation.run();
+            return null;
+        });
+    }
+}
@@ -6,12 +6,15 @@ import com.shizzy.moneytransfer.dto.CreateTransactionRequestBody;
 import com.shizzy.moneytransfer.dto.TransactionResponseDTO;
 import com.shizzy.moneytransfer.dto.WithdrawalData;
 import com.shizzy.moneytransfer.dto.WithdrawalRequestMapper;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
 import com.shizzy.moneytransfer.model.Wallet;
 import com.stripe.model.checkout.Session;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.security.core.Authentication;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
 
 public interface WalletService {
     Wallet createWallet(String userId);
@@ -20,14 +23,15 @@ public interface WalletService {
     void flagWallet(String walletId);
     void unflagWallet(String walletId);
     Wallet findWalletOrThrow(String walletId);
+    Map<String, Wallet> findWalletsByUserIds(Collection<String> userIds);
     void verifyWalletBalance(BigDecimal balance, BigDecimal amount);
     ApiResponse<Wallet> getWalletByCreatedBy(Authentication connectedUser);
     ApiResponse<Wallet> getWalletByUserId(String userId);
     BigDecimal getWalletBalance(String walletId);
     Wallet updateWallet(Wallet wallet);
-    void deposit(Wallet destinationWallet, BigDecimal amount);
+    void deposit(Wallet destinationWallet, BigDecimal amount, TransactionOperation operation);
     void transfer(Wallet sourceWallet, Wallet destinationWallet, BigDecimal amount);
-    void debit(Wallet sourceWallet, BigDecimal amount);
+    void debit(Wallet sourceWallet, BigDecimal amount, TransactionOperation operation);
     void deleteWalletByWalletId(String walletId);
     void deleteWalletByUserId(Long userId);
     boolean existsWalletByWalletId(String walletId);
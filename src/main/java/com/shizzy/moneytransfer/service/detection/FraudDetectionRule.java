@@ -1,9 +1,22 @@
 package com.shizzy.moneytransfer.service.detection;
 
+import com.shizzy.moneytransfer.dto.WalletFeatures;
 import com.shizzy.moneytransfer.model.FlaggedTransactionReason;
 import com.shizzy.moneytransfer.model.Transaction;
 
+/**
+ * A fraud check on one transaction. Rules read the wallet's activity from the {@link WalletFeatures} snapshot
+ * loaded once per evaluation and must not query the database themselves. Rules of one transaction are evaluated
+ * concurrently, so they must not modify the transaction or the snapshot.
+ */
 public interface FraudDetectionRule {
-    boolean evaluate(Transaction transaction);
+    boolean evaluate(Transaction transaction, WalletFeatures features);
     FlaggedTransactionReason createReason(Transaction transaction);
+
+    /**
+     * Identifies the rule in configuration and metrics
+     */
+    default String name() {
+        return getClass().getSimpleName();
+    }
 }
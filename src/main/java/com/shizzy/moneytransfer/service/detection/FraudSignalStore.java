@@ -0,0 +1,47 @@
+package com.shizzy.moneytransfer.service.detection;
+
+import com.shizzy.moneytransfer.dto.LedgerMovement;
+import com.shizzy.moneytransfer.dto.WalletSignals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Per-wallet sliding activity windows built from the transaction event stream, kept in memory so fraud rules can
+ * read them without a database round trip. The store remembers how far it has consumed each partition of the
+ * stream, and its state together with those positions can be checkpointed and restored after a restart.
+ */
+public interface FraudSignalStore {
+
+    /**
+     * Applies the movements of the event at {@code offset} of a stream partition. Events at or before a position
+     * the store has already applied are ignored, so redelivered events are not counted twice.
+     */
+    void record(int partition, long offset, List<LedgerMovement> movements);
+
+    WalletSignals signals(long walletId, LocalDateTime now);
+
+    /**
+     * The offset of the next event to consume from a partition, or empty when nothing has been applied from it
+     */
+    OptionalLong position(int partition);
+
+    int walletCount();
+
+    /**
+     * Drops wallets without activity in either window and captures the remaining state with the stream positions
+     * it reflects
+     */
+    Checkpoint checkpoint(LocalDateTime now);
+
+    /**
+     * Replaces the store's state with a checkpoint; returns false, leaving the store as it was, when the checkpoint
+     * was taken with a different number of shards
+     */
+    boolean restore(Checkpoint checkpoint);
+
+    record Checkpoint(Map<Integer, Long> positions, List<byte[]> shards) {
+    }
+}
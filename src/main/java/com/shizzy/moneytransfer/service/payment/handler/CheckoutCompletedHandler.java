@@ -14,14 +14,9 @@ import com.shizzy.moneytransfer.serviceimpl.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import static com.shizzy.moneytransfer.util.CacheNames.ALL_USER_TRANSACTION;
-import static com.shizzy.moneytransfer.util.CacheNames.SINGLE_TRANSACTION;
-import static com.shizzy.moneytransfer.util.CacheNames.TRANSACTIONS;
-
 import java.math.BigDecimal;
 
 @Component
@@ -41,7 +36,6 @@ public class CheckoutCompletedHandler implements StripeEventHandler {
 
     @Override
     @Transactional
-    @CacheEvict(value = { TRANSACTIONS, SINGLE_TRANSACTION, ALL_USER_TRANSACTION }, allEntries = true)
     public void handleEvent(String eventData) {
         try {
             JsonNode rootNode = objectMapper.readTree(eventData);
@@ -3,25 +3,25 @@ package com.shizzy.moneytransfer.serviceimpl;
 import com.shizzy.moneytransfer.api.ApiResponse;
 import com.shizzy.moneytransfer.dto.AccountLimitDTO;
 import com.shizzy.moneytransfer.enums.VerificationLevel;
-import com.shizzy.moneytransfer.enums.VerificationStatus;
+import com.shizzy.moneytransfer.events.AccountLimitsChangedEvent;
 import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
 import com.shizzy.moneytransfer.model.AccountLimit;
-import com.shizzy.moneytransfer.model.DailyTransactionTotal;
-import com.shizzy.moneytransfer.model.KycVerification;
 import com.shizzy.moneytransfer.model.UserAccountLimit;
 import com.shizzy.moneytransfer.repository.AccountLimitRepository;
-import com.shizzy.moneytransfer.repository.DailyTransactionTotalRepository;
 import com.shizzy.moneytransfer.repository.KycVerificationRepository;
 import com.shizzy.moneytransfer.repository.UserAccountLimitRepository;
 import com.shizzy.moneytransfer.service.AccountLimitService;
+import com.shizzy.moneytransfer.service.AccountLimitTierCache;
+import com.shizzy.moneytransfer.service.DailySpendService;
+import com.shizzy.moneytransfer.service.VerificationLevelCache;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
@@ -31,44 +31,34 @@ import java.util.Optional;
 public class AccountLimitServiceImpl implements AccountLimitService {
 
     private final AccountLimitRepository accountLimitRepository;
-    private final DailyTransactionTotalRepository dailyTransactionTotalRepository;
+    private final DailySpendService dailySpendService;
     private final KycVerificationRepository kycVerificationRepository;
     private final UserAccountLimitRepository userAccountLimitRepository;
+    private final AccountLimitTierCache limitTiers;
+    private final VerificationLevelCache verificationLevelCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get the verification level of a specific user based on their KYC status
      */
     @Override
     public VerificationLevel getUserVerificationLevel(String userId) {
+        return verificationLevelCache.get(userId, this::loadVerificationLevel);
+    }
+
+    private VerificationLevel loadVerificationLevel(String userId) {
         // First check if the user has a specific verification level assigned
         Optional<UserAccountLimit> userLimitOpt = userAccountLimitRepository.findByUserId(userId);
         if (userLimitOpt.isPresent()) {
             return userLimitOpt.get().getVerificationLevel();
         }
 
-        // Fall back to KYC-based verification level determination
-        Optional<KycVerification> kycOpt = kycVerificationRepository.findByUserId(userId);
-
-        // If no KYC record exists, user is email verified (minimum level)
-        if (kycOpt.isEmpty()) {
-            return VerificationLevel.EMAIL_VERIFIED;
-        }
-
-        KycVerification kyc = kycOpt.get();
-
-        // If both ID and address are verified, user is fully verified
-        if (kyc.getIdVerificationStatus() == VerificationStatus.APPROVED &&
-                kyc.getAddressVerificationStatus() == VerificationStatus.APPROVED) {
-            return VerificationLevel.FULLY_VERIFIED;
-        }
-
-        // If only ID is verified, user has ID verification
-        if (kyc.getIdVerificationStatus() == VerificationStatus.APPROVED) {
-            return VerificationLevel.ID_VERIFIED;
-        }
-
-        // Otherwise, user only has email verification
-        return VerificationLevel.EMAIL_VERIFIED;
+        // Fall back to KYC-based verification level determination; without a KYC record the user is
+        // email verified (minimum level)
+        return kycVerificationRepository.findByUserId(userId)
+                .map(kyc -> VerificationLevel.fromKycStatuses(
+                        kyc.getIdVerificationStatus(), kyc.getAddressVerificationStatus()))
+                .orElse(VerificationLevel.EMAIL_VERIFIED);
     }
 
     /**
@@ -76,10 +66,7 @@ public class AccountLimitServiceImpl implements AccountLimitService {
      */
     @Override
     public AccountLimitDTO getLimitsForLevel(VerificationLevel level) {
-        AccountLimit limits = accountLimitRepository.findByVerificationLevel(level)
-                .orElseThrow(() -> new ResourceNotFoundException("Account limits not found for level: " + level));
-
-        return convertToDTO(limits);
+        return convertToDTO(limitTiers.get(level));
     }
 
     /**
@@ -97,21 +84,15 @@ public class AccountLimitServiceImpl implements AccountLimitService {
     @Override
     public boolean wouldExceedDailyLimit(String userId, BigDecimal amount) {
         VerificationLevel level = getUserVerificationLevel(userId);
-        AccountLimit limits = accountLimitRepository.findByVerificationLevel(level)
-                .orElseThrow(() -> new ResourceNotFoundException("Account limits not found for level: " + level));
+        AccountLimit limits = limitTiers.get(level);
 
         // Fully verified accounts have unlimited transaction capabilities
         if (level == VerificationLevel.FULLY_VERIFIED) {
             return false;
         }
 
-        // Get today's transaction total
-        Optional<DailyTransactionTotal> dailyTotalOpt = dailyTransactionTotalRepository
-                .findByUserIdAndDate(userId, LocalDate.now());
-
-        BigDecimal currentDailyTotal = dailyTotalOpt
-                .map(DailyTransactionTotal::getTotalAmount)
-                .orElse(BigDecimal.ZERO);
+        // Get today's transaction total, including spend reserved by transfers still in flight
+        BigDecimal currentDailyTotal = dailySpendService.spentToday(userId);
 
         // Check if new transaction would exceed daily limit
         BigDecimal newTotal = currentDailyTotal.add(amount);
@@ -130,8 +111,7 @@ public class AccountLimitServiceImpl implements AccountLimitService {
             return false;
         }
 
-        AccountLimit limits = accountLimitRepository.findByVerificationLevel(level)
-                .orElseThrow(() -> new ResourceNotFoundException("Account limits not found for level: " + level));
+        AccountLimit limits = limitTiers.get(level);
 
         return limits.isBalanceExceedingLimit(newBalance);
     }
@@ -148,8 +128,7 @@ public class AccountLimitServiceImpl implements AccountLimitService {
             return false;
         }
 
-        AccountLimit limits = accountLimitRepository.findByVerificationLevel(level)
-                .orElseThrow(() -> new ResourceNotFoundException("Account limits not found for level: " + level));
+        AccountLimit limits = limitTiers.get(level);
 
         return limits.isDepositExceedingLimit(amount);
     }
@@ -166,8 +145,7 @@ public class AccountLimitServiceImpl implements AccountLimitService {
             return false;
         }
 
-        AccountLimit limits = accountLimitRepository.findByVerificationLevel(level)
-                .orElseThrow(() -> new ResourceNotFoundException("Account limits not found for level: " + level));
+        AccountLimit limits = limitTiers.get(level);
 
         return limits.isWithdrawalExceedingLimit(amount);
     }
@@ -184,8 +162,7 @@ public class AccountLimitServiceImpl implements AccountLimitService {
             return false;
         }
 
-        AccountLimit limits = accountLimitRepository.findByVerificationLevel(level)
-                .orElseThrow(() -> new ResourceNotFoundException("Account limits not found for level: " + level));
+        AccountLimit limits = limitTiers.get(level);
 
         return limits.isTransferExceedingLimit(amount);
     }
@@ -194,20 +171,8 @@ public class AccountLimitServiceImpl implements AccountLimitService {
      * Record a transaction for daily limit tracking
      */
     @Override
-    @Transactional
     public void recordTransaction(String userId, BigDecimal amount) {
-        LocalDate today = LocalDate.now();
-
-        DailyTransactionTotal dailyTotal = dailyTransactionTotalRepository
-                .findByUserIdAndDate(userId, today)
-                .orElse(DailyTransactionTotal.builder()
-                        .userId(userId)
-                        .date(today)
-                        .totalAmount(BigDecimal.ZERO)
-                        .build());
-
-        dailyTotal.addTransaction(amount);
-        dailyTransactionTotalRepository.save(dailyTotal);
+        dailySpendService.record(userId, amount);
     }
 
     /**
@@ -226,8 +191,9 @@ public class AccountLimitServiceImpl implements AccountLimitService {
         limits.setMaxWithdrawalAmount(limitsDTO.getMaxWithdrawalAmount());
         limits.setMaxTransferAmount(limitsDTO.getMaxTransferAmount());
 
-        // Save updated limits
+        // Save updated limits; every replica swaps in a fresh tier snapshot once this commits
         limits = accountLimitRepository.save(limits);
+        eventPublisher.publishEvent(new AccountLimitsChangedEvent(this, level));
 
         return ApiResponse.<AccountLimitDTO>builder()
                 .success(true)
@@ -3,8 +3,10 @@ package com.shizzy.moneytransfer.serviceimpl;
 import com.shizzy.moneytransfer.api.ApiResponse;
 import com.shizzy.moneytransfer.client.GeminiAiClient;
 import com.shizzy.moneytransfer.dto.ConversationState;
+import com.shizzy.moneytransfer.dto.WalletActivityStats;
 import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
 import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.WalletActivityStatsRepository;
 import com.shizzy.moneytransfer.service.AiFinancialService;
 import com.shizzy.moneytransfer.service.AiIntentDetectionService;
 import com.shizzy.moneytransfer.service.ConversationManagerService;
@@ -29,6 +31,7 @@ public class AiFinancialServiceImpl implements AiFinancialService {
     private final AiScheduledTransferServiceImpl scheduledTransferService;
     private final AiInstantTransferServiceImpl instantTransferService;
     private final WalletService walletService;
+    private final WalletActivityStatsRepository walletActivityStatsRepository;
     private final GeminiAiClient geminiAiClient;
     private final Random random = new Random();
 
@@ -163,13 +166,28 @@ public class AiFinancialServiceImpl implements AiFinancialService {
 
         String formattedAmount = String.format(Locale.US, "%,.2f", balance);
 
-        return String.format(
+        String context = String.format(
             "Balance: %s %s\nCurrency: %s\nWallet Number: %s",
             currency.toUpperCase(Locale.ROOT),
             formattedAmount,
             currency.toUpperCase(Locale.ROOT),
             wallet.getWalletId()
         );
+
+        // Activity summary from the wallet's running statistics, a single-row read
+        return walletActivityStatsRepository.findByWalletId(wallet.getId())
+            .filter(stats -> stats.transactionCount() > 0)
+            .map(stats -> context + buildActivityContext(stats))
+            .orElse(context);
+    }
+
+    private String buildActivityContext(WalletActivityStats stats) {
+        return String.format(Locale.US,
+            "\nTransactions: %d\nAverage Transaction Amount: %,.2f\nLast Activity: %s",
+            stats.transactionCount(),
+            stats.meanAmount(),
+            stats.lastActivity()
+        );
     }
 
     /**
@@ -0,0 +1,67 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.enums.IdentifierSequence;
+import com.shizzy.moneytransfer.repository.IdentifierBlockRepository;
+import com.shizzy.moneytransfer.service.IdentifierAllocationService;
+import com.shizzy.moneytransfer.util.IdentifierPermutations;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Hands out identifiers from blocks leased from database sequences, one round trip per block.
+ * Every value comes from a block no other replica holds, so identifiers are unique by construction
+ * and the cost per identifier does not depend on how full the identifier space is. Values left in
+ * a block when the application stops are skipped, never reused.
+ * <p>
+ * Sequence values are predictable, so identifiers shown to customers go through
+ * {@link #nextIdentifier(IdentifierSequence)}, which shuffles them with a keyed permutation.
+ */
+@Slf4j
+@Service
+public class BlockIdentifierAllocationService implements IdentifierAllocationService {
+
+    private final IdentifierBlockRepository identifierBlockRepository;
+    private final IdentifierPermutations identifierPermutations;
+    private final Map<IdentifierSequence, LeasedBlock> blocks = new EnumMap<>(IdentifierSequence.class);
+
+    public BlockIdentifierAllocationService(IdentifierBlockRepository identifierBlockRepository,
+                                            IdentifierPermutations identifierPermutations) {
+        this.identifierBlockRepository = identifierBlockRepository;
+        this.identifierPermutations = identifierPermutations;
+        for (IdentifierSequence sequence : IdentifierSequence.values()) {
+            blocks.put(sequence, new LeasedBlock(sequence));
+        }
+    }
+
+    @Override
+    public long nextValue(IdentifierSequence sequence) {
+        return blocks.get(sequence).next();
+    }
+
+    @Override
+    public long nextIdentifier(IdentifierSequence sequence) {
+        return identifierPermutations.apply(sequence, nextValue(sequence));
+    }
+
+    private final class LeasedBlock {
+        private final IdentifierSequence sequence;
+        private long next;
+        private long end;
+
+        private LeasedBlock(IdentifierSequence sequence) {
+            this.sequence = sequence;
+        }
+
+        synchronized long next() {
+            if (next >= end) {
+                next = identifierBlockRepository.leaseBlock(sequence.getSequenceName());
+                end = next + sequence.getBlockSize();
+                log.debug("Leased {} block [{}, {})", sequence, next, end);
+            }
+            return next++;
+        }
+    }
+}
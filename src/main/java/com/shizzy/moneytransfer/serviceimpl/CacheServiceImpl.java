@@ -1,89 +1,167 @@
 package com.shizzy.moneytransfer.serviceimpl;
 
+import com.shizzy.moneytransfer.cache.CachedValue;
+import com.shizzy.moneytransfer.cache.TwoTierCacheManager;
+import com.shizzy.moneytransfer.config.CacheAdminProperties;
+import com.shizzy.moneytransfer.dto.CacheKeyPage;
 import com.shizzy.moneytransfer.service.CacheService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Cache administration over Redis. Keys are walked with {@code SCAN}, one bounded batch per call, and deleted with
+ * {@code UNLINK}, which frees the values off the main thread, so neither holds up other clients however many keys
+ * there are.
+ */
 @Service
 @RequiredArgsConstructor
 public class CacheServiceImpl implements CacheService {
 
     private static final Logger logger = LoggerFactory.getLogger(CacheServiceImpl.class);
+    private static final String FIRST_CURSOR = "0";
+    private static final String KEY_SEPARATOR = "::";
+
+    // ARGV: cursor, pattern, keys to examine. Returns the next cursor, the matching keys and the database size.
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> SCAN_SCRIPT = new DefaultRedisScript<>("""
+            local page = redis.call('SCAN', ARGV[1], 'MATCH', ARGV[2], 'COUNT', ARGV[3])
+            return {page[1], page[2], redis.call('DBSIZE')}""", List.class);
+
     private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TwoTierCacheManager cacheManager;
+    private final CacheAdminProperties properties;
+
+    // Each stats request samples where the previous one stopped, so repeated requests cover the whole keyspace
+    private final AtomicReference<String> statsCursor = new AtomicReference<>(FIRST_CURSOR);
 
     @Override
     public Object get(String cacheName, String key) {
-        String fullKey = cacheName + "::" + key;
+        String fullKey = cacheManager.redisKey(cacheName, key);
         Object value = redisTemplate.opsForValue().get(fullKey);
         logger.debug("Cache get - key: {}, found: {}", fullKey, value != null);
-        return value;
+        return value instanceof CachedValue cached ? cached.value() : value;
     }
 
     @Override
     public void put(String cacheName, String key, Object value, long ttlInSeconds) {
-        String fullKey = cacheName + "::" + key;
+        String fullKey = cacheManager.redisKey(cacheName, key);
         redisTemplate.opsForValue().set(fullKey, value, ttlInSeconds, TimeUnit.SECONDS);
         logger.debug("Cache put - key: {}", fullKey);
     }
 
     @Override
     public boolean evict(String cacheName, String key) {
-        String fullKey = cacheName + "::" + key;
-        Boolean result = redisTemplate.delete(fullKey);
+        String fullKey = cacheManager.redisKey(cacheName, key);
+        Boolean result = redisTemplate.unlink(fullKey);
         logger.debug("Cache evict - key: {}, success: {}", fullKey, result);
         return Boolean.TRUE.equals(result);
     }
 
     @Override
     public void clear(String cacheName) {
-        Set<String> keys = redisTemplate.keys(cacheName + "::*");
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
-            logger.debug("Cache clear - cache: {}, keys removed: {}", cacheName, keys.size());
+        // Moves the cache to a new generation, then reclaims the retired entries rather than waiting for their TTL
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+            long unlinked = unlinkRetiredGenerations(cacheName);
+            logger.debug("Cache clear - cache: {}, retired keys unlinked: {}", cacheName, unlinked);
         }
     }
 
     @Override
-    public Set<String> getKeys(String cacheName) {
-        return redisTemplate.keys(cacheName + "::*");
+    public CacheKeyPage getKeys(String cacheName, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, properties.getMaxPageSize()));
+        String pattern = cacheManager.redisKey(cacheName, "*");
+        List<String> keys = new ArrayList<>();
+        String next = cursor == null || cursor.isBlank() ? FIRST_CURSOR : cursor;
+        int calls = 0;
+        do {
+            ScanPage page = scan(next, pattern, Math.min(properties.getScanBatch(), limit - keys.size()));
+            keys.addAll(page.keys());
+            next = page.cursor();
+        } while (keys.size() < limit && !FIRST_CURSOR.equals(next) && ++calls < properties.getMaxScanCallsPerPage());
+        return new CacheKeyPage(keys, next, FIRST_CURSOR.equals(next));
     }
 
     @Override
     public Map<String, Map<String, Object>> getCacheStats() {
+        Map<String, Long> sampledPerCache = new HashMap<>();
+        long sampled = 0;
+        long databaseSize = 0;
+        String cursor = statsCursor.get();
+        do {
+            ScanPage page = scan(cursor, "*", properties.getScanBatch());
+            for (String key : page.keys()) {
+                sampled++;
+                int separator = key.indexOf(KEY_SEPARATOR);
+                if (separator > 0) {
+                    sampledPerCache.merge(key.substring(0, separator), 1L, Long::sum);
+                }
+            }
+            databaseSize = page.databaseSize();
+            cursor = page.cursor();
+        } while (sampled < properties.getStatsSample() && !FIRST_CURSOR.equals(cursor));
+        statsCursor.set(cursor);
+
         Map<String, Map<String, Object>> stats = new HashMap<>();
-        
-        // Get all cache names by pattern scan
-        Set<String> cachePatterns = redisTemplate.keys("*::*");
-        if (cachePatterns == null || cachePatterns.isEmpty()) {
-            return stats;
-        }
-        
-        // Extract unique cache names
-        Set<String> cacheNames = cachePatterns.stream()
-                .map(key -> key.split("::")[0])
-                .collect(java.util.stream.Collectors.toSet());
-                
-        // Collect stats for each cache
-        for (String cacheName : cacheNames) {
+        for (Map.Entry<String, Long> entry : sampledPerCache.entrySet()) {
             Map<String, Object> cacheStats = new HashMap<>();
-            Set<String> keys = redisTemplate.keys(cacheName + "::*");
-            
-            if (keys != null) {
-                cacheStats.put("size", keys.size());
-                cacheStats.put("keys", keys);
-            }
-            
-            stats.put(cacheName, cacheStats);
+            // The cache's share of the sample, scaled to the whole database
+            cacheStats.put("size", Math.round((double) entry.getValue() * databaseSize / sampled));
+            cacheStats.put("sampledKeys", entry.getValue());
+            cacheStats.put("sampleSize", sampled);
+            stats.put(entry.getKey(), cacheStats);
         }
-        
         return stats;
     }
-}
\ No newline at end of file
+
+    /**
+     * Unlinks the cache's keys from generations before the current one, a batch at a time
+     */
+    private long unlinkRetiredGenerations(String cacheName) {
+        String current = cacheManager.redisKey(cacheName, "");
+        String pattern = cacheName + KEY_SEPARATOR + "*";
+        long unlinked = 0;
+        String cursor = FIRST_CURSOR;
+        do {
+            ScanPage page = scan(cursor, pattern, properties.getScanBatch());
+            List<String> retired = page.keys().stream()
+                    .filter(key -> !key.startsWith(current))
+                    .toList();
+            if (!retired.isEmpty()) {
+                Long count = stringRedisTemplate.unlink(retired);
+                unlinked += count == null ? 0 : count;
+            }
+            cursor = page.cursor();
+        } while (!FIRST_CURSOR.equals(cursor));
+        return unlinked;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ScanPage scan(String cursor, String pattern, int count) {
+        List<Object> result = stringRedisTemplate.execute(SCAN_SCRIPT, List.of(), cursor, pattern,
+                String.valueOf(Math.max(1, count)));
+        if (result == null || result.size() < 3) {
+            return new ScanPage(FIRST_CURSOR, List.of(), 0);
+        }
+        return new ScanPage((String) result.get(0), (List<String>) result.get(1), ((Number) result.get(2)).longValue());
+    }
+
+    private record ScanPage(String cursor, List<String> keys, long databaseSize) {
+    }
+}
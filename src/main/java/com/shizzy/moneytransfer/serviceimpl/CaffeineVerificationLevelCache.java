@@ -0,0 +1,133 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shizzy.moneytransfer.config.VerificationLevelCacheProperties;
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.events.VerificationLevelChangedEvent;
+import com.shizzy.moneytransfer.service.VerificationLevelCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Keeps users' verification levels in a bounded per-replica cache. A change to a user's KYC statuses or assigned
+ * level evicts them here once it commits and is announced on a Redis channel so other replicas evict them too;
+ * entries also expire after a fixed time in case an announcement is missed. Inside a request scope each user is
+ * resolved once, so repeated limit checks in one request see the same level without going back to the cache.
+ */
+@Slf4j
+@Component
+public class CaffeineVerificationLevelCache implements VerificationLevelCache, MessageListener {
+
+    static final String CHANNEL = "verification-levels:invalidated";
+    private static final char SEPARATOR = '|';
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    private final Cache<String, VerificationLevel> cache;
+    private final ThreadLocal<Map<String, VerificationLevel>> requestMemo = new ThreadLocal<>();
+    private final String instanceId = UUID.randomUUID().toString();
+    private Counter memoHitCounter;
+
+    public CaffeineVerificationLevelCache(VerificationLevelCacheProperties properties,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verification-levels");
+        Gauge.builder("verification.level.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of verification level lookups served from the cache")
+                .register(meterRegistry);
+        memoHitCounter = Counter.builder("verification.level.request.memo.hits")
+                .description("Verification level lookups answered by the current request's memo")
+                .register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public VerificationLevel get(String userId, Function<String, VerificationLevel> loader) {
+        Map<String, VerificationLevel> memo = requestMemo.get();
+        if (memo != null) {
+            VerificationLevel memoized = memo.get(userId);
+            if (memoized != null) {
+                memoHitCounter.increment();
+                return memoized;
+            }
+        }
+        VerificationLevel level = cache.get(userId, loader);
+        if (memo != null) {
+            memo.put(userId, level);
+        }
+        return level;
+    }
+
+    @Override
+    public void invalidate(String userId) {
+        cache.invalidate(userId);
+        Map<String, VerificationLevel> memo = requestMemo.get();
+        if (memo != null) {
+            memo.remove(userId);
+        }
+    }
+
+    @Override
+    public void openRequestScope() {
+        requestMemo.set(new HashMap<>());
+    }
+
+    @Override
+    public void closeRequestScope() {
+        requestMemo.remove();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVerificationLevelChanged(VerificationLevelChangedEvent event) {
+        invalidate(event.getUserId());
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, instanceId + SEPARATOR + event.getUserId());
+        } catch (RuntimeException e) {
+            log.warn("Could not announce verification level change for user {}, other replicas expire it: {}",
+                    event.getUserId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(SEPARATOR);
+        if (separator < 0 || body.startsWith(instanceId + SEPARATOR)) {
+            return;
+        }
+        cache.invalidate(body.substring(separator + 1));
+    }
+}
@@ -17,6 +17,7 @@ import com.shizzy.moneytransfer.model.TransactionReference;
 import com.shizzy.moneytransfer.model.Wallet;
 import com.shizzy.moneytransfer.repository.TransactionReferenceRepository;
 import com.shizzy.moneytransfer.repository.TransactionRepository;
+import com.shizzy.moneytransfer.repository.WalletActivityStatsRepository;
 import com.shizzy.moneytransfer.model.User;
 import com.shizzy.moneytransfer.repository.UserRepository;
 import com.shizzy.moneytransfer.service.PaymentService;
@@ -36,6 +37,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -57,6 +59,7 @@ public class FlutterwaveService implements PaymentService {
     private final WalletService walletService;
     private NotificationProducer notificationProducer;
     private final UserRepository userRepository;
+    private final WalletActivityStatsRepository walletActivityStatsRepository;
 
     @Value("${flutterwave.api.live-key}")
     private String apiKey;
@@ -190,6 +193,7 @@ public class FlutterwaveService implements PaymentService {
     }
 
     @Override
+    @Transactional
     public ResponseEntity<String> handleWebhook(WebhookPayload payload) {
         processTransaction(payload);
         return ResponseEntity.ok("Webhook received");
@@ -334,6 +338,9 @@ public class FlutterwaveService implements PaymentService {
         transaction.setCurrentStatus(TransactionStatus.SUCCESS.getValue());
         transaction.setNarration(payload.getData().getNarration());
         transactionRepository.save(transaction);
+        // A withdrawal counts towards the wallet's activity once it settles, as the backfill counts it
+        walletActivityStatsRepository.record(transaction.getWallet().getId(), TransactionOperation.WITHDRAWAL,
+                transaction.getAmount(), LocalDateTime.now());
 
         TransferInfo transferInfo = getTransferInfo(transaction.getWallet().getCreatedBy());
 
@@ -382,7 +389,8 @@ public class FlutterwaveService implements PaymentService {
         transaction.setReferenceNumber(reference);
         transactionRepository.save(transaction);
 
-        walletService.deposit(wallet, transaction.getAmount().add(BigDecimal.valueOf(transaction.getFee())));
+        walletService.deposit(wallet, transaction.getAmount().add(BigDecimal.valueOf(transaction.getFee())),
+                TransactionOperation.REVERSAL);
     }
 
     private String generateAndSaveNewReference(Transaction transaction) {
@@ -2,6 +2,7 @@ package com.shizzy.moneytransfer.serviceimpl;
 
 import com.shizzy.moneytransfer.api.ApiResponse;
 import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.events.VerificationLevelChangedEvent;
 import com.shizzy.moneytransfer.exception.InvalidFileFormatException;
 import com.shizzy.moneytransfer.exception.InvalidRequestException;
 import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
@@ -15,6 +16,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.jetbrains.annotations.NotNull;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -33,6 +35,7 @@ public class KycVerificationServiceImpl implements KycVerificationService {
     private final DocumentUploadService documentUploadService;
     private final VerificationStatusService verificationStatusService;
     private final UserAccountLimitRepository userAccountLimitRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public ApiResponse<String> uploadIdDocument(Authentication connectedUser,
@@ -47,6 +50,7 @@ public class KycVerificationServiceImpl implements KycVerificationService {
         kyc.setIdDocumentUrl(documentUrl);
         kyc.setIdVerificationStatus(PENDING);
         kycVerificationRepository.save(kyc);
+        announceVerificationChange(userId);
 
         return createSuccessResponse("ID document uploaded successfully");
     }
@@ -70,6 +74,7 @@ public class KycVerificationServiceImpl implements KycVerificationService {
         verification.setAddressDocumentUrl(documentUrl);
         verification.setAddressVerificationStatus(PENDING);
         kycVerificationRepository.save(verification);
+        announceVerificationChange(userId);
 
         return createSuccessResponse("Address document uploaded successfully");
     }
@@ -85,6 +90,7 @@ public class KycVerificationServiceImpl implements KycVerificationService {
         if (kyc.getIdVerificationStatus() == APPROVED) {
             updateUserVerificationLevel(userId, VerificationLevel.FULLY_VERIFIED);
         }
+        announceVerificationChange(userId);
 
         return createSuccessResponse("Address verification approved successfully");
     }
@@ -93,6 +99,7 @@ public class KycVerificationServiceImpl implements KycVerificationService {
     public ApiResponse<String> rejectAddressVerification(@NotNull("user id is required") String userId,
             @NotNull("please provide reason for rejection") String rejectionReason) {
         verificationStatusService.updateVerificationStatus(userId, "id", REJECTED, rejectionReason);
+        announceVerificationChange(userId);
 
         return createSuccessResponse("Address verification rejected successfully");
 
@@ -104,6 +111,7 @@ public class KycVerificationServiceImpl implements KycVerificationService {
 
         // Update user's verification level to ID_VERIFIED
         updateUserVerificationLevel(userId, VerificationLevel.ID_VERIFIED);
+        announceVerificationChange(userId);
 
         return createSuccessResponse("ID verification approved successfully");
     }
@@ -112,6 +120,7 @@ public class KycVerificationServiceImpl implements KycVerificationService {
     public ApiResponse<String> rejectIdVerification(@NotNull("user id is required") String userId,
             @NotNull("please provide reason for rejection") String rejectionReason) {
         verificationStatusService.updateVerificationStatus(userId, "address", REJECTED, rejectionReason);
+        announceVerificationChange(userId);
 
         return createSuccessResponse("ID verification rejected successfully");
     }
@@ -134,6 +143,7 @@ public class KycVerificationServiceImpl implements KycVerificationService {
         }
 
         kycVerificationRepository.save(kyc);
+        announceVerificationChange(userId);
 
         return createSuccessResponse("KYC documents updated successfully");
 
@@ -170,4 +180,11 @@ public class KycVerificationServiceImpl implements KycVerificationService {
 
         log.info("Updated user {} verification level to {}", userId, level);
     }
+
+    /**
+     * Cached verification levels of the user are evicted once the change commits
+     */
+    private void announceVerificationChange(String userId) {
+        eventPublisher.publishEvent(new VerificationLevelChangedEvent(this, userId));
+    }
 }
@@ -2,46 +2,61 @@ package com.shizzy.moneytransfer.serviceimpl;
 
 import com.shizzy.moneytransfer.api.ApiResponse;
 import com.shizzy.moneytransfer.dto.*;
-import com.shizzy.moneytransfer.enums.RefundImpactType;
-import com.shizzy.moneytransfer.enums.RefundStatus;
 import com.shizzy.moneytransfer.enums.TransactionOperation;
 import com.shizzy.moneytransfer.enums.TransactionStatus;
 import com.shizzy.moneytransfer.enums.TransactionType;
+import com.shizzy.moneytransfer.events.TransferCompletedEvent;
+import com.shizzy.moneytransfer.exception.FraudulentTransactionException;
+import com.shizzy.moneytransfer.exception.InsufficientBalanceException;
 import com.shizzy.moneytransfer.exception.TransactionLimitExceededException;
-import com.shizzy.moneytransfer.kafka.NotificationProducer;
-import com.shizzy.moneytransfer.model.RefundImpactRecord;
+import com.shizzy.moneytransfer.kafka.OutboxNotificationProducer;
 import com.shizzy.moneytransfer.model.Transaction;
 import com.shizzy.moneytransfer.model.TransactionReference;
 import com.shizzy.moneytransfer.model.Wallet;
-import com.shizzy.moneytransfer.repository.RefundImpactRecordRepository;
+import com.shizzy.moneytransfer.repository.LedgerBatchRepository;
 import com.shizzy.moneytransfer.repository.TransactionRepository;
 import com.shizzy.moneytransfer.service.AccountLimitService;
 import com.shizzy.moneytransfer.model.User;
 import com.shizzy.moneytransfer.repository.UserRepository;
 import com.shizzy.moneytransfer.service.TransactionReferenceService;
 import com.shizzy.moneytransfer.service.TransactionService;
+import com.shizzy.moneytransfer.service.TransferContextService;
+import com.shizzy.moneytransfer.service.WalletLaneExecutor;
 import com.shizzy.moneytransfer.service.WalletService;
 import com.shizzy.moneytransfer.service.MoneyTransferService;
 import com.shizzy.moneytransfer.service.OtpService;
 import com.shizzy.moneytransfer.service.TransactionLimitService;
+import com.shizzy.moneytransfer.service.TransactionMonitoringService;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.Duration;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
@@ -51,51 +66,124 @@ public class MoneyTransferServiceImpl implements MoneyTransferService {
     private final WalletService walletService;
     private final TransactionReferenceService referenceService;
     private final UserRepository userRepository;
-    private final NotificationProducer notificationProducer;
     private final TransactionService transactionService;
     private final OtpService otpService;
     private final TransactionLimitService transactionLimitService;
     private final AccountLimitService accountLimitService;
-    private final RefundImpactRecordRepository refundImpactRecordRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WalletLaneExecutor walletLaneExecutor;
+    private final LedgerBatchRepository ledgerBatchRepository;
+    private final TransferContextService transferContextService;
+    private final OutboxNotificationProducer notificationProducer;
+    private final TransactionMonitoringService transactionMonitoringService;
+    private final PlatformTransactionManager transactionManager;
     @Qualifier("pendingTransferRedisTemplate")
-    private final RedisTemplate<String, CreateTransactionRequestBody> redisTemplate;
+    private final RedisTemplate<String, PendingTransfer> redisTemplate;
+    @Qualifier("pendingBulkTransferRedisTemplate")
+    private final RedisTemplate<String, BulkTransferRequest> bulkRedisTemplate;
+
+    @Value("${transfers.bulk.max-recipients:10000}")
+    private int maxBulkRecipients = 10000;
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate afterCommitTemplate;
 
     // Constants
     private static final String TRANSFER_OPERATION = "Money Transfer";
+    private static final String BULK_TRANSFER_OPERATION = "Bulk Transfer";
     private static final Duration TRANSFER_EXPIRY = Duration.ofMinutes(15);
     private static final String PENDING_TRANSFER_PREFIX = "pending_transfer:";
+    private static final String PENDING_BULK_TRANSFER_PREFIX = "pending_bulk_transfer:";
+    private static final String NOTIFICATIONS_TOPIC = "notifications";
+
+    @PostConstruct
+    public void initTransactionTemplate() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // Work done after the caller's transaction committed cannot join it any more
+        afterCommitTemplate = new TransactionTemplate(transactionManager);
+        afterCommitTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     @Override
     public ApiResponse<TransactionResponseDTO> transfer(CreateTransactionRequestBody requestBody) {
-        // Validate request and participants
+        // Validate request and resolve both participants with their wallets in one query
         validateSenderReceiver(requestBody.senderEmail(), requestBody.receiverEmail());
-        TransferInfo transferInfo = fetchSenderAndReceiverId(
-                requestBody.senderEmail(), requestBody.receiverEmail());
+        TransferContext context = transferContextService.load(requestBody.senderEmail(), requestBody.receiverEmail());
+        return executeTransfer(requestBody, context);
+    }
 
-        // Retrieve wallets and validate balance
-        Wallet sendingWallet = walletService.findWalletOrThrow(transferInfo.getSenderId());
-        Wallet receivingWallet = walletService.findWalletOrThrow(transferInfo.getReceiverId());
+    private ApiResponse<TransactionResponseDTO> executeTransfer(CreateTransactionRequestBody requestBody,
+            TransferContext context) {
+        TransferInfo transferInfo = context.toTransferInfo();
+
+        // Retrieve wallets by primary key and validate balance
+        TransferWallets wallets = transferContextService.resolveWallets(context);
+        Wallet sendingWallet = wallets.getSendingWallet();
+        Wallet receivingWallet = wallets.getReceivingWallet();
         walletService.verifyWalletBalance(sendingWallet.getBalance(), requestBody.amount());
 
-        // Validate against transaction limits
-        transactionLimitService.validateTransfer(transferInfo.getSenderId(), requestBody.amount());
+        // Validate against the per-transfer limit at execution, even if it passed at initiation: the sender's
+        // verification level, and with it the limit, may have changed while the OTP was outstanding. The velocity
+        // and daily limits are checked and the amount held against them in one step, so concurrent transfers
+        // cannot both fit under them; the hold is committed once the money has moved.
+        transactionLimitService.validateTransferAmount(transferInfo.getSenderId(), requestBody.amount());
+        SpendReservation reservation =
+                transactionLimitService.reserveSpend(transferInfo.getSenderId(), requestBody.amount());
 
         // Generate reference and process transaction
-        String referenceNumber = referenceService.generateUniqueReferenceNumber();
-        TransactionPair transactions = createTransactionPair(
-                sendingWallet, receivingWallet, requestBody, transferInfo, referenceNumber);
-
-        // Process transfer and update status
-        walletService.transfer(sendingWallet, receivingWallet, requestBody.amount());
-        saveTransactionReference(transactions, referenceNumber);
-        updateTransactionStatuses(transactions, TransactionStatus.SUCCESS);
+        String referenceNumber;
+        TransactionPair transactions;
+        try {
+            referenceNumber = referenceService.generateUniqueReferenceNumber();
+            transactions = createTransactionPair(
+                    sendingWallet, receivingWallet, requestBody, transferInfo, referenceNumber);
+        } catch (RuntimeException e) {
+            transactionLimitService.releaseSpend(reservation);
+            throw e;
+        }
 
-        // Post-processing
-        updateRefundableAmount(sendingWallet, requestBody.amount());
-        sendTransferNotification(transferInfo, transactions);
+        // Screen the debit before any money moves; a flagged transfer keeps its flags and is marked failed
+        try {
+            transactionMonitoringService.monitorTransaction(transactions.getDebitTransaction());
+        } catch (FraudulentTransactionException e) {
+            log.warn("Transfer {} blocked by fraud screening", referenceNumber);
+            transactionLimitService.releaseSpend(reservation);
+            markTransactionsFailed(transactions, "Blocked by fraud screening");
+            throw e;
+        } catch (RuntimeException e) {
+            transactionLimitService.releaseSpend(reservation);
+            throw e;
+        }
 
-        // Record the transaction for daily limit tracking
-        accountLimitService.recordTransaction(transferInfo.getSenderId(), requestBody.amount());
+        // Process transfer and update status. The balance check above can race with other debits on the
+        // same wallet; the ledger write re-checks it and throws InsufficientBalanceException, which callers
+        // handle like the check above. When wallet lanes are enabled the transfer holds the lanes of both
+        // wallets, so it is serialized with every other write to either of them; a transfer run inside a
+        // caller's transaction, like a scheduled one, stays on the caller's thread and joins it. The ledger
+        // write, the SUCCESS statuses and the outbox row for the notification commit together or not at all.
+        try {
+            walletLaneExecutor.execute(List.of(sendingWallet.getWalletId(), receivingWallet.getWalletId()),
+                    () -> transactionTemplate.executeWithoutResult(status -> {
+                        walletService.transfer(sendingWallet, receivingWallet, requestBody.amount());
+                        saveTransactionReference(transactions, referenceNumber);
+                        updateTransactionStatuses(transactions, TransactionStatus.SUCCESS);
+                        notificationProducer.sendNotifications(NOTIFICATIONS_TOPIC, transferInfo.getSenderId(),
+                                List.of(buildTransferNotification(transferInfo, transactions)));
+
+                        // Refundable balances are applied after commit, off this thread
+                        eventPublisher.publishEvent(new TransferCompletedEvent(this, sendingWallet,
+                                transferInfo.getSenderId(), requestBody.amount()));
+                    }));
+        } catch (InsufficientBalanceException e) {
+            log.warn("Transfer {} rejected at ledger write: {}", referenceNumber, e.getMessage());
+            transactionLimitService.releaseSpend(reservation);
+            markTransactionsFailed(transactions, e.getMessage());
+            throw e;
+        } catch (RuntimeException e) {
+            transactionLimitService.releaseSpend(reservation);
+            throw e;
+        }
+        commitSpendAfterCompletion(reservation);
 
         return buildSuccessResponse(transactions, sendingWallet, receivingWallet, referenceNumber);
     }
@@ -119,7 +207,6 @@ public class MoneyTransferServiceImpl implements MoneyTransferService {
                 referenceNumber);
 
         debitTransaction.setCurrentStatus(TransactionStatus.PENDING.getValue());
-        transactionRepository.save(debitTransaction);
 
         final Transaction creditTransaction = transactionService.createTransaction(
                 receivingWallet,
@@ -130,7 +217,9 @@ public class MoneyTransferServiceImpl implements MoneyTransferService {
                 referenceNumber);
 
         creditTransaction.setCurrentStatus(TransactionStatus.PENDING.getValue());
-        transactionRepository.save(creditTransaction);
+
+        // Saved together so both inserts go out as one JDBC batch
+        transactionRepository.saveAll(List.of(debitTransaction, creditTransaction));
 
         return new TransactionPair(debitTransaction, creditTransaction);
     }
@@ -149,19 +238,48 @@ public class MoneyTransferServiceImpl implements MoneyTransferService {
         transactions.getCreditTransaction().setCurrentStatus(status.getValue());
         transactions.getDebitTransaction().setCurrentStatus(status.getValue());
 
-        transactionRepository.save(transactions.getCreditTransaction());
-        transactionRepository.save(transactions.getDebitTransaction());
+        transactionRepository.saveAll(List.of(transactions.getCreditTransaction(), transactions.getDebitTransaction()));
     }
 
-    private void sendTransferNotification(TransferInfo transferInfo, TransactionPair transactions) {
-        TransactionNotification notification = TransactionNotification.builder()
+    /**
+     * Commits the spend hold once the ledger write is durable. A transfer that joined a caller's transaction,
+     * like a scheduled one, is only durable when the caller commits; if the caller rolls back, the hold is
+     * released instead. Without a surrounding transaction the ledger write has already committed. Committing
+     * may fall back to the database, so after the caller's commit it runs in a transaction of its own.
+     */
+    private void commitSpendAfterCompletion(SpendReservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionLimitService.commitSpend(reservation);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                afterCommitTemplate.executeWithoutResult(status -> transactionLimitService.commitSpend(reservation));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    transactionLimitService.releaseSpendAfterRollback(reservation);
+                }
+            }
+        });
+    }
+
+    private void markTransactionsFailed(TransactionPair transactions, String reason) {
+        transactions.getDebitTransaction().setFailureReason(reason);
+        transactions.getCreditTransaction().setFailureReason(reason);
+        updateTransactionStatuses(transactions, TransactionStatus.FAILED);
+    }
+
+    private TransactionNotification buildTransferNotification(TransferInfo transferInfo, TransactionPair transactions) {
+        return TransactionNotification.builder()
                 .operation(TransactionOperation.TRANSFER)
                 .transferInfo(transferInfo)
                 .debitTransaction(transactions.getDebitTransaction())
                 .creditTransaction(transactions.getCreditTransaction())
                 .build();
-
-        notificationProducer.sendNotification("notifications", notification);
     }
 
     private ApiResponse<TransactionResponseDTO> buildSuccessResponse(
@@ -197,126 +315,33 @@ public class MoneyTransferServiceImpl implements MoneyTransferService {
         }
     }
 
-    private TransferInfo fetchSenderAndReceiverId(String senderEmail, String receiverEmail) {
-        User sender = userRepository.findByEmail(senderEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        User receiver = userRepository.findByEmail(receiverEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-        return TransferInfo.builder()
-                .senderId(sender.getUserId().toString())
-                .receiverId(receiver.getUserId().toString())
-                .senderName(sender.getFirstName() + " " + sender.getLastName())
-                .receiverName(receiver.getFirstName() + " " + receiver.getLastName())
-                .senderEmail(sender.getEmail())
-                .receiverEmail(receiver.getEmail())
-                .build();
-    }
-
-    private void updateRefundableAmount(Wallet sendingWallet, BigDecimal transferAmount) {
-        log.info("Updating refundable amounts for wallet {} after transfer of {}",
-                sendingWallet.getWalletId(), transferAmount);
-
-        BigDecimal remainingToDeduct = transferAmount;
-
-        // Get all refundable deposits ordered by date (oldest first) - FIFO approach
-        List<Transaction> senderDeposits = transactionRepository
-                .findByWalletIdAndOperationAndRefundStatusNotOrderByTransactionDateAsc(
-                        sendingWallet.getId(),
-                        TransactionOperation.DEPOSIT,
-                        RefundStatus.NON_REFUNDABLE);
-
-        if (senderDeposits.isEmpty()) {
-            log.info("No refundable deposits found. Transfer likely used previously received funds.");
-            return;
-        }
-
-        log.debug("Found {} refundable deposits to process", senderDeposits.size());
-
-        for (Transaction deposit : senderDeposits) {
-            BigDecimal depositRefundableAmount = deposit.getRefundableAmount();
-            log.debug("Processing deposit ID: {}, reference: {}, refundable amount: {}",
-                    deposit.getTransactionId(), deposit.getReferenceNumber(), depositRefundableAmount);
-
-            if (depositRefundableAmount.compareTo(BigDecimal.ZERO) <= 0) {
-                continue; // Skip deposits with no refundable amount
-            }
-
-            // Calculate how much to deduct from this deposit
-            BigDecimal amountToDeduct = remainingToDeduct.min(depositRefundableAmount);
-            BigDecimal newRefundableAmount = depositRefundableAmount.subtract(amountToDeduct);
-
-            // Update deposit's refundable amount
-            deposit.setRefundableAmount(newRefundableAmount);
-
-            // Update refund status based on new refundable amount
-            if (newRefundableAmount.compareTo(BigDecimal.ZERO) == 0) {
-                deposit.setRefundStatus(RefundStatus.NON_REFUNDABLE);
-                log.debug("Deposit ID: {} is now NON_REFUNDABLE", deposit.getTransactionId());
-            } else if (newRefundableAmount.compareTo(deposit.getAmount()) < 0) {
-                deposit.setRefundStatus(RefundStatus.PARTIALLY_REFUNDABLE);
-                log.debug("Deposit ID: {} is now PARTIALLY_REFUNDABLE with amount {}",
-                        deposit.getTransactionId(), newRefundableAmount);
-            }
-            // Create a refund impact record for audit trail
-            createRefundImpactRecord(deposit, amountToDeduct, transferAmount);
-
-            // Save updated deposit
-            transactionRepository.save(deposit);
-
-            // Update remaining amount to deduct
-            remainingToDeduct = remainingToDeduct.subtract(amountToDeduct);
-
-            if (remainingToDeduct.compareTo(BigDecimal.ZERO) <= 0) {
-                break;
-            }
-        }
-
-        // If we've gone through all deposits and still have amount to deduct,
-        // the transfer used previously received funds (not refundable deposits)
-        if (remainingToDeduct.compareTo(BigDecimal.ZERO) > 0) {
-            log.info("Transfer partially used non-deposit funds: {}", remainingToDeduct);
-        }
-    }
-
     @Override
     public ApiResponse<TransferInitiationResponse> initiateTransfer(CreateTransactionRequestBody requestBody,
             String userId) {
-        // Validate request and user
+        // Validate request and resolve both participants once; the result travels with the pending transfer
         validateSenderReceiver(requestBody.senderEmail(), requestBody.receiverEmail());
+        TransferContext context = transferContextService.load(requestBody.senderEmail(), requestBody.receiverEmail());
+        TransferParticipant sender = context.sender();
+        TransferParticipant receiver = context.receiver();
 
         // Verify it's the user's own email
-        User user = userRepository.findByUserId(UUID.fromString(userId))
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-        if (!user.getEmail().equals(requestBody.senderEmail())) {
+        if (!sender.userId().equals(userId)) {
             throw new IllegalArgumentException("You can only transfer from your own account");
         }
 
         // Pre-validate the transfer against account limits
         try {
-            // Get sender and receiver information
-            TransferInfo transferInfo = fetchSenderAndReceiverId(
-                    requestBody.senderEmail(), requestBody.receiverEmail());
-
             // Check if sender has sufficient balance
-            Wallet sendingWallet = walletService.findWalletOrThrow(transferInfo.getSenderId());
-            walletService.verifyWalletBalance(sendingWallet.getBalance(), requestBody.amount());
+            walletService.verifyWalletBalance(sender.balance(), requestBody.amount());
 
-            // Validate against transfer limits
+            // Validate against transfer and daily limits
             transactionLimitService.validateTransfer(userId, requestBody.amount());
 
-            // Validate against daily transaction limits
-            if (accountLimitService.wouldExceedDailyLimit(userId, requestBody.amount())) {
-                throw new TransactionLimitExceededException(
-                        "This transfer would exceed your daily transaction limit");
-            }
-
             // Check if recipient wallet would exceed balance limit
-            Wallet receivingWallet = walletService.findWalletOrThrow(transferInfo.getReceiverId());
-            BigDecimal newReceiverBalance = receivingWallet.getBalance().add(requestBody.amount());
-            transactionLimitService.validateNewBalance(transferInfo.getReceiverId(), newReceiverBalance);
+            BigDecimal newReceiverBalance = receiver.balance().add(requestBody.amount());
+            transactionLimitService.validateNewBalance(receiver.userId(), newReceiverBalance);
 
+            context = context.withPreValidated(true);
         } catch (TransactionLimitExceededException e) {
             // Return friendly error for limit exceeded
             return ApiResponse.<TransferInitiationResponse>builder()
@@ -333,23 +358,19 @@ public class MoneyTransferServiceImpl implements MoneyTransferService {
 
         // Store pending transfer in Redis so all replicas can access it
         redisTemplate.opsForValue().set(
-                PENDING_TRANSFER_PREFIX + transferToken, requestBody, TRANSFER_EXPIRY);
+                PENDING_TRANSFER_PREFIX + transferToken, new PendingTransfer(requestBody, context), TRANSFER_EXPIRY);
         log.info("Stored pending transfer with token: {}", transferToken);
 
-        // Get recipient name for OTP email
-        TransferInfo transferInfo = fetchSenderAndReceiverId(
-                requestBody.senderEmail(), requestBody.receiverEmail());
-
         // Prepare details for OTP email
         Map<String, Object> operationDetails = new HashMap<>();
         operationDetails.put("amount", requestBody.amount().toString());
-        operationDetails.put("recipient", transferInfo.getReceiverName());
+        operationDetails.put("recipient", receiver.fullName());
         operationDetails.put("recipient_email", requestBody.receiverEmail());
 
         // Send OTP
         otpService.sendOtp(
-                user.getEmail(),
-                user.getFirstName(),
+                sender.email(),
+                sender.firstName(),
                 TRANSFER_OPERATION,
                 operationDetails);
 
@@ -362,57 +383,334 @@ public class MoneyTransferServiceImpl implements MoneyTransferService {
 
     @Override
     public ApiResponse<TransactionResponseDTO> verifyAndTransfer(TransferVerificationRequest request, String userId) {
-        // Verify user
-        User user = userRepository.findByUserId(UUID.fromString(userId))
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
         log.info("Verifying transfer request with token: {}", request.getTransferToken());
 
+        // Retrieve pending transfer from Redis; it carries the participants resolved at initiation
+        String redisKey = PENDING_TRANSFER_PREFIX + request.getTransferToken();
+        PendingTransfer pendingTransfer = redisTemplate.opsForValue().get(redisKey);
+
+        if (pendingTransfer == null) {
+            log.warn("Transfer request not found for token: {}", request.getTransferToken());
+            throw new IllegalArgumentException("Transfer request expired or not found");
+        }
+
+        TransferParticipant sender = pendingTransfer.context().sender();
+        if (!sender.userId().equals(userId)) {
+            throw new IllegalArgumentException("You can only transfer from your own account");
+        }
+
         // Verify OTP
         Map<String, Object> operationDetails = otpService.verifyOtp(
-                user.getEmail(),
+                sender.email(),
                 TRANSFER_OPERATION,
                 request.getOtp());
 
         if (operationDetails == null) {
-            log.warn("Invalid or expired OTP for user: {}", user.getEmail());
+            log.warn("Invalid or expired OTP for user: {}", sender.email());
             throw new IllegalArgumentException("Invalid or expired verification code");
         }
 
-        // Retrieve pending transfer from Redis
-        String redisKey = PENDING_TRANSFER_PREFIX + request.getTransferToken();
-        CreateTransactionRequestBody requestBody = redisTemplate.opsForValue().get(redisKey);
-
-        if (requestBody == null) {
-            log.warn("Transfer request not found for token: {}", request.getTransferToken());
-            throw new IllegalArgumentException("Transfer request expired or not found");
-        }
-
         // Clean up
         redisTemplate.delete(redisKey);
         log.info("Removed pending transfer with token: {}", request.getTransferToken());
 
         // Execute the actual transfer
-        return transfer(requestBody);
+        return executeTransfer(pendingTransfer.request(), pendingTransfer.context());
+    }
+
+
+    @Override
+    public ApiResponse<BulkTransferResponse> bulkTransfer(BulkTransferRequest request) {
+        validateBulkSize(request);
+
+        // Resolve the sender, every recipient and their wallets in three queries instead of two per item
+        User sender = userRepository.findByEmail(request.senderEmail())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        String senderId = sender.getUserId().toString();
+        Wallet sendingWallet = walletService.findWalletOrThrow(senderId);
+
+        Set<String> receiverEmails = request.recipients().stream()
+                .map(BulkTransferRecipient::receiverEmail)
+                .collect(Collectors.toSet());
+        Map<String, User> receiversByEmail = userRepository.findAllByEmailIn(receiverEmails).stream()
+                .collect(Collectors.toMap(User::getEmail, Function.identity()));
+        Map<String, Wallet> walletsByUserId = walletService.findWalletsByUserIds(receiversByEmail.values().stream()
+                .map(receiver -> receiver.getUserId().toString())
+                .toList());
+
+        // Per-item checks; items that fail here are reported back and never reach the ledger
+        AccountLimitDTO limits = accountLimitService.getUserLimits(senderId);
+        String batchReference = referenceService.generateUniqueReferenceNumber();
+        String senderName = sender.getFirstName() + " " + sender.getLastName();
+
+        List<BulkTransferItemResult> results = new ArrayList<>(request.recipients().size());
+        List<TransactionPair> transactions = new ArrayList<>();
+        List<TransferInfo> transferInfos = new ArrayList<>();
+        Set<String> laneWalletIds = new LinkedHashSet<>();
+        laneWalletIds.add(sendingWallet.getWalletId());
+        Map<String, BigDecimal> projectedBalances = new HashMap<>();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+
+        for (int i = 0; i < request.recipients().size(); i++) {
+            BulkTransferRecipient recipient = request.recipients().get(i);
+            String itemReference = String.format("%s-%05d", batchReference, i + 1);
+            User receiver = receiversByEmail.get(recipient.receiverEmail());
+            Wallet receivingWallet = receiver == null ? null : walletsByUserId.get(receiver.getUserId().toString());
+
+            String rejection = validateBulkItem(sender, recipient, receivingWallet, limits);
+            BigDecimal projectedBalance = null;
+            if (rejection == null) {
+                // Several items may credit the same wallet, so each is checked against the balance the earlier
+                // accepted ones leave behind
+                projectedBalance = projectedBalances
+                        .getOrDefault(receivingWallet.getWalletId(), receivingWallet.getBalance())
+                        .add(recipient.amount());
+                rejection = validateRecipientBalance(receiver, projectedBalance);
+            }
+            if (rejection != null) {
+                results.add(bulkItemResult(recipient, TransactionStatus.FAILED, itemReference, rejection));
+                continue;
+            }
+
+            TransferInfo transferInfo = TransferInfo.builder()
+                    .senderId(senderId)
+                    .receiverId(receiver.getUserId().toString())
+                    .senderName(senderName)
+                    .receiverName(receiver.getFirstName() + " " + receiver.getLastName())
+                    .senderEmail(sender.getEmail())
+                    .receiverEmail(receiver.getEmail())
+                    .build();
+            transactions.add(createBulkTransactionPair(
+                    sendingWallet, receivingWallet, request.senderEmail(), recipient, transferInfo, itemReference));
+            transferInfos.add(transferInfo);
+            laneWalletIds.add(receivingWallet.getWalletId());
+            projectedBalances.put(receivingWallet.getWalletId(), projectedBalance);
+            totalAmount = totalAmount.add(recipient.amount());
+            results.add(bulkItemResult(recipient, TransactionStatus.SUCCESS, itemReference, "Transfer successful"));
+        }
+
+        if (transactions.isEmpty()) {
+            return bulkResponse(false, "No transfers in the batch could be processed",
+                    batchReference, BigDecimal.ZERO, results);
+        }
+
+        // Batch-level checks run once against the total; velocity and daily limits are checked and held in one step
+        walletService.verifyWalletBalance(sendingWallet.getBalance(), totalAmount);
+        SpendReservation reservation = transactionLimitService.reserveSpend(senderId, totalAmount);
+
+        // The batch holds the lanes of the sender and every credited wallet while the ledger is written. The
+        // ledger rows and the outbox rows for the per-recipient notifications commit together or not at all.
+        BigDecimal batchTotal = totalAmount;
+        try {
+            walletLaneExecutor.execute(laneWalletIds, () -> transactionTemplate.executeWithoutResult(status -> {
+                ledgerBatchRepository.applyBulkTransfer(sendingWallet, batchTotal, transactions);
+                List<TransactionNotification> notifications = new ArrayList<>(transactions.size());
+                for (int i = 0; i < transactions.size(); i++) {
+                    notifications.add(buildTransferNotification(transferInfos.get(i), transactions.get(i)));
+                }
+                notificationProducer.sendNotifications(NOTIFICATIONS_TOPIC, senderId, notifications);
+
+                // Refundable balances are applied once for the whole batch, after commit
+                eventPublisher.publishEvent(new TransferCompletedEvent(this, sendingWallet, senderId, batchTotal));
+            }));
+        } catch (InsufficientBalanceException e) {
+            log.warn("Bulk transfer {} rejected at ledger write: {}", batchReference, e.getMessage());
+            transactionLimitService.releaseSpend(reservation);
+            List<BulkTransferItemResult> failed = results.stream()
+                    .map(result -> new BulkTransferItemResult(result.receiverEmail(), result.amount(),
+                            TransactionStatus.FAILED.getValue(), result.referenceNumber(),
+                            TransactionStatus.SUCCESS.getValue().equals(result.status()) ? e.getMessage() : result.message()))
+                    .toList();
+            return bulkResponse(false, e.getMessage(), batchReference, BigDecimal.ZERO, failed);
+        } catch (RuntimeException e) {
+            transactionLimitService.releaseSpend(reservation);
+            throw e;
+        }
+        commitSpendAfterCompletion(reservation);
+        log.info("Bulk transfer {} moved {} to {} recipients", batchReference, batchTotal, transactions.size());
+
+        boolean allSucceeded = transactions.size() == results.size();
+        return bulkResponse(true, allSucceeded ? "Bulk transfer successful" : "Bulk transfer completed with failures",
+                batchReference, batchTotal, results);
     }
 
+    private void validateBulkSize(BulkTransferRequest request) {
+        if (request.recipients() == null || request.recipients().isEmpty()) {
+            throw new IllegalArgumentException("At least one recipient is required");
+        }
+        if (request.recipients().size() > maxBulkRecipients) {
+            throw new IllegalArgumentException("A bulk transfer can have at most " + maxBulkRecipients + " recipients");
+        }
+    }
+
+    private String validateBulkItem(User sender, BulkTransferRecipient recipient, Wallet receivingWallet,
+            AccountLimitDTO limits) {
+        if (recipient.amount() == null || recipient.amount().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Amount must be greater than zero";
+        }
+        if (sender.getEmail().equals(recipient.receiverEmail())) {
+            return "You cannot send money to yourself.";
+        }
+        if (receivingWallet == null) {
+            return "Recipient not found";
+        }
+        if (limits.getMaxTransferAmount() != null && recipient.amount().compareTo(limits.getMaxTransferAmount()) > 0) {
+            return "Transfer amount exceeds your limit of " + limits.getMaxTransferAmount();
+        }
+        return null;
+    }
+
+    private String validateRecipientBalance(User receiver, BigDecimal projectedBalance) {
+        try {
+            transactionLimitService.validateNewBalance(receiver.getUserId().toString(), projectedBalance);
+            return null;
+        } catch (TransactionLimitExceededException e) {
+            return "This transfer would exceed the recipient's maximum wallet balance";
+        }
+    }
 
     /**
-     * Creates an audit record of how a transfer impacted a deposit's refundable
-     * amount
+     * Builds the debit/credit pair for one recipient without saving it; {@link LedgerBatchRepository}
+     * inserts the whole batch once the source wallet has been debited.
      */
-    private void createRefundImpactRecord(Transaction deposit, BigDecimal amountDeducted,
-            BigDecimal totalTransferAmount) {
-        RefundImpactRecord impactRecord = RefundImpactRecord.builder()
-                .depositTransactionId(deposit.getTransactionId())
-                .impactAmount(amountDeducted.negate()) // Negative because we're reducing refundable amount
-                .impactType(RefundImpactType.TRANSFER)
-                .impactDate(LocalDateTime.now())
-                .previousRefundableAmount(deposit.getRefundableAmount().add(amountDeducted))
-                .newRefundableAmount(deposit.getRefundableAmount())
-                .relatedTransferAmount(totalTransferAmount)
+    private TransactionPair createBulkTransactionPair(
+            Wallet sendingWallet,
+            Wallet receivingWallet,
+            String senderEmail,
+            BulkTransferRecipient recipient,
+            TransferInfo transferInfo,
+            String referenceNumber) {
+
+        CreateTransactionRequestBody requestBody = new CreateTransactionRequestBody(
+                senderEmail, recipient.receiverEmail(), recipient.amount(), recipient.narration());
+
+        Transaction debitTransaction = transactionService.createTransaction(
+                sendingWallet,
+                requestBody,
+                TransactionType.DEBIT,
+                TransactionOperation.TRANSFER,
+                "Wallet to wallet Transfer to " + transferInfo.getReceiverName(),
+                referenceNumber);
+        debitTransaction.setCurrentStatus(TransactionStatus.SUCCESS.getValue());
+
+        Transaction creditTransaction = transactionService.createTransaction(
+                receivingWallet,
+                requestBody,
+                TransactionType.CREDIT,
+                TransactionOperation.TRANSFER,
+                "Wallet to wallet Transfer from " + transferInfo.getSenderName(),
+                referenceNumber);
+        creditTransaction.setCurrentStatus(TransactionStatus.SUCCESS.getValue());
+
+        return new TransactionPair(debitTransaction, creditTransaction);
+    }
+
+    private BulkTransferItemResult bulkItemResult(BulkTransferRecipient recipient, TransactionStatus status,
+            String referenceNumber, String message) {
+        return new BulkTransferItemResult(
+                recipient.receiverEmail(), recipient.amount(), status.getValue(), referenceNumber, message);
+    }
+
+    private ApiResponse<BulkTransferResponse> bulkResponse(boolean success, String message, String batchReference,
+            BigDecimal totalAmount, List<BulkTransferItemResult> results) {
+        long successful = results.stream()
+                .filter(result -> TransactionStatus.SUCCESS.getValue().equals(result.status()))
+                .count();
+
+        return ApiResponse.<BulkTransferResponse>builder()
+                .success(success)
+                .message(message)
+                .data(new BulkTransferResponse(batchReference, totalAmount,
+                        (int) successful, results.size() - (int) successful, results))
                 .build();
+    }
+
+    @Override
+    public ApiResponse<TransferInitiationResponse> initiateBulkTransfer(BulkTransferRequest request, String userId) {
+        validateBulkSize(request);
+
+        User user = userRepository.findByUserId(UUID.fromString(userId))
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+        if (!user.getEmail().equals(request.senderEmail())) {
+            throw new IllegalArgumentException("You can only transfer from your own account");
+        }
+
+        BigDecimal totalAmount = request.recipients().stream()
+                .map(BulkTransferRecipient::amount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        // Pre-validate the batch total; per-recipient checks happen when the batch runs
+        try {
+            Wallet sendingWallet = walletService.findWalletOrThrow(userId);
+            walletService.verifyWalletBalance(sendingWallet.getBalance(), totalAmount);
+
+            if (accountLimitService.wouldExceedDailyLimit(userId, totalAmount)) {
+                throw new TransactionLimitExceededException(
+                        "This bulk transfer would exceed your daily transaction limit");
+            }
+        } catch (TransactionLimitExceededException e) {
+            return ApiResponse.<TransferInitiationResponse>builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            log.warn("Bulk pre-validation warning (will continue with OTP): {}", e.getMessage());
+        }
+
+        String transferToken = UUID.randomUUID().toString();
+        bulkRedisTemplate.opsForValue().set(
+                PENDING_BULK_TRANSFER_PREFIX + transferToken, request, TRANSFER_EXPIRY);
+        log.info("Stored pending bulk transfer with token: {}", transferToken);
+
+        Map<String, Object> operationDetails = new HashMap<>();
+        operationDetails.put("amount", totalAmount.toString());
+        operationDetails.put("recipient", request.recipients().size() + " recipients");
+
+        otpService.sendOtp(
+                user.getEmail(),
+                user.getFirstName(),
+                BULK_TRANSFER_OPERATION,
+                operationDetails);
+
+        return ApiResponse.<TransferInitiationResponse>builder()
+                .success(true)
+                .message("Bulk transfer initiated. Please check your email for verification code.")
+                .data(new TransferInitiationResponse(transferToken))
+                .build();
+    }
+
+    @Override
+    public ApiResponse<BulkTransferResponse> verifyAndBulkTransfer(TransferVerificationRequest request, String userId) {
+        User user = userRepository.findByUserId(UUID.fromString(userId))
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+
+        String redisKey = PENDING_BULK_TRANSFER_PREFIX + request.getTransferToken();
+        BulkTransferRequest bulkRequest = bulkRedisTemplate.opsForValue().get(redisKey);
+
+        if (bulkRequest == null) {
+            log.warn("Bulk transfer request not found for token: {}", request.getTransferToken());
+            throw new IllegalArgumentException("Transfer request expired or not found");
+        }
+
+        // The OTP proves who the caller is, not that the pending batch debits their account
+        if (!user.getEmail().equals(bulkRequest.senderEmail())) {
+            throw new IllegalArgumentException("You can only transfer from your own account");
+        }
+
+        Map<String, Object> operationDetails = otpService.verifyOtp(
+                user.getEmail(),
+                BULK_TRANSFER_OPERATION,
+                request.getOtp());
+
+        if (operationDetails == null) {
+            log.warn("Invalid or expired OTP for user: {}", user.getEmail());
+            throw new IllegalArgumentException("Invalid or expired verification code");
+        }
+
+        bulkRedisTemplate.delete(redisKey);
+        log.info("Removed pending bulk transfer with token: {}", request.getTransferToken());
 
-        refundImpactRecordRepository.save(impactRecord);
+        return bulkTransfer(bulkRequest);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,127 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.events.AccountLimitsChangedEvent;
+import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
+import com.shizzy.moneytransfer.model.AccountLimit;
+import com.shizzy.moneytransfer.repository.AccountLimitRepository;
+import com.shizzy.moneytransfer.service.AccountLimitTierCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Holds every account-limit tier in memory so limit checks never read {@code account_limits}. The snapshot is
+ * replaced as a whole, never edited in place. A replica that changes a tier reloads once the change commits and
+ * announces it on a Redis channel so the other replicas reload too; a periodic reload covers missed messages.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PubSubAccountLimitTierCache implements AccountLimitTierCache, MessageListener {
+
+    static final String CHANNEL = "account-limits:changed";
+
+    private final AccountLimitRepository accountLimitRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile Map<VerificationLevel, AccountLimit> tiers;
+
+    @PostConstruct
+    public void start() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Could not load account limit tiers at startup, will retry on first use: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public AccountLimit get(VerificationLevel level) {
+        Map<VerificationLevel, AccountLimit> snapshot = tiers;
+        if (snapshot == null) {
+            refresh();
+            snapshot = tiers;
+        }
+        AccountLimit limits = snapshot.get(level);
+        if (limits == null) {
+            throw new ResourceNotFoundException("Account limits not found for level: " + level);
+        }
+        return limits;
+    }
+
+    @Override
+    public void refresh() {
+        Map<VerificationLevel, AccountLimit> loaded = new EnumMap<>(VerificationLevel.class);
+        for (AccountLimit limits : accountLimitRepository.findAll()) {
+            loaded.put(limits.getVerificationLevel(), detachedCopy(limits));
+        }
+        tiers = Collections.unmodifiableMap(loaded);
+        log.debug("Loaded {} account limit tiers", loaded.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountLimitsChanged(AccountLimitsChangedEvent event) {
+        refresh();
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, instanceId);
+        } catch (RuntimeException e) {
+            log.warn("Could not announce change to {} limits, other replicas pick it up on their next reload: {}",
+                    event.getVerificationLevel(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (instanceId.equals(new String(message.getBody(), StandardCharsets.UTF_8))) {
+            return;
+        }
+        reloadQuietly("change announced by another replica");
+    }
+
+    @Scheduled(fixedDelayString = "${account-limits.refresh-interval-ms:300000}",
+            initialDelayString = "${account-limits.refresh-interval-ms:300000}")
+    public void periodicRefresh() {
+        reloadQuietly("periodic reload");
+    }
+
+    private void reloadQuietly(String reason) {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Account limit tier reload ({}) failed, keeping the current snapshot: {}", reason, e.getMessage());
+        }
+    }
+
+    /**
+     * Callers only read the snapshot, but it must never share instances with a persistence context
+     */
+    private static AccountLimit detachedCopy(AccountLimit limits) {
+        return AccountLimit.builder()
+                .id(limits.getId())
+                .verificationLevel(limits.getVerificationLevel())
+                .dailyTransactionLimit(limits.getDailyTransactionLimit())
+                .maxWalletBalance(limits.getMaxWalletBalance())
+                .maxDepositAmount(limits.getMaxDepositAmount())
+                .maxWithdrawalAmount(limits.getMaxWithdrawalAmount())
+                .maxTransferAmount(limits.getMaxTransferAmount())
+                .build();
+    }
+}
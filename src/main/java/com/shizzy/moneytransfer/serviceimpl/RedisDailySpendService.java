@@ -0,0 +1,359 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.config.DailySpendProperties;
+import com.shizzy.moneytransfer.dto.DailySpendReservation;
+import com.shizzy.moneytransfer.model.DailyTransactionTotal;
+import com.shizzy.moneytransfer.repository.DailySpendRepository;
+import com.shizzy.moneytransfer.repository.DailyTransactionTotalRepository;
+import com.shizzy.moneytransfer.service.DailySpendService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps each user's spend for the day in a Redis hash, {@code daily-spend:<userId>:<date>}, holding the committed
+ * total, the part of it already flushed to {@code daily_transaction_totals}, and one field per open reservation.
+ * Lua scripts check, reserve, commit and release against that hash atomically. A scheduled flush adds the
+ * committed spend to the database in batches; a key missing from Redis is seeded from the database on first use.
+ * <p>
+ * When Redis is unavailable, spend goes straight to the database with a guarded upsert and the key is marked stale.
+ * The mark is kept in the Redis set {@code daily-spend:stale}, so every replica sees it: the scripts refuse a
+ * marked key until it is resynced from the database, keeping commits not yet flushed. Marks this replica could
+ * not write while Redis was down are held locally and published by the next flush, which also resyncs marked
+ * keys nobody has used since.
+ * Amounts travel to Redis as integers in 1/10000 units, the scale of {@code total_amount}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RedisDailySpendService implements DailySpendService {
+
+    static final String KEY_PREFIX = "daily-spend:";
+    static final String DIRTY_KEY = "daily-spend:dirty";
+    static final String STALE_KEY = "daily-spend:stale";
+
+    private static final int SCALE = 4;
+    private static final int MAX_BATCHES_PER_FLUSH = 20;
+    private static final String NO_SEED = "";
+    private static final long NEEDS_SEED = -1;
+    private static final String RESERVATION_PREFIX = "r:";
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> RESERVE = script("reserve.lua", List.class);
+    static final RedisScript<Long> SETTLE = script("settle.lua", Long.class);
+    static final RedisScript<Long> RECORD = script("record.lua", Long.class);
+    static final RedisScript<Long> CLAIM_FLUSH = script("claim-flush.lua", Long.class);
+    static final RedisScript<Long> RESYNC = script("resync.lua", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final DailyTransactionTotalRepository dailyTransactionTotalRepository;
+    private final DailySpendRepository dailySpendRepository;
+    private final DailySpendProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    // Keys whose spend went to the database while Redis was unavailable, until the flush marks them in Redis
+    private final Set<String> unpublishedStaleKeys = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Optional<DailySpendReservation> reserve(String userId, BigDecimal amount, BigDecimal dailyLimit) {
+        LocalDate today = LocalDate.now();
+        BigDecimal limit = dailyLimit != null && dailyLimit.signum() > 0 ? dailyLimit : null;
+        if (limit != null && amount.compareTo(limit) > 0) {
+            return rejected();
+        }
+
+        String id = UUID.randomUUID().toString();
+        String key = key(userId, today);
+        try {
+            List<?> result = reserveInRedis(key, id, amount, limit, seed(key, userId, today));
+            if ((Long) result.get(0) == NEEDS_SEED) {
+                result = reserveInRedis(key, id, amount, limit, units(persistedTotal(userId, today)));
+            }
+            unpublishedStaleKeys.remove(key);
+            if ((Long) result.get(0) == 0) {
+                return rejected();
+            }
+            meterRegistry.counter("daily.spend.reservations", "outcome", "reserved").increment();
+            return Optional.of(new DailySpendReservation(id, userId, today, amount, false));
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for daily spend of user {}, reserving in the database: {}", userId, e.getMessage());
+            unpublishedStaleKeys.add(key);
+            boolean added;
+            if (limit == null) {
+                dailySpendRepository.add(userId, today, amount);
+                added = true;
+            } else {
+                added = dailySpendRepository.addWithinLimit(userId, today, amount, limit);
+            }
+            if (!added) {
+                return rejected();
+            }
+            meterRegistry.counter("daily.spend.reservations", "outcome", "database").increment();
+            return Optional.of(new DailySpendReservation(id, userId, today, amount, true));
+        }
+    }
+
+    @Override
+    public void commit(DailySpendReservation reservation) {
+        if (reservation.persisted()) {
+            return;
+        }
+        String key = key(reservation.userId(), reservation.date());
+        try {
+            Long settled = stringRedisTemplate.execute(SETTLE, List.of(key, DIRTY_KEY),
+                    reservation.id(), "1", keyTtlSeconds());
+            if (settled == null || settled == 0) {
+                // The reservation timed out before the transfer finished, but the money has moved
+                log.warn("Daily spend reservation {} of user {} timed out before commit", reservation.id(),
+                        reservation.userId());
+                record(reservation.userId(), reservation.date(), reservation.amount());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable committing daily spend of user {}, adding it in the database: {}",
+                    reservation.userId(), e.getMessage());
+            unpublishedStaleKeys.add(key);
+            dailySpendRepository.add(reservation.userId(), reservation.date(), reservation.amount());
+        }
+    }
+
+    @Override
+    public void release(DailySpendReservation reservation) {
+        if (reservation.persisted()) {
+            dailySpendRepository.subtract(reservation.userId(), reservation.date(), reservation.amount());
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(SETTLE, List.of(key(reservation.userId(), reservation.date()), DIRTY_KEY),
+                    reservation.id(), "0", keyTtlSeconds());
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable releasing daily spend reservation {}, it will time out: {}",
+                    reservation.id(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void record(String userId, BigDecimal amount) {
+        record(userId, LocalDate.now(), amount);
+    }
+
+    private void record(String userId, LocalDate date, BigDecimal amount) {
+        String key = key(userId, date);
+        List<String> keys = List.of(key, DIRTY_KEY, STALE_KEY);
+        try {
+            Long result = stringRedisTemplate.execute(RECORD, keys, units(amount), keyTtlSeconds(), seed(key, userId, date));
+            if (result != null && result == NEEDS_SEED) {
+                stringRedisTemplate.execute(RECORD, keys, units(amount), keyTtlSeconds(),
+                        units(persistedTotal(userId, date)));
+            }
+            unpublishedStaleKeys.remove(key);
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable recording daily spend of user {}, adding it in the database: {}",
+                    userId, e.getMessage());
+            unpublishedStaleKeys.add(key);
+            dailySpendRepository.add(userId, date, amount);
+        }
+    }
+
+    @Override
+    public BigDecimal spentToday(String userId) {
+        LocalDate today = LocalDate.now();
+        String key = key(userId, today);
+        if (!unpublishedStaleKeys.contains(key)) {
+            try {
+                if (!Boolean.TRUE.equals(stringRedisTemplate.opsForSet().isMember(STALE_KEY, key))) {
+                    Map<Object, Object> fields = stringRedisTemplate.opsForHash().entries(key);
+                    if (!fields.isEmpty()) {
+                        return fromUnits(liveTotal(fields, System.currentTimeMillis()));
+                    }
+                }
+            } catch (DataAccessException e) {
+                log.debug("Redis unavailable reading daily spend of user {}: {}", userId, e.getMessage());
+            }
+        }
+        return persistedTotal(userId, today);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${daily-spend.flush-interval-ms:5000}")
+    public void flush() {
+        int batchSize = properties.getFlushBatchSize();
+        publishStaleKeys();
+        resyncStaleKeys(batchSize);
+        for (int batch = 0; batch < MAX_BATCHES_PER_FLUSH; batch++) {
+            if (flushBatch(batchSize) < batchSize) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Marks the keys this replica wrote to the database while Redis was down as stale in Redis
+     */
+    private void publishStaleKeys() {
+        if (unpublishedStaleKeys.isEmpty()) {
+            return;
+        }
+        String[] keys = unpublishedStaleKeys.toArray(String[]::new);
+        try {
+            stringRedisTemplate.opsForSet().add(STALE_KEY, keys);
+            unpublishedStaleKeys.removeAll(List.of(keys));
+        } catch (DataAccessException e) {
+            log.debug("Redis unavailable, keeping {} stale daily spend keys to mark later: {}", keys.length,
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Resyncs stale keys from the database; each key leaves the stale set in the script that resyncs it
+     */
+    private void resyncStaleKeys(int batchSize) {
+        try {
+            Set<String> keys = stringRedisTemplate.opsForSet().distinctRandomMembers(STALE_KEY, batchSize);
+            if (keys == null) {
+                return;
+            }
+            for (String key : keys) {
+                stringRedisTemplate.execute(RESYNC, List.of(key, STALE_KEY),
+                        units(persistedTotal(userIdOf(key), dateOf(key))));
+            }
+            if (!keys.isEmpty()) {
+                meterRegistry.counter("daily.spend.resynced").increment(keys.size());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not resync stale daily spend keys, retrying on the next flush: {}", e.getMessage());
+        }
+    }
+
+    private int flushBatch(int batchSize) {
+        List<String> keys;
+        try {
+            keys = stringRedisTemplate.opsForSet().pop(DIRTY_KEY, batchSize);
+        } catch (DataAccessException e) {
+            log.debug("Redis unavailable, skipping daily spend flush: {}", e.getMessage());
+            return 0;
+        }
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Long> claimed = new LinkedHashMap<>();
+        try {
+            for (String key : keys) {
+                Long units = stringRedisTemplate.execute(CLAIM_FLUSH, List.of(key));
+                if (units != null && units != 0) {
+                    claimed.put(key, units);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Redis failed while claiming daily spend to flush, writing the {} claimed so far: {}",
+                    claimed.size(), e.getMessage());
+        }
+        if (claimed.isEmpty()) {
+            return keys.size();
+        }
+
+        List<DailySpendRepository.Delta> deltas = new ArrayList<>(claimed.size());
+        claimed.forEach((key, units) -> deltas.add(new DailySpendRepository.Delta(
+                userIdOf(key), dateOf(key), fromUnits(units))));
+        try {
+            dailySpendRepository.addAll(deltas);
+            meterRegistry.counter("daily.spend.flushed").increment(deltas.size());
+        } catch (DataAccessException e) {
+            log.warn("Could not flush daily spend for {} users, handing it back for the next flush: {}",
+                    deltas.size(), e.getMessage());
+            claimed.forEach((key, units) -> {
+                stringRedisTemplate.opsForHash().increment(key, "flushed", -units);
+                stringRedisTemplate.opsForSet().add(DIRTY_KEY, key);
+            });
+        }
+        return keys.size();
+    }
+
+    private List<?> reserveInRedis(String key, String id, BigDecimal amount, BigDecimal limit, String seed) {
+        return stringRedisTemplate.execute(RESERVE, List.of(key, STALE_KEY), id, units(amount),
+                limit == null ? "-1" : units(limit), String.valueOf(System.currentTimeMillis()),
+                String.valueOf(properties.getReservationTimeout().toMillis()), keyTtlSeconds(), seed);
+    }
+
+    /**
+     * The persisted total to resync a key this replica knows is stale from, or no seed. Keys marked stale in
+     * Redis are refused by the scripts, which asks for a seed.
+     */
+    private String seed(String key, String userId, LocalDate date) {
+        return unpublishedStaleKeys.contains(key) ? units(persistedTotal(userId, date)) : NO_SEED;
+    }
+
+    private BigDecimal persistedTotal(String userId, LocalDate date) {
+        return dailyTransactionTotalRepository.findByUserIdAndDate(userId, date)
+                .map(DailyTransactionTotal::getTotalAmount)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    private Optional<DailySpendReservation> rejected() {
+        meterRegistry.counter("daily.spend.reservations", "outcome", "rejected").increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Committed spend plus reservations that have not timed out, as the reserve script counts them
+     */
+    static long liveTotal(Map<Object, Object> fields, long nowMillis) {
+        long total = Long.parseLong(String.valueOf(fields.getOrDefault("committed", "0")));
+        for (Map.Entry<Object, Object> field : fields.entrySet()) {
+            if (String.valueOf(field.getKey()).startsWith(RESERVATION_PREFIX)) {
+                String value = String.valueOf(field.getValue());
+                int separator = value.indexOf(':');
+                if (Long.parseLong(value.substring(separator + 1)) > nowMillis) {
+                    total += Long.parseLong(value.substring(0, separator));
+                }
+            }
+        }
+        return total;
+    }
+
+    static String key(String userId, LocalDate date) {
+        return KEY_PREFIX + userId + ":" + date;
+    }
+
+    private static String userIdOf(String key) {
+        return key.substring(KEY_PREFIX.length(), key.lastIndexOf(':'));
+    }
+
+    private static LocalDate dateOf(String key) {
+        return LocalDate.parse(key.substring(key.lastIndexOf(':') + 1));
+    }
+
+    private String keyTtlSeconds() {
+        return String.valueOf(properties.getKeyTtl().toSeconds());
+    }
+
+    static String units(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().toString();
+    }
+
+    static BigDecimal fromUnits(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    private static <T> RedisScript<T> script(String name, Class<T> resultType) {
+        return RedisScript.of(new ClassPathResource("redis/daily-spend/" + name), resultType);
+    }
+}
@@ -0,0 +1,135 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.config.VelocityLimitProperties;
+import com.shizzy.moneytransfer.dto.VelocityPermit;
+import com.shizzy.moneytransfer.enums.VelocityWindow;
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.exception.TransactionLimitExceededException;
+import com.shizzy.moneytransfer.service.VelocityLimitService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts each user's operations and amounts over rolling windows in one Redis hash, {@code velocity:<userId>},
+ * shared by every replica. Each window is a fixed ring of time buckets, so checking and counting an operation
+ * reads and writes a constant number of fields whatever the user's history; Lua scripts do both atomically.
+ * <p>
+ * Velocity rules sit on top of the per-operation and daily limits, which keep their own database fallback, so
+ * while Redis is unavailable operations are let through uncounted rather than blocked.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RedisVelocityLimitService implements VelocityLimitService {
+
+    static final String KEY_PREFIX = "velocity:";
+
+    private static final long NONE = -1;
+    private static final long COUNT_EXCEEDED = 1;
+    private static final long KEY_TTL_SECONDS = keyTtlSeconds();
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> ACQUIRE = script("acquire.lua", List.class);
+    static final RedisScript<Long> RELEASE = script("release.lua", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final VelocityLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public VelocityPermit acquire(String userId, VerificationLevel level, BigDecimal amount) {
+        long now = System.currentTimeMillis();
+        Map<VelocityWindow, VelocityLimitProperties.Rule> rules = properties.isEnabled()
+                ? properties.getRules().getOrDefault(level, Map.of()) : Map.of();
+
+        List<VelocityWindow> windows = new ArrayList<>(rules.size());
+        List<String> args = new ArrayList<>(List.of(String.valueOf(now), RedisDailySpendService.units(amount),
+                String.valueOf(KEY_TTL_SECONDS)));
+        for (VelocityWindow window : VelocityWindow.values()) {
+            VelocityLimitProperties.Rule rule = rules.get(window);
+            if (rule == null || (rule.getMaxCount() == null && rule.getMaxAmount() == null)) {
+                continue;
+            }
+            windows.add(window);
+            args.add(window.name());
+            args.add(String.valueOf(window.bucketMillis()));
+            args.add(String.valueOf(window.getBuckets()));
+            args.add(String.valueOf(rule.getMaxCount() == null ? NONE : rule.getMaxCount()));
+            args.add(rule.getMaxAmount() == null ? String.valueOf(NONE) : RedisDailySpendService.units(rule.getMaxAmount()));
+        }
+        if (windows.isEmpty()) {
+            return new VelocityPermit(userId, amount, now, List.of());
+        }
+
+        List<?> result;
+        try {
+            result = stringRedisTemplate.execute(ACQUIRE, List.of(key(userId)), args.toArray());
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for velocity limits of user {}, letting the operation through: {}",
+                    userId, e.getMessage());
+            meterRegistry.counter("velocity.checks", "outcome", "unavailable").increment();
+            return new VelocityPermit(userId, amount, now, List.of());
+        }
+
+        if ((Long) result.get(0) == 0) {
+            meterRegistry.counter("velocity.checks", "outcome", "rejected").increment();
+            VelocityWindow window = windows.get(((Long) result.get(1)).intValue() - 1);
+            VelocityLimitProperties.Rule rule = rules.get(window);
+            throw new TransactionLimitExceededException((Long) result.get(2) == COUNT_EXCEEDED
+                    ? "You have reached your limit of " + rule.getMaxCount() + " transactions " + window.getLabel()
+                    : "This transaction would exceed your limit of " + rule.getMaxAmount() + " " + window.getLabel());
+        }
+        meterRegistry.counter("velocity.checks", "outcome", "allowed").increment();
+        return new VelocityPermit(userId, amount, now, List.copyOf(windows));
+    }
+
+    @Override
+    public void release(VelocityPermit permit) {
+        if (permit.windows().isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(List.of(String.valueOf(permit.recordedAtMillis()),
+                RedisDailySpendService.units(permit.amount())));
+        for (VelocityWindow window : permit.windows()) {
+            args.add(window.name());
+            args.add(String.valueOf(window.bucketMillis()));
+            args.add(String.valueOf(window.getBuckets()));
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE, List.of(key(permit.userId())), args.toArray());
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable releasing velocity of user {}, it stays counted until it ages out: {}",
+                    permit.userId(), e.getMessage());
+        }
+    }
+
+    static String key(String userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    /**
+     * Long enough for the longest window plus the bucket it is part way through
+     */
+    private static long keyTtlSeconds() {
+        long longest = 0;
+        for (VelocityWindow window : VelocityWindow.values()) {
+            longest = Math.max(longest, window.getLength().toMillis() + window.bucketMillis());
+        }
+        return longest / 1000;
+    }
+
+    private static <T> RedisScript<T> script(String name, Class<T> resultType) {
+        return RedisScript.of(new ClassPathResource("redis/velocity/" + name), resultType);
+    }
+}
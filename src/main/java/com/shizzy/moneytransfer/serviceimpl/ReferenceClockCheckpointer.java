@@ -0,0 +1,63 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.repository.ReferenceNodeClockRepository;
+import com.shizzy.moneytransfer.util.ReferenceNumberGenerator;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps this node's recorded clock mark ahead of the references it hands out. Each checkpoint records
+ * two intervals past the later of the wall clock and the generator's last reference, so whatever the
+ * node issues before its next checkpoint, or before it dies, stays under the mark its next run resumes after.
+ */
+@Slf4j
+@Component
+public class ReferenceClockCheckpointer {
+
+    private final ReferenceNumberGenerator generator;
+    private final ReferenceNodeClockRepository clockRepository;
+    private final long intervalMillis;
+    private final LongSupplier clock;
+
+    public ReferenceClockCheckpointer(ReferenceNumberGenerator generator,
+                                      ReferenceNodeClockRepository clockRepository,
+                                      @Value("${transfers.reference.clock-checkpoint-interval-ms:5000}") long intervalMillis) {
+        this(generator, clockRepository, intervalMillis, System::currentTimeMillis);
+    }
+
+    ReferenceClockCheckpointer(ReferenceNumberGenerator generator, ReferenceNodeClockRepository clockRepository,
+                               long intervalMillis, LongSupplier clock) {
+        this.generator = generator;
+        this.clockRepository = clockRepository;
+        this.intervalMillis = intervalMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * The first mark is written before the node serves traffic; a failure here fails startup
+     */
+    @PostConstruct
+    public void recordInitialMark() {
+        clockRepository.raiseIssuedUntil(generator.nodeId(), nextMark());
+    }
+
+    @Scheduled(fixedDelayString = "${transfers.reference.clock-checkpoint-interval-ms:5000}",
+            initialDelayString = "${transfers.reference.clock-checkpoint-interval-ms:5000}")
+    public void checkpoint() {
+        try {
+            clockRepository.raiseIssuedUntil(generator.nodeId(), nextMark());
+        } catch (RuntimeException e) {
+            // The previous mark still covers the next interval; the one after that relies on this retrying
+            log.error("Could not record the reference clock mark for node {}: {}", generator.nodeId(), e.getMessage());
+        }
+    }
+
+    private long nextMark() {
+        return Math.max(clock.getAsLong(), generator.lastIssuedMillis()) + 2 * intervalMillis;
+    }
+}
@@ -0,0 +1,182 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.enums.RefundImpactType;
+import com.shizzy.moneytransfer.enums.RefundStatus;
+import com.shizzy.moneytransfer.model.RefundImpactRecord;
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.model.WalletRefundableBalance;
+import com.shizzy.moneytransfer.repository.RefundImpactRecordRepository;
+import com.shizzy.moneytransfer.repository.TransactionRepository;
+import com.shizzy.moneytransfer.repository.WalletRefundableBalanceRepository;
+import com.shizzy.moneytransfer.service.RefundableBalanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps {@link WalletRefundableBalance} in step with the refundable amounts of a wallet's deposits. A
+ * transfer locks the wallet's row, reads deposits from the cursor in small pages and stops as soon as the
+ * transfer is covered, so its cost depends on the deposits it consumes rather than on the wallet's history.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefundableBalanceServiceImpl implements RefundableBalanceService {
+
+    static final int DEPOSIT_PAGE_SIZE = 16;
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final WalletRefundableBalanceRepository balanceRepository;
+    private final TransactionRepository transactionRepository;
+    private final RefundImpactRecordRepository refundImpactRecordRepository;
+
+    @Override
+    @Transactional
+    public void consume(Wallet wallet, BigDecimal transferAmount) {
+        WalletRefundableBalance balance = balanceRepository.findByWalletIdForUpdate(wallet.getId()).orElse(null);
+        if (balance == null || balance.getRefundableTotal().signum() <= 0) {
+            log.info("No refundable deposits found for wallet {}. Transfer used previously received funds.",
+                    wallet.getWalletId());
+            return;
+        }
+
+        LocalDateTime fromDate = balance.getCursorTransactionDate() != null ? balance.getCursorTransactionDate() : EARLIEST;
+        Integer fromId = balance.getCursorTransactionId() != null ? balance.getCursorTransactionId() : 0;
+        BigDecimal remainingToDeduct = transferAmount;
+        List<Transaction> touchedDeposits = new ArrayList<>();
+        List<RefundImpactRecord> impactRecords = new ArrayList<>();
+        boolean depositsExhausted = false;
+
+        while (remainingToDeduct.signum() > 0) {
+            List<Transaction> page = transactionRepository.findRefundableDepositsFrom(
+                    wallet.getId(), fromDate, fromId, PageRequest.of(0, DEPOSIT_PAGE_SIZE));
+
+            for (Transaction deposit : page) {
+                BigDecimal previousRefundableAmount = deposit.getRefundableAmount();
+                BigDecimal amountToDeduct = remainingToDeduct.min(previousRefundableAmount);
+                BigDecimal newRefundableAmount = previousRefundableAmount.subtract(amountToDeduct);
+
+                deposit.setRefundableAmount(newRefundableAmount);
+                if (newRefundableAmount.signum() == 0) {
+                    deposit.setRefundStatus(RefundStatus.NON_REFUNDABLE);
+                } else if (newRefundableAmount.compareTo(deposit.getAmount()) < 0) {
+                    deposit.setRefundStatus(RefundStatus.PARTIALLY_REFUNDABLE);
+                }
+                touchedDeposits.add(deposit);
+                impactRecords.add(transferImpactRecord(deposit, amountToDeduct, previousRefundableAmount, transferAmount));
+
+                remainingToDeduct = remainingToDeduct.subtract(amountToDeduct);
+                // A deposit with an amount left stays under the cursor; an emptied one is stepped over
+                fromDate = deposit.getTransactionDate();
+                fromId = newRefundableAmount.signum() == 0 ? deposit.getTransactionId() + 1 : deposit.getTransactionId();
+                if (remainingToDeduct.signum() <= 0) {
+                    break;
+                }
+            }
+
+            if (remainingToDeduct.signum() > 0 && page.size() < DEPOSIT_PAGE_SIZE) {
+                depositsExhausted = true;
+                break;
+            }
+        }
+
+        transactionRepository.saveAll(touchedDeposits);
+        refundImpactRecordRepository.saveAll(impactRecords);
+
+        BigDecimal consumed = transferAmount.subtract(remainingToDeduct);
+        if (depositsExhausted) {
+            // Every refundable deposit is used up, whatever the stored total said
+            balance.setRefundableTotal(BigDecimal.ZERO);
+            balance.moveCursor(null, null);
+            log.info("Transfer partially used non-deposit funds: {}", remainingToDeduct);
+        } else {
+            balance.setRefundableTotal(balance.getRefundableTotal().subtract(consumed).max(BigDecimal.ZERO));
+            balance.moveCursor(fromDate, fromId);
+        }
+        balance.setLastUpdated(LocalDateTime.now());
+        balanceRepository.save(balance);
+
+        log.debug("Consumed {} from {} refundable deposits of wallet {}",
+                consumed, touchedDeposits.size(), wallet.getWalletId());
+    }
+
+    @Override
+    @Transactional
+    public void credit(Transaction deposit, BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0 || !isRefundable(deposit.getRefundStatus())) {
+            return;
+        }
+        balanceRepository.addRefundable(deposit.getWallet().getId(), amount,
+                deposit.getTransactionDate(), deposit.getTransactionId());
+    }
+
+    @Override
+    @Transactional
+    public void release(Long walletId, BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            return;
+        }
+        balanceRepository.subtractRefundable(walletId, amount);
+    }
+
+    @Override
+    @Transactional
+    public boolean rebuild(Long walletId) {
+        WalletRefundableBalance balance = balanceRepository.findByWalletIdForUpdate(walletId)
+                .orElseGet(() -> WalletRefundableBalance.builder().walletId(walletId).build());
+
+        BigDecimal expectedTotal = transactionRepository.sumRefundableDepositAmount(walletId);
+        List<Transaction> oldest = transactionRepository.findRefundableDepositsFrom(
+                walletId, EARLIEST, 0, PageRequest.of(0, 1));
+        LocalDateTime expectedDate = oldest.isEmpty() ? null : oldest.get(0).getTransactionDate();
+        Integer expectedId = oldest.isEmpty() ? null : oldest.get(0).getTransactionId();
+
+        // The cursor may trail the oldest refundable deposit, but must never skip past it
+        boolean drifted = balance.getRefundableTotal().compareTo(expectedTotal) != 0
+                || (expectedId != null && cursorIsAfter(balance, expectedDate, expectedId));
+        if (!drifted) {
+            return false;
+        }
+
+        log.warn("Refundable balance of wallet {} was {} with cursor {}; rebuilt as {} with cursor {}",
+                walletId, balance.getRefundableTotal(), balance.getCursorTransactionId(), expectedTotal, expectedId);
+        balance.setRefundableTotal(expectedTotal);
+        balance.moveCursor(expectedDate, expectedId);
+        balance.setLastUpdated(LocalDateTime.now());
+        balanceRepository.save(balance);
+        return true;
+    }
+
+    private boolean cursorIsAfter(WalletRefundableBalance balance, LocalDateTime transactionDate, Integer transactionId) {
+        if (balance.getCursorTransactionDate() == null) {
+            return true;
+        }
+        int byDate = balance.getCursorTransactionDate().compareTo(transactionDate);
+        return byDate > 0 || (byDate == 0 && balance.getCursorTransactionId() > transactionId);
+    }
+
+    private boolean isRefundable(RefundStatus refundStatus) {
+        return refundStatus != null && refundStatus != RefundStatus.NON_REFUNDABLE;
+    }
+
+    private RefundImpactRecord transferImpactRecord(Transaction deposit, BigDecimal amountDeducted,
+            BigDecimal previousRefundableAmount, BigDecimal totalTransferAmount) {
+        return RefundImpactRecord.builder()
+                .depositTransactionId(deposit.getTransactionId())
+                .impactAmount(amountDeducted.negate()) // Negative because we're reducing refundable amount
+                .impactType(RefundImpactType.TRANSFER)
+                .impactDate(LocalDateTime.now())
+                .previousRefundableAmount(previousRefundableAmount)
+                .newRefundableAmount(deposit.getRefundableAmount())
+                .relatedTransferAmount(totalTransferAmount)
+                .build();
+    }
+}
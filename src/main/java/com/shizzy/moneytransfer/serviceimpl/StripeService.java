@@ -5,10 +5,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.JsonSyntaxException;
 import com.shizzy.moneytransfer.api.ApiResponse;
 import com.shizzy.moneytransfer.api.GenericResponse;
+import com.shizzy.moneytransfer.cache.CacheTagIndex;
 import com.shizzy.moneytransfer.dto.*;
 import com.shizzy.moneytransfer.enums.RefundImpactType;
 import com.shizzy.moneytransfer.enums.RefundStatus;
 import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.exception.FraudulentTransactionException;
 import com.shizzy.moneytransfer.exception.PaymentException;
 import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
 import com.shizzy.moneytransfer.exception.TransactionLimitExceededException;
@@ -24,6 +26,7 @@ import com.shizzy.moneytransfer.service.*;
 import com.shizzy.moneytransfer.model.User;
 import com.shizzy.moneytransfer.repository.UserRepository;
 import com.shizzy.moneytransfer.service.payment.StripePaymentProcessor;
+import com.shizzy.moneytransfer.util.CacheTags;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.Refund;
@@ -38,7 +41,6 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -54,9 +56,6 @@ import static com.shizzy.moneytransfer.enums.TransactionOperation.*;
 import static com.shizzy.moneytransfer.enums.TransactionSource.*;
 import static com.shizzy.moneytransfer.enums.TransactionStatus.*;
 import static com.shizzy.moneytransfer.enums.TransactionType.*;
-import static com.shizzy.moneytransfer.util.CacheNames.ALL_USER_TRANSACTION;
-import static com.shizzy.moneytransfer.util.CacheNames.SINGLE_TRANSACTION;
-import static com.shizzy.moneytransfer.util.CacheNames.TRANSACTIONS;
 
 @Service
 @RequiredArgsConstructor
@@ -76,7 +75,10 @@ public class StripeService implements PaymentService {
     private final WalletRepository walletRepository;
     private final WalletService walletService;
     private final RefundImpactRecordRepository refundImpactRecordRepository;
+    private final RefundableBalanceService refundableBalanceService;
     private final TransactionLimitService transactionLimitService;
+    private final CacheTagIndex cacheTagIndex;
+    private final TransactionMonitoringService transactionMonitoringService;
     private static final Logger LOGGER = LoggerFactory.getLogger(StripeService.class);
 
     @PostConstruct
@@ -122,14 +124,12 @@ public class StripeService implements PaymentService {
     }
 
     @Override
-    @CacheEvict(value = { TRANSACTIONS, SINGLE_TRANSACTION, ALL_USER_TRANSACTION }, allEntries = true)
     public ResponseEntity<String> handleWebhook(String payload) {
         return webhookService.handleWebhook(payload);
     }
 
     @Override
-    @Transactional
-    @CacheEvict(value = { TRANSACTIONS, SINGLE_TRANSACTION, ALL_USER_TRANSACTION }, allEntries = true)
+    @Transactional(noRollbackFor = FraudulentTransactionException.class)
     public PaymentResponse createPayment(double amount, String email) throws Exception {
 
         User user = userRepository.findByEmail(email)
@@ -182,6 +182,7 @@ public class StripeService implements PaymentService {
                     .referenceNumber(transactionReference)
                     .build();
             Transaction savedTransaction = transactionRepository.save(transaction);
+            cacheTagIndex.evictTags(CacheTags.of(savedTransaction));
 
             // Create transaction reference
             TransactionReference reference = TransactionReference.builder()
@@ -190,6 +191,17 @@ public class StripeService implements PaymentService {
                     .build();
             referenceRepository.save(reference);
 
+            // Screen the deposit before the user is sent to pay; a flagged one is kept, with its flags, as failed
+            try {
+                transactionMonitoringService.monitorTransaction(savedTransaction);
+            } catch (FraudulentTransactionException e) {
+                log.warn("Deposit {} blocked by fraud screening", transactionReference);
+                savedTransaction.setCurrentStatus(FAILED.getValue());
+                savedTransaction.setFailureReason("Blocked by fraud screening");
+                transactionRepository.save(savedTransaction);
+                throw e;
+            }
+
             // Create checkout session
             Session session = paymentProcessor.createCheckoutSession(
                     email,
@@ -199,6 +211,8 @@ public class StripeService implements PaymentService {
 
             // Return payment response
             return paymentProcessor.generatePaymentResponse(session, transactionReference);
+        } catch (FraudulentTransactionException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to create payment: {} ({})", e.getMessage(), e.getClass().getName());
             if (e.getCause() != null) {
@@ -236,6 +250,7 @@ public class StripeService implements PaymentService {
             transaction.setRefundStatus(RefundStatus.NON_REFUNDABLE);
             transaction.setRefundDate(LocalDateTime.now());
             transactionRepository.save(transaction);
+            refundableBalanceService.release(transaction.getWallet().getId(), refundAmount);
 
             // Create refund impact record
             createRefundImpactRecord(transaction, refundAmount);
@@ -245,7 +260,7 @@ public class StripeService implements PaymentService {
             refundTransaction = transactionRepository.save(refundTransaction);
 
             // Debit wallet with concurrency handling
-            walletService.debit(transaction.getWallet(), refundAmount);
+            walletService.debit(transaction.getWallet(), refundAmount, REFUND);
 
             // Process refund with Stripe
             Refund refund = refundService.createRefund(
@@ -318,6 +333,7 @@ public class StripeService implements PaymentService {
         }
 
         transactionRepository.save(depositTransaction);
+        refundableBalanceService.credit(depositTransaction, refundAmount);
 
         reverseRefundAndCreditWallet(refundTransaction);
     }
@@ -349,7 +365,7 @@ public class StripeService implements PaymentService {
                 .build();
 
         Wallet wallet = refundTransaction.getWallet();
-        walletService.deposit(wallet, refundTransaction.getAmount());
+        walletService.deposit(wallet, refundTransaction.getAmount(), REVERSAL);
 
         transactionRepository.save(creditTransaction);
     }
@@ -0,0 +1,204 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.config.WalletLaneProperties;
+import com.shizzy.moneytransfer.exception.WalletLaneRejectedException;
+import com.shizzy.moneytransfer.service.WalletLaneExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Stripes wallet IDs over a fixed set of single-threaded executors so that every write to a given
+ * wallet is applied by one thread, in order, instead of competing for the wallet row in the database.
+ * An operation on several wallets holds all of their lanes, entering each from the thread of the one before.
+ * When {@code wallet.lanes.enabled} is false operations run inline on the caller's thread. So do operations called
+ * inside a transaction: a lane thread would write outside it and commit on its own, so a caller that later rolls
+ * back would leave the money moved. The caller's security context is carried onto the lane threads.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StripedWalletLaneExecutor implements WalletLaneExecutor {
+
+    private static final ThreadLocal<Set<Integer>> HELD_LANES = ThreadLocal.withInitial(Set::of);
+
+    private final WalletLaneProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor[] lanes;
+    private Timer[] waitTimers;
+    private Counter[] rejectionCounters;
+    private Counter inTransactionCounter;
+
+    @PostConstruct
+    public void startLanes() {
+        if (!properties.isEnabled()) {
+            log.info("Wallet execution lanes disabled; wallet operations run on the calling thread");
+            return;
+        }
+
+        int laneCount = properties.getLaneCount();
+        lanes = new ThreadPoolExecutor[laneCount];
+        waitTimers = new Timer[laneCount];
+        rejectionCounters = new Counter[laneCount];
+
+        for (int i = 0; i < laneCount; i++) {
+            String laneTag = String.valueOf(i);
+            ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "wallet-lane-" + laneTag);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            lanes[i] = lane;
+
+            Gauge.builder("wallet.lane.queue.depth", lane, executor -> executor.getQueue().size())
+                    .description("Operations waiting in a wallet lane")
+                    .tag("lane", laneTag)
+                    .register(meterRegistry);
+            waitTimers[i] = Timer.builder("wallet.lane.wait")
+                    .description("Time an operation spent queued before its lane picked it up")
+                    .tag("lane", laneTag)
+                    .register(meterRegistry);
+            rejectionCounters[i] = Counter.builder("wallet.lane.rejected")
+                    .description("Operations rejected because the lane queue was full")
+                    .tag("lane", laneTag)
+                    .register(meterRegistry);
+        }
+        inTransactionCounter = Counter.builder("wallet.lane.in.transaction")
+                .description("Operations run on the caller's thread because it was inside a transaction")
+                .register(meterRegistry);
+        log.info("Started {} wallet execution lanes with queue capacity {}", laneCount, properties.getQueueCapacity());
+    }
+
+    @PreDestroy
+    public void stopLanes() {
+        if (lanes == null) {
+            return;
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    @Override
+    public <T> T execute(String walletId, Supplier<T> operation) {
+        return execute(List.of(walletId), operation);
+    }
+
+    @Override
+    public <T> T execute(Collection<String> walletIds, Supplier<T> operation) {
+        if (lanes == null) {
+            return operation.get();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // The writes have to join the caller's transaction, which only exists on this thread
+            inTransactionCounter.increment();
+            return operation.get();
+        }
+
+        // A lane calling back into itself would wait on its own queue forever, so lanes already held are skipped.
+        // The rest are taken in ascending order: a lane only ever waits on a higher one, so no two operations can
+        // each hold a lane the other is waiting for.
+        Set<Integer> heldLanes = HELD_LANES.get();
+        int[] laneIndexes = walletIds.stream()
+                .mapToInt(this::laneFor)
+                .filter(laneIndex -> !heldLanes.contains(laneIndex))
+                .distinct()
+                .sorted()
+                .toArray();
+        return executeInLanes(laneIndexes, 0, heldLanes, walletIds, operation);
+    }
+
+    /**
+     * Enters {@code laneIndexes[position]} and, from its thread, the lanes after it, running the operation once
+     * all are held
+     */
+    private <T> T executeInLanes(int[] laneIndexes, int position, Set<Integer> heldLanes,
+                                 Collection<String> walletIds, Supplier<T> operation) {
+        if (position == laneIndexes.length) {
+            return operation.get();
+        }
+
+        int laneIndex = laneIndexes[position];
+        Set<Integer> holding = new HashSet<>(heldLanes);
+        holding.add(laneIndex);
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = lanes[laneIndex].submit(DelegatingSecurityContextCallable.create(() -> {
+                waitTimers[laneIndex].record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                HELD_LANES.set(holding);
+                try {
+                    return executeInLanes(laneIndexes, position + 1, holding, walletIds, operation);
+                } finally {
+                    HELD_LANES.remove();
+                }
+            }, SecurityContextHolder.getContext()));
+        } catch (RejectedExecutionException e) {
+            rejectionCounters[laneIndex].increment();
+            log.warn("Wallet lane {} is full, rejecting operation for wallets {}", laneIndex, walletIds);
+            throw new WalletLaneRejectedException(
+                    "This wallet is processing too many requests right now. Please try again shortly.");
+        }
+
+        return await(future, walletIds);
+    }
+
+    private <T> T await(Future<T> future, Collection<String> walletIds) {
+        try {
+            try {
+                return future.get(properties.getAwaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Only give up if the operation has not started; once it is moving money the caller must see the outcome
+                if (future.cancel(false)) {
+                    log.warn("Operation for wallets {} did not start within {}", walletIds, properties.getAwaitTimeout());
+                    throw new WalletLaneRejectedException(
+                            "This wallet is processing too many requests right now. Please try again shortly.");
+                }
+                return future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for wallet operation", e);
+        }
+    }
+
+    int laneFor(String walletId) {
+        int hash = walletId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+}
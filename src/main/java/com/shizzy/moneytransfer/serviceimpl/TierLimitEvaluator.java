@@ -0,0 +1,98 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.dto.LimitDecision;
+import com.shizzy.moneytransfer.dto.LimitViolation;
+import com.shizzy.moneytransfer.enums.LimitType;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.model.AccountLimit;
+import com.shizzy.moneytransfer.service.AccountLimitService;
+import com.shizzy.moneytransfer.service.AccountLimitTierCache;
+import com.shizzy.moneytransfer.service.DailySpendService;
+import com.shizzy.moneytransfer.service.LimitEvaluator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves the user's verification level, tier and today's spend once per evaluation and checks every
+ * applicable limit against them. Limits that are unset or not positive are treated as unlimited, the same
+ * way {@link AccountLimit} does, and fully verified users have no limits at all.
+ */
+@Service
+@RequiredArgsConstructor
+public class TierLimitEvaluator implements LimitEvaluator {
+
+    private final AccountLimitService accountLimitService;
+    private final AccountLimitTierCache limitTiers;
+    private final DailySpendService dailySpendService;
+
+    @Override
+    public LimitDecision evaluate(String userId, TransactionOperation operation, BigDecimal amount,
+            BigDecimal projectedBalance) {
+        VerificationLevel level = accountLimitService.getUserVerificationLevel(userId);
+        if (level == VerificationLevel.FULLY_VERIFIED) {
+            return new LimitDecision(level, operation, amount, true, List.of(), null, null, null);
+        }
+
+        AccountLimit tier = limitTiers.get(level);
+        List<LimitViolation> violations = new ArrayList<>(3);
+
+        // Single-amount limit of the operation
+        BigDecimal maxSingle = switch (operation) {
+            case DEPOSIT -> tier.getMaxDepositAmount();
+            case WITHDRAWAL -> tier.getMaxWithdrawalAmount();
+            case TRANSFER -> tier.getMaxTransferAmount();
+            default -> throw new IllegalArgumentException("No limits apply to " + operation + " operations");
+        };
+        if (isSet(maxSingle) && amount.compareTo(maxSingle) > 0) {
+            violations.add(singleAmountViolation(operation, maxSingle, amount));
+        }
+
+        // Daily limit, against committed spend and open reservations
+        BigDecimal remainingDaily = null;
+        BigDecimal dailyLimit = tier.getDailyTransactionLimit();
+        if (isSet(dailyLimit)) {
+            BigDecimal spentToday = dailySpendService.spentToday(userId);
+            BigDecimal dailyTotal = spentToday.add(amount);
+            remainingDaily = dailyLimit.subtract(spentToday).max(BigDecimal.ZERO);
+            if (dailyTotal.compareTo(dailyLimit) > 0) {
+                violations.add(new LimitViolation(LimitType.DAILY_TRANSACTION, dailyLimit, dailyTotal,
+                        "This transaction would exceed your daily transaction limit of " + dailyLimit));
+            }
+        }
+
+        // Wallet balance limit, when the caller knows the balance the operation leads to
+        BigDecimal remainingBalance = null;
+        BigDecimal maxBalance = tier.getMaxWalletBalance();
+        if (projectedBalance != null && isSet(maxBalance)) {
+            remainingBalance = maxBalance.subtract(projectedBalance).max(BigDecimal.ZERO);
+            if (projectedBalance.compareTo(maxBalance) > 0) {
+                violations.add(new LimitViolation(LimitType.MAX_WALLET_BALANCE, maxBalance, projectedBalance,
+                        "This transaction would exceed your maximum wallet balance limit of " + maxBalance));
+            }
+        }
+
+        return new LimitDecision(level, operation, amount, violations.isEmpty(), List.copyOf(violations),
+                isSet(maxSingle) ? maxSingle : null, remainingDaily, remainingBalance);
+    }
+
+    private static LimitViolation singleAmountViolation(TransactionOperation operation, BigDecimal limit,
+            BigDecimal amount) {
+        return switch (operation) {
+            case DEPOSIT -> new LimitViolation(LimitType.MAX_DEPOSIT, limit, amount,
+                    "Deposit amount exceeds your limit of " + limit);
+            case WITHDRAWAL -> new LimitViolation(LimitType.MAX_WITHDRAWAL, limit, amount,
+                    "Withdrawal amount exceeds your limit of " + limit);
+            default -> new LimitViolation(LimitType.MAX_TRANSFER, limit, amount,
+                    "Transfer amount exceeds your limit of " + limit);
+        };
+    }
+
+    private static boolean isSet(BigDecimal limit) {
+        return limit != null && limit.signum() > 0;
+    }
+}
@@ -1,39 +1,103 @@
 package com.shizzy.moneytransfer.serviceimpl;
 
+import com.shizzy.moneytransfer.config.FraudRuleProperties;
+import com.shizzy.moneytransfer.config.FraudSignalProperties;
+import com.shizzy.moneytransfer.dto.WalletFeatures;
+import com.shizzy.moneytransfer.dto.WalletSignals;
+import com.shizzy.moneytransfer.enums.FraudRuleMode;
+import com.shizzy.moneytransfer.enums.RuleTimeoutPolicy;
+import com.shizzy.moneytransfer.events.ShadowFraudRulesEvent;
 import com.shizzy.moneytransfer.exception.FraudulentTransactionException;
+import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
 import com.shizzy.moneytransfer.model.FlaggedTransactionReason;
 import com.shizzy.moneytransfer.model.Transaction;
 import com.shizzy.moneytransfer.repository.FlaggedTransactionReasonRepository;
 import com.shizzy.moneytransfer.repository.TransactionRepository;
+import com.shizzy.moneytransfer.repository.WalletFeaturesRepository;
 import com.shizzy.moneytransfer.service.TransactionMonitoringService;
 import com.shizzy.moneytransfer.service.WalletService;
 import com.shizzy.moneytransfer.service.detection.FraudDetectionRule;
+import com.shizzy.moneytransfer.service.detection.FraudSignalStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Screens transactions with the fraud rules. Enforced rules are evaluated in parallel on a dedicated pool and the
+ * request waits at most the configured total budget for them; a rule that misses its deadline or fails counts as
+ * triggered or not according to its timeout policy. Shadow rules are evaluated on the same pool once the
+ * surrounding database transaction has committed, and their results are only recorded in metrics and logs. With
+ * {@code fraud-signals.serve-features} on, the activity windows come from the streaming fraud-signal store and
+ * only the wallet's profile is read from the database.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class TransactionMonitoringServiceImpl implements TransactionMonitoringService {
 
+    private static final FraudRuleProperties.Rule DEFAULT_RULE = new FraudRuleProperties.Rule();
+
     private final TransactionRepository transactionRepository;
     private final FlaggedTransactionReasonRepository flaggedTransactionReasonRepository;
     private final WalletService walletService;
+    private final WalletFeaturesRepository walletFeaturesRepository;
     private final List<FraudDetectionRule> fraudDetectionRules;
+    private final FraudRuleProperties properties;
+    private final FraudSignalStore fraudSignalStore;
+    private final FraudSignalProperties fraudSignalProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "fraud-rules-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
 
     @Override
     public void monitorTransaction(Transaction transaction) throws FraudulentTransactionException {
-        List<FlaggedTransactionReason> reasons = new ArrayList<>();
+        // Load the wallet's activity once; every rule reads from the same snapshot
+        WalletFeatures features = loadFeatures(transaction, LocalDateTime.now());
 
-        // Apply all fraud detection rules
-        for (FraudDetectionRule rule : fraudDetectionRules) {
-            if (rule.evaluate(transaction)) {
-                reasons.add(rule.createReason(transaction));
-            }
+        if (!rulesIn(FraudRuleMode.SHADOW).isEmpty()) {
+            eventPublisher.publishEvent(new ShadowFraudRulesEvent(this, transaction, features));
         }
 
+        List<FlaggedTransactionReason> reasons = evaluateEnforced(transaction, features, rulesIn(FraudRuleMode.ENFORCE));
+
         if (!reasons.isEmpty()) {
             flaggedTransactionReasonRepository.saveAll(reasons);
             transaction.setFlagged(true);
@@ -48,4 +112,133 @@ public class TransactionMonitoringServiceImpl implements TransactionMonitoringSe
             throw new FraudulentTransactionException("Operation failed. Please contact support for assistance.");
         }
     }
+
+    /**
+     * Fires after the screened transaction commits, or straight away when there was none; an operation that rolled
+     * back never happened and is not evaluated
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShadowFraudRules(ShadowFraudRulesEvent event) {
+        Transaction transaction = event.getTransaction();
+        for (FraudDetectionRule rule : rulesIn(FraudRuleMode.SHADOW)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        if (evaluate(rule, FraudRuleMode.SHADOW, transaction, event.getFeatures())) {
+                            log.info("Shadow fraud rule {} would have flagged transaction {}",
+                                    rule.name(), transaction.getTransactionId());
+                        }
+                    } catch (RuntimeException e) {
+                        // Already counted and logged by evaluate
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                count(rule, FraudRuleMode.SHADOW, "rejected");
+            }
+        }
+    }
+
+    private WalletFeatures loadFeatures(Transaction transaction, LocalDateTime now) {
+        String walletId = transaction.getWallet().getWalletId();
+        if (!fraudSignalProperties.isServeFeatures()) {
+            return walletFeaturesRepository.load(walletId, now)
+                    .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
+        }
+        WalletSignals signals = fraudSignalStore.signals(transaction.getWallet().getId(), now);
+        return walletFeaturesRepository.loadProfile(walletId, now)
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"))
+                .withWindows(signals.lastHour(), signals.last24Hours());
+    }
+
+    private List<FlaggedTransactionReason> evaluateEnforced(Transaction transaction, WalletFeatures features,
+                                                            List<FraudDetectionRule> rules) {
+        long start = System.nanoTime();
+        long budget = properties.getTotalBudget().toNanos();
+        List<Future<Boolean>> evaluations = new ArrayList<>(rules.size());
+        for (FraudDetectionRule rule : rules) {
+            evaluations.add(submit(rule, transaction, features));
+        }
+
+        List<FlaggedTransactionReason> reasons = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            FraudDetectionRule rule = rules.get(i);
+            FraudRuleProperties.Rule settings = settings(rule);
+            long ruleBudget = settings.getTimeout() == null ? budget : Math.min(budget, settings.getTimeout().toNanos());
+            Future<Boolean> evaluation = evaluations.get(i);
+            try {
+                if (evaluation.get(Math.max(0, start + ruleBudget - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    reasons.add(rule.createReason(transaction));
+                }
+            } catch (TimeoutException e) {
+                evaluation.cancel(true);
+                count(rule, FraudRuleMode.ENFORCE, "timeout");
+                log.warn("Fraud rule {} did not complete within its budget for transaction {}",
+                        rule.name(), transaction.getTransactionId());
+                applyTimeoutPolicy(rule, settings, transaction, reasons);
+            } catch (ExecutionException e) {
+                applyTimeoutPolicy(rule, settings, transaction, reasons);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                evaluation.cancel(true);
+                applyTimeoutPolicy(rule, settings, transaction, reasons);
+            }
+        }
+        return reasons;
+    }
+
+    private Future<Boolean> submit(FraudDetectionRule rule, Transaction transaction, WalletFeatures features) {
+        FutureTask<Boolean> task = new FutureTask<>(() -> evaluate(rule, FraudRuleMode.ENFORCE, transaction, features));
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // The pool is saturated; enforced rules still have to run, so this one runs on the caller
+            task.run();
+        }
+        return task;
+    }
+
+    private boolean evaluate(FraudDetectionRule rule, FraudRuleMode mode, Transaction transaction,
+                             WalletFeatures features) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            boolean hit = rule.evaluate(transaction, features);
+            outcome = hit ? "hit" : "miss";
+            return hit;
+        } catch (RuntimeException e) {
+            log.warn("Fraud rule {} failed for transaction {}: {}", rule.name(), transaction.getTransactionId(),
+                    e.getMessage());
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("fraud.rule.latency", "rule", rule.name(), "mode", mode.name()));
+            count(rule, mode, outcome);
+        }
+    }
+
+    private void applyTimeoutPolicy(FraudDetectionRule rule, FraudRuleProperties.Rule settings,
+                                    Transaction transaction, List<FlaggedTransactionReason> reasons) {
+        RuleTimeoutPolicy policy = settings.getTimeoutPolicy() != null
+                ? settings.getTimeoutPolicy() : properties.getDefaultTimeoutPolicy();
+        if (policy == RuleTimeoutPolicy.FAIL_CLOSED) {
+            reasons.add(FlaggedTransactionReason.builder()
+                    .reason("Fraud check " + rule.name() + " could not be completed.")
+                    .transaction(transaction)
+                    .build());
+        }
+    }
+
+    private List<FraudDetectionRule> rulesIn(FraudRuleMode mode) {
+        return fraudDetectionRules.stream()
+                .filter(rule -> settings(rule).getMode() == mode)
+                .toList();
+    }
+
+    private FraudRuleProperties.Rule settings(FraudDetectionRule rule) {
+        return properties.getRules().getOrDefault(rule.name(), DEFAULT_RULE);
+    }
+
+    private void count(FraudDetectionRule rule, FraudRuleMode mode, String outcome) {
+        meterRegistry.counter("fraud.rule.evaluations", "rule", rule.name(), "mode", mode.name(), "outcome", outcome)
+                .increment();
+    }
 }
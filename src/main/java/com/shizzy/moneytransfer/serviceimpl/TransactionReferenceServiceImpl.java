@@ -4,21 +4,26 @@ import com.shizzy.moneytransfer.api.ApiResponse;
 import com.shizzy.moneytransfer.model.TransactionReference;
 import com.shizzy.moneytransfer.repository.TransactionReferenceRepository;
 import com.shizzy.moneytransfer.service.TransactionReferenceService;
+import com.shizzy.moneytransfer.util.ReferenceNumberGenerator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.security.SecureRandom;
-
 @Service
 @RequiredArgsConstructor
 public class TransactionReferenceServiceImpl implements TransactionReferenceService {
 
     private final TransactionReferenceRepository transactionReferenceRepository;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
 
     @Override
     public void saveTransactionReference(TransactionReference transactionReference, String suffix) {
         if (suffix == null) suffix = "";
-        transactionReference.setReferenceNumber(generateUniqueReferenceNumber() + suffix);
+        // Keep the reference the caller already shared with its transactions; only fill in a missing one
+        String referenceNumber = transactionReference.getReferenceNumber();
+        if (referenceNumber == null || referenceNumber.isBlank()) {
+            referenceNumber = generateUniqueReferenceNumber();
+        }
+        transactionReference.setReferenceNumber(referenceNumber + suffix);
         transactionReferenceRepository.save(transactionReference);
     }
 
@@ -43,26 +48,6 @@ public class TransactionReferenceServiceImpl implements TransactionReferenceServ
 
     @Override
     public String generateUniqueReferenceNumber() {
-        String referenceNumber = generateReferenceNumber();
-        while (transactionReferenceRepository.existsByReferenceNumber(referenceNumber)) {
-            referenceNumber = generateReferenceNumber();
-        }
-        return referenceNumber;
+        return referenceNumberGenerator.next();
     }
-
-
-    private String generateReferenceNumber() {
-        SecureRandom rand = new SecureRandom();
-        String characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder referenceNumber = new StringBuilder();
-
-        for (int i = 0; i < 16; i++) {
-            int index = rand.nextInt(characters.length());
-            referenceNumber.append(characters.charAt(index));
-        }
-
-        return referenceNumber.toString();
-    }
-
-
 }
@@ -2,11 +2,14 @@ package com.shizzy.moneytransfer.serviceimpl;
 
 import com.itextpdf.text.pdf.PdfStructTreeController.returnType;
 import com.shizzy.moneytransfer.api.ApiResponse;
+import com.shizzy.moneytransfer.cache.CacheTagIndex;
 import com.shizzy.moneytransfer.enums.RefundStatus;
 import com.shizzy.moneytransfer.service.WalletService;
 import com.shizzy.moneytransfer.serviceimpl.command.UpdateTransactionStatusCommand;
 import com.shizzy.moneytransfer.util.CacheNames;
+import com.shizzy.moneytransfer.util.CacheTags;
 import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.service.RefundableBalanceService;
 import com.shizzy.moneytransfer.service.TransactionFeeService;
 import com.shizzy.moneytransfer.service.TransactionFilterService;
 import com.shizzy.moneytransfer.service.TransactionService;
@@ -54,10 +57,12 @@ public class TransactionServiceImpl implements TransactionService {
     private final ApplicationEventPublisher eventPublisher;
     private final TransactionReferenceRepository referenceRepository;
     private final WalletService walletService;
+    private final RefundableBalanceService refundableBalanceService;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheTagIndex cacheTagIndex;
 
     @Override
-    @Cacheable(value = TRANSACTIONS, key = "'allTransactions:' + #pageNumber + ':' + #pageSize", unless = "#result.data == null")
+    @Cacheable(value = TRANSACTIONS, key = "T(com.shizzy.moneytransfer.util.CacheTags).byAnyTransaction('allTransactions:' + #pageNumber + ':' + #pageSize)", sync = true)
     public ApiResponse<PagedTransactionResponse> getAllTransactions(int pageNumber, int pageSize) {
         PageRequest pageRequest = PageRequest.of(pageNumber, pageSize, Sort.by(Sort.Direction.DESC, "transactionId"));
         Page<Transaction> transactions = transactionRepository.findAll(pageRequest);
@@ -88,7 +93,7 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    @Cacheable(value = TRANSACTIONS, key = "'refNum:' + #referenceNumber", unless = "#result.data.isEmpty()")
+    @Cacheable(value = TRANSACTIONS, key = "T(com.shizzy.moneytransfer.util.CacheTags).byReference('refNum:' + #referenceNumber, #referenceNumber)", unless = "#result.data.isEmpty()")
     public ApiResponse<List<TransactionResponse>> getTransactionByReferenceNumber(String referenceNumber) {
         List<Transaction> transactions = transactionRepository.findTransactionByReferenceNumber(referenceNumber);
 
@@ -108,7 +113,7 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    @Cacheable(value = SINGLE_TRANSACTION, key = "'tx:' + #transactionId", unless = "#result.data == null")
+    @Cacheable(value = SINGLE_TRANSACTION, key = "T(com.shizzy.moneytransfer.util.CacheTags).byTransaction('tx:' + #transactionId, #transactionId)", unless = "#result.data == null")
     public ApiResponse<TransactionResponse> getTransactionById(Integer transactionId) {
         Transaction transaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new ResourceNotFoundException("transaction not found"));
@@ -123,7 +128,7 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    @Cacheable(value = SEARCH_RESULT, key = "'search:' + #searchQuery + ':' + #searchFilter + ':' + #sortOrder + ':' + #page + ':' + #size", unless = "#result.data.content.isEmpty()")
+    @Cacheable(value = SEARCH_RESULT, key = "T(com.shizzy.moneytransfer.util.CacheTags).byAnyTransaction('search:' + #searchQuery + ':' + #searchFilter + ':' + #sortOrder + ':' + #page + ':' + #size)", unless = "#result.data.content.isEmpty()")
     public ApiResponse<PagedTransactionResponse> searchTransactions(String searchQuery, String sortOrder,
             String searchFilter, int page, int size) {
         Specification<Transaction> specification = buildSpecification(searchQuery, searchFilter);
@@ -154,7 +159,6 @@ public class TransactionServiceImpl implements TransactionService {
 
     @Override
     @Transactional
-    @CacheEvict(value = { TRANSACTIONS, SINGLE_TRANSACTION, ALL_USER_TRANSACTION }, allEntries = true)
     public ApiResponse<TransactionResponse> updateTransactionStatus(String referenceNumber,
             UpdateTransactionRequest request) {
         Transaction transaction = transactionRepository.findTransactionByReferenceNumber(referenceNumber).get(0);
@@ -169,6 +173,7 @@ public class TransactionServiceImpl implements TransactionService {
                 .transaction(transaction)
                 .build();
         statusRepository.save(status);
+        cacheTagIndex.evictTags(CacheTags.of(updatedTransaction));
 
         return ApiResponse.<TransactionResponse>builder()
                 .success(true)
@@ -178,21 +183,21 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    @Cacheable(value = TRANSACTIONS, key = "'status:' + #referenceNumber")
+    @Cacheable(value = TRANSACTIONS, key = "T(com.shizzy.moneytransfer.util.CacheTags).byReference('status:' + #referenceNumber, #referenceNumber)")
     public String getTransactionStatus(String referenceNumber) {
         Transaction transaction = transactionRepository.findTransactionByReferenceNumber(referenceNumber).get(0);
         return transaction.getCurrentStatus();
     }
 
     @Override
-    @Cacheable(value = SINGLE_TRANSACTION, key = "'refLookup:' + #referenceNumber")
+    @Cacheable(value = SINGLE_TRANSACTION, key = "T(com.shizzy.moneytransfer.util.CacheTags).byReference('refLookup:' + #referenceNumber, #referenceNumber)")
     public Transaction findByReferenceNumber(String referenceNumber) {
         List<Transaction> transactions = transactionRepository.findTransactionByReferenceNumber(referenceNumber);
         return transactions.isEmpty() ? null : transactions.get(0);
     }
 
     @Override
-    @Cacheable(value = SINGLE_TRANSACTION, key = "'byId:' + #id")
+    @Cacheable(value = SINGLE_TRANSACTION, key = "T(com.shizzy.moneytransfer.util.CacheTags).byTransaction('byId:' + #id, #id)")
     public Transaction findById(Integer id) {
         return transactionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found"));
@@ -200,7 +205,6 @@ public class TransactionServiceImpl implements TransactionService {
 
     @Override
     @Transactional
-    @CacheEvict(value = { TRANSACTIONS, SINGLE_TRANSACTION }, key = "'tx:' + #transaction.transactionId")
     public void completeDeposit(Transaction transaction, String sessionId, String providerId, BigDecimal amount,
             RefundStatus refundStatus) {
         transaction.setCurrentStatus(com.shizzy.moneytransfer.enums.TransactionStatus.SUCCESS.getValue());
@@ -210,15 +214,17 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setProviderId(providerId);
         transactionRepository.save(transaction);
 
-        walletService.deposit(transaction.getWallet(), amount);
+        walletService.deposit(transaction.getWallet(), amount, TransactionOperation.DEPOSIT);
+        refundableBalanceService.credit(transaction, amount);
 
         redisTemplate.delete(WALLETS + "::walletId:" + transaction.getWallet().getWalletId());
+        cacheTagIndex.evictTags(CacheTags.of(transaction));
 
     }
 
     @Override
     @Transactional
-    @CachePut(value = SINGLE_TRANSACTION, key = "'tx:' + #result.transactionId")
+    @CachePut(value = SINGLE_TRANSACTION, key = "T(com.shizzy.moneytransfer.util.CacheTags).byTransaction('tx:' + #result.transactionId, #result.transactionId)")
     public Transaction createReversalTransaction(Wallet wallet, BigDecimal amount, String description,
             TransactionOperation operation) {
         Transaction transaction = Transaction.builder()
@@ -285,6 +291,7 @@ public class TransactionServiceImpl implements TransactionService {
         }
 
         transactionRepository.save(transaction);
+        refundableBalanceService.credit(transaction, amount);
     }
 
     @Override
@@ -298,7 +305,7 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    @Cacheable(value = ALL_USER_TRANSACTION, key = "'filter:' + #walletId + ':' + #filter + ':' + #startDate + ':' + #endDate + ':' + #pageNumber + ':' + #pageSize", unless = "#result.data == null")
+    @Cacheable(value = ALL_USER_TRANSACTION, key = "T(com.shizzy.moneytransfer.util.CacheTags).byWallet('filter:' + #walletId + ':' + #filter + ':' + #startDate + ':' + #endDate + ':' + #pageNumber + ':' + #pageSize, #walletId)", sync = true)
     public ApiResponse<PagedTransactionResponse> getTransactionsByFilter(
             Long walletId,
             String filter,
@@ -367,7 +374,7 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    @Cacheable(value = CacheNames.ALL_USER_TRANSACTION, key = "'wallet:' + #walletId + ':page:' + #page + ':size:' + #size")
+    @Cacheable(value = CacheNames.ALL_USER_TRANSACTION, key = "T(com.shizzy.moneytransfer.util.CacheTags).byWalletNumber('wallet:' + #walletId + ':page:' + #page + ':size:' + #size, #walletId)", sync = true)
     public ApiResponse<PagedTransactionResponse> getTransactionsByWallet(String walletId, int page, int size) {
         log.debug("Fetching transactions from database for wallet ID: {}", walletId);
 
@@ -405,7 +412,7 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    @Cacheable(value = ALL_USER_TRANSACTION, key = "'byDate:' + #request.walletId + ':' + #request.startDate + ':' + #request.endDate + ':' + #request.page + ':' + #request.size", unless = "#result.data == null")
+    @Cacheable(value = ALL_USER_TRANSACTION, key = "T(com.shizzy.moneytransfer.util.CacheTags).byWalletNumber('byDate:' + #request.walletId + ':' + #request.startDate + ':' + #request.endDate + ':' + #request.page + ':' + #request.size, #request.walletId)", sync = true)
     public ApiResponse<PagedTransactionResponse> getUserTransactionsByDate(TransactionsByDateRequest request) {
         Wallet wallet = walletRepository.findWalletByWalletId(request.getWalletId())
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
@@ -0,0 +1,73 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.dto.TransferContext;
+import com.shizzy.moneytransfer.dto.TransferParticipant;
+import com.shizzy.moneytransfer.dto.TransferWallets;
+import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
+import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.UserRepository;
+import com.shizzy.moneytransfer.repository.WalletRepository;
+import com.shizzy.moneytransfer.service.TransferContextService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransferContextServiceImpl implements TransferContextService {
+
+    private final UserRepository userRepository;
+    private final WalletRepository walletRepository;
+
+    @Override
+    public TransferContext load(String senderEmail, String receiverEmail) {
+        List<TransferParticipant> participants = userRepository.findTransferParticipants(List.of(senderEmail, receiverEmail));
+        return new TransferContext(
+                participant(participants, senderEmail),
+                participant(participants, receiverEmail),
+                false);
+    }
+
+    @Override
+    public TransferWallets resolveWallets(TransferContext context) {
+        TransferParticipant sender = context.sender();
+        TransferParticipant receiver = context.receiver();
+        List<Wallet> wallets = walletRepository.findAllById(List.of(sender.walletEntityId(), receiver.walletEntityId()));
+
+        Wallet sendingWallet = ownedWallet(wallets, sender);
+        Wallet receivingWallet = ownedWallet(wallets, receiver);
+        boolean senderUnchanged = Objects.equals(sendingWallet.getVersion(), sender.walletVersion());
+        if (!senderUnchanged) {
+            log.debug("Wallet {} moved from version {} to {} since the transfer was resolved",
+                    sendingWallet.getWalletId(), sender.walletVersion(), sendingWallet.getVersion());
+        }
+        return new TransferWallets(sendingWallet, receivingWallet, senderUnchanged);
+    }
+
+    private TransferParticipant participant(List<TransferParticipant> participants, String email) {
+        TransferParticipant participant = participants.stream()
+                .filter(candidate -> candidate.email().equals(email))
+                .findFirst()
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        if (participant.walletEntityId() == null) {
+            throw new ResourceNotFoundException("Wallet not found");
+        }
+        return participant;
+    }
+
+    /**
+     * The wallet row must still exist and still belong to the user it was resolved for
+     */
+    private Wallet ownedWallet(List<Wallet> wallets, TransferParticipant participant) {
+        return wallets.stream()
+                .filter(wallet -> wallet.getId().equals(participant.walletEntityId()))
+                .filter(wallet -> participant.userId().equals(wallet.getCreatedBy()))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
+    }
+}
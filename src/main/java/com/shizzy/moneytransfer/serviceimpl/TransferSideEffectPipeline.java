@@ -0,0 +1,271 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.config.TransferPipelineProperties;
+import com.shizzy.moneytransfer.events.TransferCompletedEvent;
+import com.shizzy.moneytransfer.model.PendingRefundableConsumption;
+import com.shizzy.moneytransfer.repository.PendingRefundableConsumptionRepository;
+import com.shizzy.moneytransfer.repository.WalletRepository;
+import com.shizzy.moneytransfer.service.RefundableBalanceService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the follow-up work of a transfer once its ledger write has committed, off the request thread.
+ * The work itself is a {@link PendingRefundableConsumption} row written in the transfer's transaction; a
+ * pass claims a wallet's rows, deducts their total from its refundable deposits and deletes them, all in
+ * one transaction. Transfers that arrive while a wallet's pass is still queued are merged into it.
+ * Wallets are striped over single-threaded workers, so each wallet's work is applied in order. If a
+ * worker's queue is full, the caller applies the work itself. Rows a pass could not apply, or that were
+ * still queued at shutdown, stay in the table and are picked up by the sweep.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferSideEffectPipeline {
+
+    private static final int SWEEP_BATCH_SIZE = 500;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final TransferPipelineProperties properties;
+    private final RefundableBalanceService refundableBalanceService;
+    private final PendingRefundableConsumptionRepository pendingConsumptionRepository;
+    private final WalletRepository walletRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, PendingWalletWork> pending = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor[] workers;
+    private TransactionTemplate transactionTemplate;
+    private Timer latencyTimer;
+    private Counter coalescedCounter;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        latencyTimer = Timer.builder("transfer.pipeline.latency")
+                .description("Time from a transfer's ledger write to its follow-up work being applied")
+                .register(meterRegistry);
+        coalescedCounter = Counter.builder("transfer.pipeline.coalesced")
+                .description("Transfers merged into follow-up work already queued for the same wallet")
+                .register(meterRegistry);
+        Gauge.builder("transfer.pipeline.pending", pending, Map::size)
+                .description("Wallets with follow-up work waiting for a worker")
+                .register(meterRegistry);
+
+        if (!properties.isEnabled()) {
+            log.info("Transfer follow-up pipeline disabled; follow-up work runs on the calling thread");
+            return;
+        }
+        int workerCount = properties.getWorkerCount();
+        workers = new ThreadPoolExecutor[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            String workerName = "transfer-pipeline-" + i;
+            workers[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, workerName);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        log.info("Started {} transfer follow-up workers with queue capacity {}", workerCount, properties.getQueueCapacity());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (workers == null) {
+            return;
+        }
+        for (ThreadPoolExecutor worker : workers) {
+            worker.shutdown();
+        }
+        long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+        for (ThreadPoolExecutor worker : workers) {
+            worker.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        if (!pending.isEmpty()) {
+            log.warn("Shutting down with follow-up work still queued for {} wallets; the sweep will apply it",
+                    pending.size());
+        }
+    }
+
+    /**
+     * Records the work inside the transfer's transaction, so it commits or rolls back with the ledger write
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void recordPendingWork(TransferCompletedEvent event) {
+        pendingConsumptionRepository.save(PendingRefundableConsumption.builder()
+                .walletId(event.getSendingWallet().getId())
+                .amount(event.getAmount())
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Fires after the publishing transaction commits, or straight away when there was none
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransferCompleted(TransferCompletedEvent event) {
+        submit(event.getSendingWallet().getId(), event.getCompletedAtNanos());
+    }
+
+    /**
+     * Queues wallets whose work has been waiting longer than {@code sweep-after}: passes that failed, and
+     * work this or another instance had queued when it stopped
+     */
+    @Scheduled(fixedDelayString = "${transfers.post-commit.sweep-interval-ms:60000}")
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getSweepAfter());
+        List<Long> walletIds = pendingConsumptionRepository.findWalletIdsPendingBefore(cutoff, SWEEP_BATCH_SIZE);
+        if (!walletIds.isEmpty()) {
+            log.info("Sweeping follow-up work left pending for {} wallets", walletIds.size());
+        }
+        for (Long walletId : walletIds) {
+            submit(walletId, null);
+        }
+    }
+
+    private void submit(Long walletId, Long completedAtNanos) {
+        if (workers == null) {
+            apply(walletId, new PendingWalletWork(completedAtNanos));
+            return;
+        }
+
+        boolean[] queued = {false};
+        pending.compute(walletId, (id, work) -> {
+            if (work == null) {
+                queued[0] = true;
+                return new PendingWalletWork(completedAtNanos);
+            }
+            work.merge(completedAtNanos);
+            return work;
+        });
+
+        if (queued[0]) {
+            workers[Math.floorMod(walletId.hashCode(), workers.length)].execute(() -> drain(walletId));
+        } else {
+            coalescedCounter.increment();
+        }
+    }
+
+    private void drain(Long walletId) {
+        PendingWalletWork work = pending.remove(walletId);
+        if (work != null) {
+            apply(walletId, work);
+        }
+    }
+
+    private void apply(Long walletId, PendingWalletWork work) {
+        RuntimeException failure = runWithRetry("refundable-balance",
+                () -> transactionTemplate.executeWithoutResult(status -> consumePending(walletId)));
+        if (failure != null) {
+            recordFailure(walletId, failure);
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (long completedAt : work.completedAtNanos) {
+            latencyTimer.record(now - completedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void consumePending(Long walletId) {
+        // Rows claimed by another instance are skipped; that instance deducts them
+        List<PendingRefundableConsumption> claimed = pendingConsumptionRepository.lockByWalletId(walletId);
+        if (claimed.isEmpty()) {
+            return;
+        }
+        BigDecimal amount = claimed.stream()
+                .map(PendingRefundableConsumption::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        refundableBalanceService.consume(walletRepository.getReferenceById(walletId), amount);
+        pendingConsumptionRepository.deleteAllInBatch(claimed);
+    }
+
+    private void recordFailure(Long walletId, RuntimeException failure) {
+        String error = String.valueOf(failure.getMessage());
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        String lastError = error;
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> pendingConsumptionRepository.recordFailure(walletId, lastError));
+        } catch (RuntimeException e) {
+            log.error("Could not record the follow-up failure of wallet {}: {}", walletId, e.getMessage());
+        }
+    }
+
+    /**
+     * Retries a step with exponential backoff
+     *
+     * @return the last failure once the attempts run out, or null if the step succeeded
+     */
+    private RuntimeException runWithRetry(String step, Runnable action) {
+        long backoffMillis = properties.getRetryBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                action.run();
+                return null;
+            } catch (RuntimeException e) {
+                if (attempt >= properties.getMaxAttempts()) {
+                    meterRegistry.counter("transfer.pipeline.failures", "step", step).increment();
+                    log.error("Transfer follow-up step {} failed after {} attempts; left for the sweep", step, attempt, e);
+                    return e;
+                }
+                meterRegistry.counter("transfer.pipeline.retries", "step", step).increment();
+                log.warn("Transfer follow-up step {} failed (attempt {}/{}): {}",
+                        step, attempt, properties.getMaxAttempts(), e.getMessage());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    log.error("Interrupted while retrying transfer follow-up step {}; left for the sweep", step);
+                    return e;
+                }
+                backoffMillis *= 2;
+            }
+        }
+    }
+
+    /**
+     * Latency stamps of the transfers merged into one wallet's queued pass; the sweep queues passes without one
+     */
+    private static final class PendingWalletWork {
+        private final List<Long> completedAtNanos = new ArrayList<>();
+
+        private PendingWalletWork(Long completedAtNanos) {
+            merge(completedAtNanos);
+        }
+
+        private void merge(Long completedAtNanos) {
+            if (completedAtNanos != null) {
+                this.completedAtNanos.add(completedAtNanos);
+            }
+        }
+    }
+}
@@ -1,36 +1,43 @@
 package com.shizzy.moneytransfer.serviceimpl;
 
 import com.shizzy.moneytransfer.api.ApiResponse;
+import com.shizzy.moneytransfer.dto.LedgerMovement;
+import com.shizzy.moneytransfer.enums.IdentifierSequence;
+import com.shizzy.moneytransfer.enums.LedgerWriteMode;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
 import com.shizzy.moneytransfer.exception.DuplicateResourceException;
 import com.shizzy.moneytransfer.exception.InsufficientBalanceException;
 import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
 import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.WalletActivityStatsRepository;
 import com.shizzy.moneytransfer.repository.WalletRepository;
+import com.shizzy.moneytransfer.service.IdentifierAllocationService;
 import com.shizzy.moneytransfer.service.WalletService;
-import com.stripe.model.checkout.Session;
 import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class WalletServiceImpl implements WalletService {
 
     private final WalletRepository walletRepository;
+    private final IdentifierAllocationService identifierAllocationService;
+    private final WalletActivityStatsRepository walletActivityStatsRepository;
 
-    private final SecureRandom secureRandom = new SecureRandom();
-    private final AtomicInteger prefix = new AtomicInteger(20);
+    @Value("${wallet.ledger.write-mode:OPTIMISTIC}")
+    private LedgerWriteMode ledgerWriteMode = LedgerWriteMode.OPTIMISTIC;
 
     @Override
     public Wallet createWallet(String userId) {
@@ -56,14 +63,28 @@ public class WalletServiceImpl implements WalletService {
     }
 
     @Override
-    public  void deposit(Wallet destinationWallet, BigDecimal amount) {
+    @Transactional
+    public  void deposit(Wallet destinationWallet, BigDecimal amount, TransactionOperation operation) {
         destinationWallet.setBalance(destinationWallet.getBalance().add(amount));
         walletRepository.save(destinationWallet);
+        walletActivityStatsRepository.record(destinationWallet.getId(), operation, amount, LocalDateTime.now());
     }
 
     @Override
     @Transactional
     public  void transfer(@NotNull Wallet sourceWallet, Wallet destinationWallet, BigDecimal amount) {
+        switch (ledgerWriteMode) {
+            case PESSIMISTIC -> transferWithRowLocks(sourceWallet, destinationWallet, amount);
+            case CONDITIONAL_UPDATE -> transferWithConditionalUpdates(sourceWallet, destinationWallet, amount);
+            default -> transferWithOptimisticLock(sourceWallet, destinationWallet, amount);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        walletActivityStatsRepository.recordAll(List.of(
+                new LedgerMovement(sourceWallet.getId(), TransactionOperation.TRANSFER, amount, now),
+                new LedgerMovement(destinationWallet.getId(), TransactionOperation.TRANSFER, amount, now)));
+    }
+
+    private void transferWithOptimisticLock(Wallet sourceWallet, Wallet destinationWallet, BigDecimal amount) {
         BigDecimal balance = sourceWallet.getBalance();
         if (balance.compareTo(amount) < 0) {
             throw new InsufficientBalanceException("You do not have sufficient balance to complete this transaction");
@@ -74,24 +95,68 @@ public class WalletServiceImpl implements WalletService {
         walletRepository.save(destinationWallet);
     }
 
+    private void transferWithRowLocks(Wallet sourceWallet, Wallet destinationWallet, BigDecimal amount) {
+        List<Wallet> lockedWallets = walletRepository.findAllByIdForUpdate(
+                List.of(sourceWallet.getId(), destinationWallet.getId()));
+
+        Wallet lockedSource = findLocked(lockedWallets, sourceWallet.getId());
+        Wallet lockedDestination = findLocked(lockedWallets, destinationWallet.getId());
+
+        transferWithOptimisticLock(lockedSource, lockedDestination, amount);
+    }
+
+    private Wallet findLocked(List<Wallet> lockedWallets, Long id) {
+        return lockedWallets.stream()
+                .filter(wallet -> wallet.getId().equals(id))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
+    }
+
+    /**
+     * Moves money with two guarded UPDATE statements instead of a read-modify-write of the entities.
+     * The statements are issued in ascending wallet id order so concurrent transfers between the same
+     * pair of wallets always take the row locks in the same order. The passed-in entities are not
+     * modified; the database row is the source of truth for the balance in this mode.
+     */
+    private void transferWithConditionalUpdates(Wallet sourceWallet, Wallet destinationWallet, BigDecimal amount) {
+        if (sourceWallet.getId() < destinationWallet.getId()) {
+            debitIfSufficient(sourceWallet, amount);
+            credit(destinationWallet, amount);
+        } else {
+            credit(destinationWallet, amount);
+            debitIfSufficient(sourceWallet, amount);
+        }
+    }
+
+    private void debitIfSufficient(Wallet wallet, BigDecimal amount) {
+        if (walletRepository.debitIfSufficient(wallet.getId(), amount) == 0) {
+            throw new InsufficientBalanceException("You do not have sufficient balance to complete this transaction");
+        }
+    }
+
+    private void credit(Wallet wallet, BigDecimal amount) {
+        if (walletRepository.credit(wallet.getId(), amount) == 0) {
+            throw new ResourceNotFoundException("Wallet not found");
+        }
+    }
+
     @Override
-    public void debit(Wallet sourceWallet, BigDecimal amount) {
+    @Transactional
+    public void debit(Wallet sourceWallet, BigDecimal amount, TransactionOperation operation) {
         if(sourceWallet.getBalance().compareTo(amount) < 0) {
             throw new InsufficientBalanceException("You do not have sufficient balance to complete this transaction");
         }
         sourceWallet.setBalance(sourceWallet.getBalance().subtract(amount));
         walletRepository.save(sourceWallet);
+        walletActivityStatsRepository.record(sourceWallet.getId(), operation, amount, LocalDateTime.now());
     }
 
     private @NotNull String generateWalletId() {
+        // Shuffled ids can land on one of the random 20xxxxxx ids issued before the sequence existed
         String walletId;
         do {
-            walletId = String.format("%02d%06d", prefix.get(), secureRandom.nextInt(1_000_000));
+            walletId = String.valueOf(identifierAllocationService.nextIdentifier(IdentifierSequence.WALLET_ID));
         } while (walletRepository.existsWalletByWalletId(walletId));
-
-        if (walletId.endsWith("999999")) {
-            prefix.incrementAndGet();
-        }
         return walletId;
     }
 
@@ -163,30 +228,10 @@ public class WalletServiceImpl implements WalletService {
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
     }
 
-    public String simulateConcurrentUpdates(Long walletId, BigDecimal amount, int numberOfThreads) throws InterruptedException {
-
-        Wallet wallet = walletRepository.findById(walletId).orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
-
-        ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
-        CountDownLatch latch = new CountDownLatch(numberOfThreads);
-
-        for (int i = 0; i < numberOfThreads; i++) {
-            executorService.submit(() -> {
-                try {
-                   debit(wallet, amount);
-                } catch (Exception e) {
-                    System.out.println("Update failed: " + e.getMessage());
-                } finally {
-                    latch.countDown();
-                }
-            });
-        }
-
-        latch.await(10, TimeUnit.SECONDS);
-        executorService.shutdown();
-
-        Wallet updatedWallet = walletRepository.findById(walletId).orElseThrow(() -> new RuntimeException("Wallet not found"));
-        return "Final balance after " + numberOfThreads + " concurrent updates: " + updatedWallet.getBalance();
+    @Override
+    public Map<String, Wallet> findWalletsByUserIds(Collection<String> userIds) {
+        return walletRepository.findAllByCreatedByIn(userIds).stream()
+                .collect(Collectors.toMap(Wallet::getCreatedBy, Function.identity()));
     }
 
     @Override
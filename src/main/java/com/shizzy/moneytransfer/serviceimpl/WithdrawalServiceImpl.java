@@ -72,14 +72,9 @@ public class WithdrawalServiceImpl implements WithdrawalService {
                     .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"))
                     .getCreatedBy();
 
-            // Validate against withdrawal limit
+            // Validate against withdrawal and daily limits, then check and count it against velocity limits
             transactionLimitService.validateWithdrawal(userId, amount);
-
-            // Validate against daily limit
-            if (accountLimitService.wouldExceedDailyLimit(userId, amount)) {
-                throw new TransactionLimitExceededException(
-                        "This withdrawal would exceed your daily transaction limit");
-            }
+            transactionLimitService.recordVelocity(userId, amount);
 
             // Record the transaction for daily limit tracking
             accountLimitService.recordTransaction(userId, amount);
@@ -107,14 +102,8 @@ public class WithdrawalServiceImpl implements WithdrawalService {
         try {
             BigDecimal amount = new BigDecimal(request.getAmount());
 
-            // Validate against withdrawal limit
+            // Validate against withdrawal and daily limits
             transactionLimitService.validateWithdrawal(userId, amount);
-
-            // Validate against daily limit
-            if (accountLimitService.wouldExceedDailyLimit(userId, amount)) {
-                throw new TransactionLimitExceededException(
-                        "This withdrawal would exceed your daily transaction limit");
-            }
         } catch (TransactionLimitExceededException e) {
             return new GenericResponse<>(
                     "error",
@@ -187,10 +176,6 @@ public class WithdrawalServiceImpl implements WithdrawalService {
 
             // Validate against withdrawal and daily limits
             transactionLimitService.validateWithdrawal(userId, amount);
-            if (accountLimitService.wouldExceedDailyLimit(userId, amount)) {
-                throw new TransactionLimitExceededException(
-                        "This withdrawal would exceed your daily transaction limit");
-            }
         } catch (TransactionLimitExceededException e) {
             return new GenericResponse<>(
                     "error",
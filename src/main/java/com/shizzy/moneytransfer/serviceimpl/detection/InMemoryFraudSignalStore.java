@@ -0,0 +1,189 @@
+package com.shizzy.moneytransfer.serviceimpl.detection;
+
+import com.shizzy.moneytransfer.config.FraudSignalProperties;
+import com.shizzy.moneytransfer.dto.LedgerMovement;
+import com.shizzy.moneytransfer.dto.WalletSignals;
+import com.shizzy.moneytransfer.service.detection.FraudSignalStore;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Keeps wallet windows in {@link WalletSignalTable}s spread over independently locked shards. Readers first read
+ * without locking and only take the shard's read lock when a write raced with them, so rule evaluations do not
+ * queue behind the consumer. Applying an event and taking a checkpoint exclude each other, which makes every
+ * checkpoint a consistent cut of the stream: it holds exactly the events before its positions.
+ */
+@Component
+public class InMemoryFraudSignalStore implements FraudSignalStore {
+
+    private final int initialCapacityPerShard;
+    private final Shard[] shards;
+    private final Map<Integer, Long> positions = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+
+    public InMemoryFraudSignalStore(FraudSignalProperties properties) {
+        this.initialCapacityPerShard = properties.getInitialCapacityPerShard();
+        this.shards = new Shard[properties.getShards()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(new WalletSignalTable(initialCapacityPerShard));
+        }
+    }
+
+    @Override
+    public void record(int partition, long offset, List<LedgerMovement> movements) {
+        checkpointLock.readLock().lock();
+        try {
+            Long next = positions.get(partition);
+            if (next != null && offset < next) {
+                return;
+            }
+            for (LedgerMovement movement : movements) {
+                Shard shard = shardOf(movement.walletId());
+                long stamp = shard.lock.writeLock();
+                try {
+                    shard.table.add(movement.walletId(), movement.operation(), movement.amount(), movement.at());
+                } finally {
+                    shard.lock.unlockWrite(stamp);
+                }
+            }
+            positions.put(partition, offset + 1);
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public WalletSignals signals(long walletId, LocalDateTime now) {
+        Shard shard = shardOf(walletId);
+        long stamp = shard.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                WalletSignals signals = shard.table.signals(walletId, now);
+                if (shard.lock.validate(stamp)) {
+                    return signals;
+                }
+            } catch (RuntimeException e) {
+                // A resize swapped the arrays under the read; read again under the lock
+            }
+        }
+        stamp = shard.lock.readLock();
+        try {
+            return shard.table.signals(walletId, now);
+        } finally {
+            shard.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public OptionalLong position(int partition) {
+        Long next = positions.get(partition);
+        return next == null ? OptionalLong.empty() : OptionalLong.of(next);
+    }
+
+    @Override
+    public int walletCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            long stamp = shard.lock.readLock();
+            try {
+                count += shard.table.size();
+            } finally {
+                shard.lock.unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Checkpoint checkpoint(LocalDateTime now) {
+        checkpointLock.writeLock().lock();
+        try {
+            List<byte[]> data = new ArrayList<>(shards.length);
+            for (Shard shard : shards) {
+                long stamp = shard.lock.writeLock();
+                try {
+                    shard.table.evictIdle(now);
+                    data.add(serialize(shard.table));
+                } finally {
+                    shard.lock.unlockWrite(stamp);
+                }
+            }
+            return new Checkpoint(Map.copyOf(positions), data);
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean restore(Checkpoint checkpoint) {
+        if (checkpoint.shards().size() != shards.length) {
+            return false;
+        }
+        List<WalletSignalTable> tables = new ArrayList<>(shards.length);
+        for (byte[] data : checkpoint.shards()) {
+            tables.add(deserialize(data));
+        }
+
+        checkpointLock.writeLock().lock();
+        try {
+            for (int i = 0; i < shards.length; i++) {
+                long stamp = shards[i].lock.writeLock();
+                try {
+                    shards[i].table = tables.get(i);
+                } finally {
+                    shards[i].lock.unlockWrite(stamp);
+                }
+            }
+            positions.clear();
+            positions.putAll(checkpoint.positions());
+            return true;
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    private Shard shardOf(long walletId) {
+        return shards[(int) Math.floorMod(walletId, (long) shards.length)];
+    }
+
+    private static byte[] serialize(WalletSignalTable table) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            table.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private WalletSignalTable deserialize(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            return WalletSignalTable.readFrom(in, initialCapacityPerShard);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Shard {
+        private final StampedLock lock = new StampedLock();
+        private WalletSignalTable table;
+
+        Shard(WalletSignalTable table) {
+            this.table = table;
+        }
+    }
+}
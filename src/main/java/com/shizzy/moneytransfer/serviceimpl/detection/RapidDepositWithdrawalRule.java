@@ -1,37 +1,30 @@
 package com.shizzy.moneytransfer.serviceimpl.detection;
 
+import com.shizzy.moneytransfer.dto.WalletFeatures;
 import com.shizzy.moneytransfer.enums.TransactionOperation;
 import com.shizzy.moneytransfer.model.FlaggedTransactionReason;
 import com.shizzy.moneytransfer.model.Transaction;
-import com.shizzy.moneytransfer.repository.TransactionRepository;
 import com.shizzy.moneytransfer.service.detection.FraudDetectionRule;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 @Component
-@RequiredArgsConstructor
 public class RapidDepositWithdrawalRule implements FraudDetectionRule {
-    private final TransactionRepository transactionRepository;
+    private static final BigDecimal LARGE_AMOUNT = new BigDecimal("5000");
 
     @Override
-    public boolean evaluate(Transaction transaction) {
-        LocalDateTime recentDate = LocalDateTime.now().minusHours(24);
-        List<Transaction> recentDeposits = transactionRepository.findRecentTransactions(
-                transaction.getWallet().getWalletId(), TransactionOperation.DEPOSIT, recentDate);
-        List<Transaction> recentWithdrawals = transactionRepository.findRecentTransactions(
-                transaction.getWallet().getWalletId(), TransactionOperation.WITHDRAWAL, recentDate);
-
-        List<Transaction> recentTransactions = new ArrayList<>();
-        recentTransactions.addAll(recentDeposits);
-        recentTransactions.addAll(recentWithdrawals);
-
-        return recentTransactions.size() > 5 &&
-                recentTransactions.stream().allMatch(t -> t.getAmount().compareTo(new BigDecimal("5000")) > 0);
+    public boolean evaluate(Transaction transaction, WalletFeatures features) {
+        WalletFeatures.OperationStats deposits = features.last24Hours(TransactionOperation.DEPOSIT);
+        WalletFeatures.OperationStats withdrawals = features.last24Hours(TransactionOperation.WITHDRAWAL);
+
+        // Every recent deposit and withdrawal is large when the smallest of them is
+        return deposits.count() + withdrawals.count() > 5 &&
+                isLarge(deposits) && isLarge(withdrawals);
+    }
+
+    private static boolean isLarge(WalletFeatures.OperationStats stats) {
+        return stats.count() == 0 || stats.minAmount().compareTo(LARGE_AMOUNT) > 0;
     }
 
     @Override
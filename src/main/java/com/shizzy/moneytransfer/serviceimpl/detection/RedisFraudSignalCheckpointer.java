@@ -0,0 +1,164 @@
+package com.shizzy.moneytransfer.serviceimpl.detection;
+
+import com.shizzy.moneytransfer.config.FraudSignalProperties;
+import com.shizzy.moneytransfer.service.detection.FraudSignalStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes the fraud-signal store to a Redis hash periodically and on shutdown, and loads it back on startup so a
+ * restarted replica only consumes the events after the checkpoint instead of the last 24 hours. A checkpoint is
+ * written under a staging key of its own and renamed into place, so a replica never restores a half-written one
+ * and replicas checkpointing at the same time never write into each other's staging hash.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisFraudSignalCheckpointer {
+
+    static final String HEADER_FIELD = "header";
+    static final String SHARD_FIELD_PREFIX = "shard:";
+
+    private final FraudSignalStore store;
+    private final FraudSignalProperties properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String stagingSuffix = ":staging:" + UUID.randomUUID();
+
+    @PostConstruct
+    public void restore() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Gauge.builder("fraud.signals.wallets", store, FraudSignalStore::walletCount)
+                .description("Wallets with activity held by the fraud-signal store")
+                .register(meterRegistry);
+
+        byte[] key = bytes(properties.getCheckpointKey());
+        try {
+            Map<byte[], byte[]> hash = stringRedisTemplate.execute(
+                    (RedisCallback<Map<byte[], byte[]>>) connection -> connection.hashCommands().hGetAll(key));
+            if (hash == null || hash.isEmpty()) {
+                log.info("No fraud signal checkpoint found, rebuilding from the last 24 hours of events");
+                return;
+            }
+            if (store.restore(decode(hash))) {
+                log.info("Restored {} wallets from the fraud signal checkpoint", store.walletCount());
+            } else {
+                log.warn("Fraud signal checkpoint was taken with a different shard count, rebuilding from events");
+            }
+        } catch (DataAccessException | IOException | UncheckedIOException e) {
+            log.warn("Could not restore the fraud signal checkpoint, rebuilding from events: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fraud-signals.checkpoint-interval-ms:300000}",
+            initialDelayString = "${fraud-signals.checkpoint-interval-ms:300000}")
+    public void checkpoint() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<byte[], byte[]> hash = encode(store.checkpoint(LocalDateTime.now()));
+        byte[] key = bytes(properties.getCheckpointKey());
+        byte[] staging = bytes(properties.getCheckpointKey() + stagingSuffix);
+        try {
+            stringRedisTemplate.execute((RedisCallback<Void>) connection -> {
+                connection.keyCommands().del(staging);
+                try {
+                    // One command per field keeps each write to a single shard's worth of data
+                    hash.forEach((field, value) -> connection.hashCommands().hSet(staging, field, value));
+                    connection.keyCommands().rename(staging, key);
+                } catch (RuntimeException e) {
+                    // The key is this replica's alone, so nothing would ever clear a partial one
+                    connection.keyCommands().del(staging);
+                    throw e;
+                }
+                return null;
+            });
+            sample.stop(meterRegistry.timer("fraud.signals.checkpoint"));
+        } catch (DataAccessException e) {
+            log.warn("Could not write the fraud signal checkpoint, keeping the previous one: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        checkpoint();
+    }
+
+    static Map<byte[], byte[]> encode(FraudSignalStore.Checkpoint checkpoint) {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(header)) {
+            out.writeInt(checkpoint.shards().size());
+            out.writeInt(checkpoint.positions().size());
+            for (Map.Entry<Integer, Long> position : checkpoint.positions().entrySet()) {
+                out.writeInt(position.getKey());
+                out.writeLong(position.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Map<byte[], byte[]> hash = new HashMap<>();
+        hash.put(bytes(HEADER_FIELD), header.toByteArray());
+        for (int i = 0; i < checkpoint.shards().size(); i++) {
+            hash.put(bytes(SHARD_FIELD_PREFIX + i), checkpoint.shards().get(i));
+        }
+        return hash;
+    }
+
+    static FraudSignalStore.Checkpoint decode(Map<byte[], byte[]> hash) throws IOException {
+        Map<String, byte[]> fields = new HashMap<>();
+        hash.forEach((field, value) -> fields.put(new String(field, StandardCharsets.UTF_8), value));
+        byte[] header = fields.get(HEADER_FIELD);
+        if (header == null) {
+            throw new IOException("checkpoint has no header");
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(header))) {
+            int shardCount = in.readInt();
+            Map<Integer, Long> positions = new HashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                positions.put(in.readInt(), in.readLong());
+            }
+            List<byte[]> shards = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                byte[] shard = fields.get(SHARD_FIELD_PREFIX + i);
+                if (shard == null) {
+                    throw new IOException("checkpoint is missing shard " + i);
+                }
+                shards.add(shard);
+            }
+            return new FraudSignalStore.Checkpoint(positions, shards);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
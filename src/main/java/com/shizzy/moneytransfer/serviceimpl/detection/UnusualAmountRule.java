@@ -1,28 +1,24 @@
 package com.shizzy.moneytransfer.serviceimpl.detection;
 
+import com.shizzy.moneytransfer.dto.WalletFeatures;
 import com.shizzy.moneytransfer.model.FlaggedTransactionReason;
 import com.shizzy.moneytransfer.model.Transaction;
-import com.shizzy.moneytransfer.repository.TransactionRepository;
-import com.shizzy.moneytransfer.service.WalletService;
 import com.shizzy.moneytransfer.service.detection.FraudDetectionRule;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 
 @Component
-@RequiredArgsConstructor
 public class UnusualAmountRule implements FraudDetectionRule {
-    private final TransactionRepository transactionRepository;
-    private final WalletService walletService;
+    private static final Duration NEW_WALLET_AGE = Duration.ofDays(30);
 
     @Override
-    public boolean evaluate(Transaction transaction) {
-        if(walletService.isWalletNew(transaction.getWallet().getWalletId())) {
+    public boolean evaluate(Transaction transaction, WalletFeatures features) {
+        if(features.isWalletYoungerThan(NEW_WALLET_AGE) || features.meanAmount() == null) {
             return false;
         }
-        BigDecimal averageAmount = transactionRepository.getAverageTransactionAmount(
-                transaction.getWallet().getWalletId());
+        BigDecimal averageAmount = features.meanAmount();
         BigDecimal deviation = transaction.getAmount().subtract(averageAmount).abs();
         return deviation.compareTo(averageAmount.multiply(new BigDecimal("0.5"))) > 0;
     }
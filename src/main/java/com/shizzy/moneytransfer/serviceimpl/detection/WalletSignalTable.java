@@ -0,0 +1,350 @@
+package com.shizzy.moneytransfer.serviceimpl.detection;
+
+import com.shizzy.moneytransfer.dto.WalletFeatures;
+import com.shizzy.moneytransfer.dto.WalletSignals;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Open-addressing hash table from wallet primary key to the wallet's activity windows, held in primitive arrays so
+ * a million wallets take a few hundred megabytes and no object per wallet. Each window keeps a current and a
+ * previous fixed bucket per tracked operation; its value is the current bucket plus the share of the previous
+ * bucket still inside the window, which assumes activity was spread evenly over the previous bucket. Not
+ * thread-safe; {@link InMemoryFraudSignalStore} guards every table with a lock.
+ */
+final class WalletSignalTable {
+
+    static final List<TransactionOperation> TRACKED = List.of(
+            TransactionOperation.DEPOSIT, TransactionOperation.WITHDRAWAL, TransactionOperation.TRANSFER);
+
+    private static final int OPERATIONS = 3;
+    private static final int ENTRIES = OPERATIONS * 2; // current and previous bucket of every operation
+    private static final int AMOUNT_SCALE = 4;
+    private static final long EMPTY = 0L; // wallet ids come from a sequence starting at 1
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final long HOUR_SECONDS = 3600;
+    private static final long DAY_SECONDS = 86400;
+
+    private final int initialCapacity;
+    private long[] keys;
+    private Window hour;
+    private Window day;
+    private int size;
+
+    WalletSignalTable(int initialCapacity) {
+        this.initialCapacity = capacityFor(initialCapacity);
+        allocate(this.initialCapacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Counts one movement; operations that are not tracked, and movements older than both buckets of a window,
+     * are ignored
+     */
+    void add(long walletId, TransactionOperation operation, BigDecimal amount, LocalDateTime at) {
+        int index = TRACKED.indexOf(operation);
+        if (index < 0 || walletId <= EMPTY) {
+            return;
+        }
+        long units = amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValue();
+        long seconds = at.toEpochSecond(ZoneOffset.UTC);
+        int slot = slotFor(walletId);
+        hour.add(slot, index, units, seconds);
+        day.add(slot, index, units, seconds);
+    }
+
+    WalletSignals signals(long walletId, LocalDateTime now) {
+        int slot = find(walletId);
+        if (slot < 0) {
+            return WalletSignals.NONE;
+        }
+        long seconds = now.toEpochSecond(ZoneOffset.UTC);
+        Map<TransactionOperation, WalletFeatures.OperationStats> lastHour = new EnumMap<>(TransactionOperation.class);
+        Map<TransactionOperation, WalletFeatures.OperationStats> last24Hours =
+                new EnumMap<>(TransactionOperation.class);
+        for (int index = 0; index < OPERATIONS; index++) {
+            WalletFeatures.OperationStats hourStats = hour.stats(slot, index, seconds);
+            if (hourStats != null) {
+                lastHour.put(TRACKED.get(index), hourStats);
+            }
+            WalletFeatures.OperationStats dayStats = day.stats(slot, index, seconds);
+            if (dayStats != null) {
+                last24Hours.put(TRACKED.get(index), dayStats);
+            }
+        }
+        return new WalletSignals(lastHour, last24Hours);
+    }
+
+    /**
+     * Drops wallets with nothing left in their 24-hour window and shrinks the table to fit the rest; returns the
+     * number of wallets dropped
+     */
+    int evictIdle(LocalDateTime now) {
+        long seconds = now.toEpochSecond(ZoneOffset.UTC);
+        int idle = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY && day.isIdle(slot, seconds)) {
+                idle++;
+            }
+        }
+        if (idle > 0) {
+            rehash(Math.max(initialCapacity, capacityFor((int) ((size - idle) / LOAD_FACTOR) + 1)), seconds);
+        }
+        return idle;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                out.writeLong(keys[slot]);
+                hour.write(out, slot);
+                day.write(out, slot);
+            }
+        }
+    }
+
+    static WalletSignalTable readFrom(DataInput in, int initialCapacity) throws IOException {
+        int size = in.readInt();
+        WalletSignalTable table = new WalletSignalTable(Math.max(initialCapacity, (int) (size / LOAD_FACTOR) + 1));
+        for (int i = 0; i < size; i++) {
+            int slot = table.slotFor(in.readLong());
+            table.hour.read(in, slot);
+            table.day.read(in, slot);
+        }
+        return table;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        hour = new Window(HOUR_SECONDS, capacity);
+        day = new Window(DAY_SECONDS, capacity);
+        size = 0;
+    }
+
+    /**
+     * Readers may run against a table that is being resized and validate afterwards, so probing works on one
+     * array and gives up after visiting every slot
+     */
+    private int find(long walletId) {
+        long[] keys = this.keys;
+        int mask = keys.length - 1;
+        int slot = mix(walletId) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            long key = keys[slot];
+            if (key == walletId) {
+                return slot;
+            }
+            if (key == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slotFor(long walletId) {
+        int slot = find(walletId);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            rehash(keys.length * 2, Long.MIN_VALUE);
+        }
+        slot = freeSlot(walletId);
+        keys[slot] = walletId;
+        hour.clear(slot);
+        day.clear(slot);
+        size++;
+        return slot;
+    }
+
+    private int freeSlot(long walletId) {
+        int mask = keys.length - 1;
+        int slot = mix(walletId) & mask;
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Moves every wallet still active at {@code seconds} into freshly allocated arrays of the given capacity
+     */
+    private void rehash(int capacity, long seconds) {
+        long[] oldKeys = keys;
+        Window oldHour = hour;
+        Window oldDay = day;
+        allocate(capacity);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY && !oldDay.isIdle(slot, seconds)) {
+                int target = freeSlot(oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                hour.copy(oldHour, slot, target);
+                day.copy(oldDay, slot, target);
+                size++;
+            }
+        }
+    }
+
+    private static int capacityFor(int wallets) {
+        int capacity = Integer.highestOneBit(Math.max(wallets, 2) - 1) << 1;
+        return Math.max(capacity, 2);
+    }
+
+    private static int mix(long walletId) {
+        long hash = walletId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * One window length for every wallet in the table. Per wallet it holds the bucket its current values belong
+     * to and, per operation, the count, sum and smallest amount of the current and the previous bucket; amounts
+     * are stored in units of 10^-4.
+     */
+    private static final class Window {
+
+        private final long bucketSeconds;
+        private final long[] epochs;
+        private final int[] counts;
+        private final long[] sums;
+        private final long[] mins;
+
+        Window(long bucketSeconds, int capacity) {
+            this.bucketSeconds = bucketSeconds;
+            this.epochs = new long[capacity];
+            this.counts = new int[capacity * ENTRIES];
+            this.sums = new long[capacity * ENTRIES];
+            this.mins = new long[capacity * ENTRIES];
+        }
+
+        void clear(int slot) {
+            epochs[slot] = Long.MIN_VALUE;
+        }
+
+        void add(int slot, int index, long units, long seconds) {
+            long epoch = Math.floorDiv(seconds, bucketSeconds);
+            if (epoch > epochs[slot]) {
+                roll(slot, epochs[slot] == Long.MIN_VALUE ? Long.MAX_VALUE : epoch - epochs[slot]);
+                epochs[slot] = epoch;
+            }
+            long age = epochs[slot] - epoch;
+            if (age > 1) {
+                return;
+            }
+            int entry = slot * ENTRIES + index * 2 + (int) age;
+            if (counts[entry]++ == 0 || units < mins[entry]) {
+                mins[entry] = units;
+            }
+            sums[entry] += units;
+        }
+
+        /**
+         * Estimates an operation's activity in the window ending at {@code seconds}, or null when there is none
+         */
+        WalletFeatures.OperationStats stats(int slot, int index, long seconds) {
+            long epoch = Math.floorDiv(seconds, bucketSeconds);
+            long age = Math.max(0, epoch - epochs[slot]);
+            if (age > 1) {
+                return null;
+            }
+            // Share of the bucket before the one holding `seconds` that still lies within the window
+            double carried = 1 - (double) (seconds - epoch * bucketSeconds) / bucketSeconds;
+            double currentWeight = age == 0 ? 1 : carried;
+            double previousWeight = age == 0 ? carried : 0;
+
+            int entry = slot * ENTRIES + index * 2;
+            long count = Math.round(counts[entry] * currentWeight + counts[entry + 1] * previousWeight);
+            if (count == 0) {
+                return null;
+            }
+            long sum = Math.round(sums[entry] * currentWeight + sums[entry + 1] * previousWeight);
+            long min = Long.MAX_VALUE;
+            if (counts[entry] > 0 && currentWeight > 0) {
+                min = mins[entry];
+            }
+            if (counts[entry + 1] > 0 && previousWeight > 0) {
+                min = Math.min(min, mins[entry + 1]);
+            }
+            return new WalletFeatures.OperationStats(count, BigDecimal.valueOf(sum, AMOUNT_SCALE),
+                    min == Long.MAX_VALUE ? null : BigDecimal.valueOf(min, AMOUNT_SCALE));
+        }
+
+        boolean isIdle(int slot, long seconds) {
+            long epoch = epochs[slot];
+            return epoch != Long.MIN_VALUE && Math.floorDiv(seconds, bucketSeconds) - epoch > 1;
+        }
+
+        void copy(Window from, int fromSlot, int toSlot) {
+            epochs[toSlot] = from.epochs[fromSlot];
+            System.arraycopy(from.counts, fromSlot * ENTRIES, counts, toSlot * ENTRIES, ENTRIES);
+            System.arraycopy(from.sums, fromSlot * ENTRIES, sums, toSlot * ENTRIES, ENTRIES);
+            System.arraycopy(from.mins, fromSlot * ENTRIES, mins, toSlot * ENTRIES, ENTRIES);
+        }
+
+        /**
+         * Writes the slot's bucket and a bit mask of its non-empty entries followed by those entries only, since
+         * most wallets use one or two operations
+         */
+        void write(DataOutput out, int slot) throws IOException {
+            out.writeLong(epochs[slot]);
+            int base = slot * ENTRIES;
+            int present = 0;
+            for (int i = 0; i < ENTRIES; i++) {
+                if (counts[base + i] > 0) {
+                    present |= 1 << i;
+                }
+            }
+            out.writeByte(present);
+            for (int i = 0; i < ENTRIES; i++) {
+                if ((present & (1 << i)) != 0) {
+                    out.writeInt(counts[base + i]);
+                    out.writeLong(sums[base + i]);
+                    out.writeLong(mins[base + i]);
+                }
+            }
+        }
+
+        void read(DataInput in, int slot) throws IOException {
+            epochs[slot] = in.readLong();
+            int base = slot * ENTRIES;
+            int present = in.readByte();
+            for (int i = 0; i < ENTRIES; i++) {
+                if ((present & (1 << i)) != 0) {
+                    counts[base + i] = in.readInt();
+                    sums[base + i] = in.readLong();
+                    mins[base + i] = in.readLong();
+                }
+            }
+        }
+
+        private void roll(int slot, long buckets) {
+            int base = slot * ENTRIES;
+            for (int entry = base; entry < base + ENTRIES; entry += 2) {
+                if (buckets == 1) {
+                    counts[entry + 1] = counts[entry];
+                    sums[entry + 1] = sums[entry];
+                    mins[entry + 1] = mins[entry];
+                } else {
+                    counts[entry + 1] = 0;
+                    sums[entry + 1] = 0;
+                }
+                counts[entry] = 0;
+                sums[entry] = 0;
+            }
+        }
+    }
+}
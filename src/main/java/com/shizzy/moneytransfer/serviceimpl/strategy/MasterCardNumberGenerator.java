@@ -1,23 +1,25 @@
 package com.shizzy.moneytransfer.serviceimpl.strategy;
 
+import com.shizzy.moneytransfer.enums.IdentifierSequence;
+import com.shizzy.moneytransfer.service.IdentifierAllocationService;
 import com.shizzy.moneytransfer.util.CardValidationUtils;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.util.Random;
-
 @Component
+@RequiredArgsConstructor
 public class MasterCardNumberGenerator implements CardNumberGenerator {
-    private final Random random = new Random();
-    private final int[] masterCardPrefixes = {51, 52, 53, 54, 55};
+    private static final int[] masterCardPrefixes = {51, 52, 53, 54, 55};
+    private static final long ACCOUNTS_PER_PREFIX = 10_000_000_000_000L; // 13 account digits after the prefix
+
+    private final IdentifierAllocationService identifierAllocationService;
 
     @Override
     public String generateCardNumber() {
-        String prefix = String.valueOf(masterCardPrefixes[random.nextInt(masterCardPrefixes.length)]);
-        StringBuilder cardNumber = new StringBuilder(prefix);
-        while (cardNumber.length() < 15) {
-            cardNumber.append(random.nextInt(10));
-        }
-        cardNumber.append(CardValidationUtils.calculateLuhnCheckDigit(cardNumber.toString()));
-        return cardNumber.toString();
+        // One identifier domain covers the accounts under all five prefixes
+        long value = identifierAllocationService.nextIdentifier(IdentifierSequence.MASTERCARD_CARD_NUMBER);
+        int prefixIndex = (int) (value / ACCOUNTS_PER_PREFIX);
+        String cardNumber = String.format("%d%013d", masterCardPrefixes[prefixIndex], value % ACCOUNTS_PER_PREFIX);
+        return cardNumber + CardValidationUtils.calculateLuhnCheckDigit(cardNumber);
     }
 }
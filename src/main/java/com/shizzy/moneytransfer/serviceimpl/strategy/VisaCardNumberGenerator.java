@@ -1,22 +1,21 @@
 package com.shizzy.moneytransfer.serviceimpl.strategy;
 
+import com.shizzy.moneytransfer.enums.IdentifierSequence;
+import com.shizzy.moneytransfer.service.IdentifierAllocationService;
 import com.shizzy.moneytransfer.util.CardValidationUtils;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.util.Random;
-
 @Component
+@RequiredArgsConstructor
 public class VisaCardNumberGenerator implements CardNumberGenerator {
-    private final Random random = new Random();
+    private final IdentifierAllocationService identifierAllocationService;
 
     @Override
     public String generateCardNumber() {
-        String prefix = "4";
-        StringBuilder cardNumber = new StringBuilder(prefix);
-        while (cardNumber.length() < 15) {
-            cardNumber.append(random.nextInt(10));
-        }
-        cardNumber.append(CardValidationUtils.calculateLuhnCheckDigit(cardNumber.toString()));
-        return cardNumber.toString();
+        // 14 account digits after the leading 4
+        long account = identifierAllocationService.nextIdentifier(IdentifierSequence.VISA_CARD_NUMBER);
+        String cardNumber = String.format("4%014d", account);
+        return cardNumber + CardValidationUtils.calculateLuhnCheckDigit(cardNumber);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.shizzy.moneytransfer.util;
+
+import com.shizzy.moneytransfer.cache.TaggedKey;
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.model.Wallet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tags for the transaction caches. Readers wrap their cache key in one of the {@code by*} methods from the key
+ * expression, e.g. {@code key = "T(com.shizzy.moneytransfer.util.CacheTags).byReference('refNum:' + #ref, #ref)"};
+ * writers evict {@link #of(Transaction)} for the transaction they changed.
+ */
+public class CacheTags {
+
+    // Listings and searches across all wallets, which any transaction can change
+    public static final String ANY_TRANSACTION = "transactions";
+
+    public static TaggedKey byReference(String key, String referenceNumber) {
+        return new TaggedKey(key, List.of(reference(referenceNumber)));
+    }
+
+    public static TaggedKey byTransaction(String key, Integer transactionId) {
+        return new TaggedKey(key, List.of(transaction(transactionId)));
+    }
+
+    public static TaggedKey byWallet(String key, Long walletId) {
+        return new TaggedKey(key, List.of(wallet(walletId)));
+    }
+
+    public static TaggedKey byWalletNumber(String key, String walletNumber) {
+        return new TaggedKey(key, List.of(walletNumber(walletNumber)));
+    }
+
+    public static TaggedKey byAnyTransaction(String key) {
+        return new TaggedKey(key, List.of(ANY_TRANSACTION));
+    }
+
+    /**
+     * Every tag a change to the transaction can make stale
+     */
+    public static List<String> of(Transaction transaction) {
+        List<String> tags = new ArrayList<>(5);
+        tags.add(ANY_TRANSACTION);
+        if (transaction.getTransactionId() != null) {
+            tags.add(transaction(transaction.getTransactionId()));
+        }
+        if (transaction.getReferenceNumber() != null) {
+            tags.add(reference(transaction.getReferenceNumber()));
+        }
+        Wallet wallet = transaction.getWallet();
+        if (wallet != null) {
+            if (wallet.getId() != null) {
+                tags.add(wallet(wallet.getId()));
+            }
+            if (wallet.getWalletId() != null) {
+                tags.add(walletNumber(wallet.getWalletId()));
+            }
+        }
+        return tags;
+    }
+
+    public static String reference(String referenceNumber) {
+        return "reference:" + referenceNumber;
+    }
+
+    public static String transaction(Integer transactionId) {
+        return "transaction:" + transactionId;
+    }
+
+    // The wallet's database id, which the transaction filter takes
+    public static String wallet(Long walletId) {
+        return "wallet:" + walletId;
+    }
+
+    // The wallet's public walletId, which the wallet history endpoints take
+    public static String walletNumber(String walletNumber) {
+        return "walletId:" + walletNumber;
+    }
+
+    // Prevent instantiation
+    private CacheTags() {}
+}
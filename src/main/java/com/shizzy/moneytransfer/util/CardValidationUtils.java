@@ -10,7 +10,7 @@ public class CardValidationUtils {
         boolean alternate = true;
 
         for (int i = cardNumberWithoutCheckDigit.length() - 1; i >= 0; i--) {
-            int n = Integer.parseInt(cardNumberWithoutCheckDigit.substring(i, i + 1));
+            int n = cardNumberWithoutCheckDigit.charAt(i) - '0';
             if (alternate) {
                 n *= 2;
                 if (n > 9) {
@@ -0,0 +1,39 @@
+package com.shizzy.moneytransfer.util;
+
+import com.shizzy.moneytransfer.enums.IdentifierSequence;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One {@link KeyedPermutation} per {@link IdentifierSequence}, each keyed with the shared secret and the
+ * sequence name so that the same sequence value maps to unrelated identifiers in different sequences.
+ */
+public final class IdentifierPermutations {
+
+    private final Map<IdentifierSequence, KeyedPermutation> permutations = new EnumMap<>(IdentifierSequence.class);
+
+    public IdentifierPermutations(String key) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalArgumentException("Identifier permutation key must not be blank");
+        }
+        for (IdentifierSequence sequence : IdentifierSequence.values()) {
+            byte[] sequenceKey = (key + ":" + sequence.getSequenceName()).getBytes(StandardCharsets.UTF_8);
+            permutations.put(sequence, new KeyedPermutation(sequence.getDomainSize(), sequenceKey));
+        }
+    }
+
+    /**
+     * Maps a sequence value inside the sequence's domain to the identifier at its shuffled position
+     *
+     * @throws IllegalStateException if the value is past the end of the domain
+     */
+    public long apply(IdentifierSequence sequence, long value) {
+        long position = value - sequence.getDomainStart();
+        if (position < 0 || position >= sequence.getDomainSize()) {
+            throw new IllegalStateException(sequence + " range exhausted at " + value);
+        }
+        return sequence.getDomainStart() + permutations.get(sequence).apply(position);
+    }
+}
@@ -0,0 +1,84 @@
+package com.shizzy.moneytransfer.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+
+/**
+ * Secret, repeatable shuffle of {@code [0, domainSize)}: every value maps to exactly one other value in
+ * the domain, so feeding it distinct sequence values yields distinct results, but without the key the
+ * next result cannot be told from the previous ones.
+ * <p>
+ * A balanced Feistel network with HMAC-SHA256 round functions permutes the smallest even bit width that
+ * covers the domain; results that land past the domain are encrypted again until they fall inside it
+ * (cycle walking), which at most quadruples the work. Changing the key reorders the whole domain, so a
+ * key must never change once identifiers have been issued with it.
+ */
+public final class KeyedPermutation {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int ROUNDS = 8;
+
+    private final long domainSize;
+    private final int halfBits;
+    private final long halfMask;
+    private final ThreadLocal<Mac> mac;
+
+    public KeyedPermutation(long domainSize, byte[] key) {
+        if (domainSize < 2 || domainSize > (1L << 62)) {
+            throw new IllegalArgumentException("Domain size must be between 2 and 2^62");
+        }
+        if (key == null || key.length == 0) {
+            throw new IllegalArgumentException("Permutation key must not be empty");
+        }
+        int bits = 64 - Long.numberOfLeadingZeros(domainSize - 1);
+        this.domainSize = domainSize;
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+
+        SecretKeySpec keySpec = new SecretKeySpec(key.clone(), ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(ALGORITHM + " is not available", e);
+            }
+        });
+    }
+
+    public long domainSize() {
+        return domainSize;
+    }
+
+    public long apply(long value) {
+        if (value < 0 || value >= domainSize) {
+            throw new IllegalArgumentException("Value " + value + " is outside [0, " + domainSize + ")");
+        }
+        long result = value;
+        do {
+            result = encrypt(result);
+        } while (result >= domainSize);
+        return result;
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (int round = 0; round < ROUNDS; round++) {
+            long next = left ^ round(round, right);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private long round(int round, long half) {
+        Mac instance = mac.get();
+        instance.update((byte) round);
+        instance.update(ByteBuffer.allocate(Long.BYTES).putLong(half).array());
+        return ByteBuffer.wrap(instance.doFinal()).getLong() & halfMask;
+    }
+}
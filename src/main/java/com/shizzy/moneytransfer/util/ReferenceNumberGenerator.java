@@ -0,0 +1,99 @@
+package com.shizzy.moneytransfer.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style generator for 16-character, base-36 transaction references that are unique by
+ * construction, so no database lookup is needed to rule out collisions.
+ * <p>
+ * A reference is 9 digits of milliseconds since {@link #EPOCH_MILLIS} followed by 7 digits holding
+ * a 10-bit node id and a 22-bit per-millisecond sequence. Digits run 0-9 then A-Z, so references
+ * from one node sort in generation order and references from different nodes sort by millisecond.
+ * If the sequence overflows within a millisecond, or the clock steps backwards, the generator
+ * carries into the next millisecond instead of waiting. Each node's output is strictly increasing.
+ * Across restarts that only holds if the generator is resumed past the last millisecond the node's
+ * previous run may have used, see {@link #resumeAfter(long)}.
+ */
+public final class ReferenceNumberGenerator {
+
+    public static final int LENGTH = 16;
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+    // 2024-01-01T00:00:00Z; 41 bits of milliseconds in the packed state last until 2093
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    private static final int SEQUENCE_BITS = 22;
+    private static final int TIME_DIGITS = 9;
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private final int nodeId;
+    private final long nodeBits;
+    private final LongSupplier clock;
+
+    // (millis since epoch << SEQUENCE_BITS) | sequence of the last reference handed out
+    private final AtomicLong lastState = new AtomicLong();
+
+    public ReferenceNumberGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    public ReferenceNumberGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    public int nodeId() {
+        return nodeId;
+    }
+
+    public String next() {
+        long state = nextState();
+        long millis = state >>> SEQUENCE_BITS;
+        long nodeAndSequence = nodeBits | (state & ((1L << SEQUENCE_BITS) - 1));
+
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= TIME_DIGITS; i--) {
+            chars[i] = DIGITS[(int) (nodeAndSequence % 36)];
+            nodeAndSequence /= 36;
+        }
+        for (int i = TIME_DIGITS - 1; i >= 0; i--) {
+            chars[i] = DIGITS[(int) (millis % 36)];
+            millis /= 36;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Continues after the given epoch millisecond, as if every reference in it had been handed out
+     * already. A restarted node calls this with the high-water mark its previous run recorded, so a
+     * clock that stepped back across the restart cannot repeat a reference.
+     */
+    public void resumeAfter(long epochMillis) {
+        long floor = ((epochMillis - EPOCH_MILLIS) << SEQUENCE_BITS) | ((1L << SEQUENCE_BITS) - 1);
+        lastState.accumulateAndGet(floor, Math::max);
+    }
+
+    /**
+     * Epoch millisecond of the last reference handed out, or of the point the generator was resumed after
+     */
+    public long lastIssuedMillis() {
+        return (lastState.get() >>> SEQUENCE_BITS) + EPOCH_MILLIS;
+    }
+
+    private long nextState() {
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long last = lastState.get();
+            // A full sequence carries into the millisecond field, which keeps the state monotonic
+            long next = now > last ? now : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+-- Move high-volume tables from per-row SERIAL ids to sequences that hand out blocks of 50.
+-- Hibernate uses the pooled-lo optimizer, so each nextval() reserves [value, value + 49] for one caller.
+-- Column defaults draw from the same sequence, which keeps inserts made outside Hibernate collision-free.
+
+CREATE SEQUENCE IF NOT EXISTS transactions_seq;
+ALTER SEQUENCE transactions_seq INCREMENT BY 50;
+SELECT setval('transactions_seq', COALESCE((SELECT MAX(transaction_id) FROM transactions), 0) + 1, false);
+ALTER TABLE transactions ALTER COLUMN transaction_id SET DEFAULT nextval('transactions_seq');
+
+CREATE SEQUENCE IF NOT EXISTS transaction_reference_seq;
+ALTER SEQUENCE transaction_reference_seq INCREMENT BY 50;
+SELECT setval('transaction_reference_seq', COALESCE((SELECT MAX(id) FROM transaction_reference), 0) + 1, false);
+ALTER TABLE transaction_reference ALTER COLUMN id SET DEFAULT nextval('transaction_reference_seq');
+
+CREATE SEQUENCE IF NOT EXISTS transaction_status_seq;
+ALTER SEQUENCE transaction_status_seq INCREMENT BY 50;
+SELECT setval('transaction_status_seq', COALESCE((SELECT MAX(id) FROM transaction_status), 0) + 1, false);
+ALTER TABLE transaction_status ALTER COLUMN id SET DEFAULT nextval('transaction_status_seq');
+
+CREATE SEQUENCE IF NOT EXISTS flagged_transaction_reason_seq;
+ALTER SEQUENCE flagged_transaction_reason_seq INCREMENT BY 50;
+SELECT setval('flagged_transaction_reason_seq', COALESCE((SELECT MAX(id) FROM flagged_transaction_reason), 0) + 1, false);
+ALTER TABLE flagged_transaction_reason ALTER COLUMN id SET DEFAULT nextval('flagged_transaction_reason_seq');
+
+CREATE SEQUENCE IF NOT EXISTS refund_impact_records_seq;
+ALTER SEQUENCE refund_impact_records_seq INCREMENT BY 50;
+SELECT setval('refund_impact_records_seq', COALESCE((SELECT MAX(id) FROM refund_impact_records), 0) + 1, false);
+ALTER TABLE refund_impact_records ALTER COLUMN id SET DEFAULT nextval('refund_impact_records_seq');
+
+CREATE SEQUENCE IF NOT EXISTS wallet_seq;
+ALTER SEQUENCE wallet_seq INCREMENT BY 50;
+SELECT setval('wallet_seq', COALESCE((SELECT MAX(id) FROM wallet), 0) + 1, false);
+ALTER TABLE wallet ALTER COLUMN id SET DEFAULT nextval('wallet_seq');
+
+CREATE SEQUENCE IF NOT EXISTS scheduled_transfers_seq;
+ALTER SEQUENCE scheduled_transfers_seq INCREMENT BY 50;
+SELECT setval('scheduled_transfers_seq', COALESCE((SELECT MAX(id) FROM scheduled_transfers), 0) + 1, false);
+ALTER TABLE scheduled_transfers ALTER COLUMN id SET DEFAULT nextval('scheduled_transfers_seq');
+
+CREATE SEQUENCE IF NOT EXISTS user_beneficiary_seq;
+ALTER SEQUENCE user_beneficiary_seq INCREMENT BY 50;
+SELECT setval('user_beneficiary_seq', COALESCE((SELECT MAX(id) FROM user_beneficiary), 0) + 1, false);
+ALTER TABLE user_beneficiary ALTER COLUMN id SET DEFAULT nextval('user_beneficiary_seq');
+
+CREATE SEQUENCE IF NOT EXISTS daily_transaction_totals_seq;
+ALTER SEQUENCE daily_transaction_totals_seq INCREMENT BY 50;
+SELECT setval('daily_transaction_totals_seq', COALESCE((SELECT MAX(id) FROM daily_transaction_totals), 0) + 1, false);
+ALTER TABLE daily_transaction_totals ALTER COLUMN id SET DEFAULT nextval('daily_transaction_totals_seq');
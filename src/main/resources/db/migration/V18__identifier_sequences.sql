@@ -0,0 +1,13 @@
+-- Sequences that wallet ids and card numbers are leased from in blocks of 1000.
+-- Each nextval() owns [value, value + 999], so replicas never hand out the same identifier.
+
+-- Wallet ids were random 8-digit numbers starting with 20; continue above the highest one in use
+CREATE SEQUENCE IF NOT EXISTS wallet_number_seq INCREMENT BY 1000;
+SELECT setval('wallet_number_seq',
+              GREATEST(20000000,
+                       COALESCE((SELECT MAX(CAST(wallet_id AS BIGINT)) FROM wallet WHERE wallet_id ~ '^[0-9]{1,18}$'), 0) + 1),
+              false);
+
+-- Account-number part of card numbers; the generators add the brand prefix and Luhn check digit
+CREATE SEQUENCE IF NOT EXISTS visa_card_number_seq INCREMENT BY 1000 MINVALUE 0 START WITH 0;
+CREATE SEQUENCE IF NOT EXISTS mastercard_card_number_seq INCREMENT BY 1000 MINVALUE 0 START WITH 0;
@@ -0,0 +1,33 @@
+-- Per-wallet refundable total and FIFO cursor, so transfers no longer scan every deposit of the sender.
+-- The cursor is the (transaction_date, transaction_id) of the oldest deposit that may still be refundable;
+-- it is NULL when the wallet holds no refundable deposits.
+CREATE TABLE IF NOT EXISTS wallet_refundable_balance (
+    wallet_id BIGINT PRIMARY KEY,
+    refundable_total DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    cursor_transaction_date TIMESTAMP,
+    cursor_transaction_id INTEGER,
+    last_updated TIMESTAMP,
+    FOREIGN KEY (wallet_id) REFERENCES wallet(id)
+);
+
+-- Deposits are consumed in (transaction_date, transaction_id) order starting at the cursor
+CREATE INDEX IF NOT EXISTS idx_transactions_wallet_operation_date
+    ON transactions (wallet_id, operation, transaction_date, transaction_id);
+
+-- Seed every existing wallet from its deposits, using the same rule the transfer path applies
+INSERT INTO wallet_refundable_balance (wallet_id, refundable_total, cursor_transaction_date, cursor_transaction_id, last_updated)
+SELECT w.id, COALESCE(totals.refundable_total, 0), oldest.transaction_date, oldest.transaction_id, CURRENT_TIMESTAMP
+FROM wallet w
+LEFT JOIN (
+    SELECT wallet_id, SUM(refundable_amount) AS refundable_total
+    FROM transactions
+    WHERE operation = 'DEPOSIT' AND refund_status <> 'NON_REFUNDABLE' AND refundable_amount > 0
+    GROUP BY wallet_id
+) totals ON totals.wallet_id = w.id
+LEFT JOIN (
+    SELECT DISTINCT ON (wallet_id) wallet_id, transaction_date, transaction_id
+    FROM transactions
+    WHERE operation = 'DEPOSIT' AND refund_status <> 'NON_REFUNDABLE' AND refundable_amount > 0
+    ORDER BY wallet_id, transaction_date, transaction_id
+) oldest ON oldest.wallet_id = w.id
+ON CONFLICT (wallet_id) DO NOTHING;
@@ -0,0 +1,19 @@
+-- Per-wallet activity statistics maintained alongside ledger writes, so fraud rules and the AI balance context
+-- no longer aggregate a wallet's whole transaction history. mean_amount and m2 follow Welford's method:
+-- the population variance of the amounts is m2 / transaction_count.
+CREATE TABLE IF NOT EXISTS wallet_activity_stats (
+    wallet_id BIGINT PRIMARY KEY,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    mean_amount NUMERIC(24, 8) NOT NULL DEFAULT 0,
+    m2 NUMERIC(38, 8) NOT NULL DEFAULT 0,
+    last_activity TIMESTAMP,
+    deposit_count BIGINT NOT NULL DEFAULT 0,
+    withdrawal_count BIGINT NOT NULL DEFAULT 0,
+    transfer_count BIGINT NOT NULL DEFAULT 0,
+    reversal_count BIGINT NOT NULL DEFAULT 0,
+    refund_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (wallet_id) REFERENCES wallet(id)
+);
+
+-- Existing wallets are filled in by the backfill job (wallet-activity-stats.backfill-on-startup)
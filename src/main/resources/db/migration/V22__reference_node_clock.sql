@@ -0,0 +1,7 @@
+-- Per-node high-water mark of the reference generator's clock. A restarted node resumes after it, so a
+-- clock that stepped back across the restart cannot make it repeat references it handed out before.
+CREATE TABLE IF NOT EXISTS reference_node_clock (
+    node_id INTEGER PRIMARY KEY,
+    issued_until BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,17 @@
+-- Transfer amounts still to be deducted from the sender's refundable deposits. A row is written in the same
+-- transaction as the transfer and deleted in the one that deducts it, so the deduction survives retries that ran
+-- out, restarts and shutdowns; rows left behind are picked up again by the periodic sweep.
+CREATE SEQUENCE IF NOT EXISTS pending_refundable_consumption_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS pending_refundable_consumption (
+    id BIGINT PRIMARY KEY DEFAULT nextval('pending_refundable_consumption_seq'),
+    wallet_id BIGINT NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error VARCHAR(500),
+    FOREIGN KEY (wallet_id) REFERENCES wallet(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_pending_refundable_consumption_wallet ON pending_refundable_consumption (wallet_id);
+CREATE INDEX IF NOT EXISTS idx_pending_refundable_consumption_created_at ON pending_refundable_consumption (created_at);
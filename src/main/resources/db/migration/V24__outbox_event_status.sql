@@ -0,0 +1,10 @@
+-- Events that ran out of attempts move to FAILED, so the relay's index only covers rows it can still send
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS status VARCHAR(16) NOT NULL DEFAULT 'PENDING';
+
+UPDATE outbox_events SET status = 'PUBLISHED' WHERE published_at IS NOT NULL;
+-- 10 is the default outbox.relay.max-attempts
+UPDATE outbox_events SET status = 'FAILED' WHERE published_at IS NULL AND attempts >= 10;
+
+DROP INDEX IF EXISTS idx_outbox_events_unpublished;
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events (id) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_outbox_events_failed ON outbox_events (id) WHERE status = 'FAILED';
@@ -0,0 +1,11 @@
+-- Claims the spend committed since the last flush. KEYS[1] spend hash. Returns the amount to add to the
+-- persisted total; the caller hands it back with HINCRBY on 'flushed' if persisting fails.
+local committed = redis.call('HGET', KEYS[1], 'committed')
+if not committed then
+    return 0
+end
+local delta = tonumber(committed) - tonumber(redis.call('HGET', KEYS[1], 'flushed') or '0')
+if delta ~= 0 then
+    redis.call('HSET', KEYS[1], 'flushed', committed)
+end
+return delta
@@ -0,0 +1,19 @@
+-- Adds spend that was not reserved first and marks it for the next flush.
+-- KEYS[1] spend hash, KEYS[2] set of hashes with unflushed spend, KEYS[3] set of hashes to resync from the
+-- database; ARGV: amount, key ttl (s), persisted total to seed or resync from ('' = none). Returns 1, or -1 when
+-- a seed is needed, which is when the hash is missing or marked for resync.
+local key = KEYS[1]
+
+if ARGV[3] ~= '' then
+    local flushed = tonumber(redis.call('HGET', key, 'flushed') or '0')
+    redis.call('HINCRBY', key, 'committed', tonumber(ARGV[3]) - flushed)
+    redis.call('HSET', key, 'flushed', ARGV[3])
+    redis.call('SREM', KEYS[3], key)
+elseif redis.call('EXISTS', key) == 0 or redis.call('SISMEMBER', KEYS[3], key) == 1 then
+    return -1
+end
+
+redis.call('HINCRBY', key, 'committed', ARGV[1])
+redis.call('SADD', KEYS[2], key)
+redis.call('EXPIRE', key, ARGV[2])
+return 1
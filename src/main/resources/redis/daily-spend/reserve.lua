@@ -0,0 +1,39 @@
+-- Checks a user's spend for the day against their limit and reserves the amount in the same step.
+-- KEYS[1] spend hash, KEYS[2] set of hashes to resync from the database; ARGV: reservation id, amount, limit (-1 = none), now (ms), reservation timeout (ms),
+-- key ttl (s), persisted total to seed or resync from ('' = none). Amounts are integers in 1/10000 units.
+-- Returns {1, total} when reserved, {0, total} when over the limit, {-1, 0} when a seed is needed, which is when
+-- the hash is missing or marked for resync.
+local key = KEYS[1]
+local now = tonumber(ARGV[4])
+
+if ARGV[7] ~= '' then
+    -- The persisted total is authoritative; commits not flushed to it yet are carried over
+    local flushed = tonumber(redis.call('HGET', key, 'flushed') or '0')
+    redis.call('HINCRBY', key, 'committed', tonumber(ARGV[7]) - flushed)
+    redis.call('HSET', key, 'flushed', ARGV[7])
+    redis.call('SREM', KEYS[2], key)
+elseif redis.call('EXISTS', key) == 0 or redis.call('SISMEMBER', KEYS[2], key) == 1 then
+    return {-1, 0}
+end
+redis.call('EXPIRE', key, ARGV[6])
+
+local total = tonumber(redis.call('HGET', key, 'committed') or '0')
+local fields = redis.call('HGETALL', key)
+for i = 1, #fields, 2 do
+    if string.sub(fields[i], 1, 2) == 'r:' then
+        local separator = string.find(fields[i + 1], ':', 1, true)
+        if tonumber(string.sub(fields[i + 1], separator + 1)) <= now then
+            -- The transfer holding this reservation never settled
+            redis.call('HDEL', key, fields[i])
+        else
+            total = total + tonumber(string.sub(fields[i + 1], 1, separator - 1))
+        end
+    end
+end
+
+local limit = tonumber(ARGV[3])
+if limit >= 0 and total + tonumber(ARGV[2]) > limit then
+    return {0, total}
+end
+redis.call('HSET', key, 'r:' .. ARGV[1], ARGV[2] .. ':' .. (now + tonumber(ARGV[5])))
+return {1, total + tonumber(ARGV[2])}
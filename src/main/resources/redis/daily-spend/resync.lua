@@ -0,0 +1,10 @@
+-- Resyncs a spend hash whose spend went to the database while Redis was unavailable, and clears its mark.
+-- KEYS[1] spend hash, KEYS[2] set of hashes to resync; ARGV: persisted total. Commits not flushed to the
+-- persisted total yet are carried over; a hash that no longer exists is seeded on its next use. Returns 1.
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    local flushed = tonumber(redis.call('HGET', KEYS[1], 'flushed') or '0')
+    redis.call('HINCRBY', KEYS[1], 'committed', tonumber(ARGV[1]) - flushed)
+    redis.call('HSET', KEYS[1], 'flushed', ARGV[1])
+end
+redis.call('SREM', KEYS[2], KEYS[1])
+return 1
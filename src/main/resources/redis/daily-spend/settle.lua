@@ -0,0 +1,16 @@
+-- Commits ('1') or releases ('0') a reservation. Committed spend is marked for the next flush.
+-- KEYS[1] spend hash, KEYS[2] set of hashes with unflushed spend; ARGV: reservation id, mode, key ttl (s).
+-- Returns 1, or 0 when the reservation is unknown (already settled or timed out).
+local field = 'r:' .. ARGV[1]
+local reservation = redis.call('HGET', KEYS[1], field)
+if not reservation then
+    return 0
+end
+redis.call('HDEL', KEYS[1], field)
+if ARGV[2] == '1' then
+    local separator = string.find(reservation, ':', 1, true)
+    redis.call('HINCRBY', KEYS[1], 'committed', string.sub(reservation, 1, separator - 1))
+    redis.call('SADD', KEYS[2], KEYS[1])
+    redis.call('EXPIRE', KEYS[1], ARGV[3])
+end
+return 1
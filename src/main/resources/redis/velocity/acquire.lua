@@ -0,0 +1,54 @@
+-- Checks a user's velocity windows and counts the operation in all of them in the same step.
+-- KEYS[1] velocity hash; ARGV: now (ms), amount, key ttl (s), then per window: name, bucket width (ms),
+-- bucket count, max count (-1 = none), max amount (-1 = none). Amounts are integers in 1/10000 units.
+-- Each window is a ring of buckets: field <name>:<slot> holds "<bucket>:<count>:<amount>" for the bucket last
+-- written to that slot, and slots holding a bucket older than the window are ignored.
+-- Returns {1, 0, 0} when counted, or {0, window, 1} / {0, window, 2} when the count / amount of that window
+-- (1-based) would be exceeded.
+local key = KEYS[1]
+local now = tonumber(ARGV[1])
+local amount = tonumber(ARGV[2])
+local writes = {}
+
+for w = 1, (#ARGV - 3) / 5 do
+    local base = 3 + (w - 1) * 5
+    local name = ARGV[base + 1]
+    local slots = tonumber(ARGV[base + 3])
+    local bucket = math.floor(now / tonumber(ARGV[base + 2]))
+
+    local fields = {}
+    for slot = 0, slots - 1 do
+        fields[slot + 1] = name .. ':' .. slot
+    end
+    local values = redis.call('HMGET', key, unpack(fields))
+
+    local count, total, currentCount, currentTotal = 0, 0, 0, 0
+    for slot = 0, slots - 1 do
+        if values[slot + 1] then
+            local b, c, a = string.match(values[slot + 1], '^(%d+):(%d+):(%d+)$')
+            b, c, a = tonumber(b), tonumber(c), tonumber(a)
+            if b > bucket - slots then
+                count = count + c
+                total = total + a
+                if b == bucket then
+                    currentCount, currentTotal = c, a
+                end
+            end
+        end
+    end
+
+    local maxCount, maxAmount = tonumber(ARGV[base + 4]), tonumber(ARGV[base + 5])
+    if maxCount >= 0 and count + 1 > maxCount then
+        return {0, w, 1}
+    end
+    if maxAmount >= 0 and total + amount > maxAmount then
+        return {0, w, 2}
+    end
+    writes[w] = {fields[bucket % slots + 1], bucket, currentCount + 1, currentTotal + amount}
+end
+
+for _, write in ipairs(writes) do
+    redis.call('HSET', key, write[1], string.format('%d:%d:%d', write[2], write[3], write[4]))
+end
+redis.call('EXPIRE', key, ARGV[3])
+return {1, 0, 0}
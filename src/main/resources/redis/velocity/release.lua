@@ -0,0 +1,22 @@
+-- Takes an operation counted by acquire.lua back out of the buckets it was counted in.
+-- KEYS[1] velocity hash; ARGV: counted at (ms), amount, then per window: name, bucket width (ms), bucket count.
+-- A slot that has moved on to a later bucket no longer holds the operation and is left alone.
+local key = KEYS[1]
+local at = tonumber(ARGV[1])
+local amount = tonumber(ARGV[2])
+
+for w = 1, (#ARGV - 2) / 3 do
+    local base = 2 + (w - 1) * 3
+    local slots = tonumber(ARGV[base + 3])
+    local bucket = math.floor(at / tonumber(ARGV[base + 2]))
+    local field = ARGV[base + 1] .. ':' .. (bucket % slots)
+    local value = redis.call('HGET', key, field)
+    if value then
+        local b, c, a = string.match(value, '^(%d+):(%d+):(%d+)$')
+        if tonumber(b) == bucket then
+            redis.call('HSET', key, field, string.format('%d:%d:%d', bucket,
+                    math.max(tonumber(c) - 1, 0), math.max(tonumber(a) - amount, 0)))
+        end
+    end
+end
+return 1
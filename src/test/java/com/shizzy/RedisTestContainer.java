@@ -0,0 +1,44 @@
+package com.shizzy;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Redis for tests that run the Lua scripts against a real server. The container is started on first use and
+ * shared by every test in the run, so it can sit next to {@link AbstractTestContainers}' Postgres; tests clear
+ * it with {@link #flushAll()} before they start.
+ */
+public final class RedisTestContainer {
+
+    private static final int REDIS_PORT = 6379;
+
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(REDIS_PORT);
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private RedisTestContainer() {
+    }
+
+    public static synchronized StringRedisTemplate stringRedisTemplate() {
+        if (connectionFactory == null) {
+            REDIS.start();
+            connectionFactory = new LettuceConnectionFactory(
+                    new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(REDIS_PORT)));
+            connectionFactory.afterPropertiesSet();
+        }
+        StringRedisTemplate template = new StringRedisTemplate(connectionFactory);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    public static void flushAll() {
+        try (RedisConnection connection = stringRedisTemplate().getRequiredConnectionFactory().getConnection()) {
+            connection.serverCommands().flushAll();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.shizzy.moneytransfer.benchmark;
+
+import com.shizzy.AbstractTestContainers;
+import com.shizzy.moneytransfer.dto.TransactionPair;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.enums.TransactionStatus;
+import com.shizzy.moneytransfer.enums.TransactionType;
+import com.shizzy.moneytransfer.exception.InsufficientBalanceException;
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.LedgerBatchRepository;
+import com.shizzy.moneytransfer.repository.WalletActivityStatsRepository;
+import com.shizzy.moneytransfer.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Times a 10k-recipient payout through {@link LedgerBatchRepository} and checks that the source debit,
+ * recipient credits and transaction rows all land, or none of them do.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({LedgerBatchRepository.class, WalletActivityStatsRepository.class})
+class BulkPayoutBenchmarkIT extends AbstractTestContainers {
+
+    private static final int RECIPIENTS = 10_000;
+    private static final BigDecimal ITEM_AMOUNT = new BigDecimal("1.50");
+
+    @Autowired
+    private LedgerBatchRepository ledgerBatchRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Wallet source;
+    private List<Wallet> recipients;
+
+    @BeforeEach
+    void seedWallets() {
+        jdbcTemplate.update("DELETE FROM transaction_reference");
+        jdbcTemplate.update("DELETE FROM transactions");
+        walletRepository.deleteAll();
+
+        source = walletRepository.save(wallet("BULKSRC", new BigDecimal("20000.00")));
+        List<Wallet> seeded = new ArrayList<>(RECIPIENTS);
+        for (int i = 0; i < RECIPIENTS; i++) {
+            seeded.add(wallet("BULK" + i, BigDecimal.ZERO));
+        }
+        recipients = walletRepository.saveAll(seeded);
+    }
+
+    @Test
+    void tenThousandRecipientPayout() {
+        List<TransactionPair> transactions = buildTransactions("BULKBENCH");
+        BigDecimal total = ITEM_AMOUNT.multiply(BigDecimal.valueOf(RECIPIENTS));
+
+        long startedAt = System.nanoTime();
+        ledgerBatchRepository.applyBulkTransfer(source, total, transactions);
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        System.out.printf("bulk payout recipients=%d  %.2fs  %.0f items/sec%n", RECIPIENTS, seconds, RECIPIENTS / seconds);
+
+        assertEquals(0, new BigDecimal("5000.00").compareTo(walletRepository.findById(source.getId()).orElseThrow().getBalance()));
+        assertEquals(2 * RECIPIENTS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Integer.class));
+        assertEquals(RECIPIENTS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_reference", Integer.class));
+        assertEquals(0, total.compareTo(jdbcTemplate.queryForObject(
+                "SELECT SUM(balance) FROM wallet WHERE wallet_id LIKE 'BULK%' AND wallet_id <> 'BULKSRC'", BigDecimal.class)));
+    }
+
+    @Test
+    void insufficientBalanceRollsBackWholeBatch() {
+        List<TransactionPair> transactions = buildTransactions("BULKFAIL");
+        BigDecimal total = new BigDecimal("30000.00");
+
+        assertThrows(InsufficientBalanceException.class,
+                () -> ledgerBatchRepository.applyBulkTransfer(source, total, transactions));
+
+        assertEquals(0, new BigDecimal("20000.00").compareTo(walletRepository.findById(source.getId()).orElseThrow().getBalance()));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Integer.class));
+        assertEquals(0, BigDecimal.ZERO.compareTo(jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(balance), 0) FROM wallet WHERE wallet_id <> 'BULKSRC'", BigDecimal.class)));
+    }
+
+    private List<TransactionPair> buildTransactions(String batchReference) {
+        List<TransactionPair> transactions = new ArrayList<>(RECIPIENTS);
+        for (int i = 0; i < RECIPIENTS; i++) {
+            String reference = String.format("%s-%05d", batchReference, i + 1);
+            transactions.add(new TransactionPair(
+                    transaction(source, TransactionType.DEBIT, reference),
+                    transaction(recipients.get(i), TransactionType.CREDIT, reference)));
+        }
+        return transactions;
+    }
+
+    private static Transaction transaction(Wallet wallet, TransactionType type, String reference) {
+        return Transaction.builder()
+                .wallet(wallet)
+                .amount(ITEM_AMOUNT)
+                .transactionType(type)
+                .operation(TransactionOperation.TRANSFER)
+                .currentStatus(TransactionStatus.SUCCESS.getValue())
+                .referenceNumber(reference)
+                .description("Bulk benchmark")
+                .transactionDate(LocalDateTime.now())
+                .build();
+    }
+
+    private static Wallet wallet(String walletId, BigDecimal balance) {
+        return Wallet.builder()
+                .walletId(walletId)
+                .createdBy("bulk-benchmark-" + walletId)
+                .createdDate(LocalDateTime.now())
+                .balance(balance)
+                .currency("USD")
+                .build();
+    }
+}
@@ -0,0 +1,185 @@
+package com.shizzy.moneytransfer.benchmark;
+
+import com.shizzy.moneytransfer.cache.TwoTierCacheManager;
+import com.shizzy.moneytransfer.config.CacheAdminProperties;
+import com.shizzy.moneytransfer.config.NearCacheProperties;
+import com.shizzy.moneytransfer.dto.CacheKeyPage;
+import com.shizzy.moneytransfer.serviceimpl.CacheServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency of ordinary cache reads while the cache admin walks a Redis holding one million keys. Traffic threads
+ * GET random keys for a fixed time while an admin thread does nothing, lists a cache with {@code KEYS} as the admin
+ * service used to, or lists it page by page and samples stats through {@link CacheServiceImpl}. Reports the
+ * traffic's latency percentiles for each.
+ */
+@Testcontainers
+class CacheAdminScanBenchmarkIT {
+
+    private static final int KEYS = 1_000_000;
+    private static final int TRANSACTION_KEYS = KEYS / 4;
+    private static final int TRAFFIC_THREADS = 8;
+    private static final long RUN_MILLIS = 10_000;
+
+    @Container
+    private static final GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate stringRedisTemplate;
+    private static CacheServiceImpl cacheService;
+
+    private enum Admin { IDLE, KEYS, SCAN }
+
+    @BeforeAll
+    static void fillRedis() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(
+                RedisCacheManager.builder(connectionFactory).build(), new NearCacheProperties(), stringRedisTemplate,
+                new RedisMessageListenerContainer(), new SimpleMeterRegistry());
+        cacheManager.initializeCaches();
+        cacheService = new CacheServiceImpl(redisTemplate, stringRedisTemplate, cacheManager,
+                new CacheAdminProperties());
+
+        for (int start = 0; start < KEYS; start += 10_000) {
+            int from = start;
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection strings = (StringRedisConnection) connection;
+                for (int i = from; i < from + 10_000; i++) {
+                    strings.set(key(i), "cached value " + i);
+                }
+                return null;
+            });
+        }
+    }
+
+    @AfterAll
+    static void stop() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void readLatencyWhileListingKeys() throws InterruptedException {
+        for (Admin admin : Admin.values()) {
+            run(admin);
+        }
+    }
+
+    private void run(Admin admin) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(TRAFFIC_THREADS + 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong adminPasses = new AtomicLong();
+        long[][] latencies = new long[TRAFFIC_THREADS][];
+        CountDownLatch done = new CountDownLatch(TRAFFIC_THREADS);
+
+        for (int t = 0; t < TRAFFIC_THREADS; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                long[] samples = new long[1 << 16];
+                int count = 0;
+                while (running.get()) {
+                    long started = System.nanoTime();
+                    stringRedisTemplate.opsForValue().get(key(ThreadLocalRandom.current().nextInt(KEYS)));
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - started;
+                }
+                latencies[thread] = Arrays.copyOf(samples, count);
+                done.countDown();
+            });
+        }
+        executor.submit(() -> {
+            while (running.get()) {
+                switch (admin) {
+                    case IDLE -> sleep();
+                    case KEYS -> assertEquals(TRANSACTION_KEYS, stringRedisTemplate.keys("transactions::*").size());
+                    case SCAN -> {
+                        assertEquals(TRANSACTION_KEYS, listTransactionKeys());
+                        cacheService.getCacheStats();
+                    }
+                }
+                adminPasses.incrementAndGet();
+            }
+        });
+
+        Thread.sleep(RUN_MILLIS);
+        running.set(false);
+        done.await();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%-5s admin passes=%d reads=%d  p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n", admin,
+                adminPasses.get(), all.length, millis(all, 0.50), millis(all, 0.99), millis(all, 0.999),
+                all[all.length - 1] / 1e6);
+    }
+
+    private static int listTransactionKeys() {
+        Set<String> keys = new HashSet<>();
+        String cursor = "0";
+        do {
+            CacheKeyPage page = cacheService.getKeys("transactions", cursor, 1000);
+            keys.addAll(page.keys());
+            cursor = page.cursor();
+        } while (!"0".equals(cursor));
+        return keys.size();
+    }
+
+    private static String key(int i) {
+        // A quarter of the keys belong to the listed cache, the rest to others
+        return (i % 4 == 0 ? "transactions::" : "allUserTransaction::") + "key:" + i;
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, sorted.length * percentile)] / 1e6;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.shizzy.moneytransfer.benchmark;
+
+import com.shizzy.moneytransfer.cache.TwoTierCacheManager;
+import com.shizzy.moneytransfer.config.NearCacheProperties;
+import com.shizzy.moneytransfer.enums.CacheTier;
+import com.shizzy.moneytransfer.util.CacheNames;
+import com.shizzy.moneytransfer.util.CacheTags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit ratio of the per-wallet transaction history cache under mixed traffic, with each write either wiping the cache
+ * as {@code @CacheEvict(allEntries = true)} did or evicting only the written wallet's tag. Two replicas share an
+ * in-memory stand-in for Redis that runs the tag scripts' logic and delivers announcements between them; everything
+ * above it is the real two-tier cache. Each operation is a read of a history page, or with {@code writePercent}
+ * probability a write to a wallet; wallets are picked with a skew towards the most active. A miss costs a simulated
+ * query. Teardown prints the hit ratio. Run {@link #main} on the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheEvictionHitRatioBenchmark {
+
+    private static final int PAGES_PER_WALLET = 3;
+    private static final long QUERY_COST_TOKENS = 20_000;
+
+    public enum Eviction { ALL_ENTRIES, TAGS }
+
+    @State(Scope.Benchmark)
+    public static class Traffic {
+        @Param({"ALL_ENTRIES", "TAGS"})
+        Eviction eviction;
+
+        @Param({"1", "10"})
+        int writePercent;
+
+        @Param({"10000"})
+        int walletCount;
+
+        SimpleMeterRegistry meterRegistry;
+        TwoTierCacheManager[] replicas;
+        Cache[] caches;
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void start() {
+            InMemoryRedis redis = new InMemoryRedis();
+            NearCacheProperties properties = new NearCacheProperties();
+            NearCacheProperties.Settings settings = new NearCacheProperties.Settings();
+            settings.setTier(CacheTier.LOCAL_AND_REDIS);
+            properties.getCaches().put(CacheNames.ALL_USER_TRANSACTION, settings);
+
+            meterRegistry = new SimpleMeterRegistry();
+            replicas = new TwoTierCacheManager[2];
+            caches = new Cache[replicas.length];
+            for (int i = 0; i < replicas.length; i++) {
+                RedisCacheManager redisCacheManager = RedisCacheManager.builder(redis)
+                        .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig())
+                        .build();
+                redisCacheManager.initializeCaches();
+                replicas[i] = new TwoTierCacheManager(redisCacheManager, properties, redis.template,
+                        new RedisMessageListenerContainer(), meterRegistry);
+                replicas[i].initializeCaches();
+                caches[i] = replicas[i].getCache(CacheNames.ALL_USER_TRANSACTION);
+            }
+            redis.template.replicas = List.of(replicas);
+            random = new SplittableRandom(42);
+        }
+
+        private double[] before;
+
+        @Setup(Level.Iteration)
+        public void markCounts() {
+            before = counts();
+        }
+
+        @TearDown(Level.Iteration)
+        public void printHitRatio() {
+            double[] after = counts();
+            double localHits = after[0] - before[0];
+            double localMisses = after[1] - before[1];
+            double redisHits = after[2] - before[2];
+            double gets = localHits + localMisses;
+            System.out.printf("  [%s, %d%% writes: hit ratio %.1f%% (%.1f%% from memory)]%n", eviction, writePercent,
+                    100 * (localHits + redisHits) / gets, 100 * localHits / gets);
+        }
+
+        private double[] counts() {
+            return new double[]{count("local", "hit"), count("local", "miss"), count("redis", "hit")};
+        }
+
+        private double count(String tier, String result) {
+            return meterRegistry.find("cache.tier.gets").tags("tier", tier, "result", result).counters().stream()
+                    .mapToDouble(counter -> counter.count())
+                    .sum();
+        }
+
+        int nextWallet() {
+            // Cubing skews towards low ids, so a few wallets see most of the traffic
+            double skewed = Math.pow(random.nextDouble(), 3);
+            return (int) (skewed * walletCount);
+        }
+    }
+
+    @Benchmark
+    public Object mixed(Traffic traffic) {
+        int wallet = traffic.nextWallet();
+        int replica = traffic.random.nextInt(traffic.replicas.length);
+        Cache cache = traffic.caches[replica];
+        if (traffic.random.nextInt(100) < traffic.writePercent) {
+            if (traffic.eviction == Eviction.ALL_ENTRIES) {
+                cache.clear();
+            } else {
+                traffic.replicas[replica].evictTags(List.of(CacheTags.walletNumber("W" + wallet)));
+            }
+            return null;
+        }
+        String key = "wallet:W" + wallet + ":page:" + traffic.random.nextInt(PAGES_PER_WALLET) + ":size:20";
+        return cache.get(CacheTags.byWalletNumber(key, "W" + wallet), () -> {
+            Blackhole.consumeCPU(QUERY_COST_TOKENS);
+            return "history of W" + wallet;
+        });
+    }
+
+    /**
+     * Redis as far as the cache touches it: entries through the cache writer, tag sets through the two scripts,
+     * generation counters, and pub/sub delivered straight to the replicas
+     */
+    static class InMemoryRedis implements RedisCacheWriter {
+
+        final Map<String, byte[]> entries = new ConcurrentHashMap<>();
+        final Map<String, Set<String>> sets = new ConcurrentHashMap<>();
+        final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+        final ScriptingTemplate template = new ScriptingTemplate(this);
+
+        @Override
+        public byte[] get(String name, byte[] key) {
+            return entries.get(new String(key, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+            return CompletableFuture.completedFuture(get(name, key));
+        }
+
+        @Override
+        public void put(String name, byte[] key, byte[] value, Duration ttl) {
+            entries.put(new String(key, StandardCharsets.UTF_8), value);
+        }
+
+        @Override
+        public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+            put(name, key, value, ttl);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+            return entries.putIfAbsent(new String(key, StandardCharsets.UTF_8), value);
+        }
+
+        @Override
+        public void remove(String name, byte[] key) {
+            entries.remove(new String(key, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void clean(String name, byte[] pattern) {
+            String prefix = new String(pattern, StandardCharsets.UTF_8).replace("*", "");
+            entries.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+
+        @Override
+        public void clearStatistics(String name) {
+        }
+
+        @Override
+        public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+            return this;
+        }
+
+        @Override
+        public CacheStatistics getCacheStatistics(String cacheName) {
+            return CacheStatisticsCollector.none().getCacheStatistics(cacheName);
+        }
+    }
+
+    static class ScriptingTemplate extends StringRedisTemplate {
+
+        private final InMemoryRedis redis;
+        List<TwoTierCacheManager> replicas = List.of();
+
+        ScriptingTemplate(InMemoryRedis redis) {
+            this.redis = redis;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            if (script.getScriptAsString().contains("SADD")) {
+                for (String tag : keys) {
+                    redis.sets.computeIfAbsent(tag, k -> ConcurrentHashMap.newKeySet()).add((String) args[0]);
+                }
+                return (T) Long.valueOf(keys.size());
+            }
+            Set<String> evicted = new LinkedHashSet<>();
+            for (String tag : keys) {
+                Set<String> members = redis.sets.remove(tag);
+                if (members != null) {
+                    members.forEach(redis.entries::remove);
+                    evicted.addAll(members);
+                }
+            }
+            if (!evicted.isEmpty()) {
+                convertAndSend((String) args[0], args[1] + String.join("\n", evicted));
+            }
+            return (T) new ArrayList<>(evicted);
+        }
+
+        // Only the generation counters' GET and INCR
+        @Override
+        @SuppressWarnings("unchecked")
+        public ValueOperations<String, String> opsForValue() {
+            return (ValueOperations<String, String>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{ValueOperations.class}, (proxy, method, args) -> {
+                        AtomicLong counter = redis.counters.computeIfAbsent((String) args[0], k -> new AtomicLong());
+                        return switch (method.getName()) {
+                            case "get" -> String.valueOf(counter.get());
+                            case "increment" -> counter.incrementAndGet();
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        };
+                    });
+        }
+
+        @Override
+        public Long convertAndSend(String channel, Object message) {
+            DefaultMessage delivered = new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8),
+                    message.toString().getBytes(StandardCharsets.UTF_8));
+            replicas.forEach(replica -> replica.onMessage(delivered, null));
+            return (long) replicas.size();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CacheEvictionHitRatioBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,135 @@
+package com.shizzy.moneytransfer.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.shizzy.moneytransfer.api.ApiResponse;
+import com.shizzy.moneytransfer.cache.codec.ApiResponseCodec;
+import com.shizzy.moneytransfer.cache.codec.CompactCacheValueSerializer;
+import com.shizzy.moneytransfer.cache.codec.ListCodec;
+import com.shizzy.moneytransfer.cache.codec.PagedTransactionResponseCodec;
+import com.shizzy.moneytransfer.cache.codec.TransactionResponseCodec;
+import com.shizzy.moneytransfer.dto.PagedTransactionResponse;
+import com.shizzy.moneytransfer.dto.TransactionResponse;
+import com.shizzy.moneytransfer.enums.CacheValueFormat;
+import com.shizzy.moneytransfer.enums.RefundStatus;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.enums.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize and deserialize throughput for a cached page of {@code rows} transactions, as the
+ * {@code GenericJackson2JsonRedisSerializer} configured in {@code RedisConfig} writes it and in the compact format,
+ * with compression off and at the default threshold. Setup prints the bytes each stores per entry. Run
+ * {@link #main} on the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheValueSerializerBenchmark {
+
+    public enum Codec { JSON, COMPACT, COMPACT_LZ4 }
+
+    @State(Scope.Benchmark)
+    public static class Entry {
+        @Param({"JSON", "COMPACT", "COMPACT_LZ4"})
+        Codec codec;
+
+        @Param({"1", "20"})
+        int rows;
+
+        RedisSerializer<Object> serializer;
+        ApiResponse<PagedTransactionResponse> value;
+        byte[] bytes;
+
+        @Setup(Level.Trial)
+        public void encode() {
+            ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+            mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL,
+                    JsonTypeInfo.As.PROPERTY);
+            GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer(mapper);
+            serializer = switch (codec) {
+                case JSON -> json;
+                case COMPACT -> compact(json, Integer.MAX_VALUE);
+                case COMPACT_LZ4 -> compact(json, 512);
+            };
+            value = page(rows);
+            bytes = serializer.serialize(value);
+            System.out.printf("%n%s, %d rows: %d bytes per entry%n", codec, rows, bytes.length);
+        }
+
+        private static CompactCacheValueSerializer compact(GenericJackson2JsonRedisSerializer json, int threshold) {
+            return new CompactCacheValueSerializer(List.of(new ApiResponseCodec(),
+                    new PagedTransactionResponseCodec(), new TransactionResponseCodec(), new ListCodec()),
+                    json, CacheValueFormat.COMPACT, threshold);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize(Entry entry) {
+        return entry.serializer.serialize(entry.value);
+    }
+
+    @Benchmark
+    public Object deserialize(Entry entry) {
+        return entry.serializer.deserialize(entry.bytes);
+    }
+
+    // Rows like a wallet's history page: same wallet and statuses, differing amounts, references and descriptions
+    private static ApiResponse<PagedTransactionResponse> page(int rows) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<TransactionResponse> content = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            boolean credit = random.nextBoolean();
+            content.add(TransactionResponse.builder()
+                    .transactionId(180_000 + i)
+                    .providerId(credit ? "pi_3Oq" + Long.toHexString(random.nextLong()) : null)
+                    .amount(BigDecimal.valueOf(random.nextInt(1_000_000), 2))
+                    .currentStatus("SUCCESS")
+                    .transactionDate(String.format("2024-03-%02d %02d:%02d:%02d", 1 + i % 28, random.nextInt(24),
+                            random.nextInt(60), random.nextInt(60)))
+                    .referenceNumber("REF" + Long.toString(random.nextLong() >>> 1, 36).toUpperCase())
+                    .description(credit ? "Deposit via Stripe" : "Transfer to wallet W" + random.nextInt(100_000))
+                    .narration(credit ? null : "Payment for services")
+                    .fee(credit ? 0 : 1.5)
+                    .operation(credit ? TransactionOperation.DEPOSIT : TransactionOperation.TRANSFER)
+                    .transactionType(credit ? TransactionType.CREDIT : TransactionType.DEBIT)
+                    .flagged(false)
+                    .refundStatus(RefundStatus.FULLY_REFUNDABLE)
+                    .walletId("W48213")
+                    .build());
+        }
+        return new ApiResponse<>(true, "Transactions retrieved successfully",
+                new PagedTransactionResponse(content, 0, rows, 5_000, 5_000 / rows, false, true));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CacheValueSerializerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
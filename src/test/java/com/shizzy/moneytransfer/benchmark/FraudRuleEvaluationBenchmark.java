@@ -0,0 +1,204 @@
+package com.shizzy.moneytransfer.benchmark;
+
+import com.shizzy.moneytransfer.config.FraudRuleProperties;
+import com.shizzy.moneytransfer.config.FraudSignalProperties;
+import com.shizzy.moneytransfer.dto.WalletFeatures;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.FlaggedTransactionReasonRepository;
+import com.shizzy.moneytransfer.repository.TransactionRepository;
+import com.shizzy.moneytransfer.repository.WalletFeaturesRepository;
+import com.shizzy.moneytransfer.service.WalletService;
+import com.shizzy.moneytransfer.service.detection.FraudDetectionRule;
+import com.shizzy.moneytransfer.serviceimpl.TransactionMonitoringServiceImpl;
+import com.shizzy.moneytransfer.serviceimpl.detection.DormantAccountRule;
+import com.shizzy.moneytransfer.serviceimpl.detection.FrequentTransfersRule;
+import com.shizzy.moneytransfer.serviceimpl.detection.InMemoryFraudSignalStore;
+import com.shizzy.moneytransfer.serviceimpl.detection.RapidDepositWithdrawalRule;
+import com.shizzy.moneytransfer.serviceimpl.detection.UnusualAmountRule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Cost of running the fraud rules on one transaction. {@code perRuleQueries} replays the access pattern the rules
+ * had before the feature snapshot: six queries, three of which materialize {@code recentTransactions} entities.
+ * {@code snapshot} runs {@link TransactionMonitoringServiceImpl} with the single feature query and its rules on
+ * the parallel rule pool, and
+ * {@code rulesOnly} evaluates the rules against a snapshot already in hand. Each query is simulated by parking
+ * for {@code dbLatencyMicros}; {@code queries} reports the round trips per call. No rule fires on the benchmark
+ * wallet. Run {@link #main} on the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FraudRuleEvaluationBenchmark {
+
+    private static final String WALLET_ID = "wallet-1";
+
+    @State(Scope.Benchmark)
+    public static class Rules {
+        @Param({"0", "250"})
+        long dbLatencyMicros;
+
+        @Param({"10", "200"})
+        int recentTransactions;
+
+        Transaction transaction;
+        WalletFeatures features;
+        List<FraudDetectionRule> rules;
+        TransactionMonitoringServiceImpl monitoringService;
+        List<Transaction> recent;
+
+        @Setup(Level.Trial)
+        public void createRules() {
+            Wallet wallet = new Wallet();
+            wallet.setWalletId(WALLET_ID);
+            transaction = new Transaction();
+            transaction.setWallet(wallet);
+            transaction.setAmount(new BigDecimal("100.00"));
+
+            recent = new ArrayList<>(recentTransactions);
+            for (int i = 0; i < recentTransactions; i++) {
+                Transaction past = new Transaction();
+                past.setWallet(wallet);
+                past.setAmount(new BigDecimal("90.00"));
+                recent.add(past);
+            }
+
+            // Recently active, a few of each operation, and amounts close to the wallet's mean
+            LocalDateTime now = LocalDateTime.now();
+            WalletFeatures.OperationStats stats = new WalletFeatures.OperationStats(
+                    3, new BigDecimal("270.00"), new BigDecimal("90.00"));
+            features = new WalletFeatures(WALLET_ID, now, now.minusYears(1), now.minusMinutes(5), 500,
+                    new BigDecimal("95.00"),
+                    Map.of(TransactionOperation.DEPOSIT, stats, TransactionOperation.TRANSFER, stats),
+                    Map.of(TransactionOperation.DEPOSIT, stats, TransactionOperation.WITHDRAWAL, stats,
+                            TransactionOperation.TRANSFER, stats));
+
+            rules = List.of(new DormantAccountRule(), new FrequentTransfersRule(),
+                    new RapidDepositWithdrawalRule(), new UnusualAmountRule());
+
+            // A plain stub rather than a mock, so mock bookkeeping does not swamp the single query
+            WalletFeaturesRepository walletFeaturesRepository = new WalletFeaturesRepository(null) {
+                @Override
+                public Optional<WalletFeatures> load(String walletId, LocalDateTime now) {
+                    roundTrip();
+                    return Optional.of(features);
+                }
+            };
+            monitoringService = new TransactionMonitoringServiceImpl(mock(TransactionRepository.class),
+                    mock(FlaggedTransactionReasonRepository.class), mock(WalletService.class),
+                    walletFeaturesRepository, rules, new FraudRuleProperties(),
+                    new InMemoryFraudSignalStore(new FraudSignalProperties()), new FraudSignalProperties(), event -> { },
+                    new SimpleMeterRegistry());
+            monitoringService.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void stopRules() {
+            monitoringService.stop();
+        }
+
+        void roundTrip() {
+            if (dbLatencyMicros > 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbLatencyMicros));
+            }
+        }
+
+        /**
+         * A query returning {@code recentTransactions} entities, copied as the persistence context would
+         */
+        List<Transaction> recentList() {
+            roundTrip();
+            return new ArrayList<>(recent);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Queries {
+        public long queries;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            queries = 0;
+        }
+    }
+
+    @Benchmark
+    public boolean perRuleQueries(Rules rules, Queries queries) {
+        // DormantAccountRule: last activity; the deposit list only runs for dormant wallets
+        rules.roundTrip();
+        LocalDateTime lastActive = rules.features.lastActivity();
+        boolean dormant = lastActive.isBefore(LocalDateTime.now().minusMonths(6));
+
+        // FrequentTransfersRule: a list only to take its size
+        boolean frequent = rules.recentList().size() > 10;
+
+        // RapidDepositWithdrawalRule: two lists, merged and scanned
+        List<Transaction> recent = new ArrayList<>(rules.recentList());
+        recent.addAll(rules.recentList());
+        boolean rapid = recent.size() > 5
+                && recent.stream().allMatch(t -> t.getAmount().compareTo(new BigDecimal("5000")) > 0);
+
+        // UnusualAmountRule: wallet lookup for its age, then the average amount
+        rules.roundTrip();
+        rules.roundTrip();
+        BigDecimal average = rules.features.meanAmount();
+        boolean unusual = rules.transaction.getAmount().subtract(average).abs()
+                .compareTo(average.multiply(new BigDecimal("0.5"))) > 0;
+
+        queries.queries += 6;
+        return dormant | frequent | rapid | unusual;
+    }
+
+    @Benchmark
+    public void snapshot(Rules rules, Queries queries) {
+        rules.monitoringService.monitorTransaction(rules.transaction);
+        queries.queries += 1;
+    }
+
+    @Benchmark
+    public void rulesOnly(Rules rules, Blackhole blackhole) {
+        for (FraudDetectionRule rule : rules.rules) {
+            blackhole.consume(rule.evaluate(rules.transaction, rules.features));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FraudRuleEvaluationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
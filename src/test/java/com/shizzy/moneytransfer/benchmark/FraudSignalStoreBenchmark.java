@@ -0,0 +1,125 @@
+package com.shizzy.moneytransfer.benchmark;
+
+import com.shizzy.moneytransfer.config.FraudSignalProperties;
+import com.shizzy.moneytransfer.dto.LedgerMovement;
+import com.shizzy.moneytransfer.dto.WalletSignals;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.serviceimpl.detection.InMemoryFraudSignalStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the streaming fraud-signal store with {@code walletCount} wallets of state, each with a deposit and a
+ * transfer somewhere in the last 24 hours. {@code signals} is the lookup a rule evaluation makes, {@code record}
+ * applies one transfer event, and the {@code contended} group runs lookups while the consumer keeps writing. Setup
+ * prints the heap the populated store occupies and the size of a checkpoint. Run {@link #main} on the test
+ * classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class FraudSignalStoreBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("125.50");
+
+    @State(Scope.Benchmark)
+    public static class Store {
+        @Param({"1000000"})
+        int walletCount;
+
+        InMemoryFraudSignalStore store;
+        LocalDateTime now;
+
+        @Setup(Level.Trial)
+        public void populate() {
+            now = LocalDateTime.now();
+            long heapBefore = usedHeap();
+            store = new InMemoryFraudSignalStore(new FraudSignalProperties());
+            SplittableRandom random = new SplittableRandom(42);
+            long offset = 0;
+            for (long walletId = 1; walletId <= walletCount; walletId++) {
+                store.record(0, offset++, List.of(
+                        new LedgerMovement(walletId, TransactionOperation.DEPOSIT, AMOUNT,
+                                now.minusMinutes(random.nextInt(24 * 60))),
+                        new LedgerMovement(walletId, TransactionOperation.TRANSFER, AMOUNT,
+                                now.minusMinutes(random.nextInt(24 * 60)))));
+            }
+            long heapAfter = usedHeap();
+            long checkpointBytes = store.checkpoint(now).shards().stream().mapToLong(shard -> shard.length).sum();
+            System.out.printf("%n%d wallets: %d MB of heap, %d MB per checkpoint%n", store.walletCount(),
+                    (heapAfter - heapBefore) >> 20, checkpointBytes >> 20);
+        }
+
+        private static long usedHeap() {
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        SplittableRandom random = new SplittableRandom();
+        long offset = Long.MAX_VALUE / 2;
+
+        long nextWallet(Store store) {
+            return 1 + random.nextInt(store.walletCount);
+        }
+    }
+
+    @Benchmark
+    public WalletSignals signals(Store store, Cursor cursor) {
+        return store.store.signals(cursor.nextWallet(store), store.now);
+    }
+
+    @Benchmark
+    public void record(Store store, Cursor cursor) {
+        LocalDateTime at = LocalDateTime.now();
+        store.store.record(1, cursor.offset++, List.of(
+                new LedgerMovement(cursor.nextWallet(store), TransactionOperation.TRANSFER, AMOUNT, at),
+                new LedgerMovement(cursor.nextWallet(store), TransactionOperation.TRANSFER, AMOUNT, at)));
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public WalletSignals contendedSignals(Store store, Cursor cursor) {
+        return signals(store, cursor);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void contendedRecord(Store store, Cursor cursor) {
+        record(store, cursor);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FraudSignalStoreBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
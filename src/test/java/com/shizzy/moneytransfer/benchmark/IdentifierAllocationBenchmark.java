@@ -0,0 +1,115 @@
+package com.shizzy.moneytransfer.benchmark;
+
+import com.shizzy.moneytransfer.enums.IdentifierSequence;
+import com.shizzy.moneytransfer.repository.IdentifierBlockRepository;
+import com.shizzy.moneytransfer.serviceimpl.BlockIdentifierAllocationService;
+import com.shizzy.moneytransfer.util.IdentifierPermutations;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wallet id allocation when the 6-digit id space is 90% full. The random approach draws suffixes until
+ * one is free; {@code existenceChecks} reports how many lookups that took per id. Each lookup was a SELECT
+ * in production; here it is an in-memory bit test, so the gap in real use is larger. The block allocator
+ * leases from an in-memory sequence. Its cost does not depend on fullness, and it issues one lease per
+ * block. Run {@link #main} on the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdentifierAllocationBenchmark {
+
+    private static final int ID_SPACE = 1_000_000;
+    private static final double FULLNESS = 0.9;
+
+    @State(Scope.Thread)
+    public static class RandomAllocation {
+        final SplittableRandom random = new SplittableRandom(42);
+        final BitSet taken = new BitSet(ID_SPACE);
+
+        @Setup(Level.Trial)
+        public void fill() {
+            SplittableRandom filler = new SplittableRandom(7);
+            int target = (int) (ID_SPACE * FULLNESS);
+            while (taken.cardinality() < target) {
+                taken.set(filler.nextInt(ID_SPACE));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Lookups {
+        public long existenceChecks;
+        public long blockLeases;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            existenceChecks = 0;
+            blockLeases = 0;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BlockAllocation {
+        final AtomicLong sequence = new AtomicLong((long) (ID_SPACE * FULLNESS));
+        final AtomicLong leases = new AtomicLong();
+        BlockIdentifierAllocationService allocationService;
+
+        @Setup(Level.Trial)
+        public void createAllocator() {
+            allocationService = new BlockIdentifierAllocationService(new IdentifierBlockRepository(null) {
+                @Override
+                public long leaseBlock(String sequenceName) {
+                    leases.incrementAndGet();
+                    return sequence.getAndAdd(IdentifierSequence.WALLET_ID.getBlockSize());
+                }
+            }, new IdentifierPermutations("benchmark-key"));
+        }
+    }
+
+    @Benchmark
+    public String randomWithExistenceCheck(RandomAllocation state, Lookups lookups) {
+        // The state stays 90% full: the free suffix is found but not marked, as if another one had been released
+        int suffix;
+        do {
+            suffix = state.random.nextInt(ID_SPACE);
+            lookups.existenceChecks++;
+        } while (state.taken.get(suffix));
+        return String.format("%02d%06d", 20, suffix);
+    }
+
+    @Benchmark
+    public String blockAllocator(BlockAllocation state, Lookups lookups) {
+        long before = state.leases.get();
+        String walletId = String.valueOf(state.allocationService.nextValue(IdentifierSequence.WALLET_ID));
+        lookups.blockLeases += state.leases.get() - before;
+        return walletId;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IdentifierAllocationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
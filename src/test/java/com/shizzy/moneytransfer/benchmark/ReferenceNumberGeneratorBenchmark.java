@@ -0,0 +1,64 @@
+package com.shizzy.moneytransfer.benchmark;
+
+import com.shizzy.moneytransfer.util.ReferenceNumberGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ReferenceNumberGenerator} with the previous approach of building a random
+ * 16-character string from a fresh {@link SecureRandom}. The previous approach also made a database
+ * existence check per reference, which this benchmark leaves out. Run {@link #main} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceNumberGeneratorBenchmark {
+
+    private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private final ReferenceNumberGenerator generator = new ReferenceNumberGenerator(1);
+
+    @Benchmark
+    public String snowflake() {
+        return generator.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String snowflakeContended() {
+        return generator.next();
+    }
+
+    @Benchmark
+    public String secureRandomPerCall() {
+        SecureRandom rand = new SecureRandom();
+        StringBuilder referenceNumber = new StringBuilder();
+        for (int i = 0; i < 16; i++) {
+            referenceNumber.append(CHARACTERS.charAt(rand.nextInt(CHARACTERS.length())));
+        }
+        return referenceNumber.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReferenceNumberGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
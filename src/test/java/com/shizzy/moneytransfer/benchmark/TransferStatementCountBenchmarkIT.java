@@ -0,0 +1,140 @@
+package com.shizzy.moneytransfer.benchmark;
+
+import com.shizzy.AbstractTestContainers;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.enums.TransactionStatus;
+import com.shizzy.moneytransfer.enums.TransactionType;
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.model.TransactionReference;
+import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.TransactionReferenceRepository;
+import com.shizzy.moneytransfer.repository.TransactionRepository;
+import com.shizzy.moneytransfer.repository.WalletRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the JDBC statements the transfer path's ledger writes prepare per transfer. "Before" replays
+ * the old write pattern, one save and flush per row, which is what IDENTITY ids forced. "After" uses the
+ * grouped saves from {@code MoneyTransferServiceImpl} so the pooled sequence and insert batching can
+ * combine them.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransferStatementCountBenchmarkIT extends AbstractTestContainers {
+
+    private static final int TRANSFERS = 100;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionReferenceRepository transactionReferenceRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Wallet source;
+    private Wallet destination;
+
+    @BeforeEach
+    void seedWallets() {
+        transactionReferenceRepository.deleteAll();
+        transactionRepository.deleteAll();
+        walletRepository.deleteAll();
+        source = walletRepository.save(wallet("STMTSRC"));
+        destination = walletRepository.save(wallet("STMTDST"));
+    }
+
+    @Test
+    void statementsPerTransfer() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        statistics.clear();
+        for (int i = 0; i < TRANSFERS; i++) {
+            String reference = "BEFORE-" + i;
+            transactionTemplate.executeWithoutResult(status -> {
+                Transaction debit = transactionRepository.saveAndFlush(transaction(source, TransactionType.DEBIT, reference));
+                Transaction credit = transactionRepository.saveAndFlush(transaction(destination, TransactionType.CREDIT, reference));
+                transactionReferenceRepository.saveAndFlush(reference(debit, credit, reference));
+                debit.setCurrentStatus(TransactionStatus.SUCCESS.getValue());
+                transactionRepository.saveAndFlush(debit);
+                credit.setCurrentStatus(TransactionStatus.SUCCESS.getValue());
+                transactionRepository.saveAndFlush(credit);
+            });
+        }
+        double before = (double) statistics.getPrepareStatementCount() / TRANSFERS;
+
+        statistics.clear();
+        for (int i = 0; i < TRANSFERS; i++) {
+            String reference = "AFTER-" + i;
+            transactionTemplate.executeWithoutResult(status -> {
+                Transaction debit = transaction(source, TransactionType.DEBIT, reference);
+                Transaction credit = transaction(destination, TransactionType.CREDIT, reference);
+                transactionRepository.saveAll(List.of(debit, credit));
+                transactionReferenceRepository.save(reference(debit, credit, reference));
+                debit.setCurrentStatus(TransactionStatus.SUCCESS.getValue());
+                credit.setCurrentStatus(TransactionStatus.SUCCESS.getValue());
+                transactionRepository.saveAll(List.of(credit, debit));
+            });
+        }
+        double after = (double) statistics.getPrepareStatementCount() / TRANSFERS;
+
+        System.out.printf("transfer ledger writes: %.2f statements/transfer before, %.2f after%n", before, after);
+        assertTrue(after < before, "grouped saves should prepare fewer statements per transfer");
+    }
+
+    private static Transaction transaction(Wallet wallet, TransactionType type, String reference) {
+        return Transaction.builder()
+                .wallet(wallet)
+                .amount(new BigDecimal("10.00"))
+                .transactionType(type)
+                .operation(TransactionOperation.TRANSFER)
+                .currentStatus(TransactionStatus.PENDING.getValue())
+                .referenceNumber(reference)
+                .transactionDate(LocalDateTime.now())
+                .build();
+    }
+
+    private static TransactionReference reference(Transaction debit, Transaction credit, String reference) {
+        return TransactionReference.builder()
+                .debitTransaction(debit)
+                .creditTransaction(credit)
+                .referenceNumber(reference)
+                .build();
+    }
+
+    private static Wallet wallet(String walletId) {
+        return Wallet.builder()
+                .walletId(walletId)
+                .createdBy("statement-benchmark-" + walletId)
+                .createdDate(LocalDateTime.now())
+                .balance(new BigDecimal("1000.00"))
+                .currency("USD")
+                .build();
+    }
+}
@@ -0,0 +1,218 @@
+package com.shizzy.moneytransfer.benchmark;
+
+import com.shizzy.moneytransfer.config.VerificationLevelCacheProperties;
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.model.AccountLimit;
+import com.shizzy.moneytransfer.model.UserAccountLimit;
+import com.shizzy.moneytransfer.repository.AccountLimitRepository;
+import com.shizzy.moneytransfer.repository.KycVerificationRepository;
+import com.shizzy.moneytransfer.repository.UserAccountLimitRepository;
+import com.shizzy.moneytransfer.service.AccountLimitTierCache;
+import com.shizzy.moneytransfer.service.DailySpendService;
+import com.shizzy.moneytransfer.service.TransactionLimitService;
+import com.shizzy.moneytransfer.service.VelocityLimitService;
+import com.shizzy.moneytransfer.service.VerificationLevelCache;
+import com.shizzy.moneytransfer.serviceimpl.AccountLimitServiceImpl;
+import com.shizzy.moneytransfer.serviceimpl.CaffeineVerificationLevelCache;
+import com.shizzy.moneytransfer.serviceimpl.TierLimitEvaluator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link TransactionLimitService#validateTransfer} before and after verification levels were cached. The level
+ * lookup is a {@code user_account_limits} query, simulated by parking for {@code dbLatencyMicros}; the daily
+ * total read is simulated the same way in every variant. {@code levelQueries} reports the level lookups that
+ * reached the "database" per call. Tiers come from the in-memory snapshot throughout. Run {@link #main} on the
+ * test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidateTransferBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final BigDecimal AMOUNT = new BigDecimal("25.00");
+
+    @State(Scope.Benchmark)
+    public static class Limits {
+        @Param({"0", "250"})
+        long dbLatencyMicros;
+
+        final AtomicLong levelQueries = new AtomicLong();
+        final String[] userIds = new String[USERS];
+        TransactionLimitService uncached;
+        TransactionLimitService cached;
+        CaffeineVerificationLevelCache levelCache;
+
+        @Setup(Level.Trial)
+        public void createServices() {
+            for (int i = 0; i < USERS; i++) {
+                userIds[i] = "user-" + i;
+            }
+            UserAccountLimit assigned = new UserAccountLimit();
+            assigned.setVerificationLevel(VerificationLevel.ID_VERIFIED);
+            UserAccountLimitRepository userAccountLimitRepository = mock(UserAccountLimitRepository.class);
+            when(userAccountLimitRepository.findByUserId(anyString())).thenAnswer(invocation -> {
+                levelQueries.incrementAndGet();
+                roundTrip();
+                return Optional.of(assigned);
+            });
+            DailySpendService dailySpend = mock(DailySpendService.class);
+            when(dailySpend.spentToday(anyString())).thenAnswer(invocation -> {
+                roundTrip();
+                return BigDecimal.ZERO;
+            });
+
+            levelCache = new CaffeineVerificationLevelCache(new VerificationLevelCacheProperties(),
+                    mock(StringRedisTemplate.class), mock(RedisMessageListenerContainer.class),
+                    new SimpleMeterRegistry());
+            levelCache.start();
+
+            uncached = limitService(userAccountLimitRepository, dailySpend, new PassThroughLevelCache());
+            cached = limitService(userAccountLimitRepository, dailySpend, levelCache);
+        }
+
+        private TransactionLimitService limitService(UserAccountLimitRepository userAccountLimitRepository,
+                DailySpendService dailySpend, VerificationLevelCache verificationLevelCache) {
+            FixedTiers tiers = new FixedTiers();
+            AccountLimitServiceImpl accountLimitService = new AccountLimitServiceImpl(
+                    mock(AccountLimitRepository.class),
+                    dailySpend,
+                    mock(KycVerificationRepository.class),
+                    userAccountLimitRepository,
+                    tiers,
+                    verificationLevelCache,
+                    event -> { });
+            return new TransactionLimitService(accountLimitService, dailySpend,
+                    new TierLimitEvaluator(accountLimitService, tiers, dailySpend), mock(VelocityLimitService.class));
+        }
+
+        private void roundTrip() {
+            if (dbLatencyMicros > 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbLatencyMicros));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        int next;
+
+        String nextUser(Limits limits) {
+            next = (next + 1) % USERS;
+            return limits.userIds[next];
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Queries {
+        public long levelQueries;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            levelQueries = 0;
+        }
+    }
+
+    @Benchmark
+    public void uncached(Limits limits, Caller caller, Queries queries) {
+        long before = limits.levelQueries.get();
+        limits.uncached.validateTransfer(caller.nextUser(limits), AMOUNT);
+        queries.levelQueries += limits.levelQueries.get() - before;
+    }
+
+    @Benchmark
+    public void cached(Limits limits, Caller caller, Queries queries) {
+        long before = limits.levelQueries.get();
+        limits.cached.validateTransfer(caller.nextUser(limits), AMOUNT);
+        queries.levelQueries += limits.levelQueries.get() - before;
+    }
+
+    @Benchmark
+    public void cachedInRequestScope(Limits limits, Caller caller, Queries queries) {
+        long before = limits.levelQueries.get();
+        limits.levelCache.openRequestScope();
+        try {
+            limits.cached.validateTransfer(caller.nextUser(limits), AMOUNT);
+        } finally {
+            limits.levelCache.closeRequestScope();
+        }
+        queries.levelQueries += limits.levelQueries.get() - before;
+    }
+
+    /**
+     * The lookup path before levels were cached
+     */
+    private static class PassThroughLevelCache implements VerificationLevelCache {
+        @Override
+        public VerificationLevel get(String userId, Function<String, VerificationLevel> loader) {
+            return loader.apply(userId);
+        }
+
+        @Override
+        public void invalidate(String userId) {
+        }
+
+        @Override
+        public void openRequestScope() {
+        }
+
+        @Override
+        public void closeRequestScope() {
+        }
+    }
+
+    private static class FixedTiers implements AccountLimitTierCache {
+        private final AccountLimit idVerified = AccountLimit.builder()
+                .verificationLevel(VerificationLevel.ID_VERIFIED)
+                .dailyTransactionLimit(new BigDecimal("5000"))
+                .maxTransferAmount(new BigDecimal("1000"))
+                .build();
+
+        @Override
+        public AccountLimit get(VerificationLevel level) {
+            return idVerified;
+        }
+
+        @Override
+        public void refresh() {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ValidateTransferBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,160 @@
+package com.shizzy.moneytransfer.benchmark;
+
+import com.shizzy.AbstractTestContainers;
+import com.shizzy.moneytransfer.config.IdentifierPermutationConfig;
+import com.shizzy.moneytransfer.enums.LedgerWriteMode;
+import com.shizzy.moneytransfer.exception.InsufficientBalanceException;
+import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.IdentifierBlockRepository;
+import com.shizzy.moneytransfer.repository.WalletActivityStatsRepository;
+import com.shizzy.moneytransfer.repository.WalletRepository;
+import com.shizzy.moneytransfer.service.WalletService;
+import com.shizzy.moneytransfer.serviceimpl.BlockIdentifierAllocationService;
+import com.shizzy.moneytransfer.serviceimpl.WalletServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrency benchmark for the wallet ledger write modes. A small set of hot wallets receives random
+ * transfers from many threads; for each mode it reports committed transfers per second and the share of
+ * attempts aborted by optimistic-lock or deadlock failures. Replaces the old ad-hoc
+ * {@code WalletServiceImpl.simulateConcurrentUpdates}.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({WalletServiceImpl.class, BlockIdentifierAllocationService.class, IdentifierBlockRepository.class,
+        IdentifierPermutationConfig.class,
+        WalletActivityStatsRepository.class})
+class WalletLedgerConcurrencyBenchmarkIT extends AbstractTestContainers {
+
+    private static final int HOT_WALLETS = 4;
+    private static final int THREADS = 32;
+    private static final int TRANSFERS_PER_THREAD = 200;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("100000.00");
+    private static final BigDecimal TRANSFER_AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    private List<Long> walletIds;
+
+    @BeforeEach
+    void seedHotWallets() {
+        walletRepository.deleteAll();
+        walletIds = new ArrayList<>();
+        for (int i = 0; i < HOT_WALLETS; i++) {
+            Wallet wallet = walletRepository.save(Wallet.builder()
+                    .walletId("BENCH" + i)
+                    .createdBy("benchmark-user-" + i)
+                    .createdDate(LocalDateTime.now())
+                    .balance(OPENING_BALANCE)
+                    .currency("USD")
+                    .build());
+            walletIds.add(wallet.getId());
+        }
+    }
+
+    @Test
+    void optimistic() throws InterruptedException {
+        runScenario(LedgerWriteMode.OPTIMISTIC);
+    }
+
+    @Test
+    void pessimistic() throws InterruptedException {
+        runScenario(LedgerWriteMode.PESSIMISTIC);
+    }
+
+    @Test
+    void conditionalUpdate() throws InterruptedException {
+        runScenario(LedgerWriteMode.CONDITIONAL_UPDATE);
+    }
+
+    private void runScenario(LedgerWriteMode mode) throws InterruptedException {
+        ReflectionTestUtils.setField(AopTestUtils.getTargetObject(walletService), "ledgerWriteMode", mode);
+
+        AtomicLong committed = new AtomicLong();
+        AtomicLong aborted = new AtomicLong();
+        AtomicLong insufficient = new AtomicLong();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            executorService.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                        attemptTransfer(committed, aborted, insufficient);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(5, TimeUnit.MINUTES), "benchmark did not finish in time");
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executorService.shutdown();
+
+        long attempts = committed.get() + aborted.get() + insufficient.get();
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%-20s attempts=%d committed=%d aborted=%d (%.1f%%) insufficient=%d  %.0f transfers/sec%n",
+                mode, attempts, committed.get(), aborted.get(), 100.0 * aborted.get() / attempts,
+                insufficient.get(), committed.get() / seconds);
+
+        BigDecimal total = walletRepository.findAllById(walletIds).stream()
+                .map(Wallet::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, OPENING_BALANCE.multiply(BigDecimal.valueOf(HOT_WALLETS)).compareTo(total),
+                "money was created or destroyed under " + mode);
+    }
+
+    private void attemptTransfer(AtomicLong committed, AtomicLong aborted, AtomicLong insufficient) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(HOT_WALLETS);
+        int to = (from + 1 + random.nextInt(HOT_WALLETS - 1)) % HOT_WALLETS;
+
+        Wallet source = walletRepository.findById(walletIds.get(from)).orElseThrow();
+        Wallet destination = walletRepository.findById(walletIds.get(to)).orElseThrow();
+        try {
+            walletService.transfer(source, destination, TRANSFER_AMOUNT);
+            committed.incrementAndGet();
+        } catch (ConcurrencyFailureException e) {
+            aborted.incrementAndGet();
+        } catch (InsufficientBalanceException e) {
+            insufficient.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.shizzy.moneytransfer.cache;
+
+import com.shizzy.moneytransfer.config.NearCacheProperties;
+import com.shizzy.moneytransfer.enums.CacheTier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoTierCacheManagerTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private ValueOperations<String, String> generations;
+
+    private NearCacheProperties properties;
+    private ConcurrentMapCacheManager redisCacheManager;
+    private TwoTierCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(generations);
+        properties = new NearCacheProperties();
+        properties.setGenerationRefresh(Duration.ofHours(1));
+        NearCacheProperties.Settings transactions = new NearCacheProperties.Settings();
+        transactions.setTier(CacheTier.LOCAL_AND_REDIS);
+        properties.getCaches().put("transactions", transactions);
+        redisCacheManager = new ConcurrentMapCacheManager();
+        cacheManager = new TwoTierCacheManager(redisCacheManager, properties, stringRedisTemplate, listenerContainer,
+                new SimpleMeterRegistry());
+        cacheManager.afterPropertiesSet();
+    }
+
+    @Test
+    void afterPropertiesSet_ListensForOtherReplicasChanges() {
+        verify(listenerContainer).addMessageListener(eq(cacheManager), any(ChannelTopic.class));
+        assertTrue(cacheManager.getCacheNames().contains("transactions"));
+    }
+
+    @Test
+    void getCache_DefersWritesUntilCommit() {
+        assertInstanceOf(TransactionAwareCacheDecorator.class, cacheManager.getCache("transactions"));
+    }
+
+    @Test
+    void getCache_ConfiguredTier_KeepsEntriesInMemory() {
+        Cache cache = cacheManager.getCache("transactions");
+        cache.put("page:0", "cached page");
+
+        redisCacheManager.getCache("transactions").evict("page:0");
+
+        assertEquals("cached page", cache.get("page:0").get());
+    }
+
+    @Test
+    void getCache_UnlistedCache_UsesTheDefaultRedisTier() {
+        Cache cache = cacheManager.getCache("otpCache");
+        cache.put("user-1", "123456");
+
+        redisCacheManager.getCache("otpCache").evict("user-1");
+
+        assertNull(cache.get("user-1"));
+    }
+
+    @Test
+    void put_AnnouncesTheKeyToOtherReplicas() {
+        cacheManager.getCache("transactions").put("page:0", "cached page");
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(TwoTierCacheManager.CHANNEL), message.capture());
+        assertTrue(message.getValue().endsWith("|E|transactions|page:0"));
+
+        // The announcement echoes back to this replica, which keeps its copy
+        cacheManager.onMessage(message(message.getValue()), null);
+        redisCacheManager.getCache("transactions").evict("page:0");
+        assertNotNull(cacheManager.getCache("transactions").get("page:0"));
+    }
+
+    @Test
+    void onMessage_FromAnotherReplica_DropsTheInMemoryCopy() {
+        Cache cache = cacheManager.getCache("transactions");
+        cache.put("user:1|page:0", "cached page");
+        redisCacheManager.getCache("transactions").put("user:1|page:0", "newer page");
+
+        cacheManager.onMessage(message("another-replica|E|transactions|user:1|page:0"), null);
+
+        assertEquals("newer page", cache.get("user:1|page:0").get());
+    }
+
+    @Test
+    void onMessage_ClearFromAnotherReplica_DropsEveryInMemoryCopy() {
+        Cache cache = cacheManager.getCache("transactions");
+        cache.put("page:0", "cached page");
+        redisCacheManager.getCache("transactions").clear();
+
+        cacheManager.onMessage(message("another-replica|C|transactions|"), null);
+
+        assertNull(cache.get("page:0"));
+    }
+
+    @Test
+    void clear_MovesToANewGenerationInsteadOfDeletingKeys() {
+        Cache cache = cacheManager.getCache("transactions");
+        cache.put("page:0", "generation 0");
+        when(generations.increment("cache-generation:transactions")).thenReturn(1L);
+
+        cache.clear();
+
+        assertNull(cache.get("page:0"));
+        // The old entry is left in Redis to expire, under a key no longer read
+        assertNotNull(redisCacheManager.getCache("transactions").get("page:0"));
+        cache.put("page:0", "generation 1");
+        assertEquals("generation 1", redisCacheManager.getCache("transactions").get("g1:page:0").get());
+        assertEquals("transactions::g1:page:0", cacheManager.redisKey("transactions", "page:0"));
+
+        ArgumentCaptor<String> messages = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate, atLeastOnce()).convertAndSend(eq(TwoTierCacheManager.CHANNEL), messages.capture());
+        assertTrue(messages.getAllValues().stream().anyMatch(message -> message.endsWith("|C|transactions|1")));
+    }
+
+    @Test
+    void generation_IsReadFromRedisOnceUntilTheRefreshInterval() {
+        when(generations.get("cache-generation:transactions")).thenReturn("4");
+
+        assertEquals(4, cacheManager.generation("transactions"));
+        assertEquals(4, cacheManager.generation("transactions"));
+
+        verify(generations, times(1)).get("cache-generation:transactions");
+    }
+
+    @Test
+    void onMessage_ClearFromAnotherReplica_SwitchesToTheAnnouncedGeneration() {
+        Cache cache = cacheManager.getCache("transactions");
+        cacheManager.onMessage(message("another-replica|C|transactions|7"), null);
+        redisCacheManager.getCache("transactions").put("g7:page:0", "generation 7");
+
+        assertEquals(7, cacheManager.generation("transactions"));
+        assertEquals("generation 7", cache.get("page:0").get());
+    }
+
+    @Test
+    void generation_RedisUnavailable_KeepsTheLastKnownGeneration() {
+        when(generations.get(anyString())).thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        assertEquals(0, cacheManager.generation("transactions"));
+    }
+
+    @Test
+    void put_AnnouncementFails_StillWritesTheCache() {
+        doThrow(new RedisConnectionFailureException("connection refused"))
+                .when(stringRedisTemplate).convertAndSend(anyString(), anyString());
+
+        cacheManager.getCache("transactions").put("page:0", "cached page");
+
+        assertEquals("cached page", redisCacheManager.getCache("transactions").get("page:0").get());
+    }
+
+    @Test
+    void put_TaggedKey_AddsTheEntryToEachTagSet() {
+        cacheManager.getCache("transactions").put(new TaggedKey("page:0", List.of("wallet:7", "transactions")), "page");
+
+        verify(stringRedisTemplate).execute(TwoTierCacheManager.TAG_SCRIPT,
+                List.of("cache-tags:wallet:7", "cache-tags:transactions"), "transactions::page:0", "21600");
+    }
+
+    @Test
+    void put_TaggingFails_DropsTheEntryAgain() {
+        when(stringRedisTemplate.execute(eq(TwoTierCacheManager.TAG_SCRIPT), anyList(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+        TaggedKey key = new TaggedKey("page:0", List.of("wallet:7"));
+
+        cacheManager.getCache("transactions").put(key, "page");
+
+        assertNull(cacheManager.getCache("transactions").get(key));
+        assertNull(redisCacheManager.getCache("transactions").get(key));
+    }
+
+    @Test
+    void evictTags_DropsTheEvictedEntriesFromMemory() {
+        Cache cache = cacheManager.getCache("transactions");
+        cache.put("wallet:7:page:0", "wallet 7");
+        cache.put("wallet:8:page:0", "wallet 8");
+        redisCacheManager.getCache("transactions").clear();
+        when(stringRedisTemplate.execute(eq(TwoTierCacheManager.EVICT_TAGS_SCRIPT), anyList(), any(), any()))
+                .thenReturn(List.of("transactions::wallet:7:page:0"));
+
+        cacheManager.evictTags(List.of("wallet:7", "wallet:7"));
+
+        verify(stringRedisTemplate).execute(eq(TwoTierCacheManager.EVICT_TAGS_SCRIPT),
+                eq(List.of("cache-tags:wallet:7")), eq(TwoTierCacheManager.CHANNEL), anyString());
+        assertNull(cache.get("wallet:7:page:0"));
+        assertEquals("wallet 8", cache.get("wallet:8:page:0").get());
+    }
+
+    @Test
+    void evictTags_InTransaction_WaitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cacheManager.evictTags(List.of("wallet:7"));
+            verify(stringRedisTemplate, never()).execute(eq(TwoTierCacheManager.EVICT_TAGS_SCRIPT), anyList(),
+                    any(), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(stringRedisTemplate).execute(eq(TwoTierCacheManager.EVICT_TAGS_SCRIPT),
+                    eq(List.of("cache-tags:wallet:7")), any(), any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void onMessage_TagEvictionFromAnotherReplica_DropsEachEvictedEntry() {
+        Cache cache = cacheManager.getCache("transactions");
+        cache.put("wallet:7|page:0", "page 0");
+        cache.put("wallet:7|page:1", "page 1");
+        cache.put("wallet:8|page:0", "other wallet");
+        redisCacheManager.getCache("transactions").clear();
+
+        cacheManager.onMessage(message("another-replica|T||transactions::wallet:7|page:0\n"
+                + "transactions::wallet:7|page:1\nunknownCache::x"), null);
+
+        assertNull(cache.get("wallet:7|page:0"));
+        assertNull(cache.get("wallet:7|page:1"));
+        assertNotNull(cache.get("wallet:8|page:0"));
+    }
+
+    @Test
+    void getCache_FreshFor_LoadsUnderALeaseAndStoresTheFreshness() {
+        NearCacheProperties.Settings userTransactions = new NearCacheProperties.Settings();
+        userTransactions.setTier(CacheTier.LOCAL_AND_REDIS);
+        userTransactions.setFreshFor(Duration.ofMinutes(50));
+        properties.getCaches().put("allUserTransaction", userTransactions);
+        when(generations.setIfAbsent(eq("cache-lease:allUserTransaction::wallet:7"), anyString(),
+                eq(Duration.ofSeconds(5)))).thenReturn(true);
+
+        assertEquals("page", cacheManager.getCache("allUserTransaction").get("wallet:7", () -> "page"));
+
+        CachedValue stored = (CachedValue) redisCacheManager.getCache("allUserTransaction").get("wallet:7").get();
+        assertEquals("page", stored.value());
+        verify(stringRedisTemplate).execute(eq(TwoTierCacheManager.RELEASE_LEASE_SCRIPT),
+                eq(List.of("cache-lease:allUserTransaction::wallet:7")), anyString());
+    }
+
+    @Test
+    void release_OnlyDeletesTheLeaseThisReplicaTook() {
+        ArgumentCaptor<String> holder = ArgumentCaptor.forClass(String.class);
+        when(generations.setIfAbsent(eq("cache-lease:transactions::page:0"), holder.capture(),
+                eq(Duration.ofSeconds(5)))).thenReturn(true);
+
+        assertTrue(cacheManager.tryAcquire("transactions", "page:0", Duration.ofSeconds(5)));
+        cacheManager.release("transactions", "page:0");
+
+        verify(stringRedisTemplate).execute(TwoTierCacheManager.RELEASE_LEASE_SCRIPT,
+                List.of("cache-lease:transactions::page:0"), holder.getValue());
+    }
+
+    @Test
+    void tryAcquire_LeaseHeldByAnotherReplica_ReturnsFalse() {
+        when(generations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        assertFalse(cacheManager.tryAcquire("transactions", "page:0", Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void tryAcquire_RedisUnavailable_LoadsWithoutTheLease() {
+        when(generations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        assertTrue(cacheManager.tryAcquire("transactions", "page:0", Duration.ofSeconds(5)));
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(TwoTierCacheManager.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,346 @@
+package com.shizzy.moneytransfer.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoTierCacheTest {
+
+    @Mock
+    private CacheInvalidations invalidations;
+
+    @Mock
+    private CacheLoadLeases leases;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrentMapCache remote;
+    private TwoTierCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        remote = new ConcurrentMapCache("transactions");
+        cache = new TwoTierCache("transactions", Caffeine.newBuilder().maximumSize(100).build(), remote,
+                invalidations, meterRegistry);
+    }
+
+    @Test
+    void get_RedisHit_IsKeptInMemoryForTheNextRead() {
+        remote.put("page:0", "cached page");
+
+        assertEquals("cached page", cache.get("page:0").get());
+        remote.evict("page:0");
+        assertEquals("cached page", cache.get("page:0").get());
+
+        assertEquals(1.0, count("local", "hit"));
+        assertEquals(1.0, count("local", "miss"));
+        assertEquals(1.0, count("redis", "hit"));
+        assertEquals(0.0, count("redis", "miss"));
+    }
+
+    @Test
+    void get_MissingEverywhere_CountsMissOnBothTiers() {
+        assertNull(cache.get("page:0"));
+
+        assertEquals(1.0, count("local", "miss"));
+        assertEquals(1.0, count("redis", "miss"));
+    }
+
+    @Test
+    void put_WritesBothTiersAndAnnouncesTheKey() {
+        cache.put(42, "transaction");
+
+        assertEquals("transaction", remote.get(42).get());
+        remote.evict(42);
+        assertEquals("transaction", cache.get(42, String.class));
+        verify(invalidations).evicted("transactions", "42");
+    }
+
+    @Test
+    void put_TaggedKey_IndexesTheTagsUnderThePlainKey() {
+        TaggedKey key = new TaggedKey("refNum:R1", List.of("reference:R1", "wallet:7"));
+
+        when(invalidations.tagged(anyString(), anyString(), anyList())).thenReturn(true);
+
+        cache.put(key, "transaction");
+
+        verify(invalidations).evicted("transactions", "refNum:R1");
+        verify(invalidations).tagged("transactions", "refNum:R1", List.of("reference:R1", "wallet:7"));
+        assertEquals("transaction", cache.get(new TaggedKey("refNum:R1", List.of())).get());
+    }
+
+    @Test
+    void put_TaggingFails_EvictsTheEntryAgain() {
+        TaggedKey key = new TaggedKey("refNum:R1", List.of("reference:R1"));
+        when(invalidations.tagged(anyString(), anyString(), anyList())).thenReturn(false);
+
+        cache.put(key, "transaction");
+
+        assertNull(cache.get(key));
+        assertNull(remote.get(key));
+    }
+
+    @Test
+    void put_PlainKey_IsNotTagged() {
+        cache.put("fee:10.0", "fee");
+
+        verify(invalidations, never()).tagged(anyString(), anyString(), anyList());
+    }
+
+    @Test
+    void put_TaggedKeyOnRedis_StoresUnderThePlainKey() {
+        RedisCacheWriter writer = mock(RedisCacheWriter.class);
+        RedisCacheManager redis = RedisCacheManager.builder(writer).build();
+        TwoTierCache redisOnly = new TwoTierCache("transactions", null, redis.getCache("transactions"),
+                invalidations, meterRegistry);
+
+        redisOnly.put(new TaggedKey("refNum:R1", List.of("reference:R1")), "transaction");
+
+        verify(writer).put(eq("transactions"), eq("transactions::refNum:R1".getBytes(StandardCharsets.UTF_8)),
+                any(byte[].class), any());
+    }
+
+    @Test
+    void evict_RemovesFromBothTiersAndAnnouncesTheKey() {
+        cache.put("page:0", "cached page");
+
+        cache.evict("page:0");
+
+        assertNull(cache.get("page:0"));
+        assertNull(remote.get("page:0"));
+        verify(invalidations, times(2)).evicted("transactions", "page:0");
+    }
+
+    @Test
+    void clear_MovesToTheNextGenerationAndAnnounces() {
+        AtomicLong generation = new AtomicLong();
+        when(invalidations.generation("transactions")).thenAnswer(invocation -> generation.get());
+        when(invalidations.advanceGeneration("transactions")).thenAnswer(invocation -> generation.incrementAndGet());
+        cache.put("page:0", "cached page");
+
+        cache.clear();
+
+        assertNull(cache.get("page:0"));
+        assertNotNull(remote.get("page:0"));
+        cache.put("page:0", "newer page");
+        assertEquals("newer page", remote.get("g1:page:0").get());
+        verify(invalidations).cleared("transactions");
+    }
+
+    @Test
+    void evictLocal_KeepsTheRedisEntry() {
+        cache.put("page:0", "cached page");
+        remote.put("page:0", "newer page");
+
+        cache.evictLocal("page:0");
+
+        assertEquals("newer page", cache.get("page:0").get());
+    }
+
+    @Test
+    void getWithLoader_MemoryOnly_LoadsOnce() {
+        TwoTierCache localOnly = new TwoTierCache("local", Caffeine.newBuilder().maximumSize(10).build(), null,
+                invalidations, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("value", localOnly.get("key", () -> {
+                loads.incrementAndGet();
+                return "value";
+            }));
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getWithLoader_LoaderFails_ThrowsValueRetrievalException() {
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("key", () -> {
+            throw new IllegalStateException("database down");
+        }));
+    }
+
+    @Test
+    void get_RedisOnly_DoesNotKeepAnythingInMemory() {
+        TwoTierCache redisOnly = new TwoTierCache("otpCache", null, remote, invalidations, meterRegistry);
+        redisOnly.put("user-1", "123456");
+
+        remote.evict("user-1");
+
+        assertNull(redisOnly.get("user-1"));
+    }
+
+    @Test
+    void get_WrongType_Throws() {
+        cache.put("key", "text");
+
+        assertThrows(IllegalStateException.class, () -> cache.get("key", Integer.class));
+    }
+
+    @Test
+    void getWithLoader_ConcurrentMisses_LoadOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("page:0", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                release.await();
+                return "page";
+            })));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> cache.get("page:0", () -> {
+                    loads.incrementAndGet();
+                    return "second load";
+                })));
+            }
+            while (loads("transactions", "joined") < 7) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("page", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1.0, loads("transactions", "loaded"));
+    }
+
+    @Test
+    void getWithLoader_LeaseTaken_LoadsStoresWithFreshnessAndReleases() {
+        TwoTierCache leased = leased(Duration.ofMillis(200));
+        when(leases.tryAcquire("allUserTransaction", "wallet:7", Duration.ofSeconds(5))).thenReturn(true);
+
+        assertEquals("page", leased.get("wallet:7", () -> "page"));
+
+        CachedValue stored = (CachedValue) remote.get("wallet:7").get();
+        assertEquals("page", stored.value());
+        assertTrue(stored.freshUntil() > System.currentTimeMillis() + Duration.ofMinutes(49).toMillis());
+        verify(leases).release("allUserTransaction", "wallet:7");
+    }
+
+    @Test
+    void getWithLoader_LeaseHeldElsewhere_ServesTheStaleValue() {
+        TwoTierCache leased = leased(Duration.ofMillis(200));
+        remote.put("wallet:7", new CachedValue("old page", System.currentTimeMillis() - 1, 10));
+        when(leases.tryAcquire(anyString(), anyString(), any())).thenReturn(false);
+
+        assertEquals("old page", leased.get("wallet:7", () -> fail("loaded while another replica holds the lease")));
+
+        assertEquals(1.0, loads("allUserTransaction", "stale"));
+        verify(leases, never()).release(anyString(), anyString());
+    }
+
+    @Test
+    void getWithLoader_LeaseHeldElsewhere_WaitsForTheOtherReplicasValue() {
+        TwoTierCache leased = leased(Duration.ofSeconds(5));
+        when(leases.tryAcquire(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            // The lease holder puts its value shortly after
+            new Thread(() -> {
+                sleep(50);
+                remote.put("wallet:7", new CachedValue("their page", System.currentTimeMillis() + 60_000, 10));
+            }).start();
+            return false;
+        });
+
+        assertEquals("their page", leased.get("wallet:7", () -> fail("loaded while another replica holds the lease")));
+
+        assertEquals(1.0, loads("allUserTransaction", "awaited"));
+    }
+
+    @Test
+    void getWithLoader_LeaseHolderNeverPuts_LoadsAfterTheWait() {
+        TwoTierCache leased = leased(Duration.ofMillis(50));
+        when(leases.tryAcquire(anyString(), anyString(), any())).thenReturn(false);
+
+        assertEquals("page", leased.get("wallet:7", () -> "page"));
+
+        assertEquals(1.0, loads("allUserTransaction", "loaded"));
+    }
+
+    @Test
+    void get_StaleValue_IsAMiss() {
+        TwoTierCache leased = leased(Duration.ofMillis(200));
+        remote.put("wallet:7", new CachedValue("old page", System.currentTimeMillis() - 1, 10));
+
+        assertNull(leased.get("wallet:7"));
+    }
+
+    @Test
+    void getWithLoader_FreshValue_IsServedWithoutLoading() {
+        TwoTierCache leased = leased(Duration.ofMillis(200));
+        remote.put("wallet:7", new CachedValue("page", System.currentTimeMillis() + 60_000, 0));
+
+        assertEquals("page", leased.get("wallet:7", () -> fail("loaded a fresh value")));
+        assertEquals("page", leased.get("wallet:7").get());
+    }
+
+    @Test
+    void getWithLoader_SlowLoadNearTheEndOfFreshness_RefreshesEarly() {
+        TwoTierCache leased = leased(Duration.ofMillis(200));
+        remote.put("wallet:7", new CachedValue("old page", System.currentTimeMillis() + 1_000,
+                Duration.ofMinutes(10).toMillis()));
+        when(leases.tryAcquire(anyString(), anyString(), any())).thenReturn(true);
+
+        assertEquals("new page", leased.get("wallet:7", () -> "new page"));
+        assertEquals("new page", ((CachedValue) remote.get("wallet:7").get()).value());
+    }
+
+    private TwoTierCache leased(Duration leaseWait) {
+        return new TwoTierCache("allUserTransaction", Caffeine.newBuilder().maximumSize(100).build(), remote,
+                invalidations, new TwoTierCache.LoadPolicy(leases, Duration.ofSeconds(5), leaseWait,
+                Duration.ofMinutes(50), 1.0), meterRegistry);
+    }
+
+    private double loads(String cacheName, String result) {
+        return meterRegistry.counter("cache.loads", "cache", cacheName, "result", result).count();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double count(String tier, String result) {
+        return meterRegistry.counter("cache.tier.gets", "cache", "transactions", "tier", tier, "result", result)
+                .count();
+    }
+}
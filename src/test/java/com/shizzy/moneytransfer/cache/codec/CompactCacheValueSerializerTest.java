@@ -0,0 +1,164 @@
+package com.shizzy.moneytransfer.cache.codec;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.shizzy.moneytransfer.api.ApiResponse;
+import com.shizzy.moneytransfer.cache.CachedValue;
+import com.shizzy.moneytransfer.dto.PagedTransactionResponse;
+import com.shizzy.moneytransfer.dto.TransactionResponse;
+import com.shizzy.moneytransfer.enums.CacheValueFormat;
+import com.shizzy.moneytransfer.enums.RefundStatus;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.enums.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactCacheValueSerializerTest {
+
+    private static final List<CacheValueCodec<?>> CODECS = List.of(new ApiResponseCodec(),
+            new PagedTransactionResponseCodec(), new TransactionResponseCodec(), new ListCodec(),
+            new CachedValueCodec());
+
+    private GenericJackson2JsonRedisSerializer json;
+    private CompactCacheValueSerializer compact;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY);
+        json = new GenericJackson2JsonRedisSerializer(mapper);
+        compact = new CompactCacheValueSerializer(CODECS, json, CacheValueFormat.COMPACT, 512);
+    }
+
+    @Test
+    void serialize_TransactionPage_RoundTripsInFewerBytesThanJson() {
+        ApiResponse<PagedTransactionResponse> page = page(3);
+
+        byte[] bytes = compact.serialize(page);
+
+        assertEquals(CompactCacheValueSerializer.FORMAT_VERSION, bytes[0]);
+        assertEquals(page, compact.deserialize(bytes));
+        assertTrue(bytes.length < json.serialize(page).length / 3);
+    }
+
+    @Test
+    void serialize_LargeValue_IsCompressed() {
+        ApiResponse<PagedTransactionResponse> page = page(50);
+        CompactCacheValueSerializer uncompressed =
+                new CompactCacheValueSerializer(CODECS, json, CacheValueFormat.COMPACT, Integer.MAX_VALUE);
+
+        byte[] bytes = compact.serialize(page);
+
+        assertEquals(1, bytes[1] & 1);
+        assertTrue(bytes.length < uncompressed.serialize(page).length);
+        assertEquals(page, compact.deserialize(bytes));
+        assertEquals(page, uncompressed.deserialize(bytes));
+    }
+
+    @Test
+    void serialize_NullFieldsAndData_RoundTrip() {
+        ApiResponse<Object> empty = new ApiResponse<>(false, null, null);
+        ApiResponse<List<TransactionResponse>> sparse = new ApiResponse<>(true, "found",
+                new ArrayList<>(List.of(new TransactionResponse())));
+
+        assertEquals(empty, compact.deserialize(compact.serialize(empty)));
+        assertEquals(sparse, compact.deserialize(compact.serialize(sparse)));
+    }
+
+    @Test
+    void serialize_TypeWithoutCodec_IsEmbeddedAsJson() {
+        Map<String, Object> limits = new HashMap<>(Map.of("daily", 500, "currency", "USD"));
+        ApiResponse<Map<String, Object>> response = new ApiResponse<>(true, "limits", limits);
+
+        assertEquals(response, compact.deserialize(compact.serialize(response)));
+    }
+
+    @Test
+    void serialize_CachedValue_RoundTripsInBothFormats() {
+        CachedValue cached = new CachedValue(page(2), 1_709_287_200_000L, 35);
+        CompactCacheValueSerializer jsonFormat = new CompactCacheValueSerializer(CODECS, json, CacheValueFormat.JSON,
+                512);
+
+        assertEquals(cached, compact.deserialize(compact.serialize(cached)));
+        assertEquals(cached, compact.deserialize(jsonFormat.serialize(cached)));
+    }
+
+    @Test
+    void deserialize_EntryWrittenAsJson_IsRead() {
+        ApiResponse<PagedTransactionResponse> page = page(2);
+
+        assertEquals(page, compact.deserialize(json.serialize(page)));
+    }
+
+    @Test
+    void serialize_JsonFormat_WritesWhatEveryVersionReads() {
+        CompactCacheValueSerializer jsonFormat = new CompactCacheValueSerializer(CODECS, json, CacheValueFormat.JSON,
+                512);
+        ApiResponse<PagedTransactionResponse> page = page(2);
+
+        byte[] bytes = jsonFormat.serialize(page);
+
+        assertArrayEquals(json.serialize(page), bytes);
+        assertEquals(page, json.deserialize(bytes));
+    }
+
+    @Test
+    void deserialize_LaterFormatVersion_IsAMiss() {
+        byte[] bytes = compact.serialize(page(1));
+        bytes[0] = CompactCacheValueSerializer.FORMAT_VERSION + 1;
+
+        assertNull(compact.deserialize(bytes));
+    }
+
+    @Test
+    void deserialize_UnknownCodec_Throws() {
+        byte[] bytes = {CompactCacheValueSerializer.FORMAT_VERSION, 0, 99};
+
+        assertThrows(SerializationException.class, () -> compact.deserialize(bytes));
+    }
+
+    @Test
+    void constructor_DuplicateCodecId_Throws() {
+        List<CacheValueCodec<?>> codecs = List.of(new TransactionResponseCodec(), new TransactionResponseCodec());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new CompactCacheValueSerializer(codecs, json, CacheValueFormat.COMPACT, 512));
+    }
+
+    private static ApiResponse<PagedTransactionResponse> page(int rows) {
+        List<TransactionResponse> content = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            content.add(TransactionResponse.builder()
+                    .transactionId(1000 + i)
+                    .providerId("pi_3OqRsT" + i)
+                    .amount(new BigDecimal("-1250.75").add(BigDecimal.valueOf(i)))
+                    .currentStatus("SUCCESS")
+                    .transactionDate("2024-03-01 10:15:0" + (i % 10))
+                    .referenceNumber("TRX-20240301-" + i)
+                    .description("Transfer to W100" + i)
+                    .narration("Rent")
+                    .fee(2.5)
+                    .operation(TransactionOperation.TRANSFER)
+                    .transactionType(TransactionType.DEBIT)
+                    .sessionId(null)
+                    .flagged(i % 7 == 0)
+                    .refundStatus(RefundStatus.FULLY_REFUNDABLE)
+                    .walletId("W2001")
+                    .build());
+        }
+        PagedTransactionResponse page = new PagedTransactionResponse(content, 0, 20, 1_234_567L, 61_729, false, true);
+        return new ApiResponse<>(true, "Transactions retrieved successfully", page);
+    }
+}
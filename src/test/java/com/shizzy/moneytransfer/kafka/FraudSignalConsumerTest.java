@@ -0,0 +1,105 @@
+package com.shizzy.moneytransfer.kafka;
+
+import com.shizzy.moneytransfer.dto.LedgerMovement;
+import com.shizzy.moneytransfer.dto.TransactionNotification;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.service.detection.FraudSignalStore;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FraudSignalConsumerTest {
+
+    private static final LocalDateTime TRANSACTION_DATE = LocalDateTime.of(2026, 10, 18, 9, 15);
+
+    @Mock
+    private FraudSignalStore store;
+
+    @Mock
+    private ConsumerSeekAware.ConsumerSeekCallback seekCallback;
+
+    private FraudSignalConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new FraudSignalConsumer(store);
+    }
+
+    @Test
+    void listen_Transfer_RecordsBothSidesAtTheEventPosition() {
+        TransactionNotification notification = TransactionNotification.builder()
+                .operation(TransactionOperation.TRANSFER)
+                .debitTransaction(transaction(1L, TransactionOperation.TRANSFER, "50.00"))
+                .creditTransaction(transaction(2L, TransactionOperation.TRANSFER, "50.00"))
+                .build();
+
+        consumer.listen(new ConsumerRecord<>("notifications", 3, 42L, "key", notification));
+
+        verify(store).record(3, 42L, List.of(
+                new LedgerMovement(1L, TransactionOperation.TRANSFER, new BigDecimal("50.00"), TRANSACTION_DATE),
+                new LedgerMovement(2L, TransactionOperation.TRANSFER, new BigDecimal("50.00"), TRANSACTION_DATE)));
+    }
+
+    @Test
+    void listen_Deposit_SkipsTheMissingSide() {
+        TransactionNotification notification = TransactionNotification.builder()
+                .operation(TransactionOperation.DEPOSIT)
+                .creditTransaction(transaction(2L, TransactionOperation.DEPOSIT, "10.00"))
+                .build();
+
+        consumer.listen(new ConsumerRecord<>("notifications", 0, 7L, "key", notification));
+
+        verify(store).record(0, 7L, List.of(
+                new LedgerMovement(2L, TransactionOperation.DEPOSIT, new BigDecimal("10.00"), TRANSACTION_DATE)));
+    }
+
+    @Test
+    void listen_EmptyEvent_StillAdvancesThePosition() {
+        consumer.listen(new ConsumerRecord<>("notifications", 0, 8L, "key", null));
+
+        verify(store).record(0, 8L, List.of());
+    }
+
+    @Test
+    void onPartitionsAssigned_SeeksToCheckpointOrReplaysTheLastDay() {
+        when(store.position(0)).thenReturn(OptionalLong.of(120));
+        when(store.position(1)).thenReturn(OptionalLong.empty());
+
+        consumer.onPartitionsAssigned(Map.of(
+                new TopicPartition("notifications", 0), 0L,
+                new TopicPartition("notifications", 1), 0L), seekCallback);
+
+        verify(seekCallback).seek("notifications", 0, 120L);
+        verify(seekCallback).seekToTimestamp(eq("notifications"), eq(1), anyLong());
+        verifyNoMoreInteractions(seekCallback);
+    }
+
+    private Transaction transaction(long walletId, TransactionOperation operation, String amount) {
+        Wallet wallet = new Wallet();
+        wallet.setId(walletId);
+        Transaction transaction = new Transaction();
+        transaction.setWallet(wallet);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setOperation(operation);
+        transaction.setTransactionDate(TRANSACTION_DATE);
+        return transaction;
+    }
+}
@@ -0,0 +1,184 @@
+package com.shizzy.moneytransfer.kafka;
+
+import com.shizzy.moneytransfer.config.OutboxProperties;
+import com.shizzy.moneytransfer.dto.ScheduledTransferNotification;
+import com.shizzy.moneytransfer.enums.OutboxEventStatus;
+import com.shizzy.moneytransfer.model.OutboxEvent;
+import com.shizzy.moneytransfer.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final String TOPIC = "scheduled-transfer-notifications";
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxProperties properties;
+    private InMemoryOutboxTransport transport;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+    private OutboxNotificationProducer producer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OutboxProperties();
+        properties.getRelay().setBatchSize(2);
+        transport = new InMemoryOutboxTransport();
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxEventRepository, transport, properties, meterRegistry, transactionManager);
+        relay.registerMetrics();
+
+        JsonSerializer<Object> serializer = new JsonSerializer<>();
+        serializer.configure(Map.of(), false);
+        producer = new OutboxNotificationProducer(outboxEventRepository, serializer);
+    }
+
+    @Test
+    void relayBatch_SendsQueuedEventUnchanged_AndMarksItPublished() {
+        ScheduledTransferNotification notification = ScheduledTransferNotification.builder()
+                .scheduledTransferId(42L)
+                .senderEmail("sender@example.com")
+                .eventType("TRANSFER_EXECUTED")
+                .build();
+        OutboxEvent queued = queue("42", notification);
+        queued.setId(1L);
+        when(outboxEventRepository.lockPending(2)).thenReturn(List.of(queued));
+
+        assertEquals(1, relay.relayBatch());
+
+        List<ProducerRecord<String, byte[]>> records = transport.records(TOPIC);
+        assertEquals(1, records.size());
+        ProducerRecord<String, byte[]> record = records.get(0);
+        assertEquals("42", record.key());
+        Header typeHeader = record.headers().lastHeader("__TypeId__");
+        assertNotNull(typeHeader);
+        assertEquals(ScheduledTransferNotification.class.getName(), new String(typeHeader.value(), StandardCharsets.UTF_8));
+
+        try (JsonDeserializer<Object> deserializer = new JsonDeserializer<>()) {
+            deserializer.addTrustedPackages("com.shizzy.moneytransfer.dto");
+            ScheduledTransferNotification received = (ScheduledTransferNotification)
+                    deserializer.deserialize(TOPIC, record.headers(), record.value());
+            assertEquals(42L, received.getScheduledTransferId());
+            assertEquals("TRANSFER_EXECUTED", received.getEventType());
+        }
+
+        verify(outboxEventRepository).markPublished(eq(List.of(1L)), any(LocalDateTime.class));
+        assertEquals(1.0, meterRegistry.counter("outbox.relay.published").count());
+    }
+
+    @Test
+    void relayBatch_BrokerUnavailable_LeavesEventsPendingWithFailureRecorded() {
+        OutboxEvent first = event(1L);
+        OutboxEvent second = event(2L);
+        when(outboxEventRepository.lockPending(anyInt())).thenReturn(List.of(first, second));
+        transport.setAvailable(false);
+
+        relay.relayBatch();
+
+        verify(outboxEventRepository).recordFailure(eq(1L), contains("unavailable"), eq(10));
+        verify(outboxEventRepository).recordFailure(eq(2L), contains("unavailable"), eq(10));
+        verify(outboxEventRepository, never()).markPublished(any(), any());
+        assertEquals(2.0, meterRegistry.counter("outbox.relay.failed").count());
+        assertEquals(0.0, meterRegistry.counter("outbox.relay.abandoned").count());
+    }
+
+    @Test
+    void relayBatch_LastAttemptFails_CountsTheEventAsAbandoned() {
+        properties.getRelay().setMaxAttempts(3);
+        OutboxEvent exhausted = event(1L);
+        exhausted.setAttempts(2);
+        OutboxEvent retried = event(2L);
+        retried.setAttempts(1);
+        when(outboxEventRepository.lockPending(anyInt())).thenReturn(List.of(exhausted, retried));
+        transport.setAvailable(false);
+
+        relay.relayBatch();
+
+        // The repository moves the row to FAILED in the same update that counts its last attempt
+        verify(outboxEventRepository).recordFailure(eq(1L), anyString(), eq(3));
+        verify(outboxEventRepository).recordFailure(eq(2L), anyString(), eq(3));
+        assertEquals(1.0, meterRegistry.counter("outbox.relay.abandoned").count());
+    }
+
+    @Test
+    void relay_DrainsFullBatchesUntilTheOutboxIsShort_ThenUpdatesBacklogGauges() {
+        when(outboxEventRepository.lockPending(anyInt()))
+                .thenReturn(List.of(event(1L), event(2L)))
+                .thenReturn(List.of(event(3L)));
+        when(outboxEventRepository.countByStatus(OutboxEventStatus.PENDING)).thenReturn(7L);
+        when(outboxEventRepository.countByStatus(OutboxEventStatus.FAILED)).thenReturn(2L);
+        when(outboxEventRepository.findOldestCreatedAt(OutboxEventStatus.PENDING))
+                .thenReturn(Optional.of(LocalDateTime.now().minusSeconds(30)));
+
+        relay.relay();
+
+        verify(outboxEventRepository, times(2)).lockPending(anyInt());
+        ArgumentCaptor<Collection<Long>> published = captor();
+        verify(outboxEventRepository, times(2)).markPublished(published.capture(), any());
+        List<Long> ids = new ArrayList<>();
+        published.getAllValues().forEach(ids::addAll);
+        assertEquals(List.of(1L, 2L, 3L), ids);
+        assertEquals(3, transport.records(TOPIC).size());
+        assertEquals(7.0, meterRegistry.get("outbox.relay.pending").gauge().value());
+        assertEquals(2.0, meterRegistry.get("outbox.relay.failed.events").gauge().value());
+        assertTrue(meterRegistry.get("outbox.relay.lag").gauge().value() >= 30.0);
+    }
+
+    @Test
+    void relay_Disabled_DoesNotTouchTheOutbox() {
+        properties.getRelay().setEnabled(false);
+
+        relay.relay();
+
+        verifyNoInteractions(outboxEventRepository);
+    }
+
+    private OutboxEvent queue(String key, Object notification) {
+        producer.sendNotification(TOPIC, key, notification);
+        ArgumentCaptor<OutboxEvent> saved = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(saved.capture());
+        return saved.getValue();
+    }
+
+    private OutboxEvent event(Long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic(TOPIC)
+                .payload(("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Collection<Long>> captor() {
+        return ArgumentCaptor.forClass(Collection.class);
+    }
+}
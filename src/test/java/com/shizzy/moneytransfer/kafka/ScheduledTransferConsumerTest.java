@@ -0,0 +1,144 @@
+package com.shizzy.moneytransfer.kafka;
+
+import com.shizzy.moneytransfer.dto.CreateTransactionRequestBody;
+import com.shizzy.moneytransfer.dto.ScheduledTransferMessage;
+import com.shizzy.moneytransfer.dto.ScheduledTransferNotification;
+import com.shizzy.moneytransfer.enums.RecurrenceType;
+import com.shizzy.moneytransfer.enums.ScheduleStatus;
+import com.shizzy.moneytransfer.exception.InsufficientBalanceException;
+import com.shizzy.moneytransfer.model.ScheduledTransfer;
+import com.shizzy.moneytransfer.repository.ScheduledTransferRepository;
+import com.shizzy.moneytransfer.repository.UserRepository;
+import com.shizzy.moneytransfer.service.MoneyTransferService;
+import com.shizzy.moneytransfer.serviceimpl.ScheduledTransferServiceImpl;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduledTransferConsumerTest {
+
+    private static final long TRANSFER_ID = 42L;
+
+    @Mock
+    private ScheduledTransferRepository scheduledTransferRepository;
+
+    @Mock
+    private MoneyTransferService moneyTransferService;
+
+    @Mock
+    private OutboxNotificationProducer notificationProducer;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ScheduledTransferServiceImpl scheduledTransferServiceImpl;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ScheduledTransferConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new ScheduledTransferConsumer(scheduledTransferRepository, moneyTransferService,
+                notificationProducer, userRepository, scheduledTransferServiceImpl, transactionManager);
+        consumer.initTransactionTemplate();
+    }
+
+    @Test
+    void listen_TransferSucceeds_MarksExecutedInTheAttemptsTransaction() {
+        ScheduledTransfer transfer = pendingTransfer();
+        when(scheduledTransferRepository.findById(TRANSFER_ID)).thenReturn(Optional.of(transfer));
+
+        consumer.listen(record());
+
+        verify(moneyTransferService).transfer(any(CreateTransactionRequestBody.class));
+        assertEquals(ScheduleStatus.EXECUTED, transfer.getStatus());
+        assertTrue(transfer.getProcessed());
+        verify(notificationProducer).sendNotification(eq("scheduled-transfer-notifications"), eq("42"),
+                argThat((ScheduledTransferNotification n) -> "TRANSFER_EXECUTED".equals(n.getEventType())));
+        verify(transactionManager).commit(any());
+        verify(transactionManager, never()).rollback(any());
+    }
+
+    @Test
+    void listen_LedgerFindsTooLittleMoney_RollsBackAndRecordsTheFailureSeparately() {
+        ScheduledTransfer attempted = pendingTransfer();
+        ScheduledTransfer reloaded = pendingTransfer();
+        when(scheduledTransferRepository.findById(TRANSFER_ID))
+                .thenReturn(Optional.of(attempted), Optional.of(reloaded));
+        when(moneyTransferService.transfer(any(CreateTransactionRequestBody.class)))
+                .thenThrow(new InsufficientBalanceException("Insufficient balance"));
+
+        consumer.listen(record());
+
+        // The attempt never reaches EXECUTED, and its transaction rolls back rather than committing
+        assertEquals(ScheduleStatus.PROCESSING, attempted.getStatus());
+        verify(transactionManager).rollback(any());
+
+        assertEquals(ScheduleStatus.FAILED, reloaded.getStatus());
+        assertTrue(reloaded.getProcessed());
+        assertEquals("Insufficient funds: Insufficient balance", reloaded.getFailureReason());
+        verify(scheduledTransferRepository).save(reloaded);
+
+        ArgumentCaptor<ScheduledTransferNotification> notification =
+                ArgumentCaptor.forClass(ScheduledTransferNotification.class);
+        verify(notificationProducer).sendNotification(anyString(), anyString(), notification.capture());
+        assertEquals("TRANSFER_FAILED", notification.getValue().getEventType());
+    }
+
+    @Test
+    void listen_TransferSettledMeanwhile_LeavesItsOutcomeAlone() {
+        ScheduledTransfer settled = pendingTransfer();
+        settled.setStatus(ScheduleStatus.EXECUTED);
+        settled.setProcessed(true);
+        when(scheduledTransferRepository.findById(TRANSFER_ID))
+                .thenReturn(Optional.of(pendingTransfer()), Optional.of(settled));
+        when(moneyTransferService.transfer(any(CreateTransactionRequestBody.class)))
+                .thenThrow(new InsufficientBalanceException("Insufficient balance"));
+
+        consumer.listen(record());
+
+        assertEquals(ScheduleStatus.EXECUTED, settled.getStatus());
+        verify(scheduledTransferRepository, never()).save(settled);
+        verifyNoInteractions(notificationProducer);
+    }
+
+    private static ScheduledTransfer pendingTransfer() {
+        ScheduledTransfer transfer = new ScheduledTransfer();
+        transfer.setId(TRANSFER_ID);
+        transfer.setSenderEmail("sender@example.com");
+        transfer.setReceiverEmail("receiver@example.com");
+        transfer.setAmount(new BigDecimal("50.00"));
+        transfer.setDescription("Rent");
+        transfer.setScheduledDateTime(LocalDateTime.now());
+        transfer.setStatus(ScheduleStatus.PENDING);
+        transfer.setProcessed(false);
+        transfer.setRetryCount(0);
+        transfer.setRecurrenceType(RecurrenceType.NONE);
+        return transfer;
+    }
+
+    private static ConsumerRecord<String, ScheduledTransferMessage> record() {
+        ScheduledTransferMessage message = ScheduledTransferMessage.builder()
+                .transferId(TRANSFER_ID)
+                .messageType("PUBLISH")
+                .build();
+        return new ConsumerRecord<>("scheduled-transfers-execution", 0, 0L, String.valueOf(TRANSFER_ID), message);
+    }
+}
@@ -0,0 +1,167 @@
+package com.shizzy.moneytransfer.repository;
+
+import com.shizzy.AbstractTestContainers;
+import com.shizzy.moneytransfer.dto.TransactionPair;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.enums.TransactionStatus;
+import com.shizzy.moneytransfer.enums.TransactionType;
+import com.shizzy.moneytransfer.exception.InsufficientBalanceException;
+import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.model.Wallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@link LedgerBatchRepository} against Postgres: credits on both sides of the source land, batches paying
+ * each other in opposite directions take their row locks in the same order, and a batch that cannot complete
+ * leaves no trace.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({LedgerBatchRepository.class, WalletActivityStatsRepository.class})
+class LedgerBatchRepositoryIT extends AbstractTestContainers {
+
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+    private static final BigDecimal ITEM_AMOUNT = new BigDecimal("2.50");
+    private static final BigDecimal PAIR_TOTAL = new BigDecimal("5.00");
+
+    @Autowired
+    private LedgerBatchRepository ledgerBatchRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Wallet lowest;
+    private Wallet middle;
+    private Wallet highest;
+
+    @BeforeEach
+    void seedWallets() {
+        jdbcTemplate.update("DELETE FROM wallet_activity_stats");
+        jdbcTemplate.update("DELETE FROM transaction_reference");
+        jdbcTemplate.update("DELETE FROM transactions");
+        walletRepository.deleteAll();
+
+        lowest = walletRepository.save(wallet("LEDGER1"));
+        middle = walletRepository.save(wallet("LEDGER2"));
+        highest = walletRepository.save(wallet("LEDGER3"));
+    }
+
+    @Test
+    void applyBulkTransfer_CreditsWalletsOnBothSidesOfTheSource() {
+        List<TransactionPair> transactions = List.of(pair(middle, lowest, "LOW"), pair(middle, highest, "HIGH"));
+
+        ledgerBatchRepository.applyBulkTransfer(middle, PAIR_TOTAL, transactions);
+
+        assertBalance(OPENING_BALANCE.subtract(PAIR_TOTAL), middle);
+        assertBalance(OPENING_BALANCE.add(ITEM_AMOUNT), lowest);
+        assertBalance(OPENING_BALANCE.add(ITEM_AMOUNT), highest);
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_reference", Integer.class));
+    }
+
+    @Test
+    void applyBulkTransfer_OpposingBatchesDoNotDeadlock() throws Exception {
+        // Each batch locks the rows below its source, then the source, then the rows above it; run in opposite
+        // directions they only ever wait on a higher id than they hold
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int round = i;
+            batches.add(CompletableFuture.runAsync(() -> ledgerBatchRepository.applyBulkTransfer(lowest, PAIR_TOTAL,
+                    List.of(pair(lowest, middle, "UP" + round), pair(lowest, highest, "UP" + round)))));
+            batches.add(CompletableFuture.runAsync(() -> ledgerBatchRepository.applyBulkTransfer(highest, PAIR_TOTAL,
+                    List.of(pair(highest, middle, "DOWN" + round), pair(highest, lowest, "DOWN" + round)))));
+        }
+
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).get(1, TimeUnit.MINUTES);
+
+        BigDecimal total = walletRepository.findAll().stream()
+                .map(Wallet::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, OPENING_BALANCE.multiply(BigDecimal.valueOf(3)).compareTo(total));
+        assertBalance(OPENING_BALANCE.add(ITEM_AMOUNT.multiply(BigDecimal.valueOf(40))), middle);
+    }
+
+    @Test
+    void applyBulkTransfer_MissingCreditWallet_RollsBackTheBatch() {
+        Wallet deleted = walletRepository.save(wallet("LEDGERGONE"));
+        walletRepository.delete(deleted);
+        List<TransactionPair> transactions = List.of(pair(middle, lowest, "OK"), pair(middle, deleted, "GONE"));
+
+        assertThrows(ResourceNotFoundException.class, () ->
+                ledgerBatchRepository.applyBulkTransfer(middle, PAIR_TOTAL, transactions));
+
+        assertBalance(OPENING_BALANCE, middle);
+        assertBalance(OPENING_BALANCE, lowest);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Integer.class));
+    }
+
+    @Test
+    void applyBulkTransfer_InsufficientSourceBalance_RollsBackTheBatch() {
+        List<TransactionPair> transactions = List.of(pair(middle, lowest, "LOW"), pair(middle, highest, "HIGH"));
+
+        assertThrows(InsufficientBalanceException.class, () ->
+                ledgerBatchRepository.applyBulkTransfer(middle, OPENING_BALANCE.add(BigDecimal.ONE), transactions));
+
+        assertBalance(OPENING_BALANCE, middle);
+        assertBalance(OPENING_BALANCE, lowest);
+        assertBalance(OPENING_BALANCE, highest);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_activity_stats", Integer.class));
+    }
+
+    private void assertBalance(BigDecimal expected, Wallet wallet) {
+        assertEquals(0, expected.compareTo(walletRepository.findById(wallet.getId()).orElseThrow().getBalance()),
+                "balance of " + wallet.getWalletId());
+    }
+
+    private static TransactionPair pair(Wallet source, Wallet destination, String reference) {
+        return new TransactionPair(
+                transaction(source, TransactionType.DEBIT, reference),
+                transaction(destination, TransactionType.CREDIT, reference));
+    }
+
+    private static Transaction transaction(Wallet wallet, TransactionType type, String reference) {
+        return Transaction.builder()
+                .wallet(wallet)
+                .amount(ITEM_AMOUNT)
+                .transactionType(type)
+                .operation(TransactionOperation.TRANSFER)
+                .currentStatus(TransactionStatus.SUCCESS.getValue())
+                .referenceNumber(reference)
+                .description("Ledger batch test")
+                .transactionDate(LocalDateTime.now())
+                .build();
+    }
+
+    private static Wallet wallet(String walletId) {
+        return Wallet.builder()
+                .walletId(walletId)
+                .createdBy("ledger-batch-" + walletId)
+                .createdDate(LocalDateTime.now())
+                .balance(OPENING_BALANCE)
+                .currency("USD")
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.shizzy.moneytransfer.repository;
+
+import com.shizzy.moneytransfer.dto.TransactionPair;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.enums.TransactionType;
+import com.shizzy.moneytransfer.exception.InsufficientBalanceException;
+import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.model.Wallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerBatchRepositoryTest {
+
+    private static final BigDecimal ITEM_AMOUNT = new BigDecimal("2.50");
+    private static final BigDecimal PAIR_TOTAL = new BigDecimal("5.00");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private WalletActivityStatsRepository walletActivityStatsRepository;
+
+    private LedgerBatchRepository ledgerBatchRepository;
+
+    private final Wallet lowest = wallet(1L);
+    private final Wallet source = wallet(2L);
+    private final Wallet highest = wallet(3L);
+    private final List<Collection<?>> creditBatches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ledgerBatchRepository = new LedgerBatchRepository(jdbcTemplate, walletRepository, walletActivityStatsRepository);
+    }
+
+    @Test
+    void applyBulkTransfer_CreditMatchingNoWallet_Throws() {
+        givenCreditsUpdate(3L);
+        when(walletRepository.debitIfSufficient(source.getId(), PAIR_TOTAL)).thenReturn(1);
+
+        ResourceNotFoundException e = assertThrows(ResourceNotFoundException.class, () ->
+                ledgerBatchRepository.applyBulkTransfer(source, PAIR_TOTAL, List.of(pair(lowest), pair(highest))));
+
+        assertTrue(e.getMessage().contains("3"));
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Long.class), any(), any());
+        verifyNoInteractions(walletActivityStatsRepository);
+    }
+
+    @Test
+    void applyBulkTransfer_CreditsBelowTheSourceBeforeItsDebitAndTheRestAfter() {
+        givenCreditsUpdate();
+        when(walletRepository.debitIfSufficient(source.getId(), PAIR_TOTAL)).thenReturn(0);
+
+        assertThrows(InsufficientBalanceException.class, () ->
+                ledgerBatchRepository.applyBulkTransfer(source, PAIR_TOTAL, List.of(pair(highest), pair(lowest))));
+
+        // Only the wallet below the source was credited before the debit failed
+        assertEquals(1, creditBatches.size());
+        assertEquals(List.of(lowest.getId()), creditBatches.get(0).stream()
+                .map(entry -> ((Map.Entry<?, ?>) entry).getKey())
+                .toList());
+    }
+
+    /**
+     * Answers the credit batch with an update count of 1 per wallet, or 0 for the ones given as missing
+     */
+    @SuppressWarnings("unchecked")
+    private void givenCreditsUpdate(Long... missingWalletIds) {
+        List<Long> missing = List.of(missingWalletIds);
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE wallet"), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            Collection<Map.Entry<Long, BigDecimal>> entries = invocation.getArgument(1);
+            creditBatches.add(entries);
+            return new int[][]{entries.stream().mapToInt(entry -> missing.contains(entry.getKey()) ? 0 : 1).toArray()};
+        });
+    }
+
+    private TransactionPair pair(Wallet destination) {
+        return new TransactionPair(transaction(source, TransactionType.DEBIT), transaction(destination, TransactionType.CREDIT));
+    }
+
+    private static Transaction transaction(Wallet wallet, TransactionType type) {
+        return Transaction.builder()
+                .wallet(wallet)
+                .amount(ITEM_AMOUNT)
+                .transactionType(type)
+                .operation(TransactionOperation.TRANSFER)
+                .transactionDate(LocalDateTime.now())
+                .build();
+    }
+
+    private static Wallet wallet(Long id) {
+        return Wallet.builder()
+                .id(id)
+                .walletId("LEDGER" + id)
+                .balance(BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.shizzy.moneytransfer.repository;
+
+import com.shizzy.AbstractTestContainers;
+import com.shizzy.moneytransfer.enums.OutboxEventStatus;
+import com.shizzy.moneytransfer.model.OutboxEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the outbox status transitions against Postgres: an event that fails its last attempt moves to FAILED
+ * and is no longer claimed, while published and pending events are counted apart.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxEventRepositoryIT extends AbstractTestContainers {
+
+    private static final int MAX_ATTEMPTS = 2;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void recordFailure_MovesTheEventToFailedOnItsLastAttempt() {
+        OutboxEvent event = outboxEventRepository.save(event());
+
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.recordFailure(event.getId(), "broker unavailable", MAX_ATTEMPTS));
+        assertEquals(OutboxEventStatus.PENDING, reload(event).getStatus());
+
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.recordFailure(event.getId(), "broker unavailable", MAX_ATTEMPTS));
+        OutboxEvent failed = reload(event);
+        assertEquals(OutboxEventStatus.FAILED, failed.getStatus());
+        assertEquals(MAX_ATTEMPTS, failed.getAttempts());
+        assertEquals("broker unavailable", failed.getLastError());
+
+        List<OutboxEvent> claimed = transactionTemplate.execute(status -> outboxEventRepository.lockPending(10));
+        assertTrue(claimed.isEmpty());
+        assertEquals(1, outboxEventRepository.countByStatus(OutboxEventStatus.FAILED));
+        assertEquals(0, outboxEventRepository.countByStatus(OutboxEventStatus.PENDING));
+    }
+
+    @Test
+    void markPublished_TakesTheEventOutOfThePendingBacklog() {
+        OutboxEvent published = outboxEventRepository.save(event());
+        OutboxEvent pending = outboxEventRepository.save(event());
+
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.markPublished(List.of(published.getId()), LocalDateTime.now()));
+
+        assertEquals(OutboxEventStatus.PUBLISHED, reload(published).getStatus());
+        assertNotNull(reload(published).getPublishedAt());
+        List<OutboxEvent> claimed = transactionTemplate.execute(status -> outboxEventRepository.lockPending(10));
+        assertEquals(List.of(pending.getId()), claimed.stream().map(OutboxEvent::getId).toList());
+        assertTrue(outboxEventRepository.findOldestCreatedAt(OutboxEventStatus.PENDING).isPresent());
+    }
+
+    private OutboxEvent reload(OutboxEvent event) {
+        return outboxEventRepository.findById(event.getId()).orElseThrow();
+    }
+
+    private static OutboxEvent event() {
+        return OutboxEvent.builder()
+                .topic("scheduled-transfer-notifications")
+                .payload("{}".getBytes(StandardCharsets.UTF_8))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
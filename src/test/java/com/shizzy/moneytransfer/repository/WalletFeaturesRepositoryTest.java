@@ -0,0 +1,70 @@
+package com.shizzy.moneytransfer.repository;
+
+import com.shizzy.moneytransfer.dto.WalletFeatures;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletFeaturesRepositoryTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final LocalDateTime created = now.minusYears(1);
+
+    @Test
+    void features_CombinesOperationRowsIntoOneSnapshot() {
+        List<WalletFeaturesRepository.Row> rows = List.of(
+                row(TransactionOperation.DEPOSIT, 1, 4),
+                row(TransactionOperation.TRANSFER, 0, 2));
+
+        WalletFeatures features = WalletFeaturesRepository.features("wallet-1", now, rows);
+
+        assertEquals(created, features.walletCreatedDate());
+        assertEquals(now.minusMinutes(5), features.lastActivity());
+        assertEquals(15, features.transactionCount());
+        assertEquals(new BigDecimal("33.3333"), features.meanAmount());
+        assertEquals(4, features.last24Hours(TransactionOperation.DEPOSIT).count());
+        assertEquals(1, features.lastHour(TransactionOperation.DEPOSIT).count());
+        assertEquals(2, features.last24Hours(TransactionOperation.TRANSFER).count());
+        assertEquals(0, features.last24Hours(TransactionOperation.WITHDRAWAL).count());
+    }
+
+    @Test
+    void features_WalletWithoutStatistics_HasNoActivityOrMean() {
+        WalletFeatures features = WalletFeaturesRepository.features("wallet-1", now, List.of(
+                new WalletFeaturesRepository.Row(created, 0, null, null, null,
+                        WalletFeatures.OperationStats.NONE, WalletFeatures.OperationStats.NONE)));
+
+        assertNull(features.lastActivity());
+        assertNull(features.meanAmount());
+        assertEquals(0, features.transactionCount());
+        assertTrue(features.last24Hours().isEmpty());
+    }
+
+    @Test
+    void features_ProfileWithWindowsFromElsewhere_KeepsStatistics() {
+        WalletFeatures profile = WalletFeaturesRepository.features("wallet-1", now, List.of(
+                new WalletFeaturesRepository.Row(created, 15, new BigDecimal("33.33333333"), now.minusMinutes(5), null,
+                        WalletFeatures.OperationStats.NONE, WalletFeatures.OperationStats.NONE)));
+        WalletFeatures.OperationStats transfers = new WalletFeatures.OperationStats(3, new BigDecimal("30"), BigDecimal.TEN);
+
+        WalletFeatures features = profile.withWindows(Map.of(), Map.of(TransactionOperation.TRANSFER, transfers));
+
+        assertEquals(new BigDecimal("33.3333"), features.meanAmount());
+        assertEquals(now.minusMinutes(5), features.lastActivity());
+        assertEquals(transfers, features.last24Hours(TransactionOperation.TRANSFER));
+        assertEquals(0, features.lastHour(TransactionOperation.TRANSFER).count());
+    }
+
+    private WalletFeaturesRepository.Row row(TransactionOperation operation, long hourCount, long dayCount) {
+        return new WalletFeaturesRepository.Row(created, 15, new BigDecimal("33.33333333"), now.minusMinutes(5),
+                operation,
+                new WalletFeatures.OperationStats(hourCount, BigDecimal.ZERO, null),
+                new WalletFeatures.OperationStats(dayCount, BigDecimal.ZERO, null));
+    }
+}
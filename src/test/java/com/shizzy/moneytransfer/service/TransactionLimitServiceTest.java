@@ -0,0 +1,128 @@
+package com.shizzy.moneytransfer.service;
+
+import com.shizzy.moneytransfer.dto.AccountLimitDTO;
+import com.shizzy.moneytransfer.dto.DailySpendReservation;
+import com.shizzy.moneytransfer.dto.SpendReservation;
+import com.shizzy.moneytransfer.dto.VelocityPermit;
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.exception.TransactionLimitExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionLimitServiceTest {
+
+    private static final String USER_ID = "user-1";
+    private static final BigDecimal AMOUNT = new BigDecimal("50.00");
+    private static final BigDecimal DAILY_LIMIT = new BigDecimal("1000.00");
+
+    @Mock
+    private AccountLimitService accountLimitService;
+
+    @Mock
+    private DailySpendService dailySpendService;
+
+    @Mock
+    private LimitEvaluator limitEvaluator;
+
+    @Mock
+    private VelocityLimitService velocityLimitService;
+
+    @InjectMocks
+    private TransactionLimitService transactionLimitService;
+
+    private final VelocityPermit permit = new VelocityPermit(USER_ID, AMOUNT, 0L, List.of());
+
+    @BeforeEach
+    void setUp() {
+        when(accountLimitService.getUserLimits(USER_ID)).thenReturn(AccountLimitDTO.builder()
+                .verificationLevel(VerificationLevel.EMAIL_VERIFIED)
+                .dailyTransactionLimit(DAILY_LIMIT)
+                .build());
+        when(velocityLimitService.acquire(USER_ID, VerificationLevel.EMAIL_VERIFIED, AMOUNT)).thenReturn(permit);
+    }
+
+    @Test
+    void reserveSpend_HoldsBothLimits() {
+        DailySpendReservation daily = new DailySpendReservation("r-1", USER_ID, LocalDate.now(), AMOUNT, false);
+        when(dailySpendService.reserve(USER_ID, AMOUNT, DAILY_LIMIT)).thenReturn(Optional.of(daily));
+
+        SpendReservation reservation = transactionLimitService.reserveSpend(USER_ID, AMOUNT);
+
+        assertEquals(daily, reservation.daily());
+        assertEquals(permit, reservation.velocity());
+        verify(velocityLimitService, never()).release(any());
+    }
+
+    @Test
+    void releaseSpendAfterRollback_LeavesTheRolledBackDatabaseHoldAlone() {
+        DailySpendReservation daily = new DailySpendReservation("r-1", USER_ID, LocalDate.now(), AMOUNT, true);
+        when(dailySpendService.reserve(USER_ID, AMOUNT, DAILY_LIMIT)).thenReturn(Optional.of(daily));
+        SpendReservation reservation = transactionLimitService.reserveSpend(USER_ID, AMOUNT);
+
+        transactionLimitService.releaseSpendAfterRollback(reservation);
+
+        verify(dailySpendService, never()).release(any());
+        verify(velocityLimitService).release(permit);
+    }
+
+    @Test
+    void releaseSpendAfterRollback_ReleasesTheRedisHolds() {
+        DailySpendReservation daily = new DailySpendReservation("r-1", USER_ID, LocalDate.now(), AMOUNT, false);
+        when(dailySpendService.reserve(USER_ID, AMOUNT, DAILY_LIMIT)).thenReturn(Optional.of(daily));
+        SpendReservation reservation = transactionLimitService.reserveSpend(USER_ID, AMOUNT);
+
+        transactionLimitService.releaseSpendAfterRollback(reservation);
+
+        verify(dailySpendService).release(daily);
+        verify(velocityLimitService).release(permit);
+    }
+
+    @Test
+    void reserveSpend_OverDailyLimit_ReleasesVelocityPermit() {
+        when(dailySpendService.reserve(USER_ID, AMOUNT, DAILY_LIMIT)).thenReturn(Optional.empty());
+
+        assertThrows(TransactionLimitExceededException.class, () -> transactionLimitService.reserveSpend(USER_ID, AMOUNT));
+
+        verify(velocityLimitService).release(permit);
+    }
+
+    @Test
+    void reserveSpend_DailyReserveThrows_ReleasesVelocityPermitAndRethrows() {
+        RedisConnectionFailureException failure = new RedisConnectionFailureException("connection refused");
+        when(dailySpendService.reserve(USER_ID, AMOUNT, DAILY_LIMIT)).thenThrow(failure);
+
+        assertSame(failure, assertThrows(RedisConnectionFailureException.class,
+                () -> transactionLimitService.reserveSpend(USER_ID, AMOUNT)));
+
+        verify(velocityLimitService).release(permit);
+    }
+
+    @Test
+    void reserveSpend_ReleaseAlsoFails_KeepsTheOriginalFailure() {
+        RedisConnectionFailureException failure = new RedisConnectionFailureException("connection refused");
+        IllegalStateException releaseFailure = new IllegalStateException("velocity store unavailable");
+        when(dailySpendService.reserve(USER_ID, AMOUNT, DAILY_LIMIT)).thenThrow(failure);
+        doThrow(releaseFailure).when(velocityLimitService).release(permit);
+
+        RedisConnectionFailureException thrown = assertThrows(RedisConnectionFailureException.class,
+                () -> transactionLimitService.reserveSpend(USER_ID, AMOUNT));
+
+        assertSame(failure, thrown);
+        assertArrayEquals(new Throwable[] {releaseFailure}, thrown.getSuppressed());
+    }
+}
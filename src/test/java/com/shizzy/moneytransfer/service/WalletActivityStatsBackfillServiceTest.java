@@ -0,0 +1,65 @@
+package com.shizzy.moneytransfer.service;
+
+import com.shizzy.moneytransfer.config.WalletActivityStatsProperties;
+import com.shizzy.moneytransfer.repository.WalletActivityStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletActivityStatsBackfillServiceTest {
+
+    @Mock
+    private WalletActivityStatsRepository walletActivityStatsRepository;
+
+    private WalletActivityStatsProperties properties;
+    private WalletActivityStatsBackfillService backfillService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WalletActivityStatsProperties();
+        properties.setBackfillBatchSize(2);
+        backfillService = new WalletActivityStatsBackfillService(walletActivityStatsRepository, properties);
+    }
+
+    @Test
+    void backfill_WalksWalletsInBatchesUntilNoneAreLeft() {
+        when(walletActivityStatsRepository.backfillBatch(0, 2)).thenReturn(Optional.of(4L));
+        when(walletActivityStatsRepository.backfillBatch(4, 2)).thenReturn(Optional.of(9L));
+        when(walletActivityStatsRepository.backfillBatch(9, 2)).thenReturn(Optional.empty());
+
+        assertEquals(2, backfillService.backfill());
+
+        InOrder inOrder = inOrder(walletActivityStatsRepository);
+        inOrder.verify(walletActivityStatsRepository).backfillBatch(0, 2);
+        inOrder.verify(walletActivityStatsRepository).backfillBatch(4, 2);
+        inOrder.verify(walletActivityStatsRepository).backfillBatch(9, 2);
+    }
+
+    @Test
+    void backfillOnStartup_Disabled_DoesNothing() {
+        backfillService.backfillOnStartup();
+
+        verify(walletActivityStatsRepository, never()).backfillBatch(anyLong(), anyInt());
+    }
+
+    @Test
+    void backfillOnStartup_Enabled_Backfills() {
+        properties.setBackfillOnStartup(true);
+        when(walletActivityStatsRepository.backfillBatch(0, 2)).thenReturn(Optional.empty());
+
+        backfillService.backfillOnStartup();
+
+        verify(walletActivityStatsRepository).backfillBatch(0, 2);
+    }
+}
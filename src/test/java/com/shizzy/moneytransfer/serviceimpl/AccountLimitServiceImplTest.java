@@ -4,15 +4,17 @@ import com.shizzy.moneytransfer.api.ApiResponse;
 import com.shizzy.moneytransfer.dto.AccountLimitDTO;
 import com.shizzy.moneytransfer.enums.VerificationLevel;
 import com.shizzy.moneytransfer.enums.VerificationStatus;
+import com.shizzy.moneytransfer.events.AccountLimitsChangedEvent;
 import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
 import com.shizzy.moneytransfer.model.AccountLimit;
-import com.shizzy.moneytransfer.model.DailyTransactionTotal;
 import com.shizzy.moneytransfer.model.KycVerification;
 import com.shizzy.moneytransfer.model.UserAccountLimit;
 import com.shizzy.moneytransfer.repository.AccountLimitRepository;
-import com.shizzy.moneytransfer.repository.DailyTransactionTotalRepository;
 import com.shizzy.moneytransfer.repository.KycVerificationRepository;
 import com.shizzy.moneytransfer.repository.UserAccountLimitRepository;
+import com.shizzy.moneytransfer.service.AccountLimitTierCache;
+import com.shizzy.moneytransfer.service.DailySpendService;
+import com.shizzy.moneytransfer.service.VerificationLevelCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,12 +23,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.Optional;
+import java.util.function.Function;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -38,7 +42,7 @@ class AccountLimitServiceImplTest {
     private AccountLimitRepository accountLimitRepository;
 
     @Mock
-    private DailyTransactionTotalRepository dailyTransactionTotalRepository;
+    private DailySpendService dailySpendService;
 
     @Mock
     private KycVerificationRepository kycVerificationRepository;
@@ -46,6 +50,15 @@ class AccountLimitServiceImplTest {
     @Mock
     private UserAccountLimitRepository userAccountLimitRepository;
 
+    @Mock
+    private AccountLimitTierCache limitTiers;
+
+    @Mock
+    private VerificationLevelCache verificationLevelCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AccountLimitServiceImpl accountLimitService;
 
@@ -56,7 +69,12 @@ class AccountLimitServiceImplTest {
     private AccountLimit unverifiedLimits;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
+        // The cache always misses so level lookups reach the repositories
+        when(verificationLevelCache.get(anyString(), any())).thenAnswer(invocation ->
+                ((Function<String, VerificationLevel>) invocation.getArgument(1)).apply(invocation.getArgument(0)));
+
         // Setup test data for account limits
         fullyVerifiedLimits = mock(AccountLimit.class);
         when(fullyVerifiedLimits.getVerificationLevel()).thenReturn(VerificationLevel.FULLY_VERIFIED);
@@ -105,6 +123,16 @@ class AccountLimitServiceImplTest {
         verifyNoInteractions(kycVerificationRepository);
     }
 
+    @Test
+    void getUserVerificationLevel_CachedLevel_SkipsRepositories() {
+        when(verificationLevelCache.get(eq(userId), any())).thenReturn(VerificationLevel.FULLY_VERIFIED);
+
+        VerificationLevel level = accountLimitService.getUserVerificationLevel(userId);
+
+        assertEquals(VerificationLevel.FULLY_VERIFIED, level);
+        verifyNoInteractions(userAccountLimitRepository, kycVerificationRepository);
+    }
+
     @Test
     void getUserVerificationLevel_WithFullVerification_ReturnsFullyVerified() {
         when(userAccountLimitRepository.findByUserId(userId)).thenReturn(Optional.empty());
@@ -147,8 +175,8 @@ class AccountLimitServiceImplTest {
 
     @Test
     void getLimitsForLevel_WithValidLevel_ReturnsCorrectLimits() {
-        when(accountLimitRepository.findByVerificationLevel(VerificationLevel.ID_VERIFIED))
-                .thenReturn(Optional.of(idVerifiedLimits));
+        when(limitTiers.get(VerificationLevel.ID_VERIFIED))
+                .thenReturn(idVerifiedLimits);
 
         AccountLimitDTO result = accountLimitService.getLimitsForLevel(VerificationLevel.ID_VERIFIED);
 
@@ -159,8 +187,8 @@ class AccountLimitServiceImplTest {
 
     @Test
     void getLimitsForLevel_WithInvalidLevel_ThrowsResourceNotFoundException() {
-        when(accountLimitRepository.findByVerificationLevel(VerificationLevel.ID_VERIFIED))
-                .thenReturn(Optional.empty());
+        when(limitTiers.get(VerificationLevel.ID_VERIFIED))
+                .thenThrow(new ResourceNotFoundException("Account limits not found for level: ID_VERIFIED"));
 
         assertThrows(ResourceNotFoundException.class,
                 () -> accountLimitService.getLimitsForLevel(VerificationLevel.ID_VERIFIED));
@@ -176,13 +204,13 @@ class AccountLimitServiceImplTest {
         kyc.setAddressVerificationStatus(VerificationStatus.APPROVED);
         when(kycVerificationRepository.findByUserId(userId)).thenReturn(Optional.of(kyc));
 
-        when(accountLimitRepository.findByVerificationLevel(VerificationLevel.FULLY_VERIFIED))
-                .thenReturn(Optional.of(fullyVerifiedLimits));
+        when(limitTiers.get(VerificationLevel.FULLY_VERIFIED))
+                .thenReturn(fullyVerifiedLimits);
 
         boolean result = accountLimitService.wouldExceedDailyLimit(userId, BigDecimal.valueOf(10000));
 
         assertFalse(result);
-        verifyNoInteractions(dailyTransactionTotalRepository);
+        verifyNoInteractions(dailySpendService);
     }
 
     @Test
@@ -195,15 +223,10 @@ class AccountLimitServiceImplTest {
         kyc.setAddressVerificationStatus(VerificationStatus.PENDING);
         when(kycVerificationRepository.findByUserId(userId)).thenReturn(Optional.of(kyc));
 
-        when(accountLimitRepository.findByVerificationLevel(VerificationLevel.ID_VERIFIED))
-                .thenReturn(Optional.of(idVerifiedLimits));
+        when(limitTiers.get(VerificationLevel.ID_VERIFIED))
+                .thenReturn(idVerifiedLimits);
 
-        DailyTransactionTotal dailyTotal = new DailyTransactionTotal();
-        dailyTotal.setUserId(userId);
-        dailyTotal.setDate(LocalDate.now());
-        dailyTotal.setTotalAmount(BigDecimal.valueOf(3000));
-        when(dailyTransactionTotalRepository.findByUserIdAndDate(eq(userId), any(LocalDate.class)))
-                .thenReturn(Optional.of(dailyTotal));
+        when(dailySpendService.spentToday(userId)).thenReturn(BigDecimal.valueOf(3000));
 
         // This will now work because idVerifiedLimits is a mock
         when(idVerifiedLimits.isTransactionExceedingLimit(any(BigDecimal.class))).thenReturn(true);
@@ -211,22 +234,14 @@ class AccountLimitServiceImplTest {
         boolean result = accountLimitService.wouldExceedDailyLimit(userId, BigDecimal.valueOf(3000));
 
         assertTrue(result);
+        verify(idVerifiedLimits).isTransactionExceedingLimit(BigDecimal.valueOf(6000));
     }
 
     @Test
-    void recordTransaction_WithExistingDailyTotal_UpdatesTotal() {
-        LocalDate today = LocalDate.now();
-        DailyTransactionTotal existingTotal = new DailyTransactionTotal();
-        existingTotal.setUserId(userId);
-        existingTotal.setDate(today);
-        existingTotal.setTotalAmount(BigDecimal.valueOf(500));
-
-        when(dailyTransactionTotalRepository.findByUserIdAndDate(eq(userId), any(LocalDate.class)))
-                .thenReturn(Optional.of(existingTotal));
-
+    void recordTransaction_AddsToDailySpend() {
         accountLimitService.recordTransaction(userId, BigDecimal.valueOf(100));
 
-        verify(dailyTransactionTotalRepository).save(any(DailyTransactionTotal.class));
+        verify(dailySpendService).record(userId, BigDecimal.valueOf(100));
     }
 
     @Test
@@ -250,6 +265,19 @@ class AccountLimitServiceImplTest {
 
         assertTrue(response.isSuccess());
         assertEquals("Account limits updated successfully.", response.getMessage());
+        verify(eventPublisher).publishEvent(any(AccountLimitsChangedEvent.class));
+    }
+
+    @Test
+    void wouldExceedTransferLimit_ReadsTierFromSnapshot() {
+        when(userAccountLimitRepository.findByUserId(userId)).thenReturn(Optional.empty());
+        when(kycVerificationRepository.findByUserId(userId)).thenReturn(Optional.empty());
+        when(limitTiers.get(VerificationLevel.EMAIL_VERIFIED)).thenReturn(emailVerifiedLimits);
+
+        assertTrue(accountLimitService.wouldExceedTransferLimit(userId, BigDecimal.valueOf(501)));
+        assertFalse(accountLimitService.wouldExceedTransferLimit(userId, BigDecimal.valueOf(500)));
+
+        verifyNoInteractions(accountLimitRepository);
     }
 
     @Test
@@ -4,6 +4,7 @@ import com.shizzy.moneytransfer.dto.ConversationState;
 import com.shizzy.moneytransfer.dto.TransactionIntent;
 import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
 import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.WalletActivityStatsRepository;
 import com.shizzy.moneytransfer.service.AiIntentDetectionService;
 import com.shizzy.moneytransfer.service.ConversationManagerService;
 import com.shizzy.moneytransfer.service.WalletService;
@@ -42,6 +43,9 @@ class AiFinancialServiceImplTest {
     @Mock
     private WalletService walletService;
 
+    @Mock
+    private WalletActivityStatsRepository walletActivityStatsRepository;
+
     @Spy
     private Random random = new Random(123); // Seeded for deterministic tests
 
@@ -137,6 +141,7 @@ class AiFinancialServiceImplTest {
                 .thenReturn(Mono.just(TransactionIntent.CHECK_BALANCE));
 
         when(walletService.findWalletOrThrow(USER_ID)).thenReturn(Wallet.builder()
+                .id(1L)
                 .balance(new BigDecimal("1532.50"))
                 .currency("USD")
                 .build());
@@ -0,0 +1,136 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.enums.IdentifierSequence;
+import com.shizzy.moneytransfer.repository.IdentifierBlockRepository;
+import com.shizzy.moneytransfer.util.IdentifierPermutations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BlockIdentifierAllocationServiceTest {
+
+    @Mock
+    private IdentifierBlockRepository identifierBlockRepository;
+
+    private BlockIdentifierAllocationService allocationService;
+    private final AtomicLong sequence = new AtomicLong(20_000_000);
+
+    @BeforeEach
+    void setUp() {
+        allocationService = new BlockIdentifierAllocationService(identifierBlockRepository,
+                new IdentifierPermutations("test-key"));
+    }
+
+    @Test
+    void nextValue_LeasesOneBlockPerBlockSize() {
+        stubSequence();
+        int blockSize = IdentifierSequence.WALLET_ID.getBlockSize();
+
+        for (int i = 0; i < blockSize; i++) {
+            assertEquals(20_000_000 + i, allocationService.nextValue(IdentifierSequence.WALLET_ID));
+        }
+        verify(identifierBlockRepository, times(1)).leaseBlock("wallet_number_seq");
+
+        assertEquals(20_000_000 + blockSize, allocationService.nextValue(IdentifierSequence.WALLET_ID));
+        verify(identifierBlockRepository, times(2)).leaseBlock("wallet_number_seq");
+    }
+
+    @Test
+    void nextValue_KeepsSequencesSeparate() {
+        when(identifierBlockRepository.leaseBlock("wallet_number_seq")).thenReturn(20_000_000L);
+        when(identifierBlockRepository.leaseBlock("visa_card_number_seq")).thenReturn(0L);
+
+        assertEquals(20_000_000L, allocationService.nextValue(IdentifierSequence.WALLET_ID));
+        assertEquals(0L, allocationService.nextValue(IdentifierSequence.VISA_CARD_NUMBER));
+        assertEquals(20_000_001L, allocationService.nextValue(IdentifierSequence.WALLET_ID));
+    }
+
+    @Test
+    void nextValue_IsUniqueAcrossThreads() throws Exception {
+        stubSequence();
+
+        List<CompletableFuture<List<Long>>> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            workers.add(CompletableFuture.supplyAsync(() -> {
+                List<Long> values = new ArrayList<>();
+                for (int i = 0; i < 10_000; i++) {
+                    values.add(allocationService.nextValue(IdentifierSequence.WALLET_ID));
+                }
+                return values;
+            }));
+        }
+
+        Set<Long> seen = new HashSet<>();
+        for (CompletableFuture<List<Long>> worker : workers) {
+            for (Long value : worker.get(30, TimeUnit.SECONDS)) {
+                assertTrue(seen.add(value), "duplicate identifier " + value);
+            }
+        }
+        assertEquals(80_000, seen.size());
+    }
+
+    @Test
+    void nextIdentifier_IsUniqueInsideTheDomainAndNotSequential() {
+        stubSequence();
+        IdentifierSequence walletId = IdentifierSequence.WALLET_ID;
+
+        Set<Long> seen = new HashSet<>();
+        int consecutive = 0;
+        long previous = -1;
+        for (int i = 0; i < 5_000; i++) {
+            long identifier = allocationService.nextIdentifier(walletId);
+            assertTrue(identifier >= walletId.getDomainStart()
+                    && identifier < walletId.getDomainStart() + walletId.getDomainSize(), "outside domain: " + identifier);
+            assertTrue(seen.add(identifier), "duplicate identifier " + identifier);
+            if (identifier == previous + 1) {
+                consecutive++;
+            }
+            previous = identifier;
+        }
+        assertTrue(consecutive < 5, consecutive + " identifiers followed their predecessor");
+    }
+
+    @Test
+    void nextIdentifier_DependsOnTheKey() {
+        when(identifierBlockRepository.leaseBlock(anyString())).thenReturn(20_000_000L);
+        BlockIdentifierAllocationService otherKey = new BlockIdentifierAllocationService(identifierBlockRepository,
+                new IdentifierPermutations("other-key"));
+
+        List<Long> identifiers = new ArrayList<>();
+        List<Long> otherIdentifiers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            identifiers.add(allocationService.nextIdentifier(IdentifierSequence.WALLET_ID));
+            otherIdentifiers.add(otherKey.nextIdentifier(IdentifierSequence.WALLET_ID));
+        }
+        assertNotEquals(identifiers, otherIdentifiers);
+    }
+
+    @Test
+    void nextIdentifier_ThrowsWhenRangeExhausted() {
+        when(identifierBlockRepository.leaseBlock("visa_card_number_seq")).thenReturn(100_000_000_000_000L);
+
+        assertThrows(IllegalStateException.class,
+                () -> allocationService.nextIdentifier(IdentifierSequence.VISA_CARD_NUMBER));
+    }
+
+    private void stubSequence() {
+        // Mimics a sequence with INCREMENT BY block size
+        when(identifierBlockRepository.leaseBlock(anyString()))
+                .thenAnswer(invocation -> sequence.getAndAdd(IdentifierSequence.WALLET_ID.getBlockSize()));
+    }
+}
@@ -1,18 +1,24 @@
 package com.shizzy.moneytransfer.serviceimpl;
 
-
+import com.shizzy.moneytransfer.cache.TwoTierCacheManager;
+import com.shizzy.moneytransfer.config.CacheAdminProperties;
+import com.shizzy.moneytransfer.dto.CacheKeyPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 
@@ -27,13 +33,26 @@ class CacheServiceImplTest {
     
     @Mock
     private ValueOperations<String, Object> valueOperations;
-    
+
+    @Mock
+    private TwoTierCacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private CacheAdminProperties properties;
     private CacheServiceImpl cacheService;
     
     @BeforeEach
     void setUp() {
         lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        cacheService = new CacheServiceImpl(redisTemplate);
+        lenient().when(cacheManager.redisKey(anyString(), anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(0) + "::" + invocation.getArgument(1));
+        properties = new CacheAdminProperties();
+        cacheService = new CacheServiceImpl(redisTemplate, stringRedisTemplate, cacheManager, properties);
     }
     
     @Test
@@ -77,14 +96,14 @@ class CacheServiceImplTest {
         String key = "testKey";
         String fullKey = cacheName + "::" + key;
         
-        when(redisTemplate.delete(fullKey)).thenReturn(true);
+        when(redisTemplate.unlink(fullKey)).thenReturn(true);
         
         // Act
         boolean result = cacheService.evict(cacheName, key);
         
         // Assert
         assertTrue(result);
-        verify(redisTemplate).delete(fullKey);
+        verify(redisTemplate).unlink(fullKey);
     }
     
     @Test
@@ -94,117 +113,152 @@ class CacheServiceImplTest {
         String key = "testKey";
         String fullKey = cacheName + "::" + key;
         
-        when(redisTemplate.delete(fullKey)).thenReturn(false);
+        when(redisTemplate.unlink(fullKey)).thenReturn(false);
         
         // Act
         boolean result = cacheService.evict(cacheName, key);
         
         // Assert
         assertFalse(result);
-        verify(redisTemplate).delete(fullKey);
+        verify(redisTemplate).unlink(fullKey);
     }
     
     @Test
-    void clear_ShouldRemoveAllKeysForCache() {
+    void get_AfterTheCacheWasCleared_ReadsTheCurrentGeneration() {
         // Arrange
-        String cacheName = "testCache";
-        Set<String> keys = new HashSet<>();
-        keys.add(cacheName + "::key1");
-        keys.add(cacheName + "::key2");
-        
-        when(redisTemplate.keys(cacheName + "::*")).thenReturn(keys);
-        
+        when(cacheManager.redisKey("testCache", "testKey")).thenReturn("testCache::g3:testKey");
+        when(valueOperations.get("testCache::g3:testKey")).thenReturn("testValue");
+
         // Act
-        cacheService.clear(cacheName);
-        
+        Object result = cacheService.get("testCache", "testKey");
+
         // Assert
-        verify(redisTemplate).keys(cacheName + "::*");
-        verify(redisTemplate).delete(keys);
+        assertEquals("testValue", result);
     }
-    
+
     @Test
-    void clear_ShouldDoNothing_WhenNoKeysExist() {
+    void clear_ShouldUnlinkTheRetiredGenerationsInBatches() {
         // Arrange
         String cacheName = "testCache";
-        
-        when(redisTemplate.keys(cacheName + "::*")).thenReturn(null);
-        
+        when(cacheManager.getCache(cacheName)).thenReturn(cache);
+        when(cacheManager.redisKey(cacheName, "")).thenReturn("testCache::g2:");
+        when(stringRedisTemplate.execute(eq(CacheServiceImpl.SCAN_SCRIPT), eq(List.of()), eq("0"), eq("testCache::*"),
+                eq("500"))).thenReturn(page("17", 3, "testCache::key1", "testCache::g2:key2"));
+        when(stringRedisTemplate.execute(eq(CacheServiceImpl.SCAN_SCRIPT), eq(List.of()), eq("17"), eq("testCache::*"),
+                eq("500"))).thenReturn(page("0", 3, "testCache::g1:key3"));
+
         // Act
         cacheService.clear(cacheName);
-        
+
         // Assert
-        verify(redisTemplate).keys(cacheName + "::*");
-        verify(redisTemplate, never()).delete(anySet());
+        InOrder inOrder = inOrder(cache, stringRedisTemplate);
+        inOrder.verify(cache).clear();
+        inOrder.verify(stringRedisTemplate).unlink(List.of("testCache::key1"));
+        inOrder.verify(stringRedisTemplate).unlink(List.of("testCache::g1:key3"));
+        verify(redisTemplate, never()).keys(anyString());
     }
-    
+
     @Test
-    void getKeys_ShouldReturnKeysForCache() {
+    void getKeys_ShouldReturnOnePageAndTheNextCursor() {
         // Arrange
-        String cacheName = "testCache";
-        Set<String> expectedKeys = new HashSet<>();
-        expectedKeys.add(cacheName + "::key1");
-        expectedKeys.add(cacheName + "::key2");
-        
-        when(redisTemplate.keys(cacheName + "::*")).thenReturn(expectedKeys);
-        
+        when(stringRedisTemplate.execute(eq(CacheServiceImpl.SCAN_SCRIPT), eq(List.of()), eq("0"), eq("testCache::*"),
+                eq("2"))).thenReturn(page("5", 10, "testCache::key1"));
+        when(stringRedisTemplate.execute(eq(CacheServiceImpl.SCAN_SCRIPT), eq(List.of()), eq("5"), eq("testCache::*"),
+                eq("1"))).thenReturn(page("9", 10, "testCache::key2"));
+
         // Act
-        Set<String> result = cacheService.getKeys(cacheName);
-        
+        CacheKeyPage result = cacheService.getKeys("testCache", "0", 2);
+
         // Assert
-        assertEquals(expectedKeys, result);
-        verify(redisTemplate).keys(cacheName + "::*");
+        assertEquals(List.of("testCache::key1", "testCache::key2"), result.keys());
+        assertEquals("9", result.cursor());
+        assertFalse(result.complete());
+        verify(redisTemplate, never()).keys(anyString());
     }
-    
+
     @Test
-    void getCacheStats_ShouldReturnStats_WhenCachesExist() {
+    void getKeys_ShouldResumeFromTheCursorAndReportTheEnd() {
         // Arrange
-        Set<String> allKeys = new HashSet<>();
-        allKeys.add("cache1::key1");
-        allKeys.add("cache1::key2");
-        allKeys.add("cache2::key1");
-        
-        Set<String> cache1Keys = new HashSet<>();
-        cache1Keys.add("cache1::key1");
-        cache1Keys.add("cache1::key2");
-        
-        Set<String> cache2Keys = new HashSet<>();
-        cache2Keys.add("cache2::key1");
-        
-        when(redisTemplate.keys("*::*")).thenReturn(allKeys);
-        when(redisTemplate.keys("cache1::*")).thenReturn(cache1Keys);
-        when(redisTemplate.keys("cache2::*")).thenReturn(cache2Keys);
-        
+        when(stringRedisTemplate.execute(eq(CacheServiceImpl.SCAN_SCRIPT), eq(List.of()), eq("9"), eq("testCache::*"),
+                eq("100"))).thenReturn(page("0", 10, "testCache::key3"));
+
+        // Act
+        CacheKeyPage result = cacheService.getKeys("testCache", "9", 100);
+
+        // Assert
+        assertEquals(List.of("testCache::key3"), result.keys());
+        assertEquals("0", result.cursor());
+        assertTrue(result.complete());
+    }
+
+    @Test
+    void getKeys_SparseCache_StopsAfterTheScanBudget() {
+        // Arrange
+        properties.setMaxScanCallsPerPage(3);
+        when(stringRedisTemplate.execute(eq(CacheServiceImpl.SCAN_SCRIPT), eq(List.of()), anyString(),
+                eq("testCache::*"), eq("100"))).thenReturn(page("4", 1000000));
+
+        // Act
+        CacheKeyPage result = cacheService.getKeys("testCache", "0", 100);
+
+        // Assert
+        assertTrue(result.keys().isEmpty());
+        assertEquals("4", result.cursor());
+        verify(stringRedisTemplate, times(3)).execute(eq(CacheServiceImpl.SCAN_SCRIPT), eq(List.of()), anyString(),
+                eq("testCache::*"), eq("100"));
+    }
+
+    @Test
+    void getCacheStats_ShouldEstimateSizesFromASample() {
+        // Arrange
+        properties.setStatsSample(4);
+        when(stringRedisTemplate.execute(eq(CacheServiceImpl.SCAN_SCRIPT), eq(List.of()), eq("0"), eq("*"),
+                eq("500"))).thenReturn(page("12", 1000, "cache1::key1", "cache1::key2", "cache2::key1", "otp:123"));
+
         // Act
         Map<String, Map<String, Object>> result = cacheService.getCacheStats();
-        
+
         // Assert
         assertEquals(2, result.size());
-        assertTrue(result.containsKey("cache1"));
-        assertTrue(result.containsKey("cache2"));
-        
-        Map<String, Object> cache1Stats = result.get("cache1");
-        assertEquals(2, cache1Stats.get("size"));
-        assertEquals(cache1Keys, cache1Stats.get("keys"));
-        
-        Map<String, Object> cache2Stats = result.get("cache2");
-        assertEquals(1, cache2Stats.get("size"));
-        assertEquals(cache2Keys, cache2Stats.get("keys"));
-        
-        verify(redisTemplate).keys("*::*");
-        verify(redisTemplate).keys("cache1::*");
-        verify(redisTemplate).keys("cache2::*");
+        assertEquals(500L, result.get("cache1").get("size"));
+        assertEquals(2L, result.get("cache1").get("sampledKeys"));
+        assertEquals(250L, result.get("cache2").get("size"));
+        assertEquals(4L, result.get("cache2").get("sampleSize"));
+        verify(redisTemplate, never()).keys(anyString());
     }
-    
+
+    @Test
+    void getCacheStats_ShouldContinueWhereThePreviousSampleStopped() {
+        // Arrange
+        properties.setStatsSample(1);
+        when(stringRedisTemplate.execute(eq(CacheServiceImpl.SCAN_SCRIPT), eq(List.of()), eq("0"), eq("*"),
+                eq("500"))).thenReturn(page("12", 2, "cache1::key1"));
+        when(stringRedisTemplate.execute(eq(CacheServiceImpl.SCAN_SCRIPT), eq(List.of()), eq("12"), eq("*"),
+                eq("500"))).thenReturn(page("0", 2, "cache2::key1"));
+
+        // Act
+        Map<String, Map<String, Object>> first = cacheService.getCacheStats();
+        Map<String, Map<String, Object>> second = cacheService.getCacheStats();
+
+        // Assert
+        assertTrue(first.containsKey("cache1"));
+        assertTrue(second.containsKey("cache2"));
+    }
+
     @Test
     void getCacheStats_ShouldReturnEmptyMap_WhenNoCachesExist() {
         // Arrange
-        when(redisTemplate.keys("*::*")).thenReturn(null);
-        
+        when(stringRedisTemplate.execute(eq(CacheServiceImpl.SCAN_SCRIPT), eq(List.of()), eq("0"), eq("*"),
+                eq("500"))).thenReturn(page("0", 0));
+
         // Act
         Map<String, Map<String, Object>> result = cacheService.getCacheStats();
-        
+
         // Assert
         assertTrue(result.isEmpty());
-        verify(redisTemplate).keys("*::*");
     }
-}
\ No newline at end of file
+
+    private static List<Object> page(String cursor, long databaseSize, String... keys) {
+        return List.of(cursor, List.of(keys), databaseSize);
+    }
+}
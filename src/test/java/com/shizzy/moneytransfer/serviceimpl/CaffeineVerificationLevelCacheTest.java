@@ -0,0 +1,147 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.config.VerificationLevelCacheProperties;
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.events.VerificationLevelChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CaffeineVerificationLevelCacheTest {
+
+    private static final String USER_ID = "user-1";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CaffeineVerificationLevelCache levelCache;
+    private AtomicInteger loads;
+    private Function<String, VerificationLevel> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        levelCache = new CaffeineVerificationLevelCache(new VerificationLevelCacheProperties(),
+                stringRedisTemplate, listenerContainer, meterRegistry);
+        levelCache.start();
+        loads = new AtomicInteger();
+        loader = userId -> {
+            loads.incrementAndGet();
+            return VerificationLevel.ID_VERIFIED;
+        };
+    }
+
+    @Test
+    void get_LoadsEachUserOnce() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(VerificationLevel.ID_VERIFIED, levelCache.get(USER_ID, loader));
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(2.0 / 3, meterRegistry.get("verification.level.cache.hit.ratio").gauge().value(), 1e-9);
+        verify(listenerContainer).addMessageListener(eq(levelCache), any(ChannelTopic.class));
+    }
+
+    @Test
+    void invalidate_NextLookupReloads() {
+        levelCache.get(USER_ID, loader);
+
+        levelCache.invalidate(USER_ID);
+        levelCache.get(USER_ID, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_InsideRequestScope_AnswersRepeatsFromMemo() {
+        levelCache.openRequestScope();
+        try {
+            levelCache.get(USER_ID, loader);
+            levelCache.get(USER_ID, loader);
+            levelCache.get(USER_ID, loader);
+        } finally {
+            levelCache.closeRequestScope();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(2.0, meterRegistry.get("verification.level.request.memo.hits").counter().count());
+    }
+
+    @Test
+    void closeRequestScope_LaterLookupsSkipTheMemo() {
+        levelCache.openRequestScope();
+        levelCache.get(USER_ID, loader);
+        levelCache.closeRequestScope();
+
+        levelCache.get(USER_ID, loader);
+
+        assertEquals(0.0, meterRegistry.get("verification.level.request.memo.hits").counter().count());
+    }
+
+    @Test
+    void onVerificationLevelChanged_EvictsAndAnnouncesToOtherReplicas() {
+        levelCache.get(USER_ID, loader);
+
+        levelCache.onVerificationLevelChanged(new VerificationLevelChangedEvent(this, USER_ID));
+        levelCache.get(USER_ID, loader);
+
+        assertEquals(2, loads.get());
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(CaffeineVerificationLevelCache.CHANNEL), body.capture());
+        assertTrue(body.getValue().endsWith("|" + USER_ID));
+
+        // The announcement echoes back to this replica, which has already evicted the user
+        levelCache.onMessage(message(body.getValue()), null);
+        levelCache.get(USER_ID, loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onVerificationLevelChanged_RedisDown_StillEvictsLocally() {
+        levelCache.get(USER_ID, loader);
+        doThrow(new IllegalStateException("connection refused"))
+                .when(stringRedisTemplate).convertAndSend(any(), any());
+
+        levelCache.onVerificationLevelChanged(new VerificationLevelChangedEvent(this, USER_ID));
+        levelCache.get(USER_ID, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onMessage_FromAnotherReplica_Evicts() {
+        levelCache.get(USER_ID, loader);
+
+        levelCache.onMessage(message("another-replica|" + USER_ID), null);
+        levelCache.get(USER_ID, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(CaffeineVerificationLevelCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
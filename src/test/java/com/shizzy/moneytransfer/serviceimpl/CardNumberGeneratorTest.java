@@ -0,0 +1,59 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.enums.IdentifierSequence;
+import com.shizzy.moneytransfer.service.IdentifierAllocationService;
+import com.shizzy.moneytransfer.serviceimpl.strategy.MasterCardNumberGenerator;
+import com.shizzy.moneytransfer.serviceimpl.strategy.VisaCardNumberGenerator;
+import com.shizzy.moneytransfer.util.CardValidationUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CardNumberGeneratorTest {
+
+    @Mock
+    private IdentifierAllocationService identifierAllocationService;
+
+    @Test
+    void visa_BuildsLuhnValidNumberFromAllocatedIdentifier() {
+        when(identifierAllocationService.nextIdentifier(IdentifierSequence.VISA_CARD_NUMBER)).thenReturn(1234L);
+
+        String cardNumber = new VisaCardNumberGenerator(identifierAllocationService).generateCardNumber();
+
+        assertEquals(16, cardNumber.length());
+        assertTrue(cardNumber.startsWith("400000000001234"));
+        assertTrue(isLuhnValid(cardNumber));
+    }
+
+    @Test
+    void masterCard_MovesToNextPrefixWhenAccountsRunOut() {
+        when(identifierAllocationService.nextIdentifier(IdentifierSequence.MASTERCARD_CARD_NUMBER))
+                .thenReturn(9_999_999_999_999L)
+                .thenReturn(10_000_000_000_000L);
+        MasterCardNumberGenerator generator = new MasterCardNumberGenerator(identifierAllocationService);
+
+        String lastOfFirstPrefix = generator.generateCardNumber();
+        String firstOfSecondPrefix = generator.generateCardNumber();
+
+        assertTrue(lastOfFirstPrefix.startsWith("519999999999999"));
+        assertTrue(firstOfSecondPrefix.startsWith("520000000000000"));
+        assertTrue(isLuhnValid(lastOfFirstPrefix));
+        assertTrue(isLuhnValid(firstOfSecondPrefix));
+    }
+
+    @Test
+    void luhnCheckDigit_MatchesKnownNumber() {
+        assertEquals(1, CardValidationUtils.calculateLuhnCheckDigit("411111111111111"));
+    }
+
+    private static boolean isLuhnValid(String cardNumber) {
+        String body = cardNumber.substring(0, cardNumber.length() - 1);
+        int checkDigit = cardNumber.charAt(cardNumber.length() - 1) - '0';
+        return CardValidationUtils.calculateLuhnCheckDigit(body) == checkDigit;
+    }
+}
@@ -15,6 +15,7 @@ import com.shizzy.moneytransfer.model.TransactionReference;
 import com.shizzy.moneytransfer.model.Wallet;
 import com.shizzy.moneytransfer.repository.TransactionReferenceRepository;
 import com.shizzy.moneytransfer.repository.TransactionRepository;
+import com.shizzy.moneytransfer.repository.WalletActivityStatsRepository;
 import com.shizzy.moneytransfer.service.KeycloakService;
 import com.shizzy.moneytransfer.service.TransactionReferenceService;
 import com.shizzy.moneytransfer.service.WalletService;
@@ -55,6 +56,9 @@ public class FlutterwaveServiceTest {
     @Mock
     private TransactionReferenceRepository referenceRepository;
 
+    @Mock
+    private WalletActivityStatsRepository walletActivityStatsRepository;
+
     @Mock
     private WalletService walletService;
 
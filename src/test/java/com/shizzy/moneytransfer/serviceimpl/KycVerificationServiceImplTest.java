@@ -5,6 +5,7 @@ package com.shizzy.moneytransfer.serviceimpl;
 import com.shizzy.moneytransfer.api.ApiResponse;
 import com.shizzy.moneytransfer.enums.VerificationLevel;
 import com.shizzy.moneytransfer.enums.VerificationStatus;
+import com.shizzy.moneytransfer.events.VerificationLevelChangedEvent;
 import com.shizzy.moneytransfer.exception.InvalidFileFormatException;
 import com.shizzy.moneytransfer.exception.InvalidRequestException;
 import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
@@ -17,6 +18,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.multipart.MultipartFile;
 import java.util.Optional;
@@ -49,6 +51,9 @@ public class KycVerificationServiceImplTest {
     @Mock
     private UserAccountLimitRepository userAccountLimitRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private Authentication authentication;
 
@@ -66,7 +71,8 @@ public class KycVerificationServiceImplTest {
                 s3Service,
                 documentUploadService,
                 verificationStatusService,
-                userAccountLimitRepository
+                userAccountLimitRepository,
+                eventPublisher
         );
 
         when(authentication.getName()).thenReturn(USER_ID);
@@ -130,6 +136,9 @@ public class KycVerificationServiceImplTest {
         assertEquals("ID verification approved successfully", response.getMessage());
         verify(verificationStatusService).updateVerificationStatus(USER_ID, "id", VerificationStatus.APPROVED, null);
         verify(userAccountLimitRepository).save(any(UserAccountLimit.class));
+        verify(eventPublisher).publishEvent(argThat((VerificationLevelChangedEvent event) ->
+            USER_ID.equals(event.getUserId())
+        ));
     }
 
     @Test
@@ -153,6 +162,7 @@ public class KycVerificationServiceImplTest {
         verify(userAccountLimitRepository).save(argThat(limit -> 
             limit.getVerificationLevel() == VerificationLevel.FULLY_VERIFIED
         ));
+        verify(eventPublisher).publishEvent(any(VerificationLevelChangedEvent.class));
     }
 
     @Test
@@ -167,6 +177,7 @@ public class KycVerificationServiceImplTest {
         assertTrue(response.isSuccess());
         assertEquals("ID verification rejected successfully", response.getMessage());
         verify(verificationStatusService).updateVerificationStatus(USER_ID, "address", VerificationStatus.REJECTED, rejectionReason);
+        verify(eventPublisher).publishEvent(any(VerificationLevelChangedEvent.class));
     }
 
     @Test
@@ -181,6 +192,7 @@ public class KycVerificationServiceImplTest {
         assertTrue(response.isSuccess());
         assertEquals("Address verification rejected successfully", response.getMessage());
         verify(verificationStatusService).updateVerificationStatus(USER_ID, "id", VerificationStatus.REJECTED, rejectionReason);
+        verify(eventPublisher).publishEvent(any(VerificationLevelChangedEvent.class));
     }
 
     @Test
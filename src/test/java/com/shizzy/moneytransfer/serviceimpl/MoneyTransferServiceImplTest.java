@@ -1,40 +1,76 @@
 package com.shizzy.moneytransfer.serviceimpl;
 
-
-
-import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-
+import com.shizzy.moneytransfer.api.ApiResponse;
+import com.shizzy.moneytransfer.config.WalletLaneProperties;
+import com.shizzy.moneytransfer.dto.AccountLimitDTO;
+import com.shizzy.moneytransfer.dto.BulkTransferRecipient;
+import com.shizzy.moneytransfer.dto.BulkTransferRequest;
+import com.shizzy.moneytransfer.dto.BulkTransferResponse;
 import com.shizzy.moneytransfer.dto.CreateTransactionRequestBody;
-import com.shizzy.moneytransfer.kafka.NotificationProducer;
-import com.shizzy.moneytransfer.repository.RefundImpactRecordRepository;
+import com.shizzy.moneytransfer.dto.PendingTransfer;
+import com.shizzy.moneytransfer.dto.SpendReservation;
+import com.shizzy.moneytransfer.dto.TransactionNotification;
+import com.shizzy.moneytransfer.dto.TransactionPair;
+import com.shizzy.moneytransfer.dto.TransactionResponseDTO;
+import com.shizzy.moneytransfer.dto.TransferContext;
+import com.shizzy.moneytransfer.dto.TransferParticipant;
+import com.shizzy.moneytransfer.dto.TransferVerificationRequest;
+import com.shizzy.moneytransfer.dto.TransferWallets;
+import com.shizzy.moneytransfer.enums.TransactionStatus;
+import com.shizzy.moneytransfer.enums.TransactionType;
+import com.shizzy.moneytransfer.exception.FraudulentTransactionException;
+import com.shizzy.moneytransfer.exception.InsufficientBalanceException;
+import com.shizzy.moneytransfer.exception.TransactionLimitExceededException;
+import com.shizzy.moneytransfer.kafka.OutboxNotificationProducer;
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.model.User;
+import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.LedgerBatchRepository;
 import com.shizzy.moneytransfer.repository.TransactionRepository;
+import com.shizzy.moneytransfer.repository.UserRepository;
 import com.shizzy.moneytransfer.service.AccountLimitService;
-import com.shizzy.moneytransfer.service.KeycloakService;
 import com.shizzy.moneytransfer.service.OtpService;
 import com.shizzy.moneytransfer.service.TransactionLimitService;
+import com.shizzy.moneytransfer.service.TransactionMonitoringService;
 import com.shizzy.moneytransfer.service.TransactionReferenceService;
 import com.shizzy.moneytransfer.service.TransactionService;
+import com.shizzy.moneytransfer.service.TransferContextService;
 import com.shizzy.moneytransfer.service.WalletService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.math.BigDecimal;
-import java.time.Duration;
 import java.time.LocalDateTime;
-import static org.junit.jupiter.api.Assertions.*;
-
-
-
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
-public class MoneyTransferServiceImplTest {
+class MoneyTransferServiceImplTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("100.00");
+    private static final String SENDER_ID = "11111111-1111-1111-1111-111111111111";
+    private static final String RECEIVER_ID = "22222222-2222-2222-2222-222222222222";
+    private static final String OTHER_ID = "33333333-3333-3333-3333-333333333333";
+    private static final String REFERENCE = "TRF-0001";
 
     @Mock
     private TransactionRepository transactionRepository;
@@ -43,9 +79,7 @@ public class MoneyTransferServiceImplTest {
     @Mock
     private TransactionReferenceService referenceService;
     @Mock
-    private KeycloakService keycloakService;
-    @Mock
-    private NotificationProducer notificationProducer;
+    private UserRepository userRepository;
     @Mock
     private TransactionService transactionService;
     @Mock
@@ -55,102 +89,298 @@ public class MoneyTransferServiceImplTest {
     @Mock
     private AccountLimitService accountLimitService;
     @Mock
-    private RefundImpactRecordRepository refundImpactRecordRepository;
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private LedgerBatchRepository ledgerBatchRepository;
+    @Mock
+    private TransferContextService transferContextService;
+    @Mock
+    private OutboxNotificationProducer notificationProducer;
+    @Mock
+    private TransactionMonitoringService transactionMonitoringService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private RedisTemplate<String, PendingTransfer> redisTemplate;
+    @Mock
+    private RedisTemplate<String, BulkTransferRequest> bulkRedisTemplate;
 
-    @InjectMocks
     private MoneyTransferServiceImpl moneyTransferService;
 
     private CreateTransactionRequestBody requestBody;
-    private Class<?> pendingTransferClass;
+    private SpendReservation reservation;
+    private Wallet sendingWallet;
+    private Wallet receivingWallet;
+    private Transaction debit;
+    private Transaction credit;
 
     @BeforeEach
-    void setUp() throws Exception {
+    void setUp() {
+        // Lanes off, so the ledger work runs on the test thread
+        StripedWalletLaneExecutor walletLaneExecutor =
+                new StripedWalletLaneExecutor(new WalletLaneProperties(), new SimpleMeterRegistry());
+        moneyTransferService = new MoneyTransferServiceImpl(transactionRepository, walletService, referenceService,
+                userRepository, transactionService, otpService, transactionLimitService, accountLimitService,
+                eventPublisher, walletLaneExecutor, ledgerBatchRepository, transferContextService,
+                notificationProducer, transactionMonitoringService, transactionManager, redisTemplate,
+                bulkRedisTemplate);
+        moneyTransferService.initTransactionTemplate();
+
         requestBody = new CreateTransactionRequestBody(
-                "sender@example.com",
-                "receiver@example.com",
-                BigDecimal.valueOf(100.00),
-                "Payment for services"
-        );
+                "sender@example.com", "receiver@example.com", AMOUNT, "Payment for services");
+        sendingWallet = wallet(1L, "20000001", SENDER_ID, new BigDecimal("500.00"));
+        receivingWallet = wallet(2L, "20000002", RECEIVER_ID, BigDecimal.ZERO);
+        debit = transaction(sendingWallet, TransactionType.DEBIT);
+        credit = transaction(receivingWallet, TransactionType.CREDIT);
+        reservation = new SpendReservation(null, null);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void transfer_Success_CommitsTheSpendHold() {
+        givenTransfer();
 
-        // Access the PendingTransfer inner class using reflection
-        pendingTransferClass = Class.forName("com.shizzy.moneytransfer.serviceimpl.MoneyTransferServiceImpl$PendingTransfer");
+        ApiResponse<TransactionResponseDTO> response = moneyTransferService.transfer(requestBody);
+
+        assertTrue(response.isSuccess());
+        assertEquals(REFERENCE, response.getData().referenceNumber());
+        verify(transactionLimitService).validateTransferAmount(SENDER_ID, AMOUNT);
+        verify(walletService).transfer(sendingWallet, receivingWallet, AMOUNT);
+        verify(notificationProducer).sendNotifications(eq("notifications"), eq(SENDER_ID), anyList());
+        verify(transactionManager).commit(any());
+        verify(transactionLimitService).commitSpend(reservation);
+        verify(transactionLimitService, never()).releaseSpend(any());
+        assertEquals(TransactionStatus.SUCCESS.getValue(), debit.getCurrentStatus());
+        assertEquals(TransactionStatus.SUCCESS.getValue(), credit.getCurrentStatus());
     }
 
     @Test
-    void pendingTransfer_ShouldStoreRequestBody() throws Exception {
-        // Create a new PendingTransfer instance using reflection
-        Constructor<?> constructor = pendingTransferClass.getDeclaredConstructor(CreateTransactionRequestBody.class);
-        constructor.setAccessible(true);
-        Object pendingTransfer = constructor.newInstance(requestBody);
+    void transfer_InsideCallersTransaction_CommitsTheSpendHoldOnlyAfterTheCallerCommits() {
+        givenTransfer();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            moneyTransferService.transfer(requestBody);
+            verify(transactionLimitService, never()).commitSpend(any());
 
-        // Access the getRequestBody method
-        Method getRequestBodyMethod = pendingTransferClass.getDeclaredMethod("getRequestBody");
-        getRequestBodyMethod.setAccessible(true);
-        CreateTransactionRequestBody storedRequestBody = 
-                (CreateTransactionRequestBody) getRequestBodyMethod.invoke(pendingTransfer);
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
 
-        // Verify the request body was stored correctly
-        assertEquals(requestBody, storedRequestBody);
+        verify(transactionLimitService).commitSpend(reservation);
+        verify(transactionLimitService, never()).releaseSpendAfterRollback(any());
     }
 
     @Test
-    void pendingTransfer_ShouldSetCreatedAtToCurrentTime() throws Exception {
-        // Capture current time before creating PendingTransfer
-        LocalDateTime beforeCreation = LocalDateTime.now();
-
-        // Create a new PendingTransfer instance
-        Constructor<?> constructor = pendingTransferClass.getDeclaredConstructor(CreateTransactionRequestBody.class);
-        constructor.setAccessible(true);
-        Object pendingTransfer = constructor.newInstance(requestBody);
-        
-        // Get creation time
-        Method getCreatedAtMethod = pendingTransferClass.getDeclaredMethod("getCreatedAt");
-        getCreatedAtMethod.setAccessible(true);
-        LocalDateTime createdAt = (LocalDateTime) getCreatedAtMethod.invoke(pendingTransfer);
-        
-        // Capture time after creation
-        LocalDateTime afterCreation = LocalDateTime.now();
-        
-        // Verify creation time is between before and after
-        assertNotNull(createdAt);
-        assertFalse(createdAt.isBefore(beforeCreation));
-        assertFalse(createdAt.isAfter(afterCreation));
+    void transfer_InsideCallersTransaction_ReleasesTheSpendHoldWhenTheCallerRollsBack() {
+        givenTransfer();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            moneyTransferService.transfer(requestBody);
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(transactionLimitService).releaseSpendAfterRollback(reservation);
+        verify(transactionLimitService, never()).commitSpend(any());
     }
 
     @Test
-    void isExpired_ShouldReturnFalseForNewTransfer() throws Exception {
-        // Create a new PendingTransfer instance
-        Constructor<?> constructor = pendingTransferClass.getDeclaredConstructor(CreateTransactionRequestBody.class);
-        constructor.setAccessible(true);
-        Object pendingTransfer = constructor.newInstance(requestBody);
-        
-        // Check if expired
-        Method isExpiredMethod = pendingTransferClass.getDeclaredMethod("isExpired");
-        isExpiredMethod.setAccessible(true);
-        boolean isExpired = (boolean) isExpiredMethod.invoke(pendingTransfer);
-        
-        // New transfer should not be expired
-        assertFalse(isExpired);
+    void transfer_InsufficientBalanceAtLedgerWrite_ReleasesTheHoldAndFailsThePair() {
+        givenTransfer();
+
+        doThrow(new InsufficientBalanceException("You do not have sufficient balance to complete this transaction"))
+                .when(walletService).transfer(sendingWallet, receivingWallet, AMOUNT);
+
+        assertThrows(InsufficientBalanceException.class, () -> moneyTransferService.transfer(requestBody));
+
+        verify(transactionManager).rollback(any());
+        verify(transactionLimitService).releaseSpend(reservation);
+        verify(transactionLimitService, never()).commitSpend(any());
+        verify(notificationProducer, never()).sendNotifications(any(), any(), anyList());
+        assertEquals(TransactionStatus.FAILED.getValue(), debit.getCurrentStatus());
+        assertEquals(TransactionStatus.FAILED.getValue(), credit.getCurrentStatus());
     }
 
     @Test
-    void isExpired_ShouldReturnTrueForOldTransfer() throws Exception {
-        // Create a new PendingTransfer instance
-        Constructor<?> constructor = pendingTransferClass.getDeclaredConstructor(CreateTransactionRequestBody.class);
-        constructor.setAccessible(true);
-        Object pendingTransfer = constructor.newInstance(requestBody);
-        
-        // Modify the createdAt field to make it older
-        Field createdAtField = pendingTransferClass.getDeclaredField("createdAt");
-        createdAtField.setAccessible(true);
-        createdAtField.set(pendingTransfer, LocalDateTime.now().minus(Duration.ofMinutes(16))); // Expired (> 15 minutes)
-        
-        // Check if expired
-        Method isExpiredMethod = pendingTransferClass.getDeclaredMethod("isExpired");
-        isExpiredMethod.setAccessible(true);
-        boolean isExpired = (boolean) isExpiredMethod.invoke(pendingTransfer);
-        
-        // Old transfer should be expired
-        assertTrue(isExpired);
-    }
-}
\ No newline at end of file
+    void transfer_LedgerWriteFails_ReleasesTheHold() {
+        givenTransfer();
+
+        doThrow(new DataAccessResourceFailureException("connection lost"))
+                .when(walletService).transfer(sendingWallet, receivingWallet, AMOUNT);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> moneyTransferService.transfer(requestBody));
+
+        verify(transactionManager).rollback(any());
+        verify(transactionLimitService).releaseSpend(reservation);
+        verify(transactionLimitService, never()).commitSpend(any());
+    }
+
+    @Test
+    void transfer_BlockedByFraudScreening_FailsThePairWithoutMovingMoney() {
+        givenTransfer();
+
+        doThrow(new FraudulentTransactionException("Transaction blocked"))
+                .when(transactionMonitoringService).monitorTransaction(debit);
+
+        assertThrows(FraudulentTransactionException.class, () -> moneyTransferService.transfer(requestBody));
+
+        verify(walletService, never()).transfer(any(), any(), any());
+        verify(transactionLimitService).releaseSpend(reservation);
+        verify(transactionLimitService, never()).commitSpend(any());
+        assertEquals(TransactionStatus.FAILED.getValue(), debit.getCurrentStatus());
+        assertEquals(TransactionStatus.FAILED.getValue(), credit.getCurrentStatus());
+        assertEquals("Blocked by fraud screening", debit.getFailureReason());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void verifyAndTransfer_PreValidatedAtInitiation_StillChecksTheTransferLimit() {
+        TransferContext context = new TransferContext(
+                participant(SENDER_ID, "sender@example.com", sendingWallet),
+                participant(RECEIVER_ID, "receiver@example.com", receivingWallet),
+                true);
+        ValueOperations<String, PendingTransfer> pendingTransfers = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(pendingTransfers);
+        when(pendingTransfers.get("pending_transfer:token")).thenReturn(new PendingTransfer(requestBody, context));
+        when(otpService.verifyOtp("sender@example.com", "Money Transfer", "123456")).thenReturn(Map.of());
+        when(transferContextService.resolveWallets(context))
+                .thenReturn(new TransferWallets(sendingWallet, receivingWallet, true));
+        // The limit was lowered while the OTP was outstanding
+        doThrow(new TransactionLimitExceededException("Transfer exceeds your per-transaction limit"))
+                .when(transactionLimitService).validateTransferAmount(SENDER_ID, AMOUNT);
+
+        assertThrows(TransactionLimitExceededException.class, () -> moneyTransferService.verifyAndTransfer(
+                new TransferVerificationRequest("token", "123456"), SENDER_ID));
+
+        verify(transactionLimitService, never()).reserveSpend(any(), any());
+        verify(walletService, never()).transfer(any(), any(), any());
+    }
+
+    @Test
+    void bulkTransfer_AppliesTheBatchAndCommitsTheSpendHold() {
+        givenBulkTransfer();
+        when(transactionLimitService.reserveSpend(SENDER_ID, new BigDecimal("30.00"))).thenReturn(reservation);
+
+        ApiResponse<BulkTransferResponse> response = moneyTransferService.bulkTransfer(bulkRequest());
+
+        assertTrue(response.isSuccess());
+        assertEquals(2, response.getData().successfulCount());
+        verify(ledgerBatchRepository).applyBulkTransfer(eq(sendingWallet), eq(new BigDecimal("30.00")), argThat(
+                (List<TransactionPair> pairs) -> pairs.size() == 2));
+        verify(notificationProducer).sendNotifications(eq("notifications"), eq(SENDER_ID),
+                argThat((List<TransactionNotification> notifications) -> notifications.size() == 2));
+        verify(transactionLimitService).commitSpend(reservation);
+        verify(transactionLimitService, never()).releaseSpend(any());
+    }
+
+    @Test
+    void bulkTransfer_InsufficientBalanceAtLedgerWrite_ReleasesTheHoldAndFailsEveryItem() {
+        givenBulkTransfer();
+        when(transactionLimitService.reserveSpend(SENDER_ID, new BigDecimal("30.00"))).thenReturn(reservation);
+        doThrow(new InsufficientBalanceException("You do not have sufficient balance to complete this transaction"))
+                .when(ledgerBatchRepository).applyBulkTransfer(any(), any(), anyList());
+
+        ApiResponse<BulkTransferResponse> response = moneyTransferService.bulkTransfer(bulkRequest());
+
+        assertFalse(response.isSuccess());
+        assertEquals(0, response.getData().successfulCount());
+        assertTrue(response.getData().results().stream()
+                .allMatch(result -> TransactionStatus.FAILED.getValue().equals(result.status())));
+        verify(transactionManager).rollback(any());
+        verify(transactionLimitService).releaseSpend(reservation);
+        verify(transactionLimitService, never()).commitSpend(any());
+    }
+
+    @Test
+    void bulkTransfer_RecipientOverMaxBalance_IsLeftOutOfTheBatch() {
+        givenBulkTransfer();
+        doThrow(new TransactionLimitExceededException("over"))
+                .when(transactionLimitService).validateNewBalance(eq(RECEIVER_ID), any());
+        when(transactionLimitService.reserveSpend(SENDER_ID, new BigDecimal("20.00"))).thenReturn(reservation);
+
+        ApiResponse<BulkTransferResponse> response = moneyTransferService.bulkTransfer(bulkRequest());
+
+        assertTrue(response.isSuccess());
+        assertEquals(1, response.getData().successfulCount());
+        assertEquals(1, response.getData().failedCount());
+        verify(ledgerBatchRepository).applyBulkTransfer(eq(sendingWallet), eq(new BigDecimal("20.00")), anyList());
+    }
+
+    private void givenTransfer() {
+        TransferContext context = new TransferContext(
+                participant(SENDER_ID, "sender@example.com", sendingWallet),
+                participant(RECEIVER_ID, "receiver@example.com", receivingWallet),
+                false);
+        when(transferContextService.load("sender@example.com", "receiver@example.com")).thenReturn(context);
+        when(transferContextService.resolveWallets(context))
+                .thenReturn(new TransferWallets(sendingWallet, receivingWallet, true));
+        when(transactionLimitService.reserveSpend(SENDER_ID, AMOUNT)).thenReturn(reservation);
+        when(referenceService.generateUniqueReferenceNumber()).thenReturn(REFERENCE);
+        when(transactionService.createTransaction(eq(sendingWallet), eq(requestBody), eq(TransactionType.DEBIT),
+                any(), any(), eq(REFERENCE))).thenReturn(debit);
+        when(transactionService.createTransaction(eq(receivingWallet), eq(requestBody), eq(TransactionType.CREDIT),
+                any(), any(), eq(REFERENCE))).thenReturn(credit);
+    }
+
+    private void givenBulkTransfer() {
+        User sender = user(SENDER_ID, "sender@example.com");
+        User receiver = user(RECEIVER_ID, "receiver@example.com");
+        User other = user(OTHER_ID, "other@example.com");
+        Wallet otherWallet = wallet(3L, "20000003", OTHER_ID, BigDecimal.ZERO);
+        when(userRepository.findByEmail("sender@example.com")).thenReturn(Optional.of(sender));
+        when(walletService.findWalletOrThrow(SENDER_ID)).thenReturn(sendingWallet);
+        when(userRepository.findAllByEmailIn(anyCollection())).thenReturn(List.of(receiver, other));
+        when(walletService.findWalletsByUserIds(anyCollection()))
+                .thenReturn(Map.of(RECEIVER_ID, receivingWallet, OTHER_ID, otherWallet));
+        when(accountLimitService.getUserLimits(SENDER_ID)).thenReturn(AccountLimitDTO.builder().build());
+        when(referenceService.generateUniqueReferenceNumber()).thenReturn(REFERENCE);
+        when(transactionService.createTransaction(any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> transaction(invocation.getArgument(0), invocation.getArgument(2)));
+    }
+
+    private static BulkTransferRequest bulkRequest() {
+        return new BulkTransferRequest("sender@example.com", List.of(
+                new BulkTransferRecipient("receiver@example.com", new BigDecimal("10.00"), "Invoice 1"),
+                new BulkTransferRecipient("other@example.com", new BigDecimal("20.00"), "Invoice 2")));
+    }
+
+    private static User user(String userId, String email) {
+        return User.builder()
+                .userId(UUID.fromString(userId))
+                .email(email)
+                .firstName("Test")
+                .lastName("User")
+                .build();
+    }
+
+    private static Wallet wallet(Long id, String walletId, String userId, BigDecimal balance) {
+        return Wallet.builder()
+                .id(id)
+                .walletId(walletId)
+                .createdBy(userId)
+                .balance(balance)
+                .currency("USD")
+                .build();
+    }
+
+    private static Transaction transaction(Wallet wallet, TransactionType type) {
+        return Transaction.builder()
+                .wallet(wallet)
+                .amount(AMOUNT)
+                .transactionType(type)
+                .transactionDate(LocalDateTime.now())
+                .referenceNumber(REFERENCE)
+                .build();
+    }
+
+    private static TransferParticipant participant(String userId, String email, Wallet wallet) {
+        return new TransferParticipant(userId, email, "Test", "User", wallet.getId(), wallet.getWalletId(), 0,
+                wallet.getBalance());
+    }
+}
@@ -0,0 +1,146 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.events.AccountLimitsChangedEvent;
+import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
+import com.shizzy.moneytransfer.model.AccountLimit;
+import com.shizzy.moneytransfer.repository.AccountLimitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PubSubAccountLimitTierCacheTest {
+
+    @Mock
+    private AccountLimitRepository accountLimitRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private PubSubAccountLimitTierCache tierCache;
+
+    @BeforeEach
+    void setUp() {
+        tierCache = new PubSubAccountLimitTierCache(accountLimitRepository, stringRedisTemplate, listenerContainer);
+    }
+
+    @Test
+    void start_LoadsEveryTierOnce_AndServesChecksFromMemory() {
+        when(accountLimitRepository.findAll()).thenReturn(List.of(
+                tier(VerificationLevel.EMAIL_VERIFIED, "500"),
+                tier(VerificationLevel.ID_VERIFIED, "5000")));
+
+        tierCache.start();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(new BigDecimal("500"), tierCache.get(VerificationLevel.EMAIL_VERIFIED).getMaxTransferAmount());
+            assertEquals(new BigDecimal("5000"), tierCache.get(VerificationLevel.ID_VERIFIED).getMaxTransferAmount());
+        }
+
+        verify(accountLimitRepository, times(1)).findAll();
+        verify(listenerContainer).addMessageListener(eq(tierCache), any(ChannelTopic.class));
+    }
+
+    @Test
+    void get_SnapshotHoldsCopies_NotTheLoadedEntities() {
+        AccountLimit entity = tier(VerificationLevel.EMAIL_VERIFIED, "500");
+        when(accountLimitRepository.findAll()).thenReturn(List.of(entity));
+        tierCache.start();
+
+        entity.setMaxTransferAmount(new BigDecimal("1"));
+
+        assertEquals(new BigDecimal("500"), tierCache.get(VerificationLevel.EMAIL_VERIFIED).getMaxTransferAmount());
+    }
+
+    @Test
+    void get_UnknownTier_Throws() {
+        when(accountLimitRepository.findAll()).thenReturn(List.of(tier(VerificationLevel.EMAIL_VERIFIED, "500")));
+        tierCache.start();
+
+        assertThrows(ResourceNotFoundException.class, () -> tierCache.get(VerificationLevel.UNVERIFIED));
+    }
+
+    @Test
+    void get_StartupLoadFailed_LoadsOnFirstUse() {
+        when(accountLimitRepository.findAll())
+                .thenThrow(new IllegalStateException("database starting"))
+                .thenReturn(List.of(tier(VerificationLevel.EMAIL_VERIFIED, "500")));
+
+        tierCache.start();
+
+        assertNotNull(tierCache.get(VerificationLevel.EMAIL_VERIFIED));
+    }
+
+    @Test
+    void onAccountLimitsChanged_ReloadsAndAnnouncesToOtherReplicas() {
+        when(accountLimitRepository.findAll())
+                .thenReturn(List.of(tier(VerificationLevel.EMAIL_VERIFIED, "500")))
+                .thenReturn(List.of(tier(VerificationLevel.EMAIL_VERIFIED, "750")));
+        tierCache.start();
+
+        tierCache.onAccountLimitsChanged(new AccountLimitsChangedEvent(this, VerificationLevel.EMAIL_VERIFIED));
+
+        assertEquals(new BigDecimal("750"), tierCache.get(VerificationLevel.EMAIL_VERIFIED).getMaxTransferAmount());
+        ArgumentCaptor<String> sender = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(PubSubAccountLimitTierCache.CHANNEL), sender.capture());
+
+        // The announcement echoes back to this replica, which has already reloaded
+        tierCache.onMessage(message(sender.getValue()), null);
+        verify(accountLimitRepository, times(2)).findAll();
+    }
+
+    @Test
+    void onMessage_FromAnotherReplica_Reloads() {
+        when(accountLimitRepository.findAll())
+                .thenReturn(List.of(tier(VerificationLevel.EMAIL_VERIFIED, "500")))
+                .thenReturn(List.of(tier(VerificationLevel.EMAIL_VERIFIED, "750")));
+        tierCache.start();
+
+        tierCache.onMessage(message("another-replica"), null);
+
+        assertEquals(new BigDecimal("750"), tierCache.get(VerificationLevel.EMAIL_VERIFIED).getMaxTransferAmount());
+    }
+
+    @Test
+    void onMessage_ReloadFails_KeepsCurrentSnapshot() {
+        when(accountLimitRepository.findAll())
+                .thenReturn(List.of(tier(VerificationLevel.EMAIL_VERIFIED, "500")))
+                .thenThrow(new IllegalStateException("connection reset"));
+        tierCache.start();
+
+        tierCache.onMessage(message("another-replica"), null);
+
+        assertEquals(new BigDecimal("500"), tierCache.get(VerificationLevel.EMAIL_VERIFIED).getMaxTransferAmount());
+    }
+
+    private AccountLimit tier(VerificationLevel level, String maxTransfer) {
+        return AccountLimit.builder()
+                .verificationLevel(level)
+                .maxTransferAmount(new BigDecimal(maxTransfer))
+                .build();
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(PubSubAccountLimitTierCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
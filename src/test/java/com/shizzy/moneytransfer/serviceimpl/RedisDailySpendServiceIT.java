@@ -0,0 +1,153 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.AbstractTestContainers;
+import com.shizzy.RedisTestContainer;
+import com.shizzy.moneytransfer.config.DailySpendProperties;
+import com.shizzy.moneytransfer.dto.DailySpendReservation;
+import com.shizzy.moneytransfer.model.DailyTransactionTotal;
+import com.shizzy.moneytransfer.repository.DailySpendRepository;
+import com.shizzy.moneytransfer.repository.DailyTransactionTotalRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@link RedisDailySpendService} and its scripts against real Redis and Postgres: keys are seeded from the
+ * persisted total, reservations that time out stop counting, committed spend is flushed once, and a key marked
+ * stale is resynced from the database before it is used again.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(DailySpendRepository.class)
+class RedisDailySpendServiceIT extends AbstractTestContainers {
+
+    private static final String USER_ID = "daily-spend-user";
+    private static final BigDecimal LIMIT = new BigDecimal("1000.00");
+
+    @Autowired
+    private DailyTransactionTotalRepository dailyTransactionTotalRepository;
+
+    @Autowired
+    private DailySpendRepository dailySpendRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private StringRedisTemplate stringRedisTemplate;
+    private DailySpendProperties properties;
+    private RedisDailySpendService dailySpendService;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = RedisTestContainer.stringRedisTemplate();
+        RedisTestContainer.flushAll();
+        jdbcTemplate.update("DELETE FROM daily_transaction_totals");
+
+        properties = new DailySpendProperties();
+        dailySpendService = new RedisDailySpendService(stringRedisTemplate, dailyTransactionTotalRepository,
+                dailySpendRepository, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void reserve_SeedsAMissingKeyFromThePersistedTotal() {
+        dailySpendRepository.add(USER_ID, today, new BigDecimal("900.00"));
+
+        assertTrue(dailySpendService.reserve(USER_ID, new BigDecimal("50.00"), LIMIT).isPresent());
+        assertTrue(dailySpendService.reserve(USER_ID, new BigDecimal("100.00"), LIMIT).isEmpty());
+
+        assertAmount("950.00", dailySpendService.spentToday(USER_ID));
+    }
+
+    @Test
+    void reserve_ReservationThatTimedOutStopsCounting_AndItsCommitStillCounts() throws InterruptedException {
+        properties.setReservationTimeout(Duration.ofMillis(200));
+        DailySpendReservation abandoned =
+                dailySpendService.reserve(USER_ID, new BigDecimal("600.00"), LIMIT).orElseThrow();
+        assertTrue(dailySpendService.reserve(USER_ID, new BigDecimal("600.00"), LIMIT).isEmpty());
+
+        Thread.sleep(400);
+
+        DailySpendReservation next = dailySpendService.reserve(USER_ID, new BigDecimal("600.00"), LIMIT).orElseThrow();
+        assertAmount("600.00", dailySpendService.spentToday(USER_ID));
+
+        // The money behind the timed-out reservation moved after all; the late commit records it outright
+        dailySpendService.commit(abandoned);
+        dailySpendService.commit(next);
+        assertAmount("1200.00", dailySpendService.spentToday(USER_ID));
+    }
+
+    @Test
+    void commitAndRelease_FlushWritesOnlyTheCommittedSpend_Once() {
+        DailySpendReservation committed =
+                dailySpendService.reserve(USER_ID, new BigDecimal("100.00"), LIMIT).orElseThrow();
+        DailySpendReservation released =
+                dailySpendService.reserve(USER_ID, new BigDecimal("50.00"), LIMIT).orElseThrow();
+        dailySpendService.commit(committed);
+        dailySpendService.release(released);
+
+        dailySpendService.flush();
+        dailySpendService.flush();
+
+        assertAmount("100.00", persistedTotal());
+        assertAmount("100.00", dailySpendService.spentToday(USER_ID));
+        assertEquals(0, stringRedisTemplate.opsForSet().size(RedisDailySpendService.DIRTY_KEY));
+    }
+
+    @Test
+    void reserve_KeyMarkedStaleByAnotherReplica_ResyncsBeforeReserving() {
+        dailySpendService.commit(dailySpendService.reserve(USER_ID, new BigDecimal("100.00"), LIMIT).orElseThrow());
+        String key = RedisDailySpendService.key(USER_ID, today);
+        // Another replica could not reach Redis, wrote its spend to the database and published the stale mark
+        dailySpendRepository.add(USER_ID, today, new BigDecimal("850.00"));
+        stringRedisTemplate.opsForSet().add(RedisDailySpendService.STALE_KEY, key);
+
+        assertAmount("850.00", dailySpendService.spentToday(USER_ID));
+        assertTrue(dailySpendService.reserve(USER_ID, new BigDecimal("100.00"), LIMIT).isEmpty());
+        assertFalse(stringRedisTemplate.opsForSet().isMember(RedisDailySpendService.STALE_KEY, key));
+
+        // The commit this replica had not flushed yet survives the resync
+        dailySpendService.flush();
+        assertAmount("950.00", persistedTotal());
+        assertAmount("950.00", dailySpendService.spentToday(USER_ID));
+    }
+
+    @Test
+    void flush_ResyncsStaleKeysNobodyUsedSince() {
+        dailySpendService.commit(dailySpendService.reserve(USER_ID, new BigDecimal("100.00"), LIMIT).orElseThrow());
+        String key = RedisDailySpendService.key(USER_ID, today);
+        dailySpendRepository.add(USER_ID, today, new BigDecimal("200.00"));
+        stringRedisTemplate.opsForSet().add(RedisDailySpendService.STALE_KEY, key);
+
+        dailySpendService.flush();
+
+        assertEquals(0, stringRedisTemplate.opsForSet().size(RedisDailySpendService.STALE_KEY));
+        assertAmount("300.00", persistedTotal());
+        assertAmount("300.00", dailySpendService.spentToday(USER_ID));
+    }
+
+    private BigDecimal persistedTotal() {
+        return dailyTransactionTotalRepository.findByUserIdAndDate(USER_ID, today)
+                .map(DailyTransactionTotal::getTotalAmount)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+}
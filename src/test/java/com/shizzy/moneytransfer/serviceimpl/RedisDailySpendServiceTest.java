@@ -0,0 +1,302 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.config.DailySpendProperties;
+import com.shizzy.moneytransfer.dto.DailySpendReservation;
+import com.shizzy.moneytransfer.model.DailyTransactionTotal;
+import com.shizzy.moneytransfer.repository.DailySpendRepository;
+import com.shizzy.moneytransfer.repository.DailyTransactionTotalRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisDailySpendServiceTest {
+
+    private static final String USER_ID = "user-1";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private DailyTransactionTotalRepository dailyTransactionTotalRepository;
+
+    @Mock
+    private DailySpendRepository dailySpendRepository;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RedisDailySpendService dailySpendService;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dailySpendService = new RedisDailySpendService(stringRedisTemplate, dailyTransactionTotalRepository,
+                dailySpendRepository, new DailySpendProperties(), meterRegistry);
+    }
+
+    @Test
+    void scripts_LoadFromTheClasspath() {
+        for (var script : List.of(RedisDailySpendService.RESERVE, RedisDailySpendService.SETTLE,
+                RedisDailySpendService.RECORD, RedisDailySpendService.CLAIM_FLUSH, RedisDailySpendService.RESYNC)) {
+            assertTrue(script.getScriptAsString().contains("redis.call"));
+            assertNotNull(script.getSha1());
+        }
+    }
+
+    @Test
+    void reserve_WithinLimit_ReservesInOneScriptCall() {
+        when(stringRedisTemplate.execute(eq(RedisDailySpendService.RESERVE), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 250000L));
+
+        Optional<DailySpendReservation> reservation =
+                dailySpendService.reserve(USER_ID, new BigDecimal("25.00"), new BigDecimal("500"));
+
+        assertTrue(reservation.isPresent());
+        assertFalse(reservation.get().persisted());
+        Object[] args = reserveArgs(1).get(0);
+        assertEquals("250000", args[1]);
+        assertEquals("5000000", args[2]);
+        assertEquals("", args[6]);
+        verifyNoInteractions(dailyTransactionTotalRepository, dailySpendRepository);
+    }
+
+    @Test
+    void reserve_OverLimit_ReturnsEmpty() {
+        when(stringRedisTemplate.execute(eq(RedisDailySpendService.RESERVE), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 4900000L));
+
+        assertTrue(dailySpendService.reserve(USER_ID, new BigDecimal("25.00"), new BigDecimal("500")).isEmpty());
+        assertEquals(1.0, meterRegistry.counter("daily.spend.reservations", "outcome", "rejected").count());
+    }
+
+    @Test
+    void reserve_NoLimit_PassesMinusOne() {
+        when(stringRedisTemplate.execute(eq(RedisDailySpendService.RESERVE), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 250000L));
+
+        dailySpendService.reserve(USER_ID, new BigDecimal("25.00"), null);
+
+        assertEquals("-1", reserveArgs(1).get(0)[2]);
+    }
+
+    @Test
+    void reserve_AmountAloneOverLimit_NeverReachesRedis() {
+        assertTrue(dailySpendService.reserve(USER_ID, new BigDecimal("600"), new BigDecimal("500")).isEmpty());
+
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    void reserve_KeyNotInRedis_SeedsFromPersistedTotal() {
+        when(stringRedisTemplate.execute(eq(RedisDailySpendService.RESERVE), anyList(), any(Object[].class)))
+                .thenReturn(List.of(-1L, 0L))
+                .thenReturn(List.of(1L, 30250000L));
+        when(dailyTransactionTotalRepository.findByUserIdAndDate(USER_ID, today))
+                .thenReturn(Optional.of(total("3000")));
+
+        assertTrue(dailySpendService.reserve(USER_ID, new BigDecimal("25.00"), new BigDecimal("5000")).isPresent());
+
+        List<Object[]> calls = reserveArgs(2);
+        assertEquals("", calls.get(0)[6]);
+        assertEquals("30000000", calls.get(1)[6]);
+    }
+
+    @Test
+    void reserve_RedisDown_FallsBackToGuardedDatabaseUpdate_ThenResyncs() {
+        when(stringRedisTemplate.execute(eq(RedisDailySpendService.RESERVE), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("connection refused"))
+                .thenReturn(List.of(1L, 500000L));
+        when(dailySpendRepository.addWithinLimit(USER_ID, today, new BigDecimal("25.00"), new BigDecimal("500")))
+                .thenReturn(true);
+        when(dailyTransactionTotalRepository.findByUserIdAndDate(USER_ID, today))
+                .thenReturn(Optional.of(total("25.00")));
+
+        Optional<DailySpendReservation> fallback =
+                dailySpendService.reserve(USER_ID, new BigDecimal("25.00"), new BigDecimal("500"));
+        assertTrue(fallback.orElseThrow().persisted());
+
+        // Once Redis answers again the key is resynced from the database, which now holds the fallback spend
+        dailySpendService.reserve(USER_ID, new BigDecimal("25.00"), new BigDecimal("500"));
+        assertEquals("250000", reserveArgs(2).get(1)[6]);
+    }
+
+    @Test
+    void reserve_RedisDownAndDatabaseGuardFails_ReturnsEmpty() {
+        when(stringRedisTemplate.execute(eq(RedisDailySpendService.RESERVE), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+        when(dailySpendRepository.addWithinLimit(any(), any(), any(), any())).thenReturn(false);
+
+        assertTrue(dailySpendService.reserve(USER_ID, new BigDecimal("25.00"), new BigDecimal("500")).isEmpty());
+    }
+
+    @Test
+    void commit_ReservationTimedOut_RecordsTheSpendAnyway() {
+        when(stringRedisTemplate.execute(eq(RedisDailySpendService.SETTLE), anyList(), any(Object[].class)))
+                .thenReturn(0L);
+        when(stringRedisTemplate.execute(eq(RedisDailySpendService.RECORD), anyList(), any(Object[].class)))
+                .thenReturn(1L);
+
+        dailySpendService.commit(reservation(false));
+
+        verify(stringRedisTemplate).execute(eq(RedisDailySpendService.RECORD),
+                eq(List.of(RedisDailySpendService.key(USER_ID, today), RedisDailySpendService.DIRTY_KEY,
+                        RedisDailySpendService.STALE_KEY)),
+                eq("250000"), any(), eq(""));
+    }
+
+    @Test
+    void commit_PersistedReservation_IsAlreadyCounted() {
+        dailySpendService.commit(reservation(true));
+
+        verifyNoInteractions(stringRedisTemplate, dailySpendRepository);
+    }
+
+    @Test
+    void release_PersistedReservation_SubtractsInDatabase() {
+        dailySpendService.release(reservation(true));
+
+        verify(dailySpendRepository).subtract(USER_ID, today, new BigDecimal("25.00"));
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    void spentToday_CountsCommittedSpendAndLiveReservations() {
+        long future = System.currentTimeMillis() + 60_000;
+        long past = System.currentTimeMillis() - 60_000;
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(RedisDailySpendService.key(USER_ID, today))).thenReturn(Map.of(
+                "committed", "1000000",
+                "flushed", "400000",
+                "r:live", "50000:" + future,
+                "r:stale", "70000:" + past));
+
+        assertEquals(new BigDecimal("105.0000"), dailySpendService.spentToday(USER_ID));
+        verifyNoInteractions(dailyTransactionTotalRepository);
+    }
+
+    @Test
+    void spentToday_NotInRedis_ReadsPersistedTotal() {
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(any())).thenReturn(Map.of());
+        when(dailyTransactionTotalRepository.findByUserIdAndDate(USER_ID, today))
+                .thenReturn(Optional.of(total("40")));
+
+        assertEquals(new BigDecimal("40"), dailySpendService.spentToday(USER_ID));
+    }
+
+    @Test
+    void spentToday_KeyMarkedStaleByAnotherReplica_ReadsPersistedTotal() {
+        String key = RedisDailySpendService.key(USER_ID, today);
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.isMember(RedisDailySpendService.STALE_KEY, key)).thenReturn(true);
+        when(dailyTransactionTotalRepository.findByUserIdAndDate(USER_ID, today))
+                .thenReturn(Optional.of(total("40")));
+
+        assertEquals(new BigDecimal("40"), dailySpendService.spentToday(USER_ID));
+        verifyNoInteractions(hashOperations);
+    }
+
+    @Test
+    void flush_MarksKeysWrittenToTheDatabaseStaleInRedis_ThenResyncsThem() {
+        String key = RedisDailySpendService.key(USER_ID, today);
+        when(stringRedisTemplate.execute(eq(RedisDailySpendService.RESERVE), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+        when(dailySpendRepository.addWithinLimit(USER_ID, today, new BigDecimal("25.00"), new BigDecimal("500")))
+                .thenReturn(true);
+        dailySpendService.reserve(USER_ID, new BigDecimal("25.00"), new BigDecimal("500"));
+
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.distinctRandomMembers(RedisDailySpendService.STALE_KEY, 500)).thenReturn(Set.of(key));
+        when(dailyTransactionTotalRepository.findByUserIdAndDate(USER_ID, today))
+                .thenReturn(Optional.of(total("25.00")));
+
+        dailySpendService.flush();
+
+        verify(setOperations).add(RedisDailySpendService.STALE_KEY, key);
+        verify(stringRedisTemplate).execute(RedisDailySpendService.RESYNC,
+                List.of(key, RedisDailySpendService.STALE_KEY), "250000");
+
+        // Published once; the mark now lives in Redis
+        dailySpendService.flush();
+        verify(setOperations, times(1)).add(RedisDailySpendService.STALE_KEY, key);
+    }
+
+    @Test
+    void flush_WritesClaimedSpendInOneBatch() {
+        String key = RedisDailySpendService.key(USER_ID, today);
+        String unchanged = RedisDailySpendService.key("user-2", today);
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.pop(RedisDailySpendService.DIRTY_KEY, 500)).thenReturn(List.of(key, unchanged));
+        when(stringRedisTemplate.execute(RedisDailySpendService.CLAIM_FLUSH, List.of(key))).thenReturn(125000L);
+        when(stringRedisTemplate.execute(RedisDailySpendService.CLAIM_FLUSH, List.of(unchanged))).thenReturn(0L);
+
+        dailySpendService.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DailySpendRepository.Delta>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(dailySpendRepository).addAll(deltas.capture());
+        assertEquals(List.of(new DailySpendRepository.Delta(USER_ID, today, new BigDecimal("12.5000"))),
+                deltas.getValue());
+    }
+
+    @Test
+    void flush_DatabaseWriteFails_HandsClaimBackForNextFlush() {
+        String key = RedisDailySpendService.key(USER_ID, today);
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(setOperations.pop(RedisDailySpendService.DIRTY_KEY, 500)).thenReturn(List.of(key));
+        when(stringRedisTemplate.execute(RedisDailySpendService.CLAIM_FLUSH, List.of(key))).thenReturn(125000L);
+        doThrow(new DataAccessResourceFailureException("database unavailable"))
+                .when(dailySpendRepository).addAll(anyList());
+
+        dailySpendService.flush();
+
+        verify(hashOperations).increment(key, "flushed", -125000L);
+        verify(setOperations).add(RedisDailySpendService.DIRTY_KEY, key);
+    }
+
+    private List<Object[]> reserveArgs(int calls) {
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(stringRedisTemplate, times(calls))
+                .execute(eq(RedisDailySpendService.RESERVE), anyList(), args.capture());
+        return args.getAllValues();
+    }
+
+    private DailySpendReservation reservation(boolean persisted) {
+        return new DailySpendReservation("reservation-1", USER_ID, today, new BigDecimal("25.00"), persisted);
+    }
+
+    private DailyTransactionTotal total(String amount) {
+        return DailyTransactionTotal.builder().userId(USER_ID).date(today).totalAmount(new BigDecimal(amount)).build();
+    }
+}
@@ -0,0 +1,236 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.RedisTestContainer;
+import com.shizzy.moneytransfer.config.VelocityLimitProperties;
+import com.shizzy.moneytransfer.dto.AccountLimitDTO;
+import com.shizzy.moneytransfer.enums.VelocityWindow;
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.exception.TransactionLimitExceededException;
+import com.shizzy.moneytransfer.service.AccountLimitService;
+import com.shizzy.moneytransfer.service.DailySpendService;
+import com.shizzy.moneytransfer.service.LimitEvaluator;
+import com.shizzy.moneytransfer.service.TransactionLimitService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the velocity scripts against real Redis. The scripts take the time as an argument, so the window tests
+ * drive it explicitly instead of waiting for buckets to roll over: operations over a limit are turned away without
+ * being counted, buckets leave the window one at a time, and a reservation the daily limit turns down gives its
+ * velocity count back.
+ */
+@ExtendWith(MockitoExtension.class)
+class RedisVelocityLimitServiceIT {
+
+    private static final String USER_ID = "velocity-user";
+    private static final String KEY = RedisVelocityLimitService.key(USER_ID);
+    private static final long HOUR_BUCKET = VelocityWindow.ONE_HOUR.bucketMillis();
+    private static final long MINUTE = 60_000;
+    // Start of an hour-window bucket, so offsets below stay inside the bucket they name
+    private static final long START = 1_700_000_000_000L / HOUR_BUCKET * HOUR_BUCKET;
+    private static final List<Long> COUNTED = List.of(1L, 0L, 0L);
+
+    @Mock
+    private AccountLimitService accountLimitService;
+
+    @Mock
+    private DailySpendService dailySpendService;
+
+    @Mock
+    private LimitEvaluator limitEvaluator;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = RedisTestContainer.stringRedisTemplate();
+        RedisTestContainer.flushAll();
+    }
+
+    @Test
+    void acquire_RejectsAtTheCountLimit() {
+        Window hourly = new Window(VelocityWindow.ONE_HOUR, 3, -1);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(COUNTED, acquire(START + i * MINUTE, "100", hourly));
+        }
+
+        assertEquals(List.of(0L, 1L, 1L), acquire(START + 3 * MINUTE, "100", hourly));
+    }
+
+    @Test
+    void acquire_RejectsAtTheAmountLimit() {
+        Window hourly = new Window(VelocityWindow.ONE_HOUR, -1, 1_000_000);
+
+        assertEquals(COUNTED, acquire(START, "600000", hourly));
+        assertEquals(List.of(0L, 1L, 2L), acquire(START + MINUTE, "500000", hourly));
+        assertEquals(COUNTED, acquire(START + MINUTE, "400000", hourly));
+        assertEquals(List.of(0L, 1L, 2L), acquire(START + 2 * MINUTE, "1", hourly));
+    }
+
+    @Test
+    void acquire_BucketsRollOutOfTheWindowAndTheirSlotsAreReused() {
+        Window hourly = new Window(VelocityWindow.ONE_HOUR, 3, -1);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(COUNTED, acquire(START, "100", hourly));
+        }
+
+        // The last bucket still inside the window keeps the first three counted
+        long lastBucketInWindow = START + (VelocityWindow.ONE_HOUR.getBuckets() - 1) * HOUR_BUCKET;
+        assertEquals(List.of(0L, 1L, 1L), acquire(lastBucketInWindow, "100", hourly));
+
+        // One bucket later they have left the window; the new operation takes over their slot
+        long nextWindow = START + VelocityWindow.ONE_HOUR.getLength().toMillis();
+        assertEquals(COUNTED, acquire(nextWindow, "100", hourly));
+        assertEquals(COUNTED, acquire(nextWindow + MINUTE, "100", hourly));
+        assertEquals(COUNTED, acquire(nextWindow + 2 * MINUTE, "100", hourly));
+        assertEquals(List.of(0L, 1L, 1L), acquire(nextWindow + 3 * MINUTE, "100", hourly));
+        assertEquals(nextWindow / HOUR_BUCKET + ":3:300", slot(VelocityWindow.ONE_HOUR, nextWindow));
+    }
+
+    @Test
+    void acquire_RejectedInOneWindow_CountsInNone() {
+        Window hourly = new Window(VelocityWindow.ONE_HOUR, 10, -1);
+        Window daily = new Window(VelocityWindow.ONE_DAY, 1, -1);
+
+        assertEquals(COUNTED, acquire(START, "100", hourly, daily));
+        assertEquals(List.of(0L, 2L, 1L), acquire(START + MINUTE, "100", hourly, daily));
+
+        assertEquals(START / HOUR_BUCKET + ":1:100", slot(VelocityWindow.ONE_HOUR, START));
+    }
+
+    @Test
+    void release_TakesTheOperationOutOfItsBucket_UnlessTheSlotHasMovedOn() {
+        Window hourly = new Window(VelocityWindow.ONE_HOUR, 1, -1);
+        assertEquals(COUNTED, acquire(START, "100", hourly));
+
+        release(START, "100", hourly);
+        assertEquals(START / HOUR_BUCKET + ":0:0", slot(VelocityWindow.ONE_HOUR, START));
+        assertEquals(COUNTED, acquire(START + MINUTE, "100", hourly));
+
+        // A release arriving after the slot was reused for a later bucket leaves the later count alone
+        long nextWindow = START + VelocityWindow.ONE_HOUR.getLength().toMillis();
+        assertEquals(COUNTED, acquire(nextWindow, "100", hourly));
+        release(START + MINUTE, "100", hourly);
+        assertEquals(nextWindow / HOUR_BUCKET + ":1:100", slot(VelocityWindow.ONE_HOUR, nextWindow));
+    }
+
+    @Test
+    void acquire_ServiceRejectsOnceTheRuleIsReached() {
+        RedisVelocityLimitService velocityLimitService = velocityLimitService();
+        velocityLimitService.acquire(USER_ID, VerificationLevel.EMAIL_VERIFIED, new BigDecimal("25.00"));
+
+        TransactionLimitExceededException e = assertThrows(TransactionLimitExceededException.class, () ->
+                velocityLimitService.acquire(USER_ID, VerificationLevel.EMAIL_VERIFIED, new BigDecimal("25.00")));
+
+        assertTrue(e.getMessage().contains("1 transactions per hour"));
+        assertEquals(1, countedInTheLastHour());
+    }
+
+    @Test
+    void reserveSpend_DailyLimitRejects_ReleasesTheVelocityCount() {
+        TransactionLimitService transactionLimitService = transactionLimitService();
+        when(dailySpendService.reserve(any(), any(), any())).thenReturn(Optional.empty());
+
+        assertThrows(TransactionLimitExceededException.class,
+                () -> transactionLimitService.reserveSpend(USER_ID, new BigDecimal("25.00")));
+        assertThrows(TransactionLimitExceededException.class,
+                () -> transactionLimitService.reserveSpend(USER_ID, new BigDecimal("25.00")));
+
+        // With one operation allowed per hour, the second attempt only reached the daily check because the
+        // first one's velocity count was given back
+        verify(dailySpendService, times(2)).reserve(any(), any(), any());
+        assertEquals(0, countedInTheLastHour());
+    }
+
+    @Test
+    void reserveSpend_DailyReservationFails_ReleasesTheVelocityCount() {
+        TransactionLimitService transactionLimitService = transactionLimitService();
+        when(dailySpendService.reserve(any(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("connection reset"));
+
+        assertThrows(RedisConnectionFailureException.class,
+                () -> transactionLimitService.reserveSpend(USER_ID, new BigDecimal("25.00")));
+
+        assertEquals(0, countedInTheLastHour());
+    }
+
+    private TransactionLimitService transactionLimitService() {
+        when(accountLimitService.getUserLimits(USER_ID)).thenReturn(AccountLimitDTO.builder()
+                .verificationLevel(VerificationLevel.EMAIL_VERIFIED)
+                .dailyTransactionLimit(new BigDecimal("10.00"))
+                .build());
+        return new TransactionLimitService(accountLimitService, dailySpendService, limitEvaluator, velocityLimitService());
+    }
+
+    /**
+     * Velocity limits allowing email-verified users one operation per hour
+     */
+    private RedisVelocityLimitService velocityLimitService() {
+        VelocityLimitProperties.Rule onePerHour = new VelocityLimitProperties.Rule();
+        onePerHour.setMaxCount(1);
+        VelocityLimitProperties properties = new VelocityLimitProperties();
+        properties.setRules(new EnumMap<>(Map.of(VerificationLevel.EMAIL_VERIFIED,
+                new EnumMap<>(Map.of(VelocityWindow.ONE_HOUR, onePerHour)))));
+        return new RedisVelocityLimitService(stringRedisTemplate, properties, new SimpleMeterRegistry());
+    }
+
+    private int countedInTheLastHour() {
+        long bucket = System.currentTimeMillis() / HOUR_BUCKET;
+        int count = 0;
+        for (Object value : stringRedisTemplate.opsForHash().values(KEY)) {
+            String[] parts = ((String) value).split(":");
+            if (Long.parseLong(parts[0]) > bucket - VelocityWindow.ONE_HOUR.getBuckets()) {
+                count += Integer.parseInt(parts[1]);
+            }
+        }
+        return count;
+    }
+
+    private List<?> acquire(long now, String amount, Window... windows) {
+        List<String> args = new ArrayList<>(List.of(String.valueOf(now), amount, "3600"));
+        for (Window window : windows) {
+            args.add(window.window().name());
+            args.add(String.valueOf(window.window().bucketMillis()));
+            args.add(String.valueOf(window.window().getBuckets()));
+            args.add(String.valueOf(window.maxCount()));
+            args.add(String.valueOf(window.maxAmount()));
+        }
+        return stringRedisTemplate.execute(RedisVelocityLimitService.ACQUIRE, List.of(KEY), args.toArray());
+    }
+
+    private void release(long at, String amount, Window... windows) {
+        List<String> args = new ArrayList<>(List.of(String.valueOf(at), amount));
+        for (Window window : windows) {
+            args.add(window.window().name());
+            args.add(String.valueOf(window.window().bucketMillis()));
+            args.add(String.valueOf(window.window().getBuckets()));
+        }
+        stringRedisTemplate.execute(RedisVelocityLimitService.RELEASE, List.of(KEY), args.toArray());
+    }
+
+    private String slot(VelocityWindow window, long at) {
+        long bucket = at / window.bucketMillis();
+        return (String) stringRedisTemplate.opsForHash().get(KEY, window.name() + ":" + bucket % window.getBuckets());
+    }
+
+    private record Window(VelocityWindow window, long maxCount, long maxAmount) {
+    }
+}
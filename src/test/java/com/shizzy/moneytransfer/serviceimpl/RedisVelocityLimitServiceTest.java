@@ -0,0 +1,154 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.config.VelocityLimitProperties;
+import com.shizzy.moneytransfer.dto.VelocityPermit;
+import com.shizzy.moneytransfer.enums.VelocityWindow;
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.exception.TransactionLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisVelocityLimitServiceTest {
+
+    private static final String USER_ID = "user-1";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VelocityLimitProperties properties;
+    private RedisVelocityLimitService velocityLimitService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new VelocityLimitProperties();
+        Map<VelocityWindow, VelocityLimitProperties.Rule> rules = new EnumMap<>(VelocityWindow.class);
+        rules.put(VelocityWindow.ONE_HOUR, rule(5, null));
+        rules.put(VelocityWindow.ONE_DAY, rule(null, "500"));
+        properties.getRules().put(VerificationLevel.EMAIL_VERIFIED, rules);
+        velocityLimitService = new RedisVelocityLimitService(stringRedisTemplate, properties, meterRegistry);
+    }
+
+    @Test
+    void scripts_LoadFromClasspath() {
+        assertTrue(RedisVelocityLimitService.ACQUIRE.getScriptAsString().contains("HMGET"));
+        assertTrue(RedisVelocityLimitService.RELEASE.getScriptAsString().contains("redis.call"));
+    }
+
+    @Test
+    void acquire_WithinRules_CountsInEveryConfiguredWindow() {
+        when(stringRedisTemplate.execute(eq(RedisVelocityLimitService.ACQUIRE), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 0L, 0L));
+
+        VelocityPermit permit = velocityLimitService.acquire(USER_ID, VerificationLevel.EMAIL_VERIFIED,
+                new BigDecimal("25.00"));
+
+        assertEquals(List.of(VelocityWindow.ONE_HOUR, VelocityWindow.ONE_DAY), permit.windows());
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(stringRedisTemplate).execute(eq(RedisVelocityLimitService.ACQUIRE),
+                eq(List.of("velocity:" + USER_ID)), args.capture());
+        List<Object> sent = List.of(args.getValue());
+        assertEquals("250000", sent.get(1));
+        assertEquals(List.of("ONE_HOUR", "300000", "12", "5", "-1"), sent.subList(3, 8));
+        assertEquals(List.of("ONE_DAY", "3600000", "24", "-1", "5000000"), sent.subList(8, 13));
+        assertEquals(1.0, meterRegistry.counter("velocity.checks", "outcome", "allowed").count());
+    }
+
+    @Test
+    void acquire_CountRuleBroken_ThrowsNamingTheRule() {
+        when(stringRedisTemplate.execute(eq(RedisVelocityLimitService.ACQUIRE), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 1L, 1L));
+
+        TransactionLimitExceededException e = assertThrows(TransactionLimitExceededException.class,
+                () -> velocityLimitService.acquire(USER_ID, VerificationLevel.EMAIL_VERIFIED, BigDecimal.TEN));
+
+        assertEquals("You have reached your limit of 5 transactions per hour", e.getMessage());
+        assertEquals(1.0, meterRegistry.counter("velocity.checks", "outcome", "rejected").count());
+    }
+
+    @Test
+    void acquire_AmountRuleBroken_ThrowsNamingTheRule() {
+        when(stringRedisTemplate.execute(eq(RedisVelocityLimitService.ACQUIRE), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 2L, 2L));
+
+        TransactionLimitExceededException e = assertThrows(TransactionLimitExceededException.class,
+                () -> velocityLimitService.acquire(USER_ID, VerificationLevel.EMAIL_VERIFIED, BigDecimal.TEN));
+
+        assertEquals("This transaction would exceed your limit of 500 per 24 hours", e.getMessage());
+    }
+
+    @Test
+    void acquire_TierWithoutRules_SkipsRedis() {
+        VelocityPermit permit = velocityLimitService.acquire(USER_ID, VerificationLevel.FULLY_VERIFIED,
+                new BigDecimal("100000"));
+
+        assertTrue(permit.windows().isEmpty());
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    void acquire_Disabled_SkipsRedis() {
+        properties.setEnabled(false);
+
+        VelocityPermit permit = velocityLimitService.acquire(USER_ID, VerificationLevel.EMAIL_VERIFIED, BigDecimal.TEN);
+
+        assertTrue(permit.windows().isEmpty());
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    void acquire_RedisDown_LetsTheOperationThroughUncounted() {
+        when(stringRedisTemplate.execute(eq(RedisVelocityLimitService.ACQUIRE), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        VelocityPermit permit = velocityLimitService.acquire(USER_ID, VerificationLevel.EMAIL_VERIFIED, BigDecimal.TEN);
+
+        assertTrue(permit.windows().isEmpty());
+        assertEquals(1.0, meterRegistry.counter("velocity.checks", "outcome", "unavailable").count());
+    }
+
+    @Test
+    void release_TakesTheOperationOutOfItsBuckets() {
+        VelocityPermit permit = new VelocityPermit(USER_ID, new BigDecimal("25"), 1_700_000_000_000L,
+                List.of(VelocityWindow.ONE_HOUR));
+
+        velocityLimitService.release(permit);
+
+        verify(stringRedisTemplate).execute(RedisVelocityLimitService.RELEASE, List.of("velocity:" + USER_ID),
+                "1700000000000", "250000", "ONE_HOUR", "300000", "12");
+    }
+
+    @Test
+    void release_UncountedPermit_SkipsRedis() {
+        velocityLimitService.release(new VelocityPermit(USER_ID, BigDecimal.TEN, 0L, List.of()));
+
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    private static VelocityLimitProperties.Rule rule(Integer maxCount, String maxAmount) {
+        VelocityLimitProperties.Rule rule = new VelocityLimitProperties.Rule();
+        rule.setMaxCount(maxCount);
+        rule.setMaxAmount(maxAmount == null ? null : new BigDecimal(maxAmount));
+        return rule;
+    }
+}
@@ -0,0 +1,67 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.repository.ReferenceNodeClockRepository;
+import com.shizzy.moneytransfer.util.ReferenceNumberGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceClockCheckpointerTest {
+
+    private static final long NOW = 1_760_000_000_000L;
+
+    @Mock
+    private ReferenceNodeClockRepository clockRepository;
+
+    private AtomicLong clock;
+    private ReferenceNumberGenerator generator;
+    private ReferenceClockCheckpointer checkpointer;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(NOW);
+        generator = new ReferenceNumberGenerator(7, clock::get);
+        checkpointer = new ReferenceClockCheckpointer(generator, clockRepository, 5_000, clock::get);
+    }
+
+    @Test
+    void recordInitialMark_RecordsTwoIntervalsPastTheClock() {
+        checkpointer.recordInitialMark();
+
+        verify(clockRepository).raiseIssuedUntil(7, NOW + 10_000);
+    }
+
+    @Test
+    void checkpoint_StaysAheadOfAGeneratorResumedPastTheClock() {
+        generator.resumeAfter(NOW + 60_000);
+
+        checkpointer.checkpoint();
+
+        verify(clockRepository).raiseIssuedUntil(7, NOW + 70_000);
+    }
+
+    @Test
+    void checkpoint_SwallowsFailuresSoTheNextOneRetries() {
+        doThrow(new IllegalStateException("database unavailable"))
+                .when(clockRepository).raiseIssuedUntil(anyInt(), anyLong());
+
+        assertDoesNotThrow(() -> checkpointer.checkpoint());
+    }
+
+    @Test
+    void recordInitialMark_FailsStartupWhenTheMarkCannotBeRecorded() {
+        doThrow(new IllegalStateException("database unavailable"))
+                .when(clockRepository).raiseIssuedUntil(anyInt(), anyLong());
+
+        assertThrows(IllegalStateException.class, () -> checkpointer.recordInitialMark());
+    }
+}
@@ -0,0 +1,231 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.enums.RefundImpactType;
+import com.shizzy.moneytransfer.enums.RefundStatus;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.model.RefundImpactRecord;
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.model.WalletRefundableBalance;
+import com.shizzy.moneytransfer.repository.RefundImpactRecordRepository;
+import com.shizzy.moneytransfer.repository.TransactionRepository;
+import com.shizzy.moneytransfer.repository.WalletRefundableBalanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefundableBalanceServiceImplTest {
+
+    private static final Long WALLET_ID = 7L;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    @Mock
+    private WalletRefundableBalanceRepository balanceRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private RefundImpactRecordRepository refundImpactRecordRepository;
+
+    @InjectMocks
+    private RefundableBalanceServiceImpl refundableBalanceService;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        wallet = Wallet.builder().id(WALLET_ID).walletId("20000001").build();
+    }
+
+    @Test
+    void consume_NoRefundableTotal_SkipsDepositLookup() {
+        when(balanceRepository.findByWalletIdForUpdate(WALLET_ID))
+                .thenReturn(Optional.of(balance(BigDecimal.ZERO, null)));
+
+        refundableBalanceService.consume(wallet, new BigDecimal("50.00"));
+
+        verifyNoInteractions(transactionRepository, refundImpactRecordRepository);
+        verify(balanceRepository, never()).save(any());
+    }
+
+    @Test
+    void consume_StopsAtCoveringDeposit_AndKeepsCursorOnIt() {
+        Transaction first = deposit(1, "100.00", "100.00");
+        Transaction second = deposit(2, "200.00", "200.00");
+        WalletRefundableBalance balance = balance(new BigDecimal("300.00"), first);
+        when(balanceRepository.findByWalletIdForUpdate(WALLET_ID)).thenReturn(Optional.of(balance));
+        when(transactionRepository.findRefundableDepositsFrom(eq(WALLET_ID), eq(first.getTransactionDate()), eq(1), any()))
+                .thenReturn(List.of(first, second));
+
+        refundableBalanceService.consume(wallet, new BigDecimal("150.00"));
+
+        assertEquals(0, first.getRefundableAmount().signum());
+        assertEquals(RefundStatus.NON_REFUNDABLE, first.getRefundStatus());
+        assertEquals(new BigDecimal("150.00"), second.getRefundableAmount());
+        assertEquals(RefundStatus.PARTIALLY_REFUNDABLE, second.getRefundStatus());
+        assertEquals(new BigDecimal("150.00"), balance.getRefundableTotal());
+        assertEquals(second.getTransactionDate(), balance.getCursorTransactionDate());
+        assertEquals(2, balance.getCursorTransactionId());
+        verify(transactionRepository).saveAll(List.of(first, second));
+        verify(balanceRepository).save(balance);
+
+        List<RefundImpactRecord> impacts = capturedImpacts();
+        assertEquals(2, impacts.size());
+        assertEquals(new BigDecimal("-100.00"), impacts.get(0).getImpactAmount());
+        assertEquals(new BigDecimal("-50.00"), impacts.get(1).getImpactAmount());
+        assertEquals(new BigDecimal("200.00"), impacts.get(1).getPreviousRefundableAmount());
+        assertTrue(impacts.stream().allMatch(impact -> impact.getImpactType() == RefundImpactType.TRANSFER));
+    }
+
+    @Test
+    void consume_EmptiedDeposit_StepsCursorPastIt() {
+        Transaction first = deposit(1, "100.00", "100.00");
+        Transaction second = deposit(2, "200.00", "200.00");
+        WalletRefundableBalance balance = balance(new BigDecimal("300.00"), first);
+        when(balanceRepository.findByWalletIdForUpdate(WALLET_ID)).thenReturn(Optional.of(balance));
+        when(transactionRepository.findRefundableDepositsFrom(eq(WALLET_ID), any(), any(), any()))
+                .thenReturn(List.of(first, second));
+
+        refundableBalanceService.consume(wallet, new BigDecimal("100.00"));
+
+        assertEquals(new BigDecimal("200.00"), balance.getRefundableTotal());
+        assertEquals(first.getTransactionDate(), balance.getCursorTransactionDate());
+        assertEquals(2, balance.getCursorTransactionId());
+        assertEquals(new BigDecimal("200.00"), second.getRefundableAmount());
+        verify(transactionRepository).saveAll(List.of(first));
+    }
+
+    @Test
+    void consume_ReadsNextPageOnlyWhenFirstPageIsUsedUp() {
+        List<Transaction> firstPage = new ArrayList<>();
+        for (int i = 1; i <= RefundableBalanceServiceImpl.DEPOSIT_PAGE_SIZE; i++) {
+            firstPage.add(deposit(i, "10.00", "10.00"));
+        }
+        Transaction last = firstPage.get(firstPage.size() - 1);
+        Transaction next = deposit(100, "50.00", "50.00");
+        WalletRefundableBalance balance = balance(new BigDecimal("210.00"), firstPage.get(0));
+        when(balanceRepository.findByWalletIdForUpdate(WALLET_ID)).thenReturn(Optional.of(balance));
+        when(transactionRepository.findRefundableDepositsFrom(eq(WALLET_ID), eq(START.plusMinutes(1)), eq(1), any()))
+                .thenReturn(firstPage);
+        when(transactionRepository.findRefundableDepositsFrom(eq(WALLET_ID), eq(last.getTransactionDate()),
+                eq(last.getTransactionId() + 1), any()))
+                .thenReturn(List.of(next));
+
+        refundableBalanceService.consume(wallet, new BigDecimal("170.00"));
+
+        assertEquals(new BigDecimal("40.00"), next.getRefundableAmount());
+        assertEquals(100, balance.getCursorTransactionId());
+        assertEquals(new BigDecimal("40.00"), balance.getRefundableTotal());
+        assertEquals(RefundableBalanceServiceImpl.DEPOSIT_PAGE_SIZE + 1, capturedImpacts().size());
+    }
+
+    @Test
+    void consume_DepositsExhausted_ClearsBalance() {
+        Transaction only = deposit(1, "100.00", "50.00");
+        WalletRefundableBalance balance = balance(new BigDecimal("80.00"), only);
+        when(balanceRepository.findByWalletIdForUpdate(WALLET_ID)).thenReturn(Optional.of(balance));
+        when(transactionRepository.findRefundableDepositsFrom(eq(WALLET_ID), any(), any(), any()))
+                .thenReturn(List.of(only));
+
+        refundableBalanceService.consume(wallet, new BigDecimal("80.00"));
+
+        assertEquals(0, balance.getRefundableTotal().signum());
+        assertNull(balance.getCursorTransactionDate());
+        assertNull(balance.getCursorTransactionId());
+        assertEquals(RefundStatus.NON_REFUNDABLE, only.getRefundStatus());
+    }
+
+    @Test
+    void credit_RefundableDeposit_AddsToWalletBalance() {
+        Transaction deposit = deposit(5, "75.00", "75.00");
+
+        refundableBalanceService.credit(deposit, new BigDecimal("75.00"));
+
+        verify(balanceRepository).addRefundable(WALLET_ID, new BigDecimal("75.00"),
+                deposit.getTransactionDate(), 5);
+    }
+
+    @Test
+    void credit_NonRefundableDeposit_IsIgnored() {
+        Transaction deposit = deposit(5, "75.00", "75.00");
+        deposit.setRefundStatus(RefundStatus.NON_REFUNDABLE);
+
+        refundableBalanceService.credit(deposit, new BigDecimal("75.00"));
+
+        verifyNoInteractions(balanceRepository);
+    }
+
+    @Test
+    void rebuild_CursorPastOldestRefundableDeposit_IsReset() {
+        Transaction oldest = deposit(3, "60.00", "60.00");
+        WalletRefundableBalance balance = balance(new BigDecimal("60.00"), deposit(9, "10.00", "10.00"));
+        when(balanceRepository.findByWalletIdForUpdate(WALLET_ID)).thenReturn(Optional.of(balance));
+        when(transactionRepository.sumRefundableDepositAmount(WALLET_ID)).thenReturn(new BigDecimal("60.00"));
+        when(transactionRepository.findRefundableDepositsFrom(eq(WALLET_ID), any(), eq(0), any()))
+                .thenReturn(List.of(oldest));
+
+        assertTrue(refundableBalanceService.rebuild(WALLET_ID));
+
+        assertEquals(3, balance.getCursorTransactionId());
+        assertEquals(oldest.getTransactionDate(), balance.getCursorTransactionDate());
+        verify(balanceRepository).save(balance);
+    }
+
+    @Test
+    void rebuild_CursorTrailingOldestDeposit_IsConsistent() {
+        Transaction oldest = deposit(3, "60.00", "60.00");
+        WalletRefundableBalance balance = balance(new BigDecimal("60.00"), deposit(2, "10.00", "10.00"));
+        when(balanceRepository.findByWalletIdForUpdate(WALLET_ID)).thenReturn(Optional.of(balance));
+        when(transactionRepository.sumRefundableDepositAmount(WALLET_ID)).thenReturn(new BigDecimal("60.00"));
+        when(transactionRepository.findRefundableDepositsFrom(eq(WALLET_ID), any(), eq(0), any()))
+                .thenReturn(List.of(oldest));
+
+        assertFalse(refundableBalanceService.rebuild(WALLET_ID));
+
+        verify(balanceRepository, never()).save(any());
+    }
+
+    private Transaction deposit(int id, String amount, String refundableAmount) {
+        return Transaction.builder()
+                .transactionId(id)
+                .amount(new BigDecimal(amount))
+                .refundableAmount(new BigDecimal(refundableAmount))
+                .refundStatus(RefundStatus.FULLY_REFUNDABLE)
+                .operation(TransactionOperation.DEPOSIT)
+                .transactionDate(START.plusMinutes(id))
+                .wallet(wallet)
+                .build();
+    }
+
+    private WalletRefundableBalance balance(BigDecimal total, Transaction cursor) {
+        return WalletRefundableBalance.builder()
+                .walletId(WALLET_ID)
+                .refundableTotal(total)
+                .cursorTransactionDate(cursor == null ? null : cursor.getTransactionDate())
+                .cursorTransactionId(cursor == null ? null : cursor.getTransactionId())
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<RefundImpactRecord> capturedImpacts() {
+        ArgumentCaptor<List<RefundImpactRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(refundImpactRecordRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,117 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.cache.CacheTagIndex;
+import com.shizzy.moneytransfer.dto.PaymentResponse;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.enums.TransactionStatus;
+import com.shizzy.moneytransfer.exception.FraudulentTransactionException;
+import com.shizzy.moneytransfer.model.Transaction;
+import com.shizzy.moneytransfer.model.User;
+import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.TransactionReferenceRepository;
+import com.shizzy.moneytransfer.repository.TransactionRepository;
+import com.shizzy.moneytransfer.repository.UserRepository;
+import com.shizzy.moneytransfer.repository.WalletRepository;
+import com.shizzy.moneytransfer.service.TransactionLimitService;
+import com.shizzy.moneytransfer.service.TransactionMonitoringService;
+import com.shizzy.moneytransfer.service.TransactionReferenceService;
+import com.shizzy.moneytransfer.service.payment.StripePaymentProcessor;
+import com.stripe.model.checkout.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StripeServiceTest {
+
+    private static final String EMAIL = "depositor@example.com";
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Mock
+    private StripePaymentProcessor paymentProcessor;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionReferenceRepository referenceRepository;
+
+    @Mock
+    private TransactionReferenceService referenceService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private TransactionLimitService transactionLimitService;
+
+    @Mock
+    private CacheTagIndex cacheTagIndex;
+
+    @Mock
+    private TransactionMonitoringService transactionMonitoringService;
+
+    @InjectMocks
+    private StripeService stripeService;
+
+    @Test
+    void createPayment_ScreensTheDepositBeforeOpeningTheCheckout() throws Exception {
+        givenDeposit();
+        Session session = new Session();
+        when(paymentProcessor.createCheckoutSession(EMAIL, BigDecimal.valueOf(50.0), "REF123-STRP", USER_ID.toString()))
+                .thenReturn(session);
+        PaymentResponse response = PaymentResponse.builder().transactionReference("REF123-STRP").build();
+        when(paymentProcessor.generatePaymentResponse(session, "REF123-STRP")).thenReturn(response);
+
+        assertSame(response, stripeService.createPayment(50.0, EMAIL));
+
+        InOrder inOrder = inOrder(transactionMonitoringService, paymentProcessor);
+        ArgumentCaptor<Transaction> screened = ArgumentCaptor.forClass(Transaction.class);
+        inOrder.verify(transactionMonitoringService).monitorTransaction(screened.capture());
+        inOrder.verify(paymentProcessor).createCheckoutSession(any(), any(), any(), any());
+        assertEquals(TransactionOperation.DEPOSIT, screened.getValue().getOperation());
+        assertEquals(TransactionStatus.PENDING.getValue(), screened.getValue().getCurrentStatus());
+    }
+
+    @Test
+    void createPayment_BlockedByFraudScreening_KeepsTheDepositAsFailedWithoutOpeningACheckout() throws Exception {
+        givenDeposit();
+        doThrow(new FraudulentTransactionException("Operation failed"))
+                .when(transactionMonitoringService).monitorTransaction(any());
+
+        assertThrows(FraudulentTransactionException.class, () -> stripeService.createPayment(50.0, EMAIL));
+
+        verifyNoInteractions(paymentProcessor);
+        ArgumentCaptor<Transaction> saved = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository, times(2)).save(saved.capture());
+        Transaction deposit = saved.getValue();
+        assertEquals(TransactionStatus.FAILED.getValue(), deposit.getCurrentStatus());
+        assertEquals("Blocked by fraud screening", deposit.getFailureReason());
+    }
+
+    private void givenDeposit() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(User.builder().userId(USER_ID).build()));
+        when(walletRepository.findWalletByCreatedBy(USER_ID.toString())).thenReturn(Optional.of(Wallet.builder()
+                .id(1L)
+                .walletId("STRIPE1")
+                .balance(new BigDecimal("100.00"))
+                .build()));
+        when(referenceService.generateUniqueReferenceNumber()).thenReturn("REF123");
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+}
@@ -0,0 +1,117 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.AbstractTestContainers;
+import com.shizzy.moneytransfer.config.IdentifierPermutationConfig;
+import com.shizzy.moneytransfer.config.WalletLaneProperties;
+import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.IdentifierBlockRepository;
+import com.shizzy.moneytransfer.repository.WalletActivityStatsRepository;
+import com.shizzy.moneytransfer.repository.WalletRepository;
+import com.shizzy.moneytransfer.service.WalletService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs transfers through enabled wallet lanes against a real database, to check that a transfer made inside a
+ * caller's transaction commits or rolls back with it instead of committing on a lane thread.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({WalletServiceImpl.class, BlockIdentifierAllocationService.class, IdentifierBlockRepository.class,
+        IdentifierPermutationConfig.class,
+        WalletActivityStatsRepository.class})
+class StripedWalletLaneExecutorIT extends AbstractTestContainers {
+
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("100.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("40.00");
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private StripedWalletLaneExecutor laneExecutor;
+    private TransactionTemplate transactionTemplate;
+    private Wallet source;
+    private Wallet destination;
+
+    @BeforeEach
+    void setUp() {
+        WalletLaneProperties properties = new WalletLaneProperties();
+        properties.setEnabled(true);
+        laneExecutor = new StripedWalletLaneExecutor(properties, new SimpleMeterRegistry());
+        laneExecutor.startLanes();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        walletRepository.deleteAll();
+        source = walletRepository.save(wallet("LANESRC"));
+        destination = walletRepository.save(wallet("LANEDST"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        laneExecutor.stopLanes();
+    }
+
+    @Test
+    void transferInsideOuterTransaction_RollsBackWhenTheCallerFailsAfterIt() {
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(outer -> {
+            transferThroughLanes();
+            throw new IllegalStateException("failed after the transfer");
+        }));
+
+        assertEquals(0, OPENING_BALANCE.compareTo(balanceOf(source)));
+        assertEquals(0, OPENING_BALANCE.compareTo(balanceOf(destination)));
+    }
+
+    @Test
+    void transferWithoutOuterTransaction_CommitsOnTheLane() {
+        transferThroughLanes();
+
+        assertEquals(0, OPENING_BALANCE.subtract(AMOUNT).compareTo(balanceOf(source)));
+        assertEquals(0, OPENING_BALANCE.add(AMOUNT).compareTo(balanceOf(destination)));
+    }
+
+    private void transferThroughLanes() {
+        laneExecutor.execute(List.of(source.getWalletId(), destination.getWalletId()),
+                () -> transactionTemplate.executeWithoutResult(status ->
+                        walletService.transfer(walletRepository.findById(source.getId()).orElseThrow(),
+                                walletRepository.findById(destination.getId()).orElseThrow(), AMOUNT)));
+    }
+
+    private BigDecimal balanceOf(Wallet wallet) {
+        return walletRepository.findById(wallet.getId()).orElseThrow().getBalance();
+    }
+
+    private static Wallet wallet(String walletId) {
+        return Wallet.builder()
+                .walletId(walletId)
+                .createdBy("lane-user-" + walletId)
+                .createdDate(LocalDateTime.now())
+                .balance(OPENING_BALANCE)
+                .currency("USD")
+                .build();
+    }
+}
@@ -0,0 +1,258 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.config.WalletLaneProperties;
+import com.shizzy.moneytransfer.exception.InsufficientBalanceException;
+import com.shizzy.moneytransfer.exception.WalletLaneRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedWalletLaneExecutorTest {
+
+    private WalletLaneProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private StripedWalletLaneExecutor laneExecutor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WalletLaneProperties();
+        properties.setEnabled(true);
+        properties.setLaneCount(4);
+        properties.setQueueCapacity(2);
+        meterRegistry = new SimpleMeterRegistry();
+        laneExecutor = new StripedWalletLaneExecutor(properties, meterRegistry);
+        laneExecutor.startLanes();
+    }
+
+    @AfterEach
+    void tearDown() {
+        laneExecutor.stopLanes();
+    }
+
+    @Test
+    void execute_RunsInlineWhenDisabled() {
+        StripedWalletLaneExecutor disabled = new StripedWalletLaneExecutor(new WalletLaneProperties(), meterRegistry);
+        disabled.startLanes();
+
+        String threadName = disabled.execute("20000001", () -> Thread.currentThread().getName());
+
+        assertEquals(Thread.currentThread().getName(), threadName);
+    }
+
+    @Test
+    void execute_RunsInlineInsideTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            String threadName = laneExecutor.execute(List.of("20000001", "20000002"),
+                    () -> Thread.currentThread().getName());
+
+            assertEquals(Thread.currentThread().getName(), threadName);
+            assertEquals(1.0, meterRegistry.get("wallet.lane.in.transaction").counter().count());
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    @Test
+    void execute_CarriesSecurityContextOntoLane() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("sender", null));
+        try {
+            String principal = laneExecutor.execute("20000001",
+                    () -> SecurityContextHolder.getContext().getAuthentication().getName());
+
+            assertEquals("sender", principal);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void execute_SerializesOperationsOnSameWallet() throws Exception {
+        properties.setQueueCapacity(100);
+        laneExecutor.stopLanes();
+        laneExecutor = new StripedWalletLaneExecutor(properties, new SimpleMeterRegistry());
+        laneExecutor.startLanes();
+
+        // Unsynchronized read-modify-write; only stays exact if the lane runs one operation at a time
+        long[] balance = {0};
+        List<CompletableFuture<Void>> callers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            callers.add(CompletableFuture.runAsync(() -> {
+                for (int j = 0; j < 50; j++) {
+                    laneExecutor.execute("20000001", () -> {
+                        long current = balance[0];
+                        Thread.onSpinWait();
+                        balance[0] = current + 1;
+                    });
+                }
+            }));
+        }
+        CompletableFuture.allOf(callers.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1000, laneExecutor.execute("20000001", () -> balance[0]));
+    }
+
+    @Test
+    void execute_RunsOnLaneThread() {
+        String threadName = laneExecutor.execute("20000001", () -> Thread.currentThread().getName());
+
+        assertTrue(threadName.startsWith("wallet-lane-"));
+    }
+
+    @Test
+    void execute_RunsDifferentLanesInParallel() throws Exception {
+        String firstWallet = "20000001";
+        String secondWallet = findWalletInOtherLane(firstWallet);
+        CountDownLatch bothRunning = new CountDownLatch(2);
+
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() ->
+                laneExecutor.execute(firstWallet, () -> awaitLatch(bothRunning)));
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() ->
+                laneExecutor.execute(secondWallet, () -> awaitLatch(bothRunning)));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void execute_RethrowsOperationException() {
+        assertThrows(InsufficientBalanceException.class, () -> laneExecutor.execute("20000001", () -> {
+            throw new InsufficientBalanceException("You do not have sufficient balance to complete this transaction");
+        }));
+    }
+
+    @Test
+    void execute_RejectsWhenLaneQueueIsFull() throws Exception {
+        String walletId = "20000001";
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        // Occupy the lane thread, then fill its queue of two
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> laneExecutor.execute(walletId, () -> {
+            started.countDown();
+            awaitRelease(release);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> queuedOne = CompletableFuture.runAsync(() -> laneExecutor.execute(walletId, () -> {}));
+        CompletableFuture<Void> queuedTwo = CompletableFuture.runAsync(() -> laneExecutor.execute(walletId, () -> {}));
+        waitForQueueDepth(laneExecutor.laneFor(walletId), 2);
+
+        assertThrows(WalletLaneRejectedException.class, () -> laneExecutor.execute(walletId, () -> {}));
+        assertEquals(1.0, meterRegistry.get("wallet.lane.rejected")
+                .tag("lane", String.valueOf(laneExecutor.laneFor(walletId))).counter().count());
+
+        release.countDown();
+        CompletableFuture.allOf(running, queuedOne, queuedTwo).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void executeOnWallets_HoldsEveryWalletsLane() throws Exception {
+        String debited = "20000001";
+        String credited = findWalletInOtherLane(debited);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<Void> transfer = CompletableFuture.runAsync(() ->
+                laneExecutor.execute(List.of(debited, credited), () -> {
+                    started.countDown();
+                    awaitRelease(release);
+                    return null;
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // A write to the credited wallet waits for the transfer rather than running beside it
+        CompletableFuture<Void> credit = CompletableFuture.runAsync(() -> laneExecutor.execute(credited, () -> {}));
+        Thread.sleep(100);
+        assertFalse(credit.isDone());
+
+        release.countDown();
+        CompletableFuture.allOf(transfer, credit).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void executeOnWallets_OpposingTransfersDoNotDeadlock() throws Exception {
+        properties.setQueueCapacity(100);
+        laneExecutor.stopLanes();
+        laneExecutor = new StripedWalletLaneExecutor(properties, new SimpleMeterRegistry());
+        laneExecutor.startLanes();
+        String first = "20000001";
+        String second = findWalletInOtherLane(first);
+
+        List<CompletableFuture<Void>> callers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            List<String> wallets = i % 2 == 0 ? List.of(first, second) : List.of(second, first);
+            callers.add(CompletableFuture.runAsync(() -> {
+                for (int j = 0; j < 20; j++) {
+                    laneExecutor.execute(wallets, () -> Thread.onSpinWait());
+                }
+            }));
+        }
+
+        CompletableFuture.allOf(callers.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void executeOnWallets_RunsHeldLanesInline() {
+        String debited = "20000001";
+        String credited = findWalletInOtherLane(debited);
+
+        boolean inline = laneExecutor.execute(List.of(debited, credited), () -> {
+            String outer = Thread.currentThread().getName();
+            return outer.equals(laneExecutor.execute(debited, () -> Thread.currentThread().getName()))
+                    && outer.equals(laneExecutor.execute(credited, () -> Thread.currentThread().getName()));
+        });
+
+        assertTrue(inline);
+    }
+
+    private String findWalletInOtherLane(String walletId) {
+        int lane = laneExecutor.laneFor(walletId);
+        for (int i = 2; i < 1000; i++) {
+            String candidate = String.format("2%07d", i);
+            if (laneExecutor.laneFor(candidate) != lane) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("No wallet found in another lane");
+    }
+
+    private void waitForQueueDepth(int lane, double depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("wallet.lane.queue.depth").tag("lane", String.valueOf(lane)).gauge().value() < depth) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Lane queue never reached depth " + depth);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitRelease(CountDownLatch release) {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean awaitLatch(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.dto.LimitDecision;
+import com.shizzy.moneytransfer.enums.LimitType;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.enums.VerificationLevel;
+import com.shizzy.moneytransfer.model.AccountLimit;
+import com.shizzy.moneytransfer.service.AccountLimitService;
+import com.shizzy.moneytransfer.service.AccountLimitTierCache;
+import com.shizzy.moneytransfer.service.DailySpendService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TierLimitEvaluatorTest {
+
+    @Mock
+    private AccountLimitService accountLimitService;
+
+    @Mock
+    private AccountLimitTierCache limitTiers;
+
+    @Mock
+    private DailySpendService dailySpendService;
+
+    @InjectMocks
+    private TierLimitEvaluator evaluator;
+
+    private final String userId = "user-1";
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(accountLimitService.getUserVerificationLevel(userId))
+                .thenReturn(VerificationLevel.EMAIL_VERIFIED);
+        lenient().when(limitTiers.get(VerificationLevel.EMAIL_VERIFIED)).thenReturn(AccountLimit.builder()
+                .verificationLevel(VerificationLevel.EMAIL_VERIFIED)
+                .dailyTransactionLimit(new BigDecimal("500"))
+                .maxWalletBalance(new BigDecimal("1000"))
+                .maxDepositAmount(new BigDecimal("300"))
+                .maxWithdrawalAmount(new BigDecimal("200"))
+                .maxTransferAmount(new BigDecimal("400"))
+                .build());
+    }
+
+    @Test
+    void evaluate_WithinLimits_AllowsAndReportsHeadroom() {
+        when(dailySpendService.spentToday(userId)).thenReturn(new BigDecimal("150"));
+
+        LimitDecision decision = evaluator.evaluate(userId, TransactionOperation.TRANSFER,
+                new BigDecimal("100"), new BigDecimal("600"));
+
+        assertTrue(decision.allowed());
+        assertTrue(decision.violations().isEmpty());
+        assertNull(decision.firstViolation());
+        assertEquals(new BigDecimal("400"), decision.maxSingleAmount());
+        assertEquals(new BigDecimal("350"), decision.remainingDailyAmount());
+        assertEquals(new BigDecimal("400"), decision.remainingBalanceCapacity());
+    }
+
+    @Test
+    void evaluate_SeveralLimitsBroken_ReportsEveryViolationInOrder() {
+        when(dailySpendService.spentToday(userId)).thenReturn(new BigDecimal("300"));
+
+        LimitDecision decision = evaluator.evaluate(userId, TransactionOperation.DEPOSIT,
+                new BigDecimal("350"), new BigDecimal("1200"));
+
+        assertFalse(decision.allowed());
+        assertEquals(List.of(LimitType.MAX_DEPOSIT, LimitType.DAILY_TRANSACTION, LimitType.MAX_WALLET_BALANCE),
+                decision.violations().stream().map(v -> v.type()).toList());
+        assertEquals("Deposit amount exceeds your limit of 300", decision.firstViolation().message());
+        assertEquals(new BigDecimal("650"), decision.violations().get(1).attempted());
+        assertEquals(BigDecimal.ZERO, decision.remainingBalanceCapacity());
+    }
+
+    @Test
+    void evaluate_OnlyDailyLimitBroken_UsesExistingMessage() {
+        when(dailySpendService.spentToday(userId)).thenReturn(new BigDecimal("450"));
+
+        LimitDecision decision = evaluator.evaluate(userId, TransactionOperation.WITHDRAWAL,
+                new BigDecimal("100"), null);
+
+        assertFalse(decision.allowed());
+        assertEquals("This transaction would exceed your daily transaction limit of 500",
+                decision.firstViolation().message());
+        assertNull(decision.remainingBalanceCapacity());
+    }
+
+    @Test
+    void evaluate_ResolvesLevelTierAndSpendOnce() {
+        when(dailySpendService.spentToday(userId)).thenReturn(BigDecimal.ZERO);
+
+        evaluator.evaluate(userId, TransactionOperation.TRANSFER, new BigDecimal("10"), new BigDecimal("10"));
+
+        verify(accountLimitService, times(1)).getUserVerificationLevel(userId);
+        verify(limitTiers, times(1)).get(VerificationLevel.EMAIL_VERIFIED);
+        verify(dailySpendService, times(1)).spentToday(userId);
+    }
+
+    @Test
+    void evaluate_FullyVerified_HasNoLimits() {
+        when(accountLimitService.getUserVerificationLevel(userId)).thenReturn(VerificationLevel.FULLY_VERIFIED);
+
+        LimitDecision decision = evaluator.evaluate(userId, TransactionOperation.TRANSFER,
+                new BigDecimal("1000000"), null);
+
+        assertTrue(decision.allowed());
+        assertNull(decision.maxSingleAmount());
+        assertNull(decision.remainingDailyAmount());
+        verifyNoInteractions(limitTiers, dailySpendService);
+    }
+
+    @Test
+    void evaluate_UnsetDailyLimit_SkipsSpendLookup() {
+        when(limitTiers.get(VerificationLevel.EMAIL_VERIFIED)).thenReturn(AccountLimit.builder()
+                .verificationLevel(VerificationLevel.EMAIL_VERIFIED)
+                .maxTransferAmount(new BigDecimal("400"))
+                .build());
+
+        LimitDecision decision = evaluator.evaluate(userId, TransactionOperation.TRANSFER,
+                new BigDecimal("100"), null);
+
+        assertTrue(decision.allowed());
+        assertNull(decision.remainingDailyAmount());
+        verify(dailySpendService, never()).spentToday(anyString());
+    }
+
+    @Test
+    void evaluate_OperationWithoutLimits_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> evaluator.evaluate(userId,
+                TransactionOperation.REFUND, BigDecimal.ONE, null));
+    }
+}
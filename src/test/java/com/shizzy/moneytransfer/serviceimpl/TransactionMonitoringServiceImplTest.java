@@ -1,25 +1,49 @@
 package com.shizzy.moneytransfer.serviceimpl;
 
+import com.shizzy.moneytransfer.config.FraudRuleProperties;
+import com.shizzy.moneytransfer.config.FraudSignalProperties;
+import com.shizzy.moneytransfer.dto.WalletFeatures;
+import com.shizzy.moneytransfer.dto.WalletSignals;
+import com.shizzy.moneytransfer.enums.FraudRuleMode;
+import com.shizzy.moneytransfer.enums.RuleTimeoutPolicy;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.events.ShadowFraudRulesEvent;
 import com.shizzy.moneytransfer.exception.FraudulentTransactionException;
+import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
 import com.shizzy.moneytransfer.model.FlaggedTransactionReason;
 import com.shizzy.moneytransfer.model.Transaction;
 import com.shizzy.moneytransfer.model.Wallet;
 import com.shizzy.moneytransfer.repository.FlaggedTransactionReasonRepository;
 import com.shizzy.moneytransfer.repository.TransactionRepository;
+import com.shizzy.moneytransfer.repository.WalletFeaturesRepository;
 import com.shizzy.moneytransfer.service.WalletService;
 import com.shizzy.moneytransfer.service.detection.FraudDetectionRule;
+import com.shizzy.moneytransfer.service.detection.FraudSignalStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +58,15 @@ class TransactionMonitoringServiceImplTest {
     @Mock
     private WalletService walletService;
 
+    @Mock
+    private WalletFeaturesRepository walletFeaturesRepository;
+
+    @Mock
+    private FraudSignalStore fraudSignalStore;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private FraudDetectionRule rule1;
 
@@ -44,23 +77,43 @@ class TransactionMonitoringServiceImplTest {
     private FraudDetectionRule rule3;
 
     private TransactionMonitoringServiceImpl transactionMonitoringService;
+    private FraudRuleProperties properties;
+    private FraudSignalProperties signalProperties;
+    private SimpleMeterRegistry meterRegistry;
 
     private Transaction transaction;
     private Wallet wallet;
+    private WalletFeatures features;
     private FlaggedTransactionReason reason1, reason2, reason3;
+    private final CountDownLatch slowRuleRelease = new CountDownLatch(1);
 
     @BeforeEach
     void setUp() {
         // Initialize fraud detection rules list
         List<FraudDetectionRule> rules = Arrays.asList(rule1, rule2, rule3);
+        lenient().when(rule1.name()).thenReturn("rule1");
+        lenient().when(rule2.name()).thenReturn("rule2");
+        lenient().when(rule3.name()).thenReturn("rule3");
+        properties = new FraudRuleProperties();
+        properties.setTotalBudget(Duration.ofMillis(200));
+        signalProperties = new FraudSignalProperties();
+        meterRegistry = new SimpleMeterRegistry();
         transactionMonitoringService = new TransactionMonitoringServiceImpl(
                 transactionRepository,
                 flaggedTransactionReasonRepository,
                 walletService,
-                rules);
+                walletFeaturesRepository,
+                rules,
+                properties,
+                fraudSignalStore,
+                signalProperties,
+                eventPublisher,
+                meterRegistry);
+        transactionMonitoringService.start();
 
         // Set up test wallet
         wallet = new Wallet();
+        wallet.setId(7L);
         wallet.setWalletId(UUID.randomUUID().toString());
 
         // Set up test transaction
@@ -68,26 +121,38 @@ class TransactionMonitoringServiceImplTest {
         transaction.setWallet(wallet);
         transaction.setFlaggedTransactionReasons(new ArrayList<>());
 
+        // Set up the wallet's feature snapshot
+        features = new WalletFeatures(wallet.getWalletId(), LocalDateTime.now(), LocalDateTime.now().minusYears(1),
+                null, 0, null, Map.of(), Map.of());
+        lenient().when(walletFeaturesRepository.load(eq(wallet.getWalletId()), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(features));
+
         // Set up flagged transaction reasons
         reason1 = new FlaggedTransactionReason();
         reason2 = new FlaggedTransactionReason();
         reason3 = new FlaggedTransactionReason();
     }
 
+    @AfterEach
+    void tearDown() {
+        slowRuleRelease.countDown();
+        transactionMonitoringService.stop();
+    }
+
     @Test
     void monitorTransaction_NoRulesTriggered_TransactionNotFlagged() {
         // Given
-        when(rule1.evaluate(transaction)).thenReturn(false);
-        when(rule2.evaluate(transaction)).thenReturn(false);
-        when(rule3.evaluate(transaction)).thenReturn(false);
+        when(rule1.evaluate(transaction, features)).thenReturn(false);
+        when(rule2.evaluate(transaction, features)).thenReturn(false);
+        when(rule3.evaluate(transaction, features)).thenReturn(false);
 
         // When
         transactionMonitoringService.monitorTransaction(transaction);
 
         // Then
-        verify(rule1).evaluate(transaction);
-        verify(rule2).evaluate(transaction);
-        verify(rule3).evaluate(transaction);
+        verify(rule1).evaluate(transaction, features);
+        verify(rule2).evaluate(transaction, features);
+        verify(rule3).evaluate(transaction, features);
         verify(flaggedTransactionReasonRepository, never()).saveAll(anyList());
         verify(transactionRepository, never()).save(any());
         verify(walletService, never()).flagWallet(any());
@@ -98,11 +163,11 @@ class TransactionMonitoringServiceImplTest {
     @Test
     void monitorTransaction_TwoRulesTriggered_TransactionFlagged() {
         // Given
-        when(rule1.evaluate(transaction)).thenReturn(true);
+        when(rule1.evaluate(transaction, features)).thenReturn(true);
         when(rule1.createReason(transaction)).thenReturn(reason1);
-        when(rule2.evaluate(transaction)).thenReturn(true);
+        when(rule2.evaluate(transaction, features)).thenReturn(true);
         when(rule2.createReason(transaction)).thenReturn(reason2);
-        when(rule3.evaluate(transaction)).thenReturn(false);
+        when(rule3.evaluate(transaction, features)).thenReturn(false);
 
         // When & Then
         assertThrows(
@@ -119,11 +184,11 @@ class TransactionMonitoringServiceImplTest {
     @Test
     void monitorTransaction_ThreeRulesTriggered_TransactionAndWalletFlagged() {
         // Given
-        when(rule1.evaluate(transaction)).thenReturn(true);
+        when(rule1.evaluate(transaction, features)).thenReturn(true);
         when(rule1.createReason(transaction)).thenReturn(reason1);
-        when(rule2.evaluate(transaction)).thenReturn(true);
+        when(rule2.evaluate(transaction, features)).thenReturn(true);
         when(rule2.createReason(transaction)).thenReturn(reason2);
-        when(rule3.evaluate(transaction)).thenReturn(true);
+        when(rule3.evaluate(transaction, features)).thenReturn(true);
         when(rule3.createReason(transaction)).thenReturn(reason3);
 
         // When & Then
@@ -137,4 +202,160 @@ class TransactionMonitoringServiceImplTest {
         assertTrue(transaction.isFlagged());
         assertEquals(3, transaction.getFlaggedTransactionReasons().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void monitorTransaction_LoadsFeaturesOnceForAllRules() {
+        // Given
+        when(rule1.evaluate(transaction, features)).thenReturn(false);
+        when(rule2.evaluate(transaction, features)).thenReturn(false);
+        when(rule3.evaluate(transaction, features)).thenReturn(false);
+
+        // When
+        transactionMonitoringService.monitorTransaction(transaction);
+
+        // Then
+        verify(walletFeaturesRepository, times(1)).load(eq(wallet.getWalletId()), any(LocalDateTime.class));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void monitorTransaction_UnknownWallet_Throws() {
+        // Given
+        when(walletFeaturesRepository.load(eq(wallet.getWalletId()), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> transactionMonitoringService.monitorTransaction(transaction));
+        verifyNoInteractions(rule1, rule2, rule3);
+    }
+
+    @Test
+    void monitorTransaction_RuleMissesBudget_FailOpen_TransactionNotFlagged() {
+        // Given
+        when(rule1.evaluate(transaction, features)).thenAnswer(invocation -> slowRuleRelease.await(5, TimeUnit.SECONDS));
+        when(rule2.evaluate(transaction, features)).thenReturn(false);
+        when(rule3.evaluate(transaction, features)).thenReturn(false);
+
+        // When
+        long start = System.nanoTime();
+        transactionMonitoringService.monitorTransaction(transaction);
+
+        // Then
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+        assertFalse(transaction.isFlagged());
+        assertEquals(1.0, meterRegistry.counter("fraud.rule.evaluations",
+                "rule", "rule1", "mode", "ENFORCE", "outcome", "timeout").count());
+    }
+
+    @Test
+    void monitorTransaction_RuleMissesItsTimeout_FailClosed_TransactionFlagged() {
+        // Given
+        FraudRuleProperties.Rule settings = new FraudRuleProperties.Rule();
+        settings.setTimeout(Duration.ofMillis(20));
+        settings.setTimeoutPolicy(RuleTimeoutPolicy.FAIL_CLOSED);
+        properties.getRules().put("rule1", settings);
+        when(rule1.evaluate(transaction, features)).thenAnswer(invocation -> !slowRuleRelease.await(5, TimeUnit.SECONDS));
+        when(rule2.evaluate(transaction, features)).thenReturn(false);
+        when(rule3.evaluate(transaction, features)).thenReturn(false);
+
+        // When & Then
+        assertThrows(FraudulentTransactionException.class,
+                () -> transactionMonitoringService.monitorTransaction(transaction));
+
+        assertTrue(transaction.isFlagged());
+        assertEquals("Fraud check rule1 could not be completed.",
+                transaction.getFlaggedTransactionReasons().get(0).getReason());
+        slowRuleRelease.countDown();
+        verify(rule1, never()).createReason(any());
+    }
+
+    @Test
+    void monitorTransaction_RuleFails_FailClosed_TransactionFlagged() {
+        // Given
+        properties.setDefaultTimeoutPolicy(RuleTimeoutPolicy.FAIL_CLOSED);
+        when(rule1.evaluate(transaction, features)).thenThrow(new IllegalStateException("boom"));
+        when(rule2.evaluate(transaction, features)).thenReturn(false);
+        when(rule3.evaluate(transaction, features)).thenReturn(false);
+
+        // When & Then
+        assertThrows(FraudulentTransactionException.class,
+                () -> transactionMonitoringService.monitorTransaction(transaction));
+        assertEquals(1.0, meterRegistry.counter("fraud.rule.evaluations",
+                "rule", "rule1", "mode", "ENFORCE", "outcome", "error").count());
+    }
+
+    @Test
+    void monitorTransaction_ShadowRule_IsNotEnforced_AndIsEvaluatedAfterCommit() throws InterruptedException {
+        // Given
+        FraudRuleProperties.Rule shadow = new FraudRuleProperties.Rule();
+        shadow.setMode(FraudRuleMode.SHADOW);
+        properties.getRules().put("rule3", shadow);
+        when(rule1.evaluate(transaction, features)).thenReturn(false);
+        when(rule2.evaluate(transaction, features)).thenReturn(false);
+        when(rule3.evaluate(transaction, features)).thenReturn(true);
+
+        // When
+        transactionMonitoringService.monitorTransaction(transaction);
+
+        // Then
+        assertFalse(transaction.isFlagged());
+        ArgumentCaptor<ShadowFraudRulesEvent> event = ArgumentCaptor.forClass(ShadowFraudRulesEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        verify(rule3, never()).evaluate(any(), any());
+
+        transactionMonitoringService.onShadowFraudRules(event.getValue());
+
+        verify(rule3, timeout(2_000)).evaluate(transaction, features);
+        verify(rule3, never()).createReason(any());
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (meterRegistry.counter("fraud.rule.evaluations",
+                "rule", "rule3", "mode", "SHADOW", "outcome", "hit").count() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1.0, meterRegistry.counter("fraud.rule.evaluations",
+                "rule", "rule3", "mode", "SHADOW", "outcome", "hit").count());
+        verifyNoInteractions(flaggedTransactionReasonRepository);
+    }
+
+    @Test
+    void monitorTransaction_RecordsLatencyAndOutcomePerRule() {
+        // Given
+        when(rule1.evaluate(transaction, features)).thenReturn(false);
+        when(rule2.evaluate(transaction, features)).thenReturn(false);
+        when(rule3.evaluate(transaction, features)).thenReturn(false);
+
+        // When
+        transactionMonitoringService.monitorTransaction(transaction);
+
+        // Then
+        assertEquals(1, meterRegistry.timer("fraud.rule.latency", "rule", "rule2", "mode", "ENFORCE").count());
+        assertEquals(1.0, meterRegistry.counter("fraud.rule.evaluations",
+                "rule", "rule2", "mode", "ENFORCE", "outcome", "miss").count());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void monitorTransaction_ServeFeaturesFromSignalStore_ReadsWindowsFromStore() {
+        // Given
+        signalProperties.setServeFeatures(true);
+        WalletFeatures.OperationStats transfers = new WalletFeatures.OperationStats(11, new BigDecimal("1100.0000"),
+                new BigDecimal("100.0000"));
+        when(fraudSignalStore.signals(eq(7L), any(LocalDateTime.class)))
+                .thenReturn(new WalletSignals(Map.of(), Map.of(TransactionOperation.TRANSFER, transfers)));
+        when(walletFeaturesRepository.loadProfile(eq(wallet.getWalletId()), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(features));
+        ArgumentCaptor<WalletFeatures> evaluated = ArgumentCaptor.forClass(WalletFeatures.class);
+        when(rule1.evaluate(eq(transaction), evaluated.capture())).thenReturn(false);
+        when(rule2.evaluate(eq(transaction), any(WalletFeatures.class))).thenReturn(false);
+        when(rule3.evaluate(eq(transaction), any(WalletFeatures.class))).thenReturn(false);
+
+        // When
+        transactionMonitoringService.monitorTransaction(transaction);
+
+        // Then
+        assertEquals(transfers, evaluated.getValue().last24Hours(TransactionOperation.TRANSFER));
+        assertEquals(features.walletCreatedDate(), evaluated.getValue().walletCreatedDate());
+        verify(walletFeaturesRepository, never()).load(any(), any());
+    }
+}
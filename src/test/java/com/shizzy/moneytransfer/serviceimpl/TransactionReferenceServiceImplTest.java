@@ -10,11 +10,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.shizzy.moneytransfer.api.ApiResponse;
 import com.shizzy.moneytransfer.model.TransactionReference;
 import com.shizzy.moneytransfer.repository.TransactionReferenceRepository;
+import com.shizzy.moneytransfer.util.ReferenceNumberGenerator;
 
 @ExtendWith(MockitoExtension.class)
 class TransactionReferenceServiceImplTest {
@@ -22,6 +24,9 @@ class TransactionReferenceServiceImplTest {
     @Mock
     private TransactionReferenceRepository transactionReferenceRepository;
 
+    @Spy
+    private ReferenceNumberGenerator referenceNumberGenerator = new ReferenceNumberGenerator(1);
+
     @InjectMocks
     private TransactionReferenceServiceImpl transactionReferenceService;
 
@@ -46,6 +51,31 @@ class TransactionReferenceServiceImplTest {
             .save(argThat(tr -> tr.getReferenceNumber().endsWith(suffix)));
     }
 
+    @Test
+    void saveTransactionReference_KeepsCallerReferenceNumber() {
+        when(transactionReferenceRepository.save(any(TransactionReference.class)))
+            .thenReturn(transactionReference);
+
+        transactionReferenceService.saveTransactionReference(transactionReference, "");
+
+        verify(transactionReferenceRepository, times(1))
+            .save(argThat(tr -> tr.getReferenceNumber().equals("ABCD1234EFGH5678")));
+        verifyNoInteractions(referenceNumberGenerator);
+    }
+
+    @Test
+    void saveTransactionReference_MissingReferenceNumber_GeneratesOne() {
+        TransactionReference withoutNumber = TransactionReference.builder().build();
+        when(transactionReferenceRepository.save(any(TransactionReference.class)))
+            .thenReturn(withoutNumber);
+
+        transactionReferenceService.saveTransactionReference(withoutNumber, "-STRP");
+
+        verify(transactionReferenceRepository, times(1))
+            .save(argThat(tr -> tr.getReferenceNumber().length() == 16 + "-STRP".length()
+                && tr.getReferenceNumber().endsWith("-STRP")));
+    }
+
     @Test
     void saveTransactionReference_NullSuffix_Successful() {
         when(transactionReferenceRepository.save(any(TransactionReference.class)))
@@ -98,34 +128,19 @@ class TransactionReferenceServiceImplTest {
     }
 
     @Test
-    void generateUniqueReferenceNumber_NoDuplicates_ReturnsUnique() {
-        String generatedRef = "ABCD1234EFGH5678";
-        // First call returns false (no duplicate), so it uses the first generated number
-        when(transactionReferenceRepository.existsByReferenceNumber(anyString()))
-            .thenReturn(false);
-
+    void generateUniqueReferenceNumber_ReturnsSixteenCharacters() {
         String result = transactionReferenceService.generateUniqueReferenceNumber();
 
         assertNotNull(result);
         assertEquals(16, result.length());
-        verify(transactionReferenceRepository, atLeastOnce())
-            .existsByReferenceNumber(anyString());
     }
 
     @Test
-    void generateUniqueReferenceNumber_WithDuplicates_GeneratesUntilUnique() {
-        // First two calls return true (duplicate exists), third returns false
-        when(transactionReferenceRepository.existsByReferenceNumber(anyString()))
-            .thenReturn(true)
-            .thenReturn(true)
-            .thenReturn(false);
+    void generateUniqueReferenceNumber_DoesNotQueryRepository() {
+        String first = transactionReferenceService.generateUniqueReferenceNumber();
+        String second = transactionReferenceService.generateUniqueReferenceNumber();
 
-        String result = transactionReferenceService.generateUniqueReferenceNumber();
-
-        assertNotNull(result);
-        assertEquals(16, result.length());
-        verify(transactionReferenceRepository, times(3))
-            .existsByReferenceNumber(anyString());
+        assertNotEquals(first, second);
+        verifyNoInteractions(transactionReferenceRepository);
     }
 }
-
@@ -3,6 +3,7 @@ package com.shizzy.moneytransfer.serviceimpl;
 
 
 import com.shizzy.moneytransfer.api.ApiResponse;
+import com.shizzy.moneytransfer.cache.CacheTagIndex;
 import com.shizzy.moneytransfer.dto.*;
 import com.shizzy.moneytransfer.enums.RefundStatus;
 import com.shizzy.moneytransfer.enums.TransactionOperation;
@@ -11,9 +12,11 @@ import com.shizzy.moneytransfer.enums.TransactionType;
 import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
 import com.shizzy.moneytransfer.model.*;
 import com.shizzy.moneytransfer.repository.*;
+import com.shizzy.moneytransfer.service.RefundableBalanceService;
 import com.shizzy.moneytransfer.service.TransactionFeeService;
 import com.shizzy.moneytransfer.service.TransactionFilterService;
 import com.shizzy.moneytransfer.service.WalletService;
+import com.shizzy.moneytransfer.util.CacheTags;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -68,6 +71,12 @@ public class TransactionServiceImplTest {
     @Mock
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Mock
+    private RefundableBalanceService refundableBalanceService;
+
+    @Mock
+    private CacheTagIndex cacheTagIndex;
+
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
@@ -176,8 +185,28 @@ public class TransactionServiceImplTest {
         assertEquals("SESSION123", transaction.getSessionId());
         assertEquals("PROVIDER123", transaction.getProviderId());
         verify(transactionRepository).save(transaction);
-        verify(walletService).deposit(any(Wallet.class), any(BigDecimal.class));
+        verify(walletService).deposit(any(Wallet.class), any(BigDecimal.class), eq(TransactionOperation.DEPOSIT));
+        verify(refundableBalanceService).credit(transaction, BigDecimal.valueOf(100.0));
         verify(redisTemplate).delete(anyString());
+        verify(cacheTagIndex).evictTags(CacheTags.of(transaction));
+    }
+
+    @Test
+    void updateTransactionStatus_EvictsOnlyTheTransactionsTags() {
+        // Arrange
+        wallet.setId(7L);
+        when(transactionRepository.findTransactionByReferenceNumber("REF123")).thenReturn(List.of(transaction));
+        when(transactionRepository.save(transaction)).thenReturn(transaction);
+        UpdateTransactionRequest request = new UpdateTransactionRequest();
+        request.setStatus(TransactionStatus.FAILED.getValue());
+
+        // Act
+        ApiResponse<TransactionResponse> response = transactionService.updateTransactionStatus("REF123", request);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        verify(cacheTagIndex).evictTags(List.of("transactions", "transaction:1", "reference:REF123",
+                "wallet:7", "walletId:WALLET123"));
     }
 
     @Test
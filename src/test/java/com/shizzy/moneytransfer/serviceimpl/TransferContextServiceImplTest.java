@@ -0,0 +1,163 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.config.JacksonConfig;
+import com.shizzy.moneytransfer.dto.CreateTransactionRequestBody;
+import com.shizzy.moneytransfer.dto.PendingTransfer;
+import com.shizzy.moneytransfer.dto.TransferContext;
+import com.shizzy.moneytransfer.dto.TransferParticipant;
+import com.shizzy.moneytransfer.dto.TransferWallets;
+import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
+import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.UserRepository;
+import com.shizzy.moneytransfer.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransferContextServiceImplTest {
+
+    private static final UUID SENDER_ID = UUID.randomUUID();
+    private static final UUID RECEIVER_ID = UUID.randomUUID();
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @InjectMocks
+    private TransferContextServiceImpl transferContextService;
+
+    @Test
+    void load_ResolvesBothParticipantsFromOneQuery() {
+        when(userRepository.findTransferParticipants(List.of("sender@example.com", "receiver@example.com")))
+                .thenReturn(List.of(
+                        row(RECEIVER_ID, "receiver@example.com", 2L),
+                        row(SENDER_ID, "sender@example.com", 1L)));
+
+        TransferContext context = transferContextService.load("sender@example.com", "receiver@example.com");
+
+        assertEquals(SENDER_ID.toString(), context.sender().userId());
+        assertEquals("20000001", context.sender().walletId());
+        assertEquals(RECEIVER_ID.toString(), context.receiver().userId());
+        assertEquals("20000002", context.receiver().walletId());
+        assertFalse(context.preValidated());
+        assertEquals("Ada Lovelace", context.toTransferInfo().getReceiverName());
+    }
+
+    @Test
+    void load_UnknownReceiver_Throws() {
+        when(userRepository.findTransferParticipants(anyList()))
+                .thenReturn(List.of(row(SENDER_ID, "sender@example.com", 1L)));
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> transferContextService.load("sender@example.com", "receiver@example.com"));
+    }
+
+    @Test
+    void load_ReceiverWithoutWallet_Throws() {
+        when(userRepository.findTransferParticipants(anyList()))
+                .thenReturn(List.of(
+                        row(SENDER_ID, "sender@example.com", 1L),
+                        row(RECEIVER_ID, "receiver@example.com", null)));
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> transferContextService.load("sender@example.com", "receiver@example.com"));
+    }
+
+    @Test
+    void resolveWallets_SenderAtRecordedVersion_IsUnchanged() {
+        TransferContext context = context(3);
+        when(walletRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(wallet(2L, RECEIVER_ID, 9), wallet(1L, SENDER_ID, 3)));
+
+        TransferWallets wallets = transferContextService.resolveWallets(context);
+
+        assertEquals(1L, wallets.getSendingWallet().getId());
+        assertEquals(2L, wallets.getReceivingWallet().getId());
+        assertTrue(wallets.isSenderUnchanged());
+    }
+
+    @Test
+    void resolveWallets_SenderDebitedSinceResolution_IsChanged() {
+        TransferContext context = context(3);
+        when(walletRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(wallet(1L, SENDER_ID, 4), wallet(2L, RECEIVER_ID, 9)));
+
+        assertFalse(transferContextService.resolveWallets(context).isSenderUnchanged());
+    }
+
+    @Test
+    void resolveWallets_WalletNoLongerOwnedByParticipant_Throws() {
+        TransferContext context = context(3);
+        when(walletRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(wallet(1L, UUID.randomUUID(), 3), wallet(2L, RECEIVER_ID, 9)));
+
+        assertThrows(ResourceNotFoundException.class, () -> transferContextService.resolveWallets(context));
+    }
+
+    @Test
+    void pendingTransfer_RoundTripsThroughRedisSerializer() {
+        Jackson2JsonRedisSerializer<PendingTransfer> serializer =
+                new Jackson2JsonRedisSerializer<>(new JacksonConfig().objectMapper(), PendingTransfer.class);
+        PendingTransfer pending = new PendingTransfer(
+                new CreateTransactionRequestBody("sender@example.com", "receiver@example.com",
+                        new BigDecimal("25.00"), "rent"),
+                context(3).withPreValidated(true));
+
+        assertEquals(pending, serializer.deserialize(serializer.serialize(pending)));
+    }
+
+    @Test
+    void pendingTransfer_StoredWithVerificationLevels_StillLoads() {
+        Jackson2JsonRedisSerializer<PendingTransfer> serializer =
+                new Jackson2JsonRedisSerializer<>(new JacksonConfig().objectMapper(), PendingTransfer.class);
+        PendingTransfer pending = new PendingTransfer(
+                new CreateTransactionRequestBody("sender@example.com", "receiver@example.com",
+                        new BigDecimal("25.00"), "rent"),
+                context(3));
+        String stored = new String(serializer.serialize(pending), StandardCharsets.UTF_8)
+                .replace("\"balance\":100.00", "\"balance\":100.00,\"verificationLevel\":\"EMAIL_VERIFIED\"");
+        assertTrue(stored.contains("verificationLevel"));
+
+        assertEquals(pending, serializer.deserialize(stored.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private TransferContext context(int senderVersion) {
+        return new TransferContext(
+                new TransferParticipant(SENDER_ID.toString(), "sender@example.com", "Grace", "Hopper",
+                        1L, "20000001", senderVersion, new BigDecimal("100.00")),
+                new TransferParticipant(RECEIVER_ID.toString(), "receiver@example.com", "Ada", "Lovelace",
+                        2L, "20000002", 9, new BigDecimal("5.00")),
+                false);
+    }
+
+    private TransferParticipant row(UUID userId, String email, Long walletEntityId) {
+        return new TransferParticipant(userId, email, "Ada", "Lovelace", walletEntityId,
+                walletEntityId == null ? null : "2000000" + walletEntityId, 0, BigDecimal.TEN);
+    }
+
+    private Wallet wallet(Long id, UUID owner, Integer version) {
+        return Wallet.builder()
+                .id(id)
+                .walletId("2000000" + id)
+                .createdBy(owner.toString())
+                .version(version)
+                .balance(BigDecimal.TEN)
+                .build();
+    }
+}
@@ -0,0 +1,195 @@
+package com.shizzy.moneytransfer.serviceimpl;
+
+import com.shizzy.moneytransfer.config.TransferPipelineProperties;
+import com.shizzy.moneytransfer.events.TransferCompletedEvent;
+import com.shizzy.moneytransfer.model.PendingRefundableConsumption;
+import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.PendingRefundableConsumptionRepository;
+import com.shizzy.moneytransfer.repository.WalletRepository;
+import com.shizzy.moneytransfer.service.RefundableBalanceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferSideEffectPipelineTest {
+
+    @Mock
+    private RefundableBalanceService refundableBalanceService;
+
+    @Mock
+    private PendingRefundableConsumptionRepository pendingConsumptionRepository;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransferPipelineProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private TransferSideEffectPipeline pipeline;
+
+    private final Wallet busyWallet = Wallet.builder().id(1L).walletId("20000001").build();
+    private final Wallet wallet = Wallet.builder().id(2L).walletId("20000002").build();
+
+    @BeforeEach
+    void setUp() {
+        properties = new TransferPipelineProperties();
+        properties.setWorkerCount(1);
+        properties.setRetryBackoff(Duration.ofMillis(1));
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = new TransferSideEffectPipeline(properties, refundableBalanceService, pendingConsumptionRepository,
+                walletRepository, transactionManager, meterRegistry);
+        lenient().when(walletRepository.getReferenceById(1L)).thenReturn(busyWallet);
+        lenient().when(walletRepository.getReferenceById(2L)).thenReturn(wallet);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Test
+    void recordPendingWork_SavesTheTransferAmountForTheSendingWallet() {
+        pipeline.start();
+
+        pipeline.recordPendingWork(event(wallet, "25.00"));
+
+        ArgumentCaptor<PendingRefundableConsumption> row = ArgumentCaptor.forClass(PendingRefundableConsumption.class);
+        verify(pendingConsumptionRepository).save(row.capture());
+        assertEquals(2L, row.getValue().getWalletId());
+        assertEquals(new BigDecimal("25.00"), row.getValue().getAmount());
+        assertEquals(0, row.getValue().getAttempts());
+    }
+
+    @Test
+    void onTransferCompleted_Disabled_DeductsAndDeletesThePendingRowsOnTheCallingThread() {
+        properties.setEnabled(false);
+        pipeline.start();
+        List<PendingRefundableConsumption> rows = List.of(row(2L, "25.00"), row(2L, "5.00"));
+        when(pendingConsumptionRepository.lockByWalletId(2L)).thenReturn(rows);
+
+        pipeline.onTransferCompleted(event(wallet, "25.00"));
+
+        verify(refundableBalanceService).consume(wallet, new BigDecimal("30.00"));
+        verify(pendingConsumptionRepository).deleteAllInBatch(rows);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void onTransferCompleted_RowsClaimedElsewhere_DeductsNothing() {
+        properties.setEnabled(false);
+        pipeline.start();
+        when(pendingConsumptionRepository.lockByWalletId(2L)).thenReturn(List.of());
+
+        pipeline.onTransferCompleted(event(wallet, "25.00"));
+
+        verifyNoInteractions(refundableBalanceService);
+        verify(pendingConsumptionRepository, never()).deleteAllInBatch(any());
+    }
+
+    @Test
+    void onTransferCompleted_WalletAlreadyQueued_MergesIntoOnePass() throws InterruptedException {
+        pipeline.start();
+        CountDownLatch workerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(pendingConsumptionRepository.lockByWalletId(1L)).thenAnswer(invocation -> {
+            workerBusy.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        when(pendingConsumptionRepository.lockByWalletId(2L))
+                .thenReturn(List.of(row(2L, "10.00"), row(2L, "15.00"), row(2L, "5.00")));
+
+        // Hold the only worker so the next wallet's transfers queue up behind it
+        pipeline.onTransferCompleted(event(busyWallet, "1.00"));
+        assertTrue(workerBusy.await(5, TimeUnit.SECONDS));
+        pipeline.onTransferCompleted(event(wallet, "10.00"));
+        pipeline.onTransferCompleted(event(wallet, "15.00"));
+        pipeline.onTransferCompleted(event(wallet, "5.00"));
+        release.countDown();
+
+        verify(refundableBalanceService, timeout(5000)).consume(wallet, new BigDecimal("30.00"));
+        verify(pendingConsumptionRepository, times(1)).lockByWalletId(2L);
+        assertEquals(2.0, meterRegistry.counter("transfer.pipeline.coalesced").count());
+    }
+
+    @Test
+    void onTransferCompleted_PassFailsOnce_RetriesIt() {
+        properties.setEnabled(false);
+        pipeline.start();
+        List<PendingRefundableConsumption> rows = List.of(row(2L, "25.00"));
+        when(pendingConsumptionRepository.lockByWalletId(2L)).thenReturn(rows);
+        doThrow(new IllegalStateException("lock timeout"))
+                .doNothing()
+                .when(refundableBalanceService).consume(any(), any());
+
+        pipeline.onTransferCompleted(event(wallet, "25.00"));
+
+        verify(refundableBalanceService, times(2)).consume(wallet, new BigDecimal("25.00"));
+        verify(pendingConsumptionRepository, times(1)).deleteAllInBatch(rows);
+        verify(transactionManager).rollback(any());
+        assertEquals(1.0, meterRegistry.counter("transfer.pipeline.retries", "step", "refundable-balance").count());
+    }
+
+    @Test
+    void onTransferCompleted_PassKeepsFailing_LeavesTheRowsAndRecordsTheFailure() {
+        properties.setEnabled(false);
+        pipeline.start();
+        when(pendingConsumptionRepository.lockByWalletId(2L)).thenReturn(List.of(row(2L, "25.00")));
+        doThrow(new IllegalStateException("database unavailable"))
+                .when(refundableBalanceService).consume(any(), any());
+
+        pipeline.onTransferCompleted(event(wallet, "25.00"));
+
+        verify(refundableBalanceService, times(properties.getMaxAttempts())).consume(any(), any());
+        verify(pendingConsumptionRepository, never()).deleteAllInBatch(any());
+        verify(pendingConsumptionRepository).recordFailure(2L, "database unavailable");
+        assertEquals(1.0, meterRegistry.counter("transfer.pipeline.failures", "step", "refundable-balance").count());
+    }
+
+    @Test
+    void sweep_AppliesWorkLeftPendingPastTheCutoff() {
+        properties.setEnabled(false);
+        pipeline.start();
+        List<PendingRefundableConsumption> rows = List.of(row(2L, "40.00"));
+        when(pendingConsumptionRepository.findWalletIdsPendingBefore(any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of(2L));
+        when(pendingConsumptionRepository.lockByWalletId(2L)).thenReturn(rows);
+
+        pipeline.sweep();
+
+        verify(refundableBalanceService).consume(wallet, new BigDecimal("40.00"));
+        verify(pendingConsumptionRepository).deleteAllInBatch(rows);
+    }
+
+    private TransferCompletedEvent event(Wallet sendingWallet, String amount) {
+        return new TransferCompletedEvent(this, sendingWallet, "user-" + sendingWallet.getId(), new BigDecimal(amount));
+    }
+
+    private static PendingRefundableConsumption row(Long walletId, String amount) {
+        return PendingRefundableConsumption.builder()
+                .walletId(walletId)
+                .amount(new BigDecimal(amount))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
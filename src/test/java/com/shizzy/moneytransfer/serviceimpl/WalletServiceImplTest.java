@@ -3,11 +3,16 @@ package com.shizzy.moneytransfer.serviceimpl;
 
 
 import com.shizzy.moneytransfer.api.ApiResponse;
+import com.shizzy.moneytransfer.enums.IdentifierSequence;
+import com.shizzy.moneytransfer.enums.LedgerWriteMode;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
 import com.shizzy.moneytransfer.exception.DuplicateResourceException;
 import com.shizzy.moneytransfer.exception.InsufficientBalanceException;
 import com.shizzy.moneytransfer.exception.ResourceNotFoundException;
 import com.shizzy.moneytransfer.model.Wallet;
+import com.shizzy.moneytransfer.repository.WalletActivityStatsRepository;
 import com.shizzy.moneytransfer.repository.WalletRepository;
+import com.shizzy.moneytransfer.service.IdentifierAllocationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,11 +20,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 
@@ -32,6 +40,12 @@ class WalletServiceImplTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private IdentifierAllocationService identifierAllocationService;
+
+    @Mock
+    private WalletActivityStatsRepository walletActivityStatsRepository;
+
     @Mock
     private Authentication authentication;
 
@@ -48,6 +62,7 @@ class WalletServiceImplTest {
         walletId = "2000001";
         
         testWallet = Wallet.builder()
+                .id(7L)
                 .walletId(walletId)
                 .createdBy(userId)
                 .balance(new BigDecimal("1000.00"))
@@ -59,6 +74,7 @@ class WalletServiceImplTest {
     @Test
     void createWallet_Success() {
         when(walletRepository.existsWalletByCreatedBy(userId)).thenReturn(false);
+        when(identifierAllocationService.nextIdentifier(IdentifierSequence.WALLET_ID)).thenReturn(73150942L);
         when(walletRepository.save(any(Wallet.class))).thenReturn(testWallet);
 
         Wallet result = walletService.createWallet(userId);
@@ -66,7 +82,21 @@ class WalletServiceImplTest {
         assertNotNull(result);
         assertEquals(userId, result.getCreatedBy());
         verify(walletRepository).existsWalletByCreatedBy(userId);
-        verify(walletRepository).save(any(Wallet.class));
+        verify(walletRepository).save(argThat(wallet -> "73150942".equals(wallet.getWalletId())));
+    }
+
+    @Test
+    void createWallet_SkipsIdTakenByLegacyWallet() {
+        when(walletRepository.existsWalletByCreatedBy(userId)).thenReturn(false);
+        when(identifierAllocationService.nextIdentifier(IdentifierSequence.WALLET_ID))
+                .thenReturn(20_000_001L)
+                .thenReturn(73_150_942L);
+        when(walletRepository.existsWalletByWalletId("20000001")).thenReturn(true);
+        when(walletRepository.save(any(Wallet.class))).thenReturn(testWallet);
+
+        walletService.createWallet(userId);
+
+        verify(walletRepository).save(argThat(wallet -> "73150942".equals(wallet.getWalletId())));
     }
 
     @Test
@@ -118,10 +148,12 @@ class WalletServiceImplTest {
         
         testWallet.setBalance(initialBalance);
         
-        walletService.deposit(testWallet, depositAmount);
+        walletService.deposit(testWallet, depositAmount, TransactionOperation.DEPOSIT);
         
         assertEquals(expectedBalance, testWallet.getBalance());
         verify(walletRepository).save(testWallet);
+        verify(walletActivityStatsRepository).record(eq(7L), eq(TransactionOperation.DEPOSIT), eq(depositAmount),
+                any(LocalDateTime.class));
     }
 
     @Test
@@ -131,12 +163,14 @@ class WalletServiceImplTest {
         BigDecimal destInitialBalance = new BigDecimal("500.00");
         
         Wallet sourceWallet = Wallet.builder()
+                .id(1L)
                 .walletId("source123")
                 .createdBy("sourceUser")
                 .balance(sourceInitialBalance)
                 .build();
                 
         Wallet destWallet = Wallet.builder()
+                .id(2L)
                 .walletId("dest456")
                 .createdBy("destUser")
                 .balance(destInitialBalance)
@@ -148,6 +182,9 @@ class WalletServiceImplTest {
         assertEquals(new BigDecimal("800.00"), destWallet.getBalance());
         verify(walletRepository).save(sourceWallet);
         verify(walletRepository).save(destWallet);
+        verify(walletActivityStatsRepository).recordAll(argThat(activities -> activities.size() == 2
+                && activities.stream().allMatch(activity -> activity.operation() == TransactionOperation.TRANSFER
+                        && activity.amount().equals(transferAmount))));
     }
 
     @Test
@@ -156,12 +193,14 @@ class WalletServiceImplTest {
         BigDecimal sourceInitialBalance = new BigDecimal("1000.00");
         
         Wallet sourceWallet = Wallet.builder()
+                .id(1L)
                 .walletId("source123")
                 .createdBy("sourceUser")
                 .balance(sourceInitialBalance)
                 .build();
                 
         Wallet destWallet = Wallet.builder()
+                .id(2L)
                 .walletId("dest456")
                 .createdBy("destUser")
                 .balance(BigDecimal.ZERO)
@@ -171,6 +210,74 @@ class WalletServiceImplTest {
                      () -> walletService.transfer(sourceWallet, destWallet, transferAmount));
         
         verify(walletRepository, never()).save(any(Wallet.class));
+        verifyNoInteractions(walletActivityStatsRepository);
+    }
+
+    @Test
+    void transfer_ConditionalUpdate_DebitsBeforeCredit_WhenSourceHasLowerId() {
+        ReflectionTestUtils.setField(walletService, "ledgerWriteMode", LedgerWriteMode.CONDITIONAL_UPDATE);
+        Wallet sourceWallet = Wallet.builder().id(1L).balance(new BigDecimal("1000.00")).build();
+        Wallet destWallet = Wallet.builder().id(2L).balance(new BigDecimal("500.00")).build();
+        BigDecimal amount = new BigDecimal("300.00");
+
+        when(walletRepository.debitIfSufficient(1L, amount)).thenReturn(1);
+        when(walletRepository.credit(2L, amount)).thenReturn(1);
+
+        walletService.transfer(sourceWallet, destWallet, amount);
+
+        var inOrder = inOrder(walletRepository);
+        inOrder.verify(walletRepository).debitIfSufficient(1L, amount);
+        inOrder.verify(walletRepository).credit(2L, amount);
+        verify(walletRepository, never()).save(any(Wallet.class));
+    }
+
+    @Test
+    void transfer_ConditionalUpdate_CreditsBeforeDebit_WhenDestinationHasLowerId() {
+        ReflectionTestUtils.setField(walletService, "ledgerWriteMode", LedgerWriteMode.CONDITIONAL_UPDATE);
+        Wallet sourceWallet = Wallet.builder().id(9L).balance(new BigDecimal("1000.00")).build();
+        Wallet destWallet = Wallet.builder().id(3L).balance(new BigDecimal("500.00")).build();
+        BigDecimal amount = new BigDecimal("300.00");
+
+        when(walletRepository.credit(3L, amount)).thenReturn(1);
+        when(walletRepository.debitIfSufficient(9L, amount)).thenReturn(1);
+
+        walletService.transfer(sourceWallet, destWallet, amount);
+
+        var inOrder = inOrder(walletRepository);
+        inOrder.verify(walletRepository).credit(3L, amount);
+        inOrder.verify(walletRepository).debitIfSufficient(9L, amount);
+    }
+
+    @Test
+    void transfer_ConditionalUpdate_ThrowsInsufficientBalance_WhenGuardedDebitMatchesNoRow() {
+        ReflectionTestUtils.setField(walletService, "ledgerWriteMode", LedgerWriteMode.CONDITIONAL_UPDATE);
+        Wallet sourceWallet = Wallet.builder().id(1L).balance(new BigDecimal("1000.00")).build();
+        Wallet destWallet = Wallet.builder().id(2L).balance(BigDecimal.ZERO).build();
+        BigDecimal amount = new BigDecimal("300.00");
+
+        when(walletRepository.debitIfSufficient(1L, amount)).thenReturn(0);
+
+        assertThrows(InsufficientBalanceException.class,
+                () -> walletService.transfer(sourceWallet, destWallet, amount));
+        verify(walletRepository, never()).credit(any(), any());
+    }
+
+    @Test
+    void transfer_Pessimistic_UsesLockedRows() {
+        ReflectionTestUtils.setField(walletService, "ledgerWriteMode", LedgerWriteMode.PESSIMISTIC);
+        Wallet staleSource = Wallet.builder().id(1L).balance(new BigDecimal("1000.00")).build();
+        Wallet staleDest = Wallet.builder().id(2L).balance(new BigDecimal("500.00")).build();
+        Wallet lockedSource = Wallet.builder().id(1L).balance(new BigDecimal("400.00")).build();
+        Wallet lockedDest = Wallet.builder().id(2L).balance(new BigDecimal("500.00")).build();
+
+        when(walletRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(lockedSource, lockedDest));
+
+        walletService.transfer(staleSource, staleDest, new BigDecimal("300.00"));
+
+        assertEquals(new BigDecimal("100.00"), lockedSource.getBalance());
+        assertEquals(new BigDecimal("800.00"), lockedDest.getBalance());
+        verify(walletRepository).save(lockedSource);
+        verify(walletRepository).save(lockedDest);
     }
 
     @Test
@@ -180,10 +287,12 @@ class WalletServiceImplTest {
         
         testWallet.setBalance(initialBalance);
         
-        walletService.debit(testWallet, debitAmount);
+        walletService.debit(testWallet, debitAmount, TransactionOperation.REFUND);
         
         assertEquals(new BigDecimal("700.00"), testWallet.getBalance());
         verify(walletRepository).save(testWallet);
+        verify(walletActivityStatsRepository).record(eq(7L), eq(TransactionOperation.REFUND), eq(debitAmount),
+                any(LocalDateTime.class));
     }
 
     @Test
@@ -193,8 +302,9 @@ class WalletServiceImplTest {
         
         testWallet.setBalance(initialBalance);
         
-        assertThrows(InsufficientBalanceException.class, () -> walletService.debit(testWallet, debitAmount));
+        assertThrows(InsufficientBalanceException.class, () -> walletService.debit(testWallet, debitAmount, TransactionOperation.REFUND));
         verify(walletRepository, never()).save(any(Wallet.class));
+        verifyNoInteractions(walletActivityStatsRepository);
     }
 
     @Test
@@ -93,7 +93,6 @@ class WithdrawalServiceImplTest {
         // Stubbing
         doNothing().when(transactionLimitService)
                 .validateWithdrawal(eq(userId), any(BigDecimal.class));
-        when(accountLimitService.wouldExceedDailyLimit(eq(userId), any())).thenReturn(false);
         GenericResponse<WithdrawalData> expectedResponse = new GenericResponse<>("success", "Withdrawal successful",
                 withdrawalData);
         when(flutterwaveStrategy.processWithdrawal(requestMapper)).thenReturn(expectedResponse);
@@ -108,7 +107,6 @@ class WithdrawalServiceImplTest {
 
         // Verification
         verify(transactionLimitService).validateWithdrawal(eq(userId), any(BigDecimal.class));
-        verify(accountLimitService).wouldExceedDailyLimit(eq(userId), any(BigDecimal.class));
         verify(accountLimitService).recordTransaction(eq(userId), any(BigDecimal.class));
     }
 
@@ -149,8 +147,10 @@ class WithdrawalServiceImplTest {
     void withdraw_DailyLimitExceeded_ReturnsErrorResponse() {
         // Arrange
         when(walletRepository.findWalletByWalletId(walletId)).thenReturn(Optional.of(wallet));
-        doNothing().when(transactionLimitService).validateWithdrawal(eq(userId), any(BigDecimal.class));
-        when(accountLimitService.wouldExceedDailyLimit(eq(userId), any(BigDecimal.class))).thenReturn(true);
+        doThrow(new TransactionLimitExceededException(
+                "This transaction would exceed your daily transaction limit of 500"))
+                .when(transactionLimitService)
+                .validateWithdrawal(eq(userId), any(BigDecimal.class));
 
         // Act
         GenericResponse<WithdrawalData> response = withdrawalService.withdraw(requestMapper);
@@ -158,7 +158,7 @@ class WithdrawalServiceImplTest {
         // Assert
         assertNotNull(response);
         assertEquals("error", response.getStatus());
-        assertEquals("This withdrawal would exceed your daily transaction limit", response.getMessage());
+        assertEquals("This transaction would exceed your daily transaction limit of 500", response.getMessage());
         assertNull(response.getData());
 
         verify(accountLimitService, never()).recordTransaction(anyString(), any());
@@ -0,0 +1,90 @@
+package com.shizzy.moneytransfer.serviceimpl.detection;
+
+import com.shizzy.moneytransfer.dto.WalletFeatures;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FraudDetectionRulesTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new Transaction();
+        transaction.setAmount(new BigDecimal("100"));
+    }
+
+    @Test
+    void dormantAccountRule_OldLastActivityAndDepositBurst_Fires() {
+        DormantAccountRule rule = new DormantAccountRule();
+
+        assertTrue(rule.evaluate(transaction, features(now.minusMonths(7), new BigDecimal("100"),
+                Map.of(TransactionOperation.DEPOSIT, stats(6, "60")))));
+        assertFalse(rule.evaluate(transaction, features(now.minusDays(1), new BigDecimal("100"),
+                Map.of(TransactionOperation.DEPOSIT, stats(6, "60")))));
+        assertFalse(rule.evaluate(transaction, features(now.minusMonths(7), new BigDecimal("100"), Map.of())));
+    }
+
+    @Test
+    void frequentTransfersRule_MoreThanTenTransfersInADay_Fires() {
+        FrequentTransfersRule rule = new FrequentTransfersRule();
+
+        assertTrue(rule.evaluate(transaction, features(now, new BigDecimal("100"),
+                Map.of(TransactionOperation.TRANSFER, stats(11, "10")))));
+        assertFalse(rule.evaluate(transaction, features(now, new BigDecimal("100"),
+                Map.of(TransactionOperation.TRANSFER, stats(10, "10")))));
+    }
+
+    @Test
+    void rapidDepositWithdrawalRule_ManyLargeDepositsAndWithdrawals_Fires() {
+        RapidDepositWithdrawalRule rule = new RapidDepositWithdrawalRule();
+
+        assertTrue(rule.evaluate(transaction, features(now, new BigDecimal("100"), Map.of(
+                TransactionOperation.DEPOSIT, stats(4, "6000"),
+                TransactionOperation.WITHDRAWAL, stats(2, "5500")))));
+        // One of them is not large
+        assertFalse(rule.evaluate(transaction, features(now, new BigDecimal("100"), Map.of(
+                TransactionOperation.DEPOSIT, stats(4, "6000"),
+                TransactionOperation.WITHDRAWAL, stats(2, "5000")))));
+        assertFalse(rule.evaluate(transaction, features(now, new BigDecimal("100"), Map.of(
+                TransactionOperation.DEPOSIT, stats(5, "6000")))));
+    }
+
+    @Test
+    void unusualAmountRule_AmountFarFromMean_Fires() {
+        UnusualAmountRule rule = new UnusualAmountRule();
+
+        assertTrue(rule.evaluate(transaction, features(now, new BigDecimal("50"), Map.of())));
+        assertFalse(rule.evaluate(transaction, features(now, new BigDecimal("90"), Map.of())));
+        // Wallets without history are not judged
+        assertFalse(rule.evaluate(transaction, features(now, null, Map.of())));
+    }
+
+    @Test
+    void unusualAmountRule_NewWallet_DoesNotFire() {
+        WalletFeatures young = new WalletFeatures("wallet-1", now, now.minusDays(10), now, 4,
+                new BigDecimal("10"), Map.of(), Map.of());
+
+        assertFalse(new UnusualAmountRule().evaluate(transaction, young));
+    }
+
+    private WalletFeatures features(LocalDateTime lastActivity, BigDecimal mean,
+                                    Map<TransactionOperation, WalletFeatures.OperationStats> last24Hours) {
+        return new WalletFeatures("wallet-1", now, now.minusYears(1), lastActivity, 20, mean,
+                Map.of(), last24Hours);
+    }
+
+    private static WalletFeatures.OperationStats stats(long count, String minAmount) {
+        BigDecimal min = new BigDecimal(minAmount);
+        return new WalletFeatures.OperationStats(count, min.multiply(BigDecimal.valueOf(count)), min);
+    }
+}
@@ -0,0 +1,148 @@
+package com.shizzy.moneytransfer.serviceimpl.detection;
+
+import com.shizzy.moneytransfer.config.FraudSignalProperties;
+import com.shizzy.moneytransfer.dto.LedgerMovement;
+import com.shizzy.moneytransfer.dto.WalletFeatures;
+import com.shizzy.moneytransfer.dto.WalletSignals;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.service.detection.FraudSignalStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryFraudSignalStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 12, 30);
+
+    private FraudSignalProperties properties;
+    private InMemoryFraudSignalStore store;
+    private long offset;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FraudSignalProperties();
+        properties.setShards(4);
+        properties.setInitialCapacityPerShard(2);
+        store = new InMemoryFraudSignalStore(properties);
+    }
+
+    @Test
+    void signals_CountsMovementsPerOperationAndWindow() {
+        record(1L, TransactionOperation.DEPOSIT, "100.00", NOW.minusMinutes(10));
+        record(1L, TransactionOperation.DEPOSIT, "40.50", NOW.minusMinutes(20));
+        record(1L, TransactionOperation.WITHDRAWAL, "75.00", NOW.minusHours(3));
+
+        WalletSignals signals = store.signals(1L, NOW);
+
+        WalletFeatures.OperationStats deposits = signals.lastHour().get(TransactionOperation.DEPOSIT);
+        assertEquals(2, deposits.count());
+        assertEquals(0, new BigDecimal("140.50").compareTo(deposits.sum()));
+        assertEquals(0, new BigDecimal("40.50").compareTo(deposits.minAmount()));
+        assertFalse(signals.lastHour().containsKey(TransactionOperation.WITHDRAWAL));
+        assertEquals(1, signals.last24Hours().get(TransactionOperation.WITHDRAWAL).count());
+        assertEquals(2, signals.last24Hours().get(TransactionOperation.DEPOSIT).count());
+    }
+
+    @Test
+    void signals_PreviousBucketCountsForTheShareStillInTheWindow() {
+        // Half of the 11:00 bucket lies within the hour before 12:30
+        for (int i = 0; i < 4; i++) {
+            record(1L, TransactionOperation.TRANSFER, "10.00", NOW.minusMinutes(75));
+        }
+
+        WalletFeatures.OperationStats transfers = store.signals(1L, NOW).lastHour().get(TransactionOperation.TRANSFER);
+
+        assertEquals(2, transfers.count());
+        assertEquals(0, new BigDecimal("20.00").compareTo(transfers.sum()));
+        assertTrue(store.signals(1L, NOW.plusHours(1)).lastHour().isEmpty());
+    }
+
+    @Test
+    void signals_UnknownWalletOrUntrackedOperation_IsEmpty() {
+        record(1L, TransactionOperation.REVERSAL, "10.00", NOW.minusMinutes(5));
+
+        assertEquals(WalletSignals.NONE, store.signals(1L, NOW));
+        assertEquals(WalletSignals.NONE, store.signals(2L, NOW));
+    }
+
+    @Test
+    void record_RedeliveredEvent_IsNotCountedTwice() {
+        store.record(0, 5, List.of(movement(1L, TransactionOperation.DEPOSIT, "10.00", NOW.minusMinutes(5))));
+        store.record(0, 5, List.of(movement(1L, TransactionOperation.DEPOSIT, "10.00", NOW.minusMinutes(5))));
+
+        assertEquals(1, store.signals(1L, NOW).lastHour().get(TransactionOperation.DEPOSIT).count());
+        assertEquals(OptionalLong.of(6), store.position(0));
+        assertTrue(store.position(1).isEmpty());
+    }
+
+    @Test
+    void record_ManyWallets_GrowsTablesAndKeepsEveryWallet() {
+        for (long walletId = 1; walletId <= 10_000; walletId++) {
+            record(walletId, TransactionOperation.DEPOSIT, "1.00", NOW.minusMinutes(1));
+        }
+
+        assertEquals(10_000, store.walletCount());
+        for (long walletId = 1; walletId <= 10_000; walletId++) {
+            assertEquals(1, store.signals(walletId, NOW).lastHour().get(TransactionOperation.DEPOSIT).count());
+        }
+    }
+
+    @Test
+    void checkpoint_RestoresIntoAnotherStore() {
+        for (long walletId = 1; walletId <= 100; walletId++) {
+            record(walletId, TransactionOperation.TRANSFER, "25.00", NOW.minusMinutes(walletId));
+        }
+
+        FraudSignalStore restored = new InMemoryFraudSignalStore(properties);
+        assertTrue(restored.restore(store.checkpoint(NOW)));
+
+        assertEquals(100, restored.walletCount());
+        assertEquals(store.position(0), restored.position(0));
+        for (long walletId = 1; walletId <= 100; walletId++) {
+            assertEquals(store.signals(walletId, NOW), restored.signals(walletId, NOW));
+        }
+    }
+
+    @Test
+    void restore_DifferentShardCount_IsRejected() {
+        record(1L, TransactionOperation.DEPOSIT, "10.00", NOW.minusMinutes(5));
+        FraudSignalProperties other = new FraudSignalProperties();
+        other.setShards(8);
+        FraudSignalStore restored = new InMemoryFraudSignalStore(other);
+
+        assertFalse(restored.restore(store.checkpoint(NOW)));
+        assertEquals(0, restored.walletCount());
+    }
+
+    @Test
+    void checkpoint_DropsWalletsWithoutActivityInTheLastDay() {
+        record(1L, TransactionOperation.DEPOSIT, "10.00", NOW.minusDays(3));
+        record(2L, TransactionOperation.DEPOSIT, "10.00", NOW.minusMinutes(5));
+
+        FraudSignalStore.Checkpoint checkpoint = store.checkpoint(NOW);
+        FraudSignalStore restored = new InMemoryFraudSignalStore(properties);
+        restored.restore(checkpoint);
+
+        assertEquals(1, store.walletCount());
+        assertEquals(1, restored.walletCount());
+        assertEquals(WalletSignals.NONE, store.signals(1L, NOW));
+    }
+
+    private void record(long walletId, TransactionOperation operation, String amount, LocalDateTime at) {
+        List<LedgerMovement> movements = new ArrayList<>();
+        movements.add(movement(walletId, operation, amount, at));
+        store.record(0, offset++, movements);
+    }
+
+    private static LedgerMovement movement(long walletId, TransactionOperation operation, String amount,
+                                           LocalDateTime at) {
+        return new LedgerMovement(walletId, operation, new BigDecimal(amount), at);
+    }
+}
@@ -0,0 +1,166 @@
+package com.shizzy.moneytransfer.serviceimpl.detection;
+
+import com.shizzy.moneytransfer.config.FraudSignalProperties;
+import com.shizzy.moneytransfer.dto.LedgerMovement;
+import com.shizzy.moneytransfer.enums.TransactionOperation;
+import com.shizzy.moneytransfer.service.detection.FraudSignalStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisFraudSignalCheckpointerTest {
+
+    private static final byte[] KEY = "fraud-signals:checkpoint".getBytes(StandardCharsets.UTF_8);
+    private static final String STAGING_PREFIX = "fraud-signals:checkpoint:staging:";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisHashCommands hashCommands;
+
+    @Mock
+    private RedisKeyCommands keyCommands;
+
+    private FraudSignalProperties properties;
+    private InMemoryFraudSignalStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FraudSignalProperties();
+        properties.setEnabled(true);
+        properties.setShards(4);
+        store = new InMemoryFraudSignalStore(properties);
+        lenient().when(stringRedisTemplate.execute(any(RedisCallback.class)))
+                .thenAnswer(invocation -> invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+        lenient().when(connection.hashCommands()).thenReturn(hashCommands);
+        lenient().when(connection.keyCommands()).thenReturn(keyCommands);
+    }
+
+    @Test
+    void checkpoint_ThenRestore_RecoversWalletsAndPositions() {
+        LocalDateTime now = LocalDateTime.now();
+        store.record(2, 99, List.of(new LedgerMovement(5L, TransactionOperation.DEPOSIT, new BigDecimal("20.00"),
+                now.minusMinutes(5))));
+        Map<String, byte[]> written = new HashMap<>();
+        when(hashCommands.hSet(any(byte[].class), any(byte[].class), any(byte[].class))).thenAnswer(invocation -> {
+            written.put(new String(invocation.<byte[]>getArgument(1), StandardCharsets.UTF_8), invocation.getArgument(2));
+            return true;
+        });
+
+        checkpointer(store).checkpoint();
+
+        ArgumentCaptor<byte[]> staging = ArgumentCaptor.forClass(byte[].class);
+        verify(keyCommands).rename(staging.capture(), eq(KEY));
+        assertTrue(new String(staging.getValue(), StandardCharsets.UTF_8).startsWith(STAGING_PREFIX));
+        verify(keyCommands).del(staging.getValue());
+        verify(hashCommands, times(5)).hSet(eq(staging.getValue()), any(byte[].class), any(byte[].class));
+        assertEquals(5, written.size());
+
+        Map<byte[], byte[]> hash = new HashMap<>();
+        written.forEach((field, value) -> hash.put(field.getBytes(StandardCharsets.UTF_8), value));
+        when(hashCommands.hGetAll(KEY)).thenReturn(hash);
+        InMemoryFraudSignalStore restored = new InMemoryFraudSignalStore(properties);
+
+        checkpointer(restored).restore();
+
+        assertEquals(OptionalLong.of(100), restored.position(2));
+        assertEquals(store.signals(5L, now), restored.signals(5L, now));
+    }
+
+    @Test
+    void restore_NoCheckpoint_LeavesStoreEmpty() {
+        when(hashCommands.hGetAll(KEY)).thenReturn(Map.of());
+
+        checkpointer(store).restore();
+
+        assertEquals(0, store.walletCount());
+        assertTrue(store.position(0).isEmpty());
+    }
+
+    @Test
+    void restore_IncompleteCheckpoint_IsIgnored() {
+        FraudSignalStore.Checkpoint checkpoint = store.checkpoint(LocalDateTime.now());
+        Map<byte[], byte[]> hash = new HashMap<>(RedisFraudSignalCheckpointer.encode(checkpoint));
+        hash.keySet().removeIf(field -> new String(field, StandardCharsets.UTF_8).equals("shard:3"));
+        when(hashCommands.hGetAll(KEY)).thenReturn(hash);
+        FraudSignalStore restoring = mock(FraudSignalStore.class);
+
+        checkpointer(restoring).restore();
+
+        verify(restoring, never()).restore(any());
+    }
+
+    @Test
+    void checkpoint_TwoReplicas_StageUnderDifferentKeys() {
+        checkpointer(store).checkpoint();
+        checkpointer(store).checkpoint();
+
+        ArgumentCaptor<byte[]> staging = ArgumentCaptor.forClass(byte[].class);
+        verify(keyCommands, times(2)).rename(staging.capture(), eq(KEY));
+        assertFalse(Arrays.equals(staging.getAllValues().get(0), staging.getAllValues().get(1)));
+    }
+
+    @Test
+    void checkpoint_WriteFails_DeletesItsStagingKey() {
+        when(hashCommands.hSet(any(byte[].class), any(byte[].class), any(byte[].class)))
+                .thenThrow(new RedisConnectionFailureException("connection reset"));
+
+        assertDoesNotThrow(() -> checkpointer(store).checkpoint());
+
+        ArgumentCaptor<byte[]> staging = ArgumentCaptor.forClass(byte[].class);
+        verify(keyCommands, times(2)).del(staging.capture());
+        assertArrayEquals(staging.getAllValues().get(0), staging.getAllValues().get(1));
+        verify(keyCommands, never()).rename(any(byte[].class), any(byte[].class));
+    }
+
+    @Test
+    void checkpoint_RedisUnavailable_DoesNotThrow() {
+        when(stringRedisTemplate.execute(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        assertDoesNotThrow(() -> checkpointer(store).checkpoint());
+    }
+
+    @Test
+    void disabled_NeitherRestoresNorWrites() {
+        properties.setEnabled(false);
+
+        checkpointer(store).restore();
+        checkpointer(store).checkpoint();
+
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    private RedisFraudSignalCheckpointer checkpointer(FraudSignalStore store) {
+        return new RedisFraudSignalCheckpointer(store, properties, stringRedisTemplate, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,47 @@
+package com.shizzy.moneytransfer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedPermutationTest {
+
+    private static final byte[] KEY = "permutation-test-key".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void apply_MapsEveryValueOntoADistinctValueInTheDomain() {
+        // 100_003 needs 17 bits, so results past the domain have to be walked back into it
+        long domainSize = 100_003;
+        KeyedPermutation permutation = new KeyedPermutation(domainSize, KEY);
+
+        BitSet seen = new BitSet((int) domainSize);
+        for (long value = 0; value < domainSize; value++) {
+            long result = permutation.apply(value);
+            assertTrue(result >= 0 && result < domainSize, "outside domain: " + result);
+            assertFalse(seen.get((int) result), "two values map to " + result);
+            seen.set((int) result);
+        }
+        assertEquals(domainSize, seen.cardinality());
+    }
+
+    @Test
+    void apply_IsRepeatableForTheSameKey() {
+        KeyedPermutation permutation = new KeyedPermutation(80_000_000L, KEY);
+        KeyedPermutation sameKey = new KeyedPermutation(80_000_000L, KEY.clone());
+
+        for (long value = 0; value < 1_000; value++) {
+            assertEquals(permutation.apply(value), sameKey.apply(value));
+        }
+    }
+
+    @Test
+    void apply_RejectsValuesOutsideTheDomain() {
+        KeyedPermutation permutation = new KeyedPermutation(1_000, KEY);
+
+        assertThrows(IllegalArgumentException.class, () -> permutation.apply(-1));
+        assertThrows(IllegalArgumentException.class, () -> permutation.apply(1_000));
+    }
+}
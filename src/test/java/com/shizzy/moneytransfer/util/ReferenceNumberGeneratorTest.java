@@ -0,0 +1,128 @@
+package com.shizzy.moneytransfer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceNumberGeneratorTest {
+
+    private static final int NODES = 8;
+    private static final int THREADS_PER_NODE = 4;
+    private static final int IDS_PER_THREAD = 100_000;
+
+    @Test
+    void next_ReturnsSixteenBase36Characters() {
+        String reference = new ReferenceNumberGenerator(7).next();
+
+        assertEquals(ReferenceNumberGenerator.LENGTH, reference.length());
+        assertTrue(reference.matches("[0-9A-Z]{16}"));
+    }
+
+    @Test
+    void next_IsUniqueAcrossThreadsAndNodes() throws Exception {
+        // 3.2M references from 8 simulated nodes sharing one clock, 4 threads each
+        List<CompletableFuture<long[]>> workers = new ArrayList<>();
+        for (int node = 0; node < NODES; node++) {
+            ReferenceNumberGenerator generator = new ReferenceNumberGenerator(node);
+            int nodeId = node;
+            for (int t = 0; t < THREADS_PER_NODE; t++) {
+                workers.add(CompletableFuture.supplyAsync(() -> generate(generator, nodeId)));
+            }
+        }
+        CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).get(2, TimeUnit.MINUTES);
+
+        // The node id is part of every reference, so uniqueness only has to be checked within a node
+        for (int node = 0; node < NODES; node++) {
+            long[] states = new long[THREADS_PER_NODE * IDS_PER_THREAD];
+            for (int t = 0; t < THREADS_PER_NODE; t++) {
+                long[] generated = workers.get(node * THREADS_PER_NODE + t).get();
+                System.arraycopy(generated, 0, states, t * IDS_PER_THREAD, IDS_PER_THREAD);
+            }
+            Arrays.sort(states);
+            for (int i = 1; i < states.length; i++) {
+                assertNotEquals(states[i - 1], states[i], "duplicate reference on node " + node);
+            }
+        }
+    }
+
+    @Test
+    void next_IsOrderedWhenClockStepsBackwards() {
+        AtomicLong clock = new AtomicLong(ReferenceNumberGenerator.EPOCH_MILLIS + 1_000_000);
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(3, clock::get);
+
+        String first = generator.next();
+        clock.addAndGet(-5_000);
+        String second = generator.next();
+        clock.addAndGet(10_000);
+        String third = generator.next();
+
+        assertTrue(first.compareTo(second) < 0);
+        assertTrue(second.compareTo(third) < 0);
+    }
+
+    @Test
+    void next_SortsByTimeAcrossNodes() {
+        AtomicLong clock = new AtomicLong(ReferenceNumberGenerator.EPOCH_MILLIS + 1_000_000);
+        ReferenceNumberGenerator highNode = new ReferenceNumberGenerator(ReferenceNumberGenerator.MAX_NODE_ID, clock::get);
+        ReferenceNumberGenerator lowNode = new ReferenceNumberGenerator(0, clock::get);
+
+        String earlier = highNode.next();
+        clock.incrementAndGet();
+        String later = lowNode.next();
+
+        assertTrue(earlier.compareTo(later) < 0);
+    }
+
+    @Test
+    void resumeAfter_ContinuesPastThePreviousRunAfterTheClockStepsBack() {
+        AtomicLong clock = new AtomicLong(ReferenceNumberGenerator.EPOCH_MILLIS + 1_000_000);
+        ReferenceNumberGenerator previousRun = new ReferenceNumberGenerator(3, clock::get);
+        String lastOfPreviousRun = previousRun.next();
+
+        clock.addAndGet(-5_000);
+        ReferenceNumberGenerator restarted = new ReferenceNumberGenerator(3, clock::get);
+        restarted.resumeAfter(previousRun.lastIssuedMillis());
+
+        assertTrue(lastOfPreviousRun.compareTo(restarted.next()) < 0);
+        assertEquals(clock.get() + 5_001, restarted.lastIssuedMillis());
+    }
+
+    @Test
+    void resumeAfter_NeverMovesTheGeneratorBack() {
+        AtomicLong clock = new AtomicLong(ReferenceNumberGenerator.EPOCH_MILLIS + 1_000_000);
+        ReferenceNumberGenerator generator = new ReferenceNumberGenerator(3, clock::get);
+        String first = generator.next();
+
+        generator.resumeAfter(clock.get() - 60_000);
+
+        assertTrue(first.compareTo(generator.next()) < 0);
+    }
+
+    @Test
+    void constructor_RejectsOutOfRangeNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new ReferenceNumberGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ReferenceNumberGenerator(ReferenceNumberGenerator.MAX_NODE_ID + 1));
+    }
+
+    private static long[] generate(ReferenceNumberGenerator generator, int nodeId) {
+        long[] states = new long[IDS_PER_THREAD];
+        for (int i = 0; i < IDS_PER_THREAD; i++) {
+            String reference = generator.next();
+            long millis = Long.parseLong(reference.substring(0, 9), 36);
+            long nodeAndSequence = Long.parseLong(reference.substring(9), 36);
+            if (nodeAndSequence >>> 22 != nodeId) {
+                throw new IllegalStateException("reference " + reference + " does not carry node " + nodeId);
+            }
+            states[i] = (millis << 22) | (nodeAndSequence & ((1L << 22) - 1));
+        }
+        return states;
+    }
+}